@@ -0,0 +1,194 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+
+
+/**
+ * Recherche A* point à point : comme Dijkstra, mais chaque sommet est classé par
+ * (distance depuis le départ + estimation de la distance restante). Avec une
+ * bonne estimation, la recherche file vers la destination au lieu de s'étendre
+ * en cercle et visite beaucoup moins de sommets.
+ *
+ * L'estimation est donnée par une Heuristique : HeuristiqueEuclidienne (vol
+ * d'oiseau, il faut les coordonnées des sommets) ou HeuristiqueALT (repères
+ * précalculés, marche sans coordonnées).
+ */
+public class AEtoile {
+
+    /**
+     * Minorant de la distance restante jusqu'aux cibles. Il doit être "cohérent" :
+     * estimer(u) <= poids(u, v) + estimer(v) pour chaque arc, sinon le résultat
+     * n'est plus forcément le plus court chemin.
+     */
+    public interface Heuristique {
+        // Cibles de la requête, chacune avec une distance à ajouter une fois arrivé (détour sur la rue)
+        void preparer(int[] cibles, double[] decalages, int nbCibles);
+
+        double estimer(int sommet);
+    }
+
+    private final Graphe graphe;
+    private final Heuristique heuristique;
+
+    private double[] distances = new double[0];
+    private int[] predecesseurs = new int[0];
+    private boolean[] visites = new boolean[0];
+    private final TasIndexe filePriorite;
+
+    // Sommets touchés pendant la requête : on ne remet à zéro qu'eux
+    private int[] touches = new int[0];
+    private boolean[] estTouche = new boolean[0];
+    private int nbTouches;
+
+    // Cibles de la requête et meilleure arrivée trouvée
+    private final int[] cibles = new int[2];
+    private final double[] decalages = new double[2];
+    private int nbCibles;
+    private double meilleureDistance;
+    private int meilleureCible;
+    private int nbSommetsVisites;
+
+    private int sommetCourant;
+    private final Graphe.VisiteurArc relaxation = this::relaxer;
+
+    public AEtoile(Graphe graphe, Heuristique heuristique) {
+        this.graphe = graphe;
+        this.heuristique = heuristique;
+        this.filePriorite = new TasIndexe(graphe.getNbSommets());
+    }
+
+    public ResultatChemin calculer(Sommet depart, Sommet destination) {
+        nbCibles = 0;
+        ajouterCible(destination, 0.0);
+        return rechercher(depart);
+    }
+
+    public ResultatChemin getCheminVersHabitation(Sommet depart, Habitation destination) {
+        Arete areteDestination = destination.getArete();
+        Sommet sommet1 = areteDestination.getSommet1();
+        Sommet sommet2 = areteDestination.getSommet2();
+        nbCibles = 0;
+        ajouterCible(sommet1, destination.getDistanceDepuisSommet(sommet1));
+        ajouterCible(sommet2, destination.getDistanceDepuisSommet(sommet2));
+        return rechercher(depart);
+    }
+
+    // Nombre de sommets visités par la dernière requête
+    public int getNbSommetsVisites() {
+        return nbSommetsVisites;
+    }
+
+    private void ajouterCible(Sommet sommet, double decalage) {
+        int indice = graphe.getIndice(sommet);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + sommet);
+        }
+        cibles[nbCibles] = indice;
+        decalages[nbCibles] = decalage;
+        nbCibles++;
+    }
+
+    private ResultatChemin rechercher(Sommet depart) {
+        int source = graphe.getIndice(depart);
+        if (source < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + depart);
+        }
+        preparer();
+        heuristique.preparer(cibles, decalages, nbCibles);
+
+        toucher(source);
+        distances[source] = 0.0;
+        verifierCible(source);
+        filePriorite.inserer(source, heuristique.estimer(source));
+
+        while (!filePriorite.estVide()) {
+            // La clé est un minorant de tout chemin passant par ce sommet :
+            // si elle dépasse la meilleure arrivée, c'est fini
+            if (filePriorite.cleMin() >= meilleureDistance) {
+                break;
+            }
+            sommetCourant = filePriorite.extraireMin();
+            visites[sommetCourant] = true;
+            nbSommetsVisites++;
+            graphe.parcourirSuccesseurs(sommetCourant, relaxation);
+        }
+
+        return construireResultat();
+    }
+
+    private void relaxer(int v, Arete arete, double poids) {
+        if (visites[v]) return;
+
+        double nouvelleDistance = distances[sommetCourant] + poids;
+        if (nouvelleDistance < distances[v]) {
+            double estimation = heuristique.estimer(v);
+            if (estimation == Double.POSITIVE_INFINITY) {
+                return; // les cibles sont inaccessibles depuis v
+            }
+            toucher(v);
+            distances[v] = nouvelleDistance;
+            predecesseurs[v] = sommetCourant;
+            verifierCible(v);
+            filePriorite.insererOuDiminuer(v, nouvelleDistance + estimation);
+        }
+    }
+
+    private void verifierCible(int sommet) {
+        for (int i = 0; i < nbCibles; i++) {
+            if (cibles[i] == sommet && distances[sommet] + decalages[i] < meilleureDistance) {
+                meilleureDistance = distances[sommet] + decalages[i];
+                meilleureCible = sommet;
+            }
+        }
+    }
+
+    private void preparer() {
+        int n = graphe.getNbSommets();
+        if (estTouche.length != n) {
+            distances = new double[n];
+            predecesseurs = new int[n];
+            visites = new boolean[n];
+            touches = new int[n];
+            estTouche = new boolean[n];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(predecesseurs, -1);
+            filePriorite.assurerCapacite(n);
+            nbTouches = 0;
+        }
+        for (int i = 0; i < nbTouches; i++) {
+            int v = touches[i];
+            estTouche[v] = false;
+            distances[v] = Double.POSITIVE_INFINITY;
+            predecesseurs[v] = -1;
+            visites[v] = false;
+        }
+        nbTouches = 0;
+        filePriorite.vider();
+
+        meilleureDistance = Double.POSITIVE_INFINITY;
+        meilleureCible = -1;
+        nbSommetsVisites = 0;
+    }
+
+    private void toucher(int sommet) {
+        if (!estTouche[sommet]) {
+            estTouche[sommet] = true;
+            touches[nbTouches++] = sommet;
+        }
+    }
+
+    private ResultatChemin construireResultat() {
+        if (meilleureCible < 0) {
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+        List<Sommet> chemin = new ArrayList<>();
+        for (int v = meilleureCible; v >= 0; v = predecesseurs[v]) {
+            chemin.add(graphe.getSommet(v));
+        }
+        Collections.reverse(chemin);
+        return new ResultatChemin(chemin, meilleureDistance, graphe.getSommet(meilleureCible));
+    }
+}
@@ -0,0 +1,178 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+
+
+/**
+ * Arbre des plus courts chemins depuis une source, figé à une version du graphe.
+ *
+ * Seulement trois tableaux indexés par le numéro du sommet (distance, prédécesseur,
+ * arête empruntée) : on peut en garder plusieurs en mémoire et répondre à toutes
+ * les requêtes depuis cette source sans relancer Dijkstra.
+ */
+public final class ArbreChemins {
+
+    private final Graphe graphe;
+    private final int source;
+    private final long version;
+
+    private final double[] distances;
+    private final int[] predecesseurs;          // -1 pour la source et les sommets inaccessibles
+    private final Arete[] aretesPredecesseurs;
+
+    ArbreChemins(Graphe graphe, int source, long version, double[] distances, int[] predecesseurs,
+                 Arete[] aretesPredecesseurs) {
+        this.graphe = graphe;
+        this.source = source;
+        this.version = version;
+        this.distances = distances;
+        this.predecesseurs = predecesseurs;
+        this.aretesPredecesseurs = aretesPredecesseurs;
+    }
+
+    public Sommet getSource() { return graphe.getSommet(source); }
+    public long getVersion() { return version; }
+
+    // Faux dès que le graphe a été modifié depuis le calcul de l'arbre
+    public boolean estAJour() {
+        return graphe.getVersion() == version;
+    }
+
+    public double getDistance(Sommet destination) {
+        int indice = graphe.getIndice(destination);
+        return (indice < 0 || indice >= distances.length) ? Double.POSITIVE_INFINITY : distances[indice];
+    }
+
+    public boolean estAccessible(Sommet destination) {
+        return getDistance(destination) < Double.POSITIVE_INFINITY;
+    }
+
+    public List<Sommet> getChemin(Sommet destination) {
+        List<Sommet> chemin = new ArrayList<>();
+        if (!estAccessible(destination)) {
+            return chemin;
+        }
+        for (int courant = graphe.getIndice(destination); courant >= 0; courant = predecesseurs[courant]) {
+            chemin.add(graphe.getSommet(courant));
+        }
+        Collections.reverse(chemin);
+        return chemin;
+    }
+
+    public List<Arete> getAretesChemins(Sommet destination) {
+        List<Arete> aretes = new ArrayList<>();
+        if (!estAccessible(destination)) {
+            return aretes;
+        }
+        for (int courant = graphe.getIndice(destination); predecesseurs[courant] >= 0; courant = predecesseurs[courant]) {
+            aretes.add(aretesPredecesseurs[courant]);
+        }
+        Collections.reverse(aretes);
+        return aretes;
+    }
+
+    // Même sémantique que Dijkstra.getCheminVersHabitation
+    public ResultatChemin getCheminVersHabitation(Habitation destination) {
+        Arete areteDestination = destination.getArete();
+        Sommet sommet1 = areteDestination.getSommet1();
+        Sommet sommet2 = areteDestination.getSommet2();
+
+        double dist1 = getDistance(sommet1) + destination.getDistanceDepuisSommet(sommet1);
+        double dist2 = getDistance(sommet2) + destination.getDistanceDepuisSommet(sommet2);
+
+        if (dist1 == Double.POSITIVE_INFINITY && dist2 == Double.POSITIVE_INFINITY) {
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+        if (dist1 <= dist2) {
+            return new ResultatChemin(getChemin(sommet1), dist1, sommet1);
+        } else {
+            return new ResultatChemin(getChemin(sommet2), dist2, sommet2);
+        }
+    }
+
+    // Même chose pour toute une liste d'habitations (résultats dans le même ordre).
+    // Au lieu de remonter l'arbre une fois par habitation, on marque les branches qui
+    // mènent aux intersections d'arrivée, puis un seul parcours en profondeur depuis la
+    // source relève le chemin de chacune. Les habitations qui arrivent par la même
+    // intersection partagent la même liste (non modifiable).
+    public List<ResultatChemin> getCheminsVersHabitations(List<Habitation> destinations) {
+        int n = distances.length;
+        int[] arrivees = new int[destinations.size()];
+        double[] distancesTotales = new double[destinations.size()];
+        int[] rang = new int[n];            // rang de l'intersection parmi les arrivées, ou -1
+        Arrays.fill(rang, -1);
+        boolean[] marque = new boolean[n];
+        int[] premierEnfant = new int[n];
+        Arrays.fill(premierEnfant, -1);
+        int[] frereSuivant = new int[n];
+        int nbArrivees = 0;
+        int nbMarques = 0;
+
+        for (int k = 0; k < arrivees.length; k++) {
+            Arete arete = destinations.get(k).getArete();
+            Sommet sommet1 = arete.getSommet1();
+            Sommet sommet2 = arete.getSommet2();
+            double dist1 = getDistance(sommet1) + destinations.get(k).getDistanceDepuisSommet(sommet1);
+            double dist2 = getDistance(sommet2) + destinations.get(k).getDistanceDepuisSommet(sommet2);
+            if (dist1 == Double.POSITIVE_INFINITY && dist2 == Double.POSITIVE_INFINITY) {
+                arrivees[k] = -1;
+                distancesTotales[k] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+            int arrivee = graphe.getIndice(dist1 <= dist2 ? sommet1 : sommet2);
+            arrivees[k] = arrivee;
+            distancesTotales[k] = Math.min(dist1, dist2);
+            if (rang[arrivee] < 0) rang[arrivee] = nbArrivees++;
+
+            // On remonte jusqu'à une branche déjà marquée (ou jusqu'à la source)
+            for (int v = arrivee; !marque[v]; ) {
+                marque[v] = true;
+                nbMarques++;
+                int p = predecesseurs[v];
+                if (p < 0) break;
+                frereSuivant[v] = premierEnfant[p];
+                premierEnfant[p] = v;
+                v = p;
+            }
+        }
+
+        // Parcours en profondeur des branches marquées, avec le chemin courant en pile
+        List<List<Sommet>> chemins = new ArrayList<>(Collections.nCopies(nbArrivees, null));
+        if (nbArrivees > 0) {
+            Sommet[] chemin = new Sommet[nbMarques];
+            int[] pile = new int[nbMarques];
+            int[] profondeurs = new int[nbMarques];
+            int sommetPile = 0;
+            pile[sommetPile] = source;
+            profondeurs[sommetPile++] = 0;
+            while (sommetPile > 0) {
+                int v = pile[--sommetPile];
+                int profondeur = profondeurs[sommetPile];
+                chemin[profondeur] = graphe.getSommet(v);
+                if (rang[v] >= 0) {
+                    chemins.set(rang[v], Collections.unmodifiableList(
+                            Arrays.asList(Arrays.copyOf(chemin, profondeur + 1))));
+                }
+                for (int enfant = premierEnfant[v]; enfant >= 0; enfant = frereSuivant[enfant]) {
+                    pile[sommetPile] = enfant;
+                    profondeurs[sommetPile++] = profondeur + 1;
+                }
+            }
+        }
+
+        List<ResultatChemin> resultats = new ArrayList<>(arrivees.length);
+        for (int k = 0; k < arrivees.length; k++) {
+            int arrivee = arrivees[k];
+            if (arrivee < 0) {
+                resultats.add(new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null));
+            } else {
+                resultats.add(new ResultatChemin(chemins.get(rang[arrivee]), distancesTotales[k],
+                        graphe.getSommet(arrivee)));
+            }
+        }
+        return resultats;
+    }
+}
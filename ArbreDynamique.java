@@ -0,0 +1,253 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+
+
+/**
+ * Arbre des plus courts chemins depuis un dépôt, tenu à jour quand des rues changent
+ * (travaux : poids qui augmente, rue fermée dans un sens, nouvelle rue...).
+ *
+ * On modifie les arêtes avec leurs setters, puis on appelle mettreAJour avec la liste
+ * des arêtes modifiées. Seule la partie concernée de l'arbre est recalculée :
+ *  - une arête de l'arbre qui devient plus longue (ou interdite dans son sens) : tout
+ *    le sous-arbre en dessous perd sa distance, et chaque sommet de ce sous-arbre
+ *    repart de son meilleur voisin resté correct ;
+ *  - une arête qui devient plus courte (ou autorisée dans un nouveau sens) : son
+ *    extrémité d'arrivée est améliorée si c'est utile.
+ * Puis un Dijkstra ne propage que les distances qui ont changé. Le travail est donc
+ * proportionnel à la zone touchée, pas à la taille du graphe.
+ *
+ * Comme Dijkstra, un objet ne doit être utilisé que par un thread à la fois.
+ */
+public class ArbreDynamique {
+
+    private final Graphe graphe;
+    private final Sommet source;
+
+    private double[] distances;
+    private int[] predecesseurs;            // -1 pour la source et les sommets inaccessibles
+    private Arete[] aretesPredecesseurs;
+    private double[] poidsArbre;            // poids de l'arête de l'arbre au moment où on l'a choisie
+    private TasIndexe filePriorite;
+
+    // Sommets du sous-arbre à recalculer
+    private boolean[] affecte;
+    private int[] affectes;
+    private int nbAffectes;
+
+    private long version;
+    private int nbSommetsTraites;
+
+    private int sommetCourant;
+    private final Graphe.VisiteurArc relaxation = this::relaxer;
+
+    public ArbreDynamique(Graphe graphe, Sommet source) {
+        if (graphe.getIndice(source) < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + source);
+        }
+        this.graphe = graphe;
+        this.source = source;
+        this.filePriorite = new TasIndexe(graphe.getNbSommets());
+        recalculer();
+    }
+
+    public Sommet getSource() { return source; }
+
+    // Vrai si le graphe n'a pas changé depuis le dernier calcul ou la dernière mise à jour
+    public boolean estAJour() {
+        return graphe.getVersion() == version;
+    }
+
+    // Nombre de sommets sortis de la file lors du dernier calcul (mesure du travail fait)
+    public int getNbSommetsTraites() {
+        return nbSommetsTraites;
+    }
+
+    // Calcul complet (Dijkstra depuis la source)
+    public void recalculer() {
+        int n = graphe.getNbSommets();
+        distances = new double[n];
+        predecesseurs = new int[n];
+        aretesPredecesseurs = new Arete[n];
+        poidsArbre = new double[n];
+        affecte = new boolean[n];
+        affectes = new int[n];
+        filePriorite.assurerCapacite(n);
+        filePriorite.vider();
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecesseurs, -1);
+
+        int s = graphe.getIndice(source);
+        distances[s] = 0.0;
+        filePriorite.inserer(s, 0.0);
+        propager();
+        version = graphe.getVersion();
+    }
+
+    // À appeler après avoir modifié (setPoids, setBidirectionnelle) ou ajouté les arêtes données
+    public void mettreAJour(Collection<Arete> aretesModifiees) {
+        if (graphe.getNbSommets() != distances.length) {
+            // Nouveaux sommets : plus simple de tout recalculer
+            recalculer();
+            return;
+        }
+
+        // 1. Sous-arbres sous une arête de l'arbre devenue plus longue ou interdite
+        nbAffectes = 0;
+        for (Arete arete : aretesModifiees) {
+            int i1 = graphe.getIndice(arete.getSommet1());
+            int i2 = graphe.getIndice(arete.getSommet2());
+            if (i1 < 0 || i2 < 0) continue;
+            if (estPlusMauvaise(arete, i1, i2)) marquerSousArbre(i2);
+            if (estPlusMauvaise(arete, i2, i1)) marquerSousArbre(i1);
+        }
+
+        // 2. Les sommets affectés repartent de leur meilleur voisin non affecté
+        for (int i = 0; i < nbAffectes; i++) {
+            int x = affectes[i];
+            distances[x] = Double.POSITIVE_INFINITY;
+            predecesseurs[x] = -1;
+            aretesPredecesseurs[x] = null;
+        }
+        filePriorite.vider();
+        for (int i = 0; i < nbAffectes; i++) {
+            int x = affectes[i];
+            graphe.parcourirPredecesseurs(x, (y, arete, poids) -> {
+                if (!affecte[y]) ameliorer(y, x, arete, poids);
+            });
+        }
+        for (int i = 0; i < nbAffectes; i++) {
+            affecte[affectes[i]] = false;
+        }
+
+        // 3. Arêtes devenues plus courtes ou autorisées dans un nouveau sens
+        for (Arete arete : aretesModifiees) {
+            int i1 = graphe.getIndice(arete.getSommet1());
+            int i2 = graphe.getIndice(arete.getSommet2());
+            if (i1 < 0 || i2 < 0) continue;
+            ameliorer(i1, i2, arete, arete.getPoids());
+            if (arete.isBidirectionnelle()) ameliorer(i2, i1, arete, arete.getPoids());
+        }
+
+        // 4. Propagation des distances qui ont changé
+        propager();
+        version = graphe.getVersion();
+    }
+
+    // L'arête de l'arbre qui arrive sur "vers" depuis "depuis" a-t-elle empiré ?
+    private boolean estPlusMauvaise(Arete arete, int depuis, int vers) {
+        if (predecesseurs[vers] != depuis || aretesPredecesseurs[vers] != arete) {
+            return false;
+        }
+        boolean autorisee = (graphe.getIndice(arete.getSommet1()) == depuis) || arete.isBidirectionnelle();
+        return !autorisee || arete.getPoids() > poidsArbre[vers];
+    }
+
+    // Marque le sommet et tous ses descendants dans l'arbre (parcours en largeur, sans récursion)
+    private void marquerSousArbre(int racine) {
+        if (affecte[racine]) return;
+        int debut = nbAffectes;
+        affecte[racine] = true;
+        affectes[nbAffectes++] = racine;
+        // affectes[debut..nbAffectes) sert aussi de file des sommets dont on cherche les enfants
+        for (int i = debut; i < nbAffectes; i++) {
+            int parent = affectes[i];
+            Graphe.VisiteurArc enfants = (y, arete, poids) -> {
+                if (!affecte[y] && predecesseurs[y] == parent && aretesPredecesseurs[y] == arete) {
+                    affecte[y] = true;
+                    affectes[nbAffectes++] = y;
+                }
+            };
+            // Dans les deux sens : l'arête de l'arbre peut ne plus être autorisée
+            graphe.parcourirSuccesseurs(parent, enfants);
+            graphe.parcourirPredecesseurs(parent, enfants);
+        }
+    }
+
+    private void ameliorer(int depuis, int vers, Arete arete, double poids) {
+        double nouvelleDistance = distances[depuis] + poids;
+        if (nouvelleDistance < distances[vers]) {
+            distances[vers] = nouvelleDistance;
+            predecesseurs[vers] = depuis;
+            aretesPredecesseurs[vers] = arete;
+            poidsArbre[vers] = poids;
+            filePriorite.insererOuDiminuer(vers, nouvelleDistance);
+        }
+    }
+
+    private void propager() {
+        nbSommetsTraites = 0;
+        while (!filePriorite.estVide()) {
+            sommetCourant = filePriorite.extraireMin();
+            nbSommetsTraites++;
+            graphe.parcourirSuccesseurs(sommetCourant, relaxation);
+        }
+    }
+
+    private void relaxer(int v, Arete arete, double poids) {
+        ameliorer(sommetCourant, v, arete, poids);
+    }
+
+
+    // Résultats (mêmes méthodes que Dijkstra)
+
+    public double getDistance(Sommet destination) {
+        int indice = graphe.getIndice(destination);
+        return (indice < 0 || indice >= distances.length) ? Double.POSITIVE_INFINITY : distances[indice];
+    }
+
+    public boolean estAccessible(Sommet destination) {
+        return getDistance(destination) < Double.POSITIVE_INFINITY;
+    }
+
+    public List<Sommet> getChemin(Sommet destination) {
+        List<Sommet> chemin = new ArrayList<>();
+        if (!estAccessible(destination)) {
+            return chemin;
+        }
+        for (int courant = graphe.getIndice(destination); courant >= 0; courant = predecesseurs[courant]) {
+            chemin.add(graphe.getSommet(courant));
+        }
+        Collections.reverse(chemin);
+        return chemin;
+    }
+
+    public List<Arete> getAretesChemins(Sommet destination) {
+        List<Arete> aretes = new ArrayList<>();
+        if (!estAccessible(destination)) {
+            return aretes;
+        }
+        for (int courant = graphe.getIndice(destination); predecesseurs[courant] >= 0; courant = predecesseurs[courant]) {
+            aretes.add(aretesPredecesseurs[courant]);
+        }
+        Collections.reverse(aretes);
+        return aretes;
+    }
+
+    // Copie de l'état actuel (par exemple pour la donner à d'autres threads)
+    public ArbreChemins getArbre() {
+        return new ArbreChemins(graphe, graphe.getIndice(source), version, distances.clone(),
+                predecesseurs.clone(), aretesPredecesseurs.clone());
+    }
+
+    public ResultatChemin getCheminVersHabitation(Habitation destination) {
+        Arete areteDestination = destination.getArete();
+        Sommet sommet1 = areteDestination.getSommet1();
+        Sommet sommet2 = areteDestination.getSommet2();
+
+        double dist1 = getDistance(sommet1) + destination.getDistanceDepuisSommet(sommet1);
+        double dist2 = getDistance(sommet2) + destination.getDistanceDepuisSommet(sommet2);
+
+        if (dist1 == Double.POSITIVE_INFINITY && dist2 == Double.POSITIVE_INFINITY) {
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+        if (dist1 <= dist2) {
+            return new ResultatChemin(getChemin(sommet1), dist1, sommet1);
+        } else {
+            return new ResultatChemin(getChemin(sommet2), dist2, sommet2);
+        }
+    }
+}
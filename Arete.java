@@ -9,6 +9,7 @@ public class Arete {
     private String nom;
     private boolean bidirectionnelle; // sens unique ou pas??
     private int nbVoies; // ramassage en une fois ou deux ?
+    private Graphe graphe; // graphe qui contient l'arête (prévenu quand le poids ou le sens change)
 
     public Arete(Sommet sommet1, Sommet sommet2, double poids, String nom,
                  boolean bidirectionnelle, int nbVoies) {
@@ -47,13 +48,29 @@ public class Arete {
     }
 
     // Setters pour modifier
-    public void setPoids(double poids) { this.poids = poids; }
+    public void setPoids(double poids) {
+        this.poids = poids;
+        modifiee();
+    }
     public void setNom(String nom) { this.nom = nom; }
     public void setBidirectionnelle(boolean bidirectionnelle) {
         this.bidirectionnelle = bidirectionnelle;
+        modifiee();
     }
     public void setNbVoies(int nbVoies) { this.nbVoies = nbVoies; }
 
+    private void modifiee() {
+        if (graphe != null) graphe.incrementerVersion();
+    }
+
+    // Une arête n'appartient qu'à un seul graphe
+    void rattacher(Graphe graphe) {
+        if (this.graphe != null && this.graphe != graphe) {
+            throw new IllegalArgumentException("L'arête appartient déjà à un autre graphe : " + this);
+        }
+        this.graphe = graphe;
+    }
+
 
     public boolean peutAllerDe(Sommet depart, Sommet arrivee) {
         if (depart.equals(sommet1) && arrivee.equals(sommet2)) {
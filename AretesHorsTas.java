@@ -0,0 +1,205 @@
+package modele.graphe;
+
+import java.nio.*;
+import java.util.*;
+
+
+/**
+ * Arêtes rangées hors du tas Java, pour les très grands réseaux (des dizaines de
+ * millions de rues) : pas d'objet Arete par rue, donc rien à parcourir pour le GC.
+ *
+ * Une colonne par attribut (extrémités, poids, numéro de nom, drapeaux comme dans
+ * GrapheFige), dans des ByteBuffer directs découpés en morceaux de TAILLE_MORCEAU
+ * arêtes : un morceau contient les colonnes de ses arêtes l'une après l'autre. On
+ * ajoute à la fin seulement, et plus rien une fois figer() appelé (GrapheFige le fait :
+ * ses arcs recopient les poids, la structure doit donc rester telle quelle).
+ * Les noms de rues sont dédoublonnés (une rue coupée en 50 tronçons n'a qu'un nom),
+ * dans un DictionnaireSommets qui sert ici de dictionnaire de noms.
+ *
+ * La mémoire d'un ByteBuffer direct est rendue quand le buffer n'est plus référencé,
+ * comme pour un tableau : on garde la structure tant que le graphe sert.
+ * Lecture depuis plusieurs threads possible une fois le remplissage fini.
+ */
+public final class AretesHorsTas {
+
+    // Drapeaux (mêmes bits que GrapheFige) : bit 0 = bidirectionnelle, bits 1 à 7 = nbVoies
+    private static final int BIDIRECTIONNELLE = 1;
+    private static final int MAX_VOIES = 127;
+
+    private static final int BITS_MORCEAU = 20;
+    private static final int TAILLE_MORCEAU = 1 << BITS_MORCEAU;
+    private static final int MASQUE = TAILLE_MORCEAU - 1;
+
+    // Position des colonnes dans un morceau
+    private static final int COLONNE_EXTREMITE1 = 0;
+    private static final int COLONNE_EXTREMITE2 = COLONNE_EXTREMITE1 + 4 * TAILLE_MORCEAU;
+    private static final int COLONNE_POIDS = COLONNE_EXTREMITE2 + 4 * TAILLE_MORCEAU;
+    private static final int COLONNE_NOM = COLONNE_POIDS + 8 * TAILLE_MORCEAU;
+    private static final int COLONNE_DRAPEAUX = COLONNE_NOM + 4 * TAILLE_MORCEAU;
+    private static final int OCTETS_PAR_ARETE = 21;
+
+    private ByteBuffer[] morceaux = new ByteBuffer[4];
+    private int nbMorceaux;
+    private int nb;
+    private final DictionnaireSommets noms = new DictionnaireSommets();
+    private boolean fige;
+
+    public int getNbAretes() { return nb; }
+
+    // Plus aucun ajout possible ensuite
+    public void figer() { fige = true; }
+    public boolean estFige() { return fige; }
+
+    // Mémoire occupée hors du tas (morceaux alloués)
+    public long getOctetsHorsTas() {
+        long total = 0;
+        for (int k = 0; k < nbMorceaux; k++) total += morceaux[k].capacity();
+        return total;
+    }
+
+    // Numéro d'un nom de rue (ajouté s'il est nouveau)
+    public int ajouterNom(String nom) {
+        verifierNonFige();
+        return noms.ajouter((nom != null) ? nom : "");
+    }
+
+    public int getNbNoms() { return noms.taille(); }
+
+    public int ajouter(int extremite1, int extremite2, double poids, String nom, boolean bidirectionnelle, int nbVoies) {
+        return ajouter(extremite1, extremite2, poids, ajouterNom(nom), bidirectionnelle, nbVoies);
+    }
+
+    // Ajout avec un nom déjà numéroté par ajouterNom (chargement en masse)
+    public int ajouter(int extremite1, int extremite2, double poids, int numeroNom, boolean bidirectionnelle, int nbVoies) {
+        verifierNonFige();
+        if (extremite1 < 0 || extremite2 < 0) {
+            throw new IllegalArgumentException("Numéros de sommets invalides : " + extremite1 + ", " + extremite2);
+        }
+        if (extremite1 == extremite2) {
+            throw new IllegalArgumentException("Pas de boucle (graphe simple)");
+        }
+        if (!(poids >= 0)) {
+            throw new IllegalArgumentException("Le poids doit être >= 0");
+        }
+        if (nbVoies < 0 || nbVoies > MAX_VOIES) {
+            throw new IllegalArgumentException("Nombre de voies non supporté : " + nbVoies);
+        }
+        if (numeroNom < 0 || numeroNom >= noms.taille()) {
+            throw new IllegalArgumentException("Numéro de nom inconnu : " + numeroNom);
+        }
+        if (nb == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Trop d'arêtes");
+        }
+        if ((nb & MASQUE) == 0 && (nb >>> BITS_MORCEAU) == nbMorceaux) {
+            if (nbMorceaux == morceaux.length) morceaux = Arrays.copyOf(morceaux, 2 * nbMorceaux);
+            morceaux[nbMorceaux++] = ByteBuffer.allocateDirect(OCTETS_PAR_ARETE * TAILLE_MORCEAU)
+                    .order(ByteOrder.nativeOrder());
+        }
+        int e = nb++;
+        ByteBuffer morceau = morceaux[e >>> BITS_MORCEAU];
+        int i = e & MASQUE;
+        morceau.putInt(COLONNE_EXTREMITE1 + 4 * i, extremite1);
+        morceau.putInt(COLONNE_EXTREMITE2 + 4 * i, extremite2);
+        morceau.putDouble(COLONNE_POIDS + 8 * i, poids);
+        morceau.putInt(COLONNE_NOM + 4 * i, numeroNom);
+        morceau.put(COLONNE_DRAPEAUX + i, (byte) ((nbVoies << 1) | (bidirectionnelle ? BIDIRECTIONNELLE : 0)));
+        return e;
+    }
+
+    private void verifierNonFige() {
+        if (fige) {
+            throw new IllegalStateException("Arêtes figées : plus d'ajout possible");
+        }
+    }
+
+    // Lecture par numéro d'arête
+
+    public int getExtremite1(int e) { return morceau(e).getInt(COLONNE_EXTREMITE1 + 4 * (e & MASQUE)); }
+    public int getExtremite2(int e) { return morceau(e).getInt(COLONNE_EXTREMITE2 + 4 * (e & MASQUE)); }
+    public double getPoids(int e) { return morceau(e).getDouble(COLONNE_POIDS + 8 * (e & MASQUE)); }
+    public int getNumeroNom(int e) { return morceau(e).getInt(COLONNE_NOM + 4 * (e & MASQUE)); }
+    public String getNom(int e) { return noms.getId(getNumeroNom(e)); }
+
+    public boolean estBidirectionnelle(int e) {
+        return (drapeaux(e) & BIDIRECTIONNELLE) != 0;
+    }
+
+    public int getNbVoies(int e) {
+        return (drapeaux(e) & 0xFF) >>> 1;
+    }
+
+    private byte drapeaux(int e) {
+        return morceau(e).get(COLONNE_DRAPEAUX + (e & MASQUE));
+    }
+
+    private ByteBuffer morceau(int e) {
+        if (e < 0 || e >= nb) {
+            throw new IndexOutOfBoundsException("Numéro d'arête invalide : " + e);
+        }
+        return morceaux[e >>> BITS_MORCEAU];
+    }
+
+    // Vraie Arete (copie détachée, à la sortie de l'API) avec les sommets donnés par numéro
+    public Arete versArete(int e, Sommet[] sommets) {
+        return new Arete(sommets[getExtremite1(e)], sommets[getExtremite2(e)], getPoids(e), getNom(e),
+                estBidirectionnelle(e), getNbVoies(e));
+    }
+
+    public VueArete vue() {
+        return new VueArete();
+    }
+
+
+    // Curseur réutilisable sur une arête (poids mouche) : placer(e) puis les mêmes
+    // questions qu'à une Arete, sans créer d'objet par arête parcourue. Un curseur par
+    // thread.
+    public final class VueArete {
+        private int numero = -1;
+
+        private VueArete() {
+        }
+
+        public VueArete placer(int e) {
+            if (e < 0 || e >= nb) {
+                throw new IndexOutOfBoundsException("Numéro d'arête invalide : " + e);
+            }
+            numero = e;
+            return this;
+        }
+
+        public int getNumero() { return numero; }
+        public int getExtremite1() { return AretesHorsTas.this.getExtremite1(numero); }
+        public int getExtremite2() { return AretesHorsTas.this.getExtremite2(numero); }
+        public double getPoids() { return AretesHorsTas.this.getPoids(numero); }
+        public String getNom() { return AretesHorsTas.this.getNom(numero); }
+        public boolean isBidirectionnelle() { return estBidirectionnelle(numero); }
+        public int getNbVoies() { return AretesHorsTas.this.getNbVoies(numero); }
+
+        public boolean ramassageCompletEnUnPassage() {
+            return isBidirectionnelle() && getNbVoies() == 1;
+        }
+
+        public boolean peutAllerDe(int depart, int arrivee) {
+            int s1 = getExtremite1(), s2 = getExtremite2();
+            if (depart == s1 && arrivee == s2) return true;
+            return depart == s2 && arrivee == s1 && isBidirectionnelle();
+        }
+
+        public int getAutreExtremite(int sommet) {
+            int s1 = getExtremite1(), s2 = getExtremite2();
+            if (sommet == s1) return s2;
+            if (sommet == s2) return s1;
+            throw new IllegalArgumentException("Le sommet n'appartient pas à cette arête");
+        }
+
+        public Arete versArete(Sommet[] sommets) {
+            return AretesHorsTas.this.versArete(numero, sommets);
+        }
+
+        @Override
+        public String toString() {
+            String fleche = isBidirectionnelle() ? " <--> " : " --> ";
+            return getExtremite1() + fleche + getExtremite2() + " (poids: " + getPoids() + ")";
+        }
+    }
+}
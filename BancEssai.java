@@ -0,0 +1,163 @@
+package mesures;
+
+import java.lang.management.*;
+import java.util.*;
+
+
+/**
+ * Petit banc d'essai : tours de chauffe (pour laisser le JIT compiler), puis tours
+ * mesurés, un appel à la fois.
+ *
+ * Pour chaque opération on relève :
+ *  - le débit (opérations par seconde) ;
+ *  - la latence de chaque appel (médiane, 90e et 99e centiles, maximum) ;
+ *  - les octets alloués par appel, lus dans le compteur d'allocation du thread
+ *    (com.sun.management.ThreadMXBean), et le nombre et la durée des passages du
+ *    ramasse-miettes pendant la mesure.
+ * Chaque opération renvoie une valeur qu'on accumule, pour que le JIT ne puisse pas
+ * supprimer le calcul comme inutile.
+ */
+public final class BancEssai {
+
+    public interface Operation {
+        // i : numéro de l'appel (pour varier les données d'un appel à l'autre)
+        double executer(int i) throws Exception;
+    }
+
+    private final int nbChauffe;
+    private final int nbMesures;
+    private final List<Resultat> resultats = new ArrayList<>();
+    private double puits;
+
+    public BancEssai(int nbChauffe, int nbMesures) {
+        if (nbChauffe < 0 || nbMesures <= 0) {
+            throw new IllegalArgumentException("Nombre de tours invalide");
+        }
+        this.nbChauffe = nbChauffe;
+        this.nbMesures = nbMesures;
+    }
+
+    public List<Resultat> getResultats() { return Collections.unmodifiableList(resultats); }
+
+    public Resultat mesurer(String nom, Operation operation) throws Exception {
+        return mesurer(nom, nbChauffe, nbMesures, operation);
+    }
+
+    // Nombre de tours propre à une opération (ex : un chargement de fichier est long)
+    public Resultat mesurer(String nom, int nbChauffe, int nbMesures, Operation operation) throws Exception {
+        for (int i = 0; i < nbChauffe; i++) {
+            puits += operation.executer(i);
+        }
+
+        long[] latences = new long[nbMesures];
+        long nbGcAvant = nbPassagesGc(), tempsGcAvant = tempsGc();
+        long allouesAvant = octetsAlloues();
+        long debut = System.nanoTime();
+        for (int i = 0; i < nbMesures; i++) {
+            long t = System.nanoTime();
+            puits += operation.executer(nbChauffe + i);
+            latences[i] = System.nanoTime() - t;
+        }
+        long duree = System.nanoTime() - debut;
+        long alloues = octetsAlloues() - allouesAvant;
+
+        Arrays.sort(latences);
+        Resultat resultat = new Resultat(nom, nbMesures, duree, latences,
+                (allouesAvant < 0) ? -1 : alloues / (double) nbMesures,
+                nbPassagesGc() - nbGcAvant, tempsGc() - tempsGcAvant);
+        resultats.add(resultat);
+        return resultat;
+    }
+
+    // Valeur accumulée (à afficher une fois, pour que rien ne soit supprimé)
+    public double getPuits() { return puits; }
+
+
+    // MESURES DE LA JVM
+
+    private static long octetsAlloues() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static long nbPassagesGc() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long tempsGc() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+
+    // RÉSULTAT D'UNE MESURE
+
+    public static final class Resultat {
+        private final String nom;
+        private final int nbOperations;
+        private final long dureeNanos;
+        private final long[] latences;          // triées
+        private final double octetsParOperation;   // -1 si la JVM ne sait pas le mesurer
+        private final long nbPassagesGc;
+        private final long tempsGcMillis;
+
+        private Resultat(String nom, int nbOperations, long dureeNanos, long[] latences,
+                         double octetsParOperation, long nbPassagesGc, long tempsGcMillis) {
+            this.nom = nom;
+            this.nbOperations = nbOperations;
+            this.dureeNanos = dureeNanos;
+            this.latences = latences;
+            this.octetsParOperation = octetsParOperation;
+            this.nbPassagesGc = nbPassagesGc;
+            this.tempsGcMillis = tempsGcMillis;
+        }
+
+        public String getNom() { return nom; }
+        public int getNbOperations() { return nbOperations; }
+        public double getOperationsParSeconde() { return nbOperations * 1e9 / dureeNanos; }
+        public double getOctetsParOperation() { return octetsParOperation; }
+        public long getNbPassagesGc() { return nbPassagesGc; }
+        public long getTempsGcMillis() { return tempsGcMillis; }
+
+        // Latence (en nanosecondes) au centile donné, entre 0 et 100
+        public long getLatence(double centile) {
+            int i = (int) Math.ceil(centile / 100.0 * latences.length) - 1;
+            return latences[Math.max(0, Math.min(latences.length - 1, i))];
+        }
+
+        public static String enTete() {
+            return String.format("%-60s %12s %11s %11s %11s %11s %12s %5s %7s",
+                    "opération", "ops/s", "p50 (µs)", "p90 (µs)", "p99 (µs)", "max (µs)", "octets/op", "gc", "gc ms");
+        }
+
+        public static String enTeteCsv() {
+            return "operation;ops_par_s;p50_ns;p90_ns;p99_ns;max_ns;octets_par_op;nb_gc;gc_ms";
+        }
+
+        public String versCsv() {
+            return String.format(Locale.ROOT, "%s;%.3f;%d;%d;%d;%d;%.1f;%d;%d", nom, getOperationsParSeconde(),
+                    getLatence(50), getLatence(90), getLatence(99), getLatence(100),
+                    octetsParOperation, nbPassagesGc, tempsGcMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-60s %12.1f %11.1f %11.1f %11.1f %11.1f %12.0f %5d %7d", nom,
+                    getOperationsParSeconde(), getLatence(50) / 1e3, getLatence(90) / 1e3,
+                    getLatence(99) / 1e3, getLatence(100) / 1e3, octetsParOperation, nbPassagesGc, tempsGcMillis);
+        }
+    }
+}
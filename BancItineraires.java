@@ -0,0 +1,146 @@
+package mesures;
+
+import algorithmes.base.*;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import utils.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+
+/**
+ * Mesures de performance du calcul d'itinéraires sur des villes synthétiques
+ * (GenerateurVilles), pour suivre les effets d'une modification d'une version à l'autre :
+ *  - LecteurGraphe.chargerDepuisFichier sur le fichier texte du réseau ;
+ *  - Dijkstra.executer, complet et point à point ;
+ *  - getChemin et getCheminVersHabitation après un calcul complet ;
+ *  - getCheminVersHabitation(source, habitation), le calcul d'un seul camion.
+ * Les sources, destinations et habitations sont tirées une fois pour toutes (même
+ * graine, mêmes requêtes) et parcourues en boucle.
+ *
+ *   java -Xmx8g mesures.BancItineraires --tailles 10000,1000000 --modeles grille,geometrique
+ *        --types HO1,HO3 --csv resultats.csv
+ *
+ * Par défaut : 10000 sommets, les trois modèles, les trois hypothèses. Sur les gros
+ * réseaux le nombre de tours des calculs complets est réduit automatiquement.
+ */
+public final class BancItineraires {
+
+    private static final int NB_REQUETES = 1024;
+    // Au-delà, un calcul complet est trop long pour faire tous les tours demandés
+    private static final long SOMMETS_PAR_MESURE = 50_000_000L;
+
+    private BancItineraires() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] tailles = { 10_000 };
+        List<GenerateurVilles.Modele> modeles = Arrays.asList(GenerateurVilles.Modele.values());
+        List<Graphe.TypeHypothese> types = Arrays.asList(Graphe.TypeHypothese.values());
+        int nbChauffe = 200, nbMesures = 1000;
+        long graine = 1;
+        String fichierCsv = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String valeur = args[i + 1];
+            switch (args[i]) {
+                case "--tailles":
+                    tailles = Arrays.stream(valeur.split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--modeles":
+                    modeles = new ArrayList<>();
+                    for (String m : valeur.split(",")) modeles.add(GenerateurVilles.Modele.valueOf(m.toUpperCase()));
+                    break;
+                case "--types":
+                    types = new ArrayList<>();
+                    for (String t : valeur.split(",")) types.add(Graphe.TypeHypothese.valueOf(t));
+                    break;
+                case "--chauffe": nbChauffe = Integer.parseInt(valeur); break;
+                case "--mesures": nbMesures = Integer.parseInt(valeur); break;
+                case "--graine": graine = Long.parseLong(valeur); break;
+                case "--csv": fichierCsv = valeur; break;
+                default:
+                    throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            }
+        }
+
+        BancEssai banc = new BancEssai(nbChauffe, nbMesures);
+        System.out.println(BancEssai.Resultat.enTete());
+        for (int taille : tailles) {
+            for (GenerateurVilles.Modele modele : modeles) {
+                for (Graphe.TypeHypothese type : types) {
+                    mesurerReseau(banc, modele, type, taille, graine, nbChauffe, nbMesures);
+                }
+            }
+        }
+        System.out.println("(valeur de contrôle : " + banc.getPuits() + ")");
+
+        if (fichierCsv != null) {
+            try (PrintWriter w = new PrintWriter(new OutputStreamWriter(
+                    new FileOutputStream(fichierCsv), StandardCharsets.UTF_8))) {
+                w.println(BancEssai.Resultat.enTeteCsv());
+                for (BancEssai.Resultat resultat : banc.getResultats()) w.println(resultat.versCsv());
+            }
+        }
+    }
+
+    private static void mesurerReseau(BancEssai banc, GenerateurVilles.Modele modele, Graphe.TypeHypothese type,
+                                      int taille, long graine, int nbChauffe, int nbMesures) throws Exception {
+        String prefixe = modele.name().toLowerCase() + " " + type + " " + taille + " / ";
+        Graphe graphe = GenerateurVilles.generer(modele, type, taille, graine);
+        int n = graphe.getNbSommets();
+
+        // Chargement du même réseau depuis son fichier texte
+        File fichier = File.createTempFile("reseau", ".txt");
+        try {
+            GenerateurVilles.ecrireTexte(graphe, fichier.getPath());
+            int tours = (int) Math.max(1, Math.min(5, SOMMETS_PAR_MESURE / 10 / n));
+            afficher(banc.mesurer(prefixe + "LecteurGraphe.chargerDepuisFichier", Math.min(tours, 2), tours,
+                    i -> LecteurGraphe.chargerDepuisFichier(fichier.getPath()).getNbAretes()));
+        } finally {
+            fichier.delete();
+        }
+
+        // Requêtes tirées une fois pour toutes
+        Random r = new Random(graine);
+        Sommet[] sources = new Sommet[NB_REQUETES];
+        Sommet[] destinations = new Sommet[NB_REQUETES];
+        Habitation[] habitations = new Habitation[NB_REQUETES];
+        List<Arete> aretes = graphe.getAretes();
+        for (int k = 0; k < NB_REQUETES; k++) {
+            sources[k] = graphe.getSommet(r.nextInt(n));
+            destinations[k] = graphe.getSommet(r.nextInt(n));
+            Arete arete = aretes.get(r.nextInt(aretes.size()));
+            habitations[k] = new Habitation("H" + k, arete, arete.getSommet1(), r.nextDouble() * arete.getPoids());
+        }
+
+        Dijkstra dijkstra = new Dijkstra(graphe);
+        int toursComplets = (int) Math.max(3, Math.min(nbMesures, SOMMETS_PAR_MESURE / n));
+        int chauffeComplets = Math.min(nbChauffe, toursComplets);
+        afficher(banc.mesurer(prefixe + "Dijkstra.executer (complet)", chauffeComplets, toursComplets, i -> {
+            dijkstra.executer(sources[i % NB_REQUETES]);
+            return dijkstra.getNbSommetsVisites();
+        }));
+        afficher(banc.mesurer(prefixe + "Dijkstra.executer (point à point)", chauffeComplets, toursComplets, i -> {
+            dijkstra.executer(sources[i % NB_REQUETES], destinations[i % NB_REQUETES]);
+            return dijkstra.getDistance(destinations[i % NB_REQUETES]);
+        }));
+
+        // Requêtes sur un même arbre des plus courts chemins
+        dijkstra.executer(sources[0]);
+        afficher(banc.mesurer(prefixe + "Dijkstra.getChemin",
+                i -> dijkstra.getChemin(destinations[i % NB_REQUETES]).size()));
+        afficher(banc.mesurer(prefixe + "Dijkstra.getCheminVersHabitation",
+                i -> dijkstra.getCheminVersHabitation(habitations[i % NB_REQUETES]).distanceTotale));
+
+        afficher(banc.mesurer(prefixe + "Dijkstra.getCheminVersHabitation (source)",
+                chauffeComplets, toursComplets,
+                i -> dijkstra.getCheminVersHabitation(sources[i % NB_REQUETES],
+                        habitations[i % NB_REQUETES]).distanceTotale));
+    }
+
+    private static void afficher(BancEssai.Resultat resultat) {
+        System.out.println(resultat);
+    }
+}
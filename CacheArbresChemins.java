@@ -0,0 +1,99 @@
+package algorithmes.base;
+
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Cache des arbres de plus courts chemins par source (dépôts, positions des camions...).
+ *
+ * On garde au plus "capacite" arbres ; quand il est plein, on retire celui qui a
+ * servi le moins récemment (LRU). Chaque arbre est lié à la version du graphe :
+ * dès que le graphe change (ajout, poids ou sens d'une arête), tout le cache est
+ * vidé et les arbres sont recalculés à la demande, donc on ne rend jamais un
+ * résultat périmé.
+ *
+ * Comme Dijkstra, un cache ne doit être utilisé que par un thread à la fois.
+ */
+public class CacheArbresChemins {
+
+    private final Graphe graphe;
+    private final int capacite;
+    private final Dijkstra dijkstra;
+    private final LinkedHashMap<Integer, ArbreChemins> arbres;
+    private long versionArbres;
+
+    // Statistiques
+    private long nbSucces;
+    private long nbEchecs;
+    private long nbInvalidations;
+
+    public CacheArbresChemins(Graphe graphe, int capacite) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité du cache doit être positive");
+        }
+        this.graphe = graphe;
+        this.capacite = capacite;
+        this.dijkstra = new Dijkstra(graphe);
+        this.versionArbres = graphe.getVersion();
+        // accessOrder = true : l'itération commence par l'arbre utilisé le moins récemment
+        this.arbres = new LinkedHashMap<Integer, ArbreChemins>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ArbreChemins> plusAncien) {
+                return size() > CacheArbresChemins.this.capacite;
+            }
+        };
+    }
+
+    public ArbreChemins getArbre(Sommet source) {
+        int indice = graphe.getIndice(source);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + source);
+        }
+        if (graphe.getVersion() != versionArbres) {
+            // Le graphe a changé : tous les arbres sont périmés
+            if (!arbres.isEmpty()) nbInvalidations++;
+            arbres.clear();
+            versionArbres = graphe.getVersion();
+        }
+
+        ArbreChemins arbre = arbres.get(indice);
+        if (arbre != null) {
+            nbSucces++;
+            return arbre;
+        }
+        nbEchecs++;
+        dijkstra.executer(source);
+        arbre = dijkstra.extraireArbre();
+        arbres.put(indice, arbre);
+        return arbre;
+    }
+
+    public void vider() {
+        arbres.clear();
+    }
+
+    public int getTaille() { return arbres.size(); }
+    public int getCapacite() { return capacite; }
+
+    public long getNbSucces() { return nbSucces; }
+    public long getNbEchecs() { return nbEchecs; }
+    public long getNbInvalidations() { return nbInvalidations; }
+
+    public double getTauxSucces() {
+        long total = nbSucces + nbEchecs;
+        return (total == 0) ? 0.0 : (double) nbSucces / total;
+    }
+
+    public void reinitialiserStatistiques() {
+        nbSucces = 0;
+        nbEchecs = 0;
+        nbInvalidations = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheArbresChemins (" + arbres.size() + "/" + capacite + " arbres, " + nbSucces + " succès, "
+                + nbEchecs + " échecs, " + nbInvalidations + " invalidations)";
+    }
+}
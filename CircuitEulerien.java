@@ -0,0 +1,93 @@
+package algorithmes.tournees;
+
+import java.util.*;
+
+
+/**
+ * Circuit eulérien (algorithme de Hierholzer, sans récursion) dans un multigraphe
+ * décrit par des tableaux : le passage k va de origines[k] à extremites[k], et
+ * peut être pris dans les deux sens si le multigraphe n'est pas orienté.
+ *
+ * Le circuit part du sommet de départ, utilise chaque passage exactement une fois
+ * et revient au départ.
+ */
+final class CircuitEulerien {
+
+    private final int[] passages;   // numéros des passages dans l'ordre du circuit
+    private final int[] sommets;    // sommets visités (un de plus que de passages)
+
+    CircuitEulerien(int nbSommets, int[] origines, int[] extremites, boolean oriente, int depart) {
+        int m = origines.length;
+
+        // Passages utilisables depuis chaque sommet (format CSR)
+        int[] debut = new int[nbSommets + 1];
+        for (int k = 0; k < m; k++) {
+            debut[origines[k] + 1]++;
+            if (!oriente) debut[extremites[k] + 1]++;
+        }
+        for (int v = 0; v < nbSommets; v++) debut[v + 1] += debut[v];
+        int[] liste = new int[debut[nbSommets]];
+        int[] prochain = Arrays.copyOf(debut, nbSommets);
+        for (int k = 0; k < m; k++) {
+            liste[prochain[origines[k]]++] = k;
+            if (!oriente) liste[prochain[extremites[k]]++] = k;
+        }
+        verifierDegres(nbSommets, origines, extremites, oriente);
+
+        // Hierholzer : on avance tant qu'on peut, et on écrit le circuit en revenant en arrière
+        boolean[] utilise = new boolean[m];
+        int[] curseur = Arrays.copyOf(debut, nbSommets);
+        int[] pileSommets = new int[m + 1];
+        int[] pilePassages = new int[m + 1];
+        int hauteur = 0;
+        pileSommets[0] = depart;
+        pilePassages[0] = -1;
+        hauteur = 1;
+
+        this.passages = new int[m];
+        this.sommets = new int[m + 1];
+        int nbEcrits = 0;
+        while (hauteur > 0) {
+            int v = pileSommets[hauteur - 1];
+            while (curseur[v] < debut[v + 1] && utilise[liste[curseur[v]]]) curseur[v]++;
+            if (curseur[v] < debut[v + 1]) {
+                int k = liste[curseur[v]++];
+                utilise[k] = true;
+                pileSommets[hauteur] = (origines[k] == v) ? extremites[k] : origines[k];
+                pilePassages[hauteur] = k;
+                hauteur++;
+            } else {
+                hauteur--;
+                sommets[m - nbEcrits] = v;
+                if (pilePassages[hauteur] >= 0) {
+                    passages[m - 1 - nbEcrits] = pilePassages[hauteur];
+                    nbEcrits++;
+                }
+            }
+        }
+        if (nbEcrits != m) {
+            throw new IllegalStateException("Les passages ne sont pas tous accessibles depuis le départ");
+        }
+    }
+
+    private static void verifierDegres(int nbSommets, int[] origines, int[] extremites, boolean oriente) {
+        int[] bilan = new int[nbSommets];
+        for (int k = 0; k < origines.length; k++) {
+            if (oriente) {
+                bilan[origines[k]]++;
+                bilan[extremites[k]]--;
+            } else {
+                bilan[origines[k]] ^= 1;
+                bilan[extremites[k]] ^= 1;
+            }
+        }
+        for (int v = 0; v < nbSommets; v++) {
+            if (bilan[v] != 0) {
+                throw new IllegalStateException("Pas de circuit eulérien : le sommet " + v + " est déséquilibré");
+            }
+        }
+    }
+
+    int[] getPassages() { return passages; }
+    int[] getSommets() { return sommets; }
+}
@@ -0,0 +1,302 @@
+package algorithmes.base;
+
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+import java.util.function.*;
+
+
+/**
+ * Composantes fortement connexes (Tarjan, sans récursion : pas de limite de profondeur
+ * sur des millions de sommets) et index d'accessibilité sur le graphe des composantes.
+ *
+ * Sous HO2/HO3 les sens uniques isolent des morceaux du réseau. Avec cet index on sait
+ * en O(1), avant toute recherche :
+ *  - si l'on peut faire l'aller-retour entre deux sommets (même composante) ;
+ *  - si un camion peut desservir une habitation depuis le dépôt et revenir ;
+ *  - si un sommet est inaccessible depuis un autre (peutAtteindre faux), grâce à deux
+ *    étiquettes par composante sur le graphe des composantes (sans cycle), et une table
+ *    de fermeture exacte tant qu'elle tient dans OCTETS_FERMETURE_MAX.
+ *
+ * Le sens des rues compte, pas leur poids. Calculé sur un Graphe, l'index est périmé
+ * dès que le graphe est modifié (estAJour).
+ */
+public final class ComposantesFortes {
+
+    private static final long OCTETS_FERMETURE_MAX = 1L << 25;
+
+    private final ToIntFunction<Sommet> indices;
+    private final Graphe graphe;          // null si calculé sur un GrapheFige
+    private final GrapheFige grapheFige;  // null si calculé sur un Graphe
+    private final long version;
+
+    // Tarjan numérote les composantes dans l'ordre topologique inverse : un arc entre deux
+    // composantes va toujours d'un numéro plus grand vers un plus petit
+    private final int[] composante;
+    private final int[] tailles;
+    private final int nbComposantes;
+
+    // Étiquettes : si c atteint d, alors d <= c, bas[c] <= bas[d] et haut[d] >= haut[c]
+    private final int[] bas;    // plus petit numéro de composante accessible depuis c
+    private final int[] haut;   // plus grand numéro de composante qui atteint c
+
+    // Fermeture exacte : ligne c = ensemble des composantes accessibles depuis c (null si trop grande)
+    private final long[] fermeture;
+    private final int motsParLigne;
+
+    public ComposantesFortes(Graphe graphe) {
+        this(graphe, null, graphe::getIndice, graphe.getVersion(), successeurs(graphe));
+    }
+
+    public ComposantesFortes(GrapheFige graphe) {
+        this(null, graphe, graphe::getIndice, 0, successeurs(graphe));
+    }
+
+    private ComposantesFortes(Graphe graphe, GrapheFige grapheFige, ToIntFunction<Sommet> indices, long version,
+                              int[][] successeurs) {
+        this.graphe = graphe;
+        this.grapheFige = grapheFige;
+        this.indices = indices;
+        this.version = version;
+
+        int[] debut = successeurs[0];
+        int[] cible = successeurs[1];
+        int n = debut.length - 1;
+        this.composante = new int[n];
+        this.nbComposantes = tarjan(debut, cible);
+
+        this.tailles = new int[nbComposantes];
+        for (int u = 0; u < n; u++) tailles[composante[u]]++;
+
+        // Graphe des composantes (arcs en double supprimés)
+        int[][] condensation = condenser(debut, cible);
+        int[] debutComposantes = condensation[0];
+        int[] suivantes = condensation[1];
+
+        this.bas = new int[nbComposantes];
+        this.haut = new int[nbComposantes];
+        for (int c = 0; c < nbComposantes; c++) {
+            int b = c;
+            for (int k = debutComposantes[c]; k < debutComposantes[c + 1]; k++) b = Math.min(b, bas[suivantes[k]]);
+            bas[c] = b;
+            haut[c] = c;
+        }
+        for (int c = nbComposantes - 1; c >= 0; c--) {
+            for (int k = debutComposantes[c]; k < debutComposantes[c + 1]; k++) {
+                int d = suivantes[k];
+                haut[d] = Math.max(haut[d], haut[c]);
+            }
+        }
+
+        this.motsParLigne = (nbComposantes + 63) >>> 6;
+        if ((long) nbComposantes * motsParLigne * 8 <= OCTETS_FERMETURE_MAX) {
+            this.fermeture = new long[nbComposantes * motsParLigne];
+            for (int c = 0; c < nbComposantes; c++) {
+                int ligne = c * motsParLigne;
+                fermeture[ligne + (c >>> 6)] |= 1L << c;
+                for (int k = debutComposantes[c]; k < debutComposantes[c + 1]; k++) {
+                    int autre = suivantes[k] * motsParLigne;
+                    // les composantes atteintes par d ont un numéro <= d : la fin de sa ligne est vide
+                    int nbMots = (suivantes[k] >>> 6) + 1;
+                    for (int w = 0; w < nbMots; w++) fermeture[ligne + w] |= fermeture[autre + w];
+                }
+            }
+        } else {
+            this.fermeture = null;
+        }
+    }
+
+    // Arcs sortants au format CSR : { debut, cible }
+    private static int[][] successeurs(Graphe graphe) {
+        int n = graphe.getNbSommets();
+        int[] debut = new int[n + 1];
+        int[] nbArcs = { 0 };
+        Graphe.VisiteurArc compter = (v, arete, poids) -> nbArcs[0]++;
+        for (int u = 0; u < n; u++) {
+            graphe.parcourirSuccesseurs(u, compter);
+            debut[u + 1] = nbArcs[0];
+        }
+        int[] cible = new int[debut[n]];
+        int[] position = { 0 };
+        Graphe.VisiteurArc ranger = (v, arete, poids) -> cible[position[0]++] = v;
+        for (int u = 0; u < n; u++) {
+            graphe.parcourirSuccesseurs(u, ranger);
+        }
+        return new int[][] { debut, cible };
+    }
+
+    private static int[][] successeurs(GrapheFige graphe) {
+        int n = graphe.getNbSommets();
+        int[] debut = new int[n + 1];
+        for (int u = 0; u < n; u++) debut[u + 1] = graphe.finArcs(u);
+        int[] cible = new int[graphe.getNbArcs()];
+        for (int a = 0; a < cible.length; a++) cible[a] = graphe.getCible(a);
+        return new int[][] { debut, cible };
+    }
+
+    // Tarjan avec une pile d'appels explicite ; rend le nombre de composantes
+    private int tarjan(int[] debut, int[] cible) {
+        int n = composante.length;
+        int[] numero = new int[n];
+        int[] plusBas = new int[n];
+        int[] prochainArc = new int[n];
+        int[] pile = new int[n];        // sommets visités dont la composante n'est pas encore close
+        int[] appels = new int[n];      // chemin de parcours en profondeur en cours
+        Arrays.fill(numero, -1);
+        Arrays.fill(composante, -1);
+
+        int compteur = 0, nbComposantes = 0;
+        for (int racine = 0; racine < n; racine++) {
+            if (numero[racine] >= 0) continue;
+            int hauteurPile = 0, hauteurAppels = 0;
+            numero[racine] = plusBas[racine] = compteur++;
+            prochainArc[racine] = debut[racine];
+            pile[hauteurPile++] = racine;
+            appels[hauteurAppels++] = racine;
+
+            while (hauteurAppels > 0) {
+                int u = appels[hauteurAppels - 1];
+                if (prochainArc[u] < debut[u + 1]) {
+                    int v = cible[prochainArc[u]++];
+                    if (numero[v] < 0) {
+                        numero[v] = plusBas[v] = compteur++;
+                        prochainArc[v] = debut[v];
+                        pile[hauteurPile++] = v;
+                        appels[hauteurAppels++] = v;
+                    } else if (composante[v] < 0) {
+                        plusBas[u] = Math.min(plusBas[u], numero[v]);
+                    }
+                    continue;
+                }
+
+                // Tous les arcs de u sont vus : u ferme éventuellement une composante
+                hauteurAppels--;
+                if (plusBas[u] == numero[u]) {
+                    int w;
+                    do {
+                        w = pile[--hauteurPile];
+                        composante[w] = nbComposantes;
+                    } while (w != u);
+                    nbComposantes++;
+                }
+                if (hauteurAppels > 0) {
+                    int parent = appels[hauteurAppels - 1];
+                    plusBas[parent] = Math.min(plusBas[parent], plusBas[u]);
+                }
+            }
+        }
+        return nbComposantes;
+    }
+
+    // Arcs entre composantes au format CSR : { debut, suivantes }
+    private int[][] condenser(int[] debut, int[] cible) {
+        int n = composante.length;
+
+        // Sommets rangés par composante
+        int[] debutMembres = new int[nbComposantes + 1];
+        for (int u = 0; u < n; u++) debutMembres[composante[u] + 1]++;
+        for (int c = 0; c < nbComposantes; c++) debutMembres[c + 1] += debutMembres[c];
+        int[] membres = new int[n];
+        int[] prochain = Arrays.copyOf(debutMembres, nbComposantes);
+        for (int u = 0; u < n; u++) membres[prochain[composante[u]]++] = u;
+
+        int[] marque = new int[nbComposantes];
+        Arrays.fill(marque, -1);
+        int[] debutComposantes = new int[nbComposantes + 1];
+        int[] suivantes = new int[16];
+        int nb = 0;
+        for (int c = 0; c < nbComposantes; c++) {
+            for (int i = debutMembres[c]; i < debutMembres[c + 1]; i++) {
+                int u = membres[i];
+                for (int a = debut[u]; a < debut[u + 1]; a++) {
+                    int d = composante[cible[a]];
+                    if (d != c && marque[d] != c) {
+                        marque[d] = c;
+                        if (nb == suivantes.length) suivantes = Arrays.copyOf(suivantes, 2 * nb);
+                        suivantes[nb++] = d;
+                    }
+                }
+            }
+            debutComposantes[c + 1] = nb;
+        }
+        return new int[][] { debutComposantes, suivantes };
+    }
+
+    public int getNbComposantes() { return nbComposantes; }
+    public int getComposante(int sommet) { return composante[sommet]; }
+    public int getTaille(int composante) { return tailles[composante]; }
+
+    // Vrai : peutAtteindre est exact ; faux : son "vrai" veut seulement dire "pas exclu"
+    public boolean estExact() { return fermeture != null; }
+
+    // Faux dès que le Graphe a été modifié depuis le calcul (toujours vrai sur un GrapheFige)
+    public boolean estAJour() {
+        return graphe == null || graphe.getVersion() == version;
+    }
+
+    public boolean concerne(Graphe graphe) { return graphe != null && this.graphe == graphe; }
+    public boolean concerne(GrapheFige graphe) { return graphe != null && this.grapheFige == graphe; }
+
+    // Numéro de la plus grande composante (celle qui contient presque tout le réseau)
+    public int getPlusGrandeComposante() {
+        int meilleure = -1;
+        for (int c = 0; c < nbComposantes; c++) {
+            if (meilleure < 0 || tailles[c] > tailles[meilleure]) meilleure = c;
+        }
+        return meilleure;
+    }
+
+    // On peut aller de u à v et revenir (exact)
+    public boolean allerRetourPossible(int u, int v) {
+        return composante[u] == composante[v];
+    }
+
+    // Faux : v est inaccessible depuis u (toujours sûr).
+    // Vrai : v est accessible si estExact(), sinon seulement "pas exclu" (une recherche tranchera).
+    public boolean peutAtteindre(int u, int v) {
+        int c = composante[u], d = composante[v];
+        if (c == d) return true;
+        if (d > c || bas[c] > bas[d] || haut[d] < haut[c]) return false;
+        if (fermeture == null) return true;
+        return (fermeture[c * motsParLigne + (d >>> 6)] & (1L << d)) != 0;
+    }
+
+    public boolean allerRetourPossible(Sommet u, Sommet v) {
+        return allerRetourPossible(indice(u), indice(v));
+    }
+
+    public boolean peutAtteindre(Sommet u, Sommet v) {
+        return peutAtteindre(indice(u), indice(v));
+    }
+
+    // Le camion peut aller du dépôt jusqu'à l'habitation (une extrémité de sa rue) et
+    // revenir au dépôt (exact : il suffit qu'une extrémité soit dans la composante du dépôt)
+    public boolean peutDesservir(Sommet depot, Habitation habitation) {
+        Arete arete = habitation.getArete();
+        int d = indice(depot);
+        return allerRetourPossible(d, indice(arete.getSommet1()))
+                || allerRetourPossible(d, indice(arete.getSommet2()));
+    }
+
+    // Faux : aucune extrémité de la rue de l'habitation n'est accessible depuis le départ
+    public boolean peutAtteindre(Sommet depart, Habitation habitation) {
+        Arete arete = habitation.getArete();
+        int d = indice(depart);
+        return peutAtteindre(d, indice(arete.getSommet1())) || peutAtteindre(d, indice(arete.getSommet2()));
+    }
+
+    private int indice(Sommet sommet) {
+        int indice = indices.applyAsInt(sommet);
+        if (indice < 0 || indice >= composante.length) {
+            throw new IllegalArgumentException("Sommet inconnu : " + sommet);
+        }
+        return indice;
+    }
+
+    @Override
+    public String toString() {
+        int plusGrande = getPlusGrandeComposante();
+        return "ComposantesFortes (" + composante.length + " sommets, " + nbComposantes + " composantes, la plus grande : "
+                + ((plusGrande < 0) ? 0 : tailles[plusGrande]) + " sommets, index " + (estExact() ? "exact" : "par étiquettes") + ")";
+    }
+}
@@ -0,0 +1,613 @@
+package algorithmes.tournees;
+
+import java.util.*;
+
+
+/**
+ * Couplage parfait de poids minimum dans un graphe quelconque (algorithme d'Edmonds
+ * avec fleurs, version primale-duale en O(n³) de Galil).
+ *
+ * On cherche en fait un couplage de poids maximum parmi ceux de cardinal maximum,
+ * avec les poids (C - poids) : tous les couplages parfaits ont le même cardinal,
+ * donc maximiser la somme des (C - poids) revient à minimiser la somme des poids.
+ * Les poids sont des entiers (long) : les variables duales restent alors des
+ * entiers et les tests "arête serrée" (écart == 0) sont exacts.
+ *
+ * Les fleurs sont numérotées de n à 2n - 1 ; label 1 = S (extérieur), 2 = T
+ * (intérieur). Les extrémités d'arêtes sont numérotées 2k et 2k + 1 (arête k).
+ */
+final class CouplageParfait {
+
+    private final int nbSommets;
+    private final int nbAretes;
+    private final int[] extremite;          // extrémité p : extremite[2k] = sommet1, extremite[2k + 1] = sommet2
+    private final long[] poids;
+    private final int[][] extremitesVoisines;   // pour chaque sommet, les extrémités "d'en face" de ses arêtes
+
+    private final int[] partenaire;         // extrémité par laquelle le sommet est couplé (-1 si libre)
+    private final int[] label;
+    private final int[] extremiteLabel;
+    private final int[] dansFleur;          // fleur de plus haut niveau qui contient le sommet
+    private final int[] parentFleur;
+    private final int[][] enfantsFleur;
+    private final int[] baseFleur;
+    private final int[][] extremitesFleur;
+    private final int[] meilleureArete;
+    private final int[][] meilleuresAretesFleur;
+    private final int[] fleursLibres;
+    private int nbFleursLibres;
+    private final long[] duale;
+    private final boolean[] autorisee;
+
+    private int[] file;
+    private int tailleFile;
+    private final int[] pileFeuilles;
+
+    // Renvoie partenaire[v] (le sommet couplé à v), ou null s'il n'existe pas de couplage parfait
+    static int[] calculer(int nbSommets, int[] sommets1, int[] sommets2, long[] poids) {
+        if (nbSommets % 2 != 0) return null;
+        if (nbSommets == 0) return new int[0];
+        long max = 0;
+        for (long p : poids) {
+            if (p < 0) throw new IllegalArgumentException("Les poids doivent être positifs");
+            max = Math.max(max, p);
+        }
+        long[] gains = new long[poids.length];
+        for (int k = 0; k < poids.length; k++) {
+            gains[k] = max + 1 - poids[k];
+        }
+        CouplageParfait couplage = new CouplageParfait(nbSommets, sommets1, sommets2, gains);
+        couplage.resoudre();
+
+        int[] resultat = new int[nbSommets];
+        for (int v = 0; v < nbSommets; v++) {
+            if (couplage.partenaire[v] < 0) return null;
+            resultat[v] = couplage.extremite[couplage.partenaire[v]];
+        }
+        return resultat;
+    }
+
+    private CouplageParfait(int nbSommets, int[] sommets1, int[] sommets2, long[] gains) {
+        int n = nbSommets;
+        this.nbSommets = n;
+        this.nbAretes = gains.length;
+        this.poids = gains;
+        this.extremite = new int[2 * nbAretes];
+        int[] degre = new int[n];
+        long maxGain = 0;
+        for (int k = 0; k < nbAretes; k++) {
+            extremite[2 * k] = sommets1[k];
+            extremite[2 * k + 1] = sommets2[k];
+            degre[sommets1[k]]++;
+            degre[sommets2[k]]++;
+            maxGain = Math.max(maxGain, gains[k]);
+        }
+        this.extremitesVoisines = new int[n][];
+        for (int v = 0; v < n; v++) extremitesVoisines[v] = new int[degre[v]];
+        Arrays.fill(degre, 0);
+        for (int k = 0; k < nbAretes; k++) {
+            int i = sommets1[k], j = sommets2[k];
+            extremitesVoisines[i][degre[i]++] = 2 * k + 1;
+            extremitesVoisines[j][degre[j]++] = 2 * k;
+        }
+
+        this.partenaire = new int[n];
+        Arrays.fill(partenaire, -1);
+        this.label = new int[2 * n];
+        this.extremiteLabel = new int[2 * n];
+        Arrays.fill(extremiteLabel, -1);
+        this.dansFleur = new int[n];
+        for (int v = 0; v < n; v++) dansFleur[v] = v;
+        this.parentFleur = new int[2 * n];
+        Arrays.fill(parentFleur, -1);
+        this.enfantsFleur = new int[2 * n][];
+        this.baseFleur = new int[2 * n];
+        for (int v = 0; v < n; v++) baseFleur[v] = v;
+        for (int b = n; b < 2 * n; b++) baseFleur[b] = -1;
+        this.extremitesFleur = new int[2 * n][];
+        this.meilleureArete = new int[2 * n];
+        Arrays.fill(meilleureArete, -1);
+        this.meilleuresAretesFleur = new int[2 * n][];
+        this.fleursLibres = new int[n];
+        for (int b = 0; b < n; b++) fleursLibres[b] = n + b;
+        this.nbFleursLibres = n;
+        this.duale = new long[2 * n];
+        for (int v = 0; v < n; v++) duale[v] = maxGain;
+        this.autorisee = new boolean[nbAretes];
+        this.file = new int[Math.max(16, n)];
+        this.pileFeuilles = new int[2 * n];
+    }
+
+    private long ecart(int k) {
+        return duale[extremite[2 * k]] + duale[extremite[2 * k + 1]] - 2 * poids[k];
+    }
+
+    private void enfiler(int v) {
+        if (tailleFile == file.length) file = Arrays.copyOf(file, 2 * file.length);
+        file[tailleFile++] = v;
+    }
+
+    // Sommets (feuilles) contenus dans la fleur b, rangés dans sortie ; renvoie leur nombre
+    private int feuilles(int b, int[] sortie) {
+        int nb = 0;
+        int hauteur = 0;
+        pileFeuilles[hauteur++] = b;
+        while (hauteur > 0) {
+            int t = pileFeuilles[--hauteur];
+            if (t < nbSommets) {
+                sortie[nb++] = t;
+            } else {
+                for (int enfant : enfantsFleur[t]) pileFeuilles[hauteur++] = enfant;
+            }
+        }
+        return nb;
+    }
+
+    private int[] tamponFeuilles = new int[0];
+
+    private int[] feuilles(int b) {
+        if (tamponFeuilles.length < nbSommets) tamponFeuilles = new int[nbSommets];
+        int nb = feuilles(b, tamponFeuilles);
+        return Arrays.copyOf(tamponFeuilles, nb);
+    }
+
+    private void assignerLabel(int w, int t, int p) {
+        while (true) {
+            int b = dansFleur[w];
+            label[w] = label[b] = t;
+            extremiteLabel[w] = extremiteLabel[b] = p;
+            meilleureArete[w] = meilleureArete[b] = -1;
+            if (t == 1) {
+                for (int v : feuilles(b)) enfiler(v);
+                return;
+            }
+            // t == 2 : le partenaire de la base devient S
+            int base = baseFleur[b];
+            int pb = partenaire[base];
+            w = extremite[pb];
+            t = 1;
+            p = pb ^ 1;
+        }
+    }
+
+    // Remonte les deux chemins alternés depuis v et w ; renvoie la base de la nouvelle
+    // fleur, ou -1 si les chemins arrivent à deux racines différentes (chemin augmentant)
+    private int chercherFleur(int v, int w) {
+        List<Integer> chemin = new ArrayList<>();
+        int base = -1;
+        while (v != -1 || w != -1) {
+            int b = dansFleur[v];
+            if ((label[b] & 4) != 0) {
+                base = baseFleur[b];
+                break;
+            }
+            chemin.add(b);
+            label[b] = 5;
+            if (extremiteLabel[b] == -1) {
+                v = -1;
+            } else {
+                v = extremite[extremiteLabel[b]];
+                b = dansFleur[v];
+                v = extremite[extremiteLabel[b]];
+            }
+            if (w != -1) {
+                int t = v;
+                v = w;
+                w = t;
+            }
+        }
+        for (int b : chemin) label[b] = 1;
+        return base;
+    }
+
+    private void ajouterFleur(int base, int k) {
+        int v = extremite[2 * k];
+        int w = extremite[2 * k + 1];
+        int bb = dansFleur[base];
+        int bv = dansFleur[v];
+        int bw = dansFleur[w];
+        int b = fleursLibres[--nbFleursLibres];
+        baseFleur[b] = base;
+        parentFleur[b] = -1;
+        parentFleur[bb] = b;
+
+        List<Integer> enfants = new ArrayList<>();
+        List<Integer> extremites = new ArrayList<>();
+        while (bv != bb) {
+            parentFleur[bv] = b;
+            enfants.add(bv);
+            extremites.add(extremiteLabel[bv]);
+            v = extremite[extremiteLabel[bv]];
+            bv = dansFleur[v];
+        }
+        enfants.add(bb);
+        Collections.reverse(enfants);
+        Collections.reverse(extremites);
+        extremites.add(2 * k);
+        while (bw != bb) {
+            parentFleur[bw] = b;
+            enfants.add(bw);
+            extremites.add(extremiteLabel[bw] ^ 1);
+            w = extremite[extremiteLabel[bw]];
+            bw = dansFleur[w];
+        }
+        enfantsFleur[b] = versTableau(enfants);
+        extremitesFleur[b] = versTableau(extremites);
+
+        label[b] = 1;
+        extremiteLabel[b] = extremiteLabel[bb];
+        duale[b] = 0;
+        for (int feuille : feuilles(b)) {
+            if (label[dansFleur[feuille]] == 2) enfiler(feuille);
+            dansFleur[feuille] = b;
+        }
+
+        // Meilleure arête vers chaque autre fleur S, calculée depuis les enfants
+        int[] meilleureVers = new int[2 * nbSommets];
+        Arrays.fill(meilleureVers, -1);
+        for (int enfant : enfantsFleur[b]) {
+            if (meilleuresAretesFleur[enfant] == null) {
+                for (int feuille : feuilles(enfant)) {
+                    for (int p : extremitesVoisines[feuille]) {
+                        considererArete(p >> 1, b, meilleureVers);
+                    }
+                }
+            } else {
+                for (int a : meilleuresAretesFleur[enfant]) {
+                    considererArete(a, b, meilleureVers);
+                }
+            }
+            meilleuresAretesFleur[enfant] = null;
+            meilleureArete[enfant] = -1;
+        }
+        int nb = 0;
+        for (int a : meilleureVers) if (a != -1) nb++;
+        int[] liste = new int[nb];
+        nb = 0;
+        for (int a : meilleureVers) if (a != -1) liste[nb++] = a;
+        meilleuresAretesFleur[b] = liste;
+        meilleureArete[b] = -1;
+        for (int a : liste) {
+            if (meilleureArete[b] == -1 || ecart(a) < ecart(meilleureArete[b])) meilleureArete[b] = a;
+        }
+    }
+
+    private void considererArete(int a, int b, int[] meilleureVers) {
+        int i = extremite[2 * a];
+        int j = extremite[2 * a + 1];
+        if (dansFleur[j] == b) j = i;
+        int bj = dansFleur[j];
+        if (bj != b && label[bj] == 1 && (meilleureVers[bj] == -1 || ecart(a) < ecart(meilleureVers[bj]))) {
+            meilleureVers[bj] = a;
+        }
+    }
+
+    private static int[] versTableau(List<Integer> liste) {
+        int[] tableau = new int[liste.size()];
+        for (int i = 0; i < tableau.length; i++) tableau[i] = liste.get(i);
+        return tableau;
+    }
+
+    private static int indexDe(int[] tableau, int valeur) {
+        for (int i = 0; i < tableau.length; i++) {
+            if (tableau[i] == valeur) return i;
+        }
+        throw new IllegalStateException("Fleur incohérente");
+    }
+
+    private void developperFleur(int b, boolean finEtape) {
+        for (int s : enfantsFleur[b]) {
+            parentFleur[s] = -1;
+            if (s < nbSommets) {
+                dansFleur[s] = s;
+            } else if (finEtape && duale[s] == 0) {
+                developperFleur(s, finEtape);
+            } else {
+                for (int feuille : feuilles(s)) dansFleur[feuille] = s;
+            }
+        }
+
+        if (!finEtape && label[b] == 2) {
+            // Les enfants sur le chemin pair entre l'entrée et la base reprennent des labels
+            int[] enfants = enfantsFleur[b];
+            int[] extremites = extremitesFleur[b];
+            int longueur = enfants.length;
+            int entree = dansFleur[extremite[extremiteLabel[b] ^ 1]];
+            int j = indexDe(enfants, entree);
+            int pas;
+            int decalage;
+            if ((j & 1) != 0) {
+                j -= longueur;
+                pas = 1;
+                decalage = 0;
+            } else {
+                pas = -1;
+                decalage = 1;
+            }
+            int p = extremiteLabel[b];
+            while (j != 0) {
+                label[extremite[p ^ 1]] = 0;
+                label[extremite[extremites[modulo(j - decalage, longueur)] ^ decalage ^ 1]] = 0;
+                assignerLabel(extremite[p ^ 1], 2, p);
+                autorisee[extremites[modulo(j - decalage, longueur)] >> 1] = true;
+                j += pas;
+                p = extremites[modulo(j - decalage, longueur)] ^ decalage;
+                autorisee[p >> 1] = true;
+                j += pas;
+            }
+            int bv = enfants[modulo(j, longueur)];
+            label[extremite[p ^ 1]] = label[bv] = 2;
+            extremiteLabel[extremite[p ^ 1]] = extremiteLabel[bv] = p;
+            meilleureArete[bv] = -1;
+            j += pas;
+            while (enfants[modulo(j, longueur)] != entree) {
+                bv = enfants[modulo(j, longueur)];
+                if (label[bv] == 1) {
+                    j += pas;
+                    continue;
+                }
+                int v = -1;
+                for (int feuille : feuilles(bv)) {
+                    v = feuille;
+                    if (label[feuille] != 0) break;
+                }
+                if (label[v] != 0) {
+                    label[v] = 0;
+                    label[extremite[partenaire[baseFleur[bv]]]] = 0;
+                    assignerLabel(v, 2, extremiteLabel[v]);
+                }
+                j += pas;
+            }
+        }
+
+        label[b] = -1;
+        extremiteLabel[b] = -1;
+        enfantsFleur[b] = null;
+        extremitesFleur[b] = null;
+        baseFleur[b] = -1;
+        meilleuresAretesFleur[b] = null;
+        meilleureArete[b] = -1;
+        fleursLibres[nbFleursLibres++] = b;
+    }
+
+    private static int modulo(int i, int n) {
+        int r = i % n;
+        return (r < 0) ? r + n : r;
+    }
+
+    // Inverse le couplage le long du chemin alterné qui traverse la fleur b jusqu'au sommet v
+    private void augmenterFleur(int b, int v) {
+        int t = v;
+        while (parentFleur[t] != b) t = parentFleur[t];
+        if (t >= nbSommets) augmenterFleur(t, v);
+
+        int[] enfants = enfantsFleur[b];
+        int[] extremites = extremitesFleur[b];
+        int longueur = enfants.length;
+        int i = indexDe(enfants, t);
+        int j = i;
+        int pas;
+        int decalage;
+        if ((i & 1) != 0) {
+            j -= longueur;
+            pas = 1;
+            decalage = 0;
+        } else {
+            pas = -1;
+            decalage = 1;
+        }
+        while (j != 0) {
+            j += pas;
+            t = enfants[modulo(j, longueur)];
+            int p = extremites[modulo(j - decalage, longueur)] ^ decalage;
+            if (t >= nbSommets) augmenterFleur(t, extremite[p]);
+            j += pas;
+            t = enfants[modulo(j, longueur)];
+            if (t >= nbSommets) augmenterFleur(t, extremite[p ^ 1]);
+            partenaire[extremite[p]] = p ^ 1;
+            partenaire[extremite[p ^ 1]] = p;
+        }
+        // Rotation : l'enfant t devient le premier (nouvelle base)
+        int[] nouveauxEnfants = new int[longueur];
+        int[] nouvellesExtremites = new int[longueur];
+        for (int k = 0; k < longueur; k++) {
+            nouveauxEnfants[k] = enfants[(i + k) % longueur];
+            nouvellesExtremites[k] = extremites[(i + k) % longueur];
+        }
+        enfantsFleur[b] = nouveauxEnfants;
+        extremitesFleur[b] = nouvellesExtremites;
+        baseFleur[b] = baseFleur[nouveauxEnfants[0]];
+    }
+
+    private void augmenterCouplage(int k) {
+        int[] departs = { extremite[2 * k], extremite[2 * k + 1] };
+        int[] extremitesDepart = { 2 * k + 1, 2 * k };
+        for (int c = 0; c < 2; c++) {
+            int s = departs[c];
+            int p = extremitesDepart[c];
+            while (true) {
+                int bs = dansFleur[s];
+                if (bs >= nbSommets) augmenterFleur(bs, s);
+                partenaire[s] = p;
+                if (extremiteLabel[bs] == -1) break;
+                int t = extremite[extremiteLabel[bs]];
+                int bt = dansFleur[t];
+                s = extremite[extremiteLabel[bt]];
+                int j = extremite[extremiteLabel[bt] ^ 1];
+                if (bt >= nbSommets) augmenterFleur(bt, j);
+                partenaire[j] = extremiteLabel[bt];
+                p = extremiteLabel[bt] ^ 1;
+            }
+        }
+    }
+
+    // Départ plus rapide : duale[v] = meilleur gain autour de v (toujours réalisable),
+    // puis chaque sommet libre baisse sa variable duale jusqu'à rendre serrée une de
+    // ses arêtes, et se couple par elle si l'autre extrémité est libre. Il reste
+    // beaucoup moins d'étapes à faire ensuite. Comme on veut un couplage parfait, les
+    // variables duales des sommets libres n'ont pas besoin d'être égales.
+    private void initialiserGlouton() {
+        for (int v = 0; v < nbSommets; v++) {
+            long max = Long.MIN_VALUE;
+            for (int p : extremitesVoisines[v]) max = Math.max(max, poids[p >> 1]);
+            if (max != Long.MIN_VALUE) duale[v] = max;
+        }
+        for (int v = 0; v < nbSommets; v++) {
+            if (partenaire[v] != -1 || extremitesVoisines[v].length == 0) continue;
+            long ecartMin = Long.MAX_VALUE;
+            int choisie = -1;
+            for (int p : extremitesVoisines[v]) {
+                long e = ecart(p >> 1);
+                boolean libre = partenaire[extremite[p]] == -1;
+                if (e < ecartMin || (e == ecartMin && libre && partenaire[extremite[choisie]] != -1)) {
+                    ecartMin = e;
+                    choisie = p;
+                }
+            }
+            duale[v] -= ecartMin;
+            int w = extremite[choisie];
+            if (partenaire[w] == -1) {
+                partenaire[v] = choisie;
+                partenaire[w] = choisie ^ 1;
+            }
+        }
+        // Les sommets libres doivent avoir des variables duales de même parité pour que
+        // les écarts entre sommets S restent pairs (pas de demi-unité) : on monte d'un
+        // les impairs, ce qui garde toutes les arêtes réalisables
+        for (int v = 0; v < nbSommets; v++) {
+            if (partenaire[v] == -1 && (duale[v] & 1) != 0) duale[v]++;
+        }
+    }
+
+    private void resoudre() {
+        int n = nbSommets;
+        initialiserGlouton();
+        for (int etape = 0; etape < n; etape++) {
+            Arrays.fill(label, 0);
+            Arrays.fill(meilleureArete, -1);
+            for (int b = n; b < 2 * n; b++) meilleuresAretesFleur[b] = null;
+            Arrays.fill(autorisee, false);
+            tailleFile = 0;
+
+            for (int v = 0; v < n; v++) {
+                if (partenaire[v] == -1 && label[dansFleur[v]] == 0) assignerLabel(v, 1, -1);
+            }
+
+            boolean augmente = false;
+            while (true) {
+                while (tailleFile > 0 && !augmente) {
+                    int v = file[--tailleFile];
+                    for (int p : extremitesVoisines[v]) {
+                        int k = p >> 1;
+                        int w = extremite[p];
+                        if (dansFleur[v] == dansFleur[w]) continue;
+                        long ecartK = 0;
+                        if (!autorisee[k]) {
+                            ecartK = ecart(k);
+                            if (ecartK <= 0) autorisee[k] = true;
+                        }
+                        if (autorisee[k]) {
+                            if (label[dansFleur[w]] == 0) {
+                                assignerLabel(w, 2, p ^ 1);
+                            } else if (label[dansFleur[w]] == 1) {
+                                int base = chercherFleur(v, w);
+                                if (base >= 0) {
+                                    ajouterFleur(base, k);
+                                } else {
+                                    augmenterCouplage(k);
+                                    augmente = true;
+                                    break;
+                                }
+                            } else if (label[w] == 0) {
+                                label[w] = 2;
+                                extremiteLabel[w] = p ^ 1;
+                            }
+                        } else if (label[dansFleur[w]] == 1) {
+                            int b = dansFleur[v];
+                            if (meilleureArete[b] == -1 || ecartK < ecart(meilleureArete[b])) meilleureArete[b] = k;
+                        } else if (label[w] == 0) {
+                            if (meilleureArete[w] == -1 || ecartK < ecart(meilleureArete[w])) meilleureArete[w] = k;
+                        }
+                    }
+                }
+                if (augmente) break;
+
+                // Mise à jour des variables duales (on cherche le plus petit pas possible)
+                int typeDelta = -1;
+                long delta = 0;
+                int areteDelta = -1;
+                int fleurDelta = -1;
+                for (int v = 0; v < n; v++) {
+                    if (label[dansFleur[v]] == 0 && meilleureArete[v] != -1) {
+                        long d = ecart(meilleureArete[v]);
+                        if (typeDelta == -1 || d < delta) {
+                            delta = d;
+                            typeDelta = 2;
+                            areteDelta = meilleureArete[v];
+                        }
+                    }
+                }
+                for (int b = 0; b < 2 * n; b++) {
+                    if (parentFleur[b] == -1 && label[b] == 1 && meilleureArete[b] != -1) {
+                        long d = ecart(meilleureArete[b]) / 2;
+                        if (typeDelta == -1 || d < delta) {
+                            delta = d;
+                            typeDelta = 3;
+                            areteDelta = meilleureArete[b];
+                        }
+                    }
+                }
+                for (int b = n; b < 2 * n; b++) {
+                    if (baseFleur[b] >= 0 && parentFleur[b] == -1 && label[b] == 2
+                            && (typeDelta == -1 || duale[b] < delta)) {
+                        delta = duale[b];
+                        typeDelta = 4;
+                        fleurDelta = b;
+                    }
+                }
+                if (typeDelta == -1) {
+                    // Plus rien à faire : le couplage est de cardinal maximum
+                    typeDelta = 1;
+                    long min = Long.MAX_VALUE;
+                    for (int v = 0; v < n; v++) min = Math.min(min, duale[v]);
+                    delta = Math.max(0, min);
+                }
+
+                for (int v = 0; v < n; v++) {
+                    int l = label[dansFleur[v]];
+                    if (l == 1) duale[v] -= delta;
+                    else if (l == 2) duale[v] += delta;
+                }
+                for (int b = n; b < 2 * n; b++) {
+                    if (baseFleur[b] >= 0 && parentFleur[b] == -1) {
+                        if (label[b] == 1) duale[b] += delta;
+                        else if (label[b] == 2) duale[b] -= delta;
+                    }
+                }
+
+                if (typeDelta == 1) {
+                    break;
+                } else if (typeDelta == 2) {
+                    autorisee[areteDelta] = true;
+                    int i = extremite[2 * areteDelta];
+                    if (label[dansFleur[i]] == 0) i = extremite[2 * areteDelta + 1];
+                    enfiler(i);
+                } else if (typeDelta == 3) {
+                    autorisee[areteDelta] = true;
+                    enfiler(extremite[2 * areteDelta]);
+                } else {
+                    developperFleur(fleurDelta, false);
+                }
+            }
+
+            if (!augmente) break;
+
+            // Fin d'étape : on défait les fleurs S dont la variable duale est nulle
+            for (int b = n; b < 2 * n; b++) {
+                if (parentFleur[b] == -1 && baseFleur[b] >= 0 && label[b] == 1 && duale[b] == 0) {
+                    developperFleur(b, true);
+                }
+            }
+        }
+    }
+}
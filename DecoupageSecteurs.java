@@ -0,0 +1,528 @@
+package algorithmes.tournees;
+
+import algorithmes.base.TasIndexe;
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Découpage de la ville en secteurs de collecte de longueurs de rues proches, en
+ * coupant le moins de rues possible (méthode multiniveau, comme METIS) :
+ *  1. contraction : on fusionne deux à deux les carrefours voisins (de préférence ceux
+ *     reliés par beaucoup de rues), jusqu'à un graphe de quelques centaines de sommets ;
+ *  2. découpage initial de ce petit graphe : chaque secteur grandit depuis un germe
+ *     éloigné des précédents en prenant le sommet le plus attaché à lui ;
+ *  3. on redescend niveau par niveau ; à chaque niveau, les sommets au bord d'un secteur
+ *     changent de secteur quand cela coupe moins de rues sans déséquilibrer.
+ * Une rue coupée (extrémités dans deux secteurs) appartient au secteur de son sommet1 ;
+ * le poids d'un carrefour est donc la longueur des rues dont il est le sommet1, et un
+ * secteur pèse exactement la longueur de ses rues (Secteur.getLongueur). Les morceaux de
+ * secteur détachés du reste sont rendus à un secteur voisin quand il peut les prendre
+ * sans dépasser la tolérance : l'équilibre passe avant, un secteur peut donc rester en
+ * plusieurs morceaux.
+ *
+ * Le sens des rues est ignoré pour le découpage. Même graine : même découpage.
+ */
+public class DecoupageSecteurs {
+
+    private static final int NB_ESSAIS_INITIAUX = 4;
+    private static final int NB_PASSES_AFFINAGE = 8;
+
+    private final Graphe graphe;
+    private final int nbSecteurs;
+    private double tolerance = 0.05;
+    private long graine = 0;
+
+    // Résultat du dernier découpage
+    private int[] secteurDe;
+    private int nbAretesCoupees;
+
+    public DecoupageSecteurs(Graphe graphe, int nbSecteurs) {
+        if (nbSecteurs <= 0) {
+            throw new IllegalArgumentException("Il faut au moins un secteur");
+        }
+        this.graphe = graphe;
+        this.nbSecteurs = nbSecteurs;
+    }
+
+    // Écart toléré entre le secteur le plus lourd et la moyenne (0.05 = 5 %)
+    public void setTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("La tolérance doit être >= 0");
+        }
+        this.tolerance = tolerance;
+    }
+
+    public void setGraine(long graine) { this.graine = graine; }
+
+    public int getNbAretesCoupees() { return nbAretesCoupees; }
+
+    // Secteur d'un carrefour après decouper()
+    public int getSecteur(Sommet sommet) {
+        int indice = graphe.getIndice(sommet);
+        if (secteurDe == null || indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu ou découpage non fait : " + sommet);
+        }
+        return secteurDe[indice];
+    }
+
+    public List<Secteur> decouper() {
+        Random aleatoire = new Random(graine);
+        Niveau niveau = premierNiveau();
+        double poidsMax = (1 + tolerance) * niveau.poidsTotal() / nbSecteurs;
+
+        // 1. Contraction
+        Deque<Niveau> pile = new ArrayDeque<>();
+        int seuil = Math.max(20 * nbSecteurs, 200);
+        while (niveau.n > seuil) {
+            Niveau grossier = niveau.contracter(aleatoire, 1.5 * niveau.poidsTotal() / seuil);
+            if (grossier.n > 0.95 * niveau.n) break;
+            pile.push(niveau);
+            niveau = grossier;
+        }
+
+        // 2. Découpage initial (le meilleur de quelques essais)
+        int[] partie = null;
+        long meilleureCoupe = Long.MAX_VALUE;
+        for (int essai = 0; essai < NB_ESSAIS_INITIAUX; essai++) {
+            int[] candidate = niveau.croissance(nbSecteurs, aleatoire);
+            niveau.affiner(candidate, nbSecteurs, poidsMax);
+            long coupe = niveau.coupe(candidate);
+            if (coupe < meilleureCoupe) {
+                meilleureCoupe = coupe;
+                partie = candidate;
+            }
+        }
+
+        // 3. Projection et affinage niveau par niveau
+        while (!pile.isEmpty()) {
+            Niveau fin = pile.pop();
+            int[] projetee = new int[fin.n];
+            for (int u = 0; u < fin.n; u++) projetee[u] = partie[fin.vers[u]];
+            partie = projetee;
+            fin.affiner(partie, nbSecteurs, poidsMax);
+            niveau = fin;
+        }
+        niveau.rattacherMorceaux(partie, nbSecteurs, poidsMax);
+        niveau.affiner(partie, nbSecteurs, poidsMax);
+        niveau.rattacherMorceaux(partie, nbSecteurs, poidsMax);
+        niveau.affiner(partie, nbSecteurs, poidsMax);
+
+        secteurDe = partie;
+        return construireSecteurs();
+    }
+
+    // Graphe non orienté des carrefours ; les rues parallèles (et les deux sens d'une rue
+    // faite de deux arêtes orientées) comptent pour plusieurs liens
+    private Niveau premierNiveau() {
+        int n = graphe.getNbSommets();
+        double[] poids = new double[n];
+        List<Arete> aretes = graphe.getAretes();
+        int[] u = new int[aretes.size()];
+        int[] v = new int[aretes.size()];
+        for (int e = 0; e < aretes.size(); e++) {
+            Arete arete = aretes.get(e);
+            u[e] = graphe.getIndice(arete.getSommet1());
+            v[e] = graphe.getIndice(arete.getSommet2());
+            // Toute la rue au sommet1, comme dans construireSecteurs
+            poids[u[e]] += arete.getPoids();
+        }
+        return Niveau.depuisLiens(n, u, v, null, aretes.size(), poids);
+    }
+
+    private List<Secteur> construireSecteurs() {
+        List<List<Arete>> aretesSecteur = new ArrayList<>();
+        for (int s = 0; s < nbSecteurs; s++) aretesSecteur.add(new ArrayList<>());
+        nbAretesCoupees = 0;
+        for (Arete arete : graphe.getAretes()) {
+            int s1 = secteurDe[graphe.getIndice(arete.getSommet1())];
+            int s2 = secteurDe[graphe.getIndice(arete.getSommet2())];
+            if (s1 != s2) nbAretesCoupees++;
+            aretesSecteur.get(s1).add(arete);
+        }
+        List<Secteur> secteurs = new ArrayList<>();
+        for (int s = 0; s < nbSecteurs; s++) {
+            List<Sommet> sommets = new ArrayList<>();
+            List<Sommet> frontiere = new ArrayList<>();
+            for (int i = 0; i < graphe.getNbSommets(); i++) {
+                if (secteurDe[i] != s) continue;
+                Sommet sommet = graphe.getSommet(i);
+                sommets.add(sommet);
+                for (Arete arete : graphe.getAretesAdjacentes(sommet)) {
+                    if (secteurDe[graphe.getIndice(arete.getAutreSommet(sommet))] != s) {
+                        frontiere.add(sommet);
+                        break;
+                    }
+                }
+            }
+            secteurs.add(new Secteur(s, graphe.getTypeHypothese(), sommets, frontiere, aretesSecteur.get(s)));
+        }
+        return secteurs;
+    }
+
+
+    // UN NIVEAU DU GRAPHE (contracté ou non), au format CSR
+
+    private static final class Niveau {
+        final int n;
+        final int[] debut;
+        final int[] voisins;
+        final int[] liens;          // nombre de rues d'origine entre les deux sommets
+        final double[] poids;
+        int[] vers;                 // sommet du niveau plus grossier (après contracter)
+
+        private Niveau(int n, int[] debut, int[] voisins, int[] liens, double[] poids) {
+            this.n = n;
+            this.debut = debut;
+            this.voisins = voisins;
+            this.liens = liens;
+            this.poids = poids;
+        }
+
+        // Liens (u[i], v[i]) de multiplicité nb[i] (1 si nb est null) ; les boucles sont
+        // ignorées et les liens en double fusionnés
+        static Niveau depuisLiens(int n, int[] u, int[] v, int[] nb, int nbLiens, double[] poids) {
+            int[] degre = new int[n + 1];
+            for (int i = 0; i < nbLiens; i++) {
+                if (u[i] == v[i]) continue;
+                degre[u[i] + 1]++;
+                degre[v[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) degre[i + 1] += degre[i];
+            int[] brutsVoisins = new int[degre[n]];
+            int[] brutsLiens = new int[degre[n]];
+            int[] prochain = Arrays.copyOf(degre, n);
+            for (int i = 0; i < nbLiens; i++) {
+                if (u[i] == v[i]) continue;
+                int m = (nb == null) ? 1 : nb[i];
+                brutsVoisins[prochain[u[i]]] = v[i];
+                brutsLiens[prochain[u[i]]++] = m;
+                brutsVoisins[prochain[v[i]]] = u[i];
+                brutsLiens[prochain[v[i]]++] = m;
+            }
+
+            // Fusion des doublons voisin par voisin (position du voisin dans la liste en cours)
+            int[] debut = new int[n + 1];
+            int[] voisins = new int[degre[n]];
+            int[] liens = new int[degre[n]];
+            int[] place = new int[n];
+            Arrays.fill(place, -1);
+            int k = 0;
+            for (int x = 0; x < n; x++) {
+                debut[x] = k;
+                for (int i = degre[x]; i < degre[x + 1]; i++) {
+                    int y = brutsVoisins[i];
+                    if (place[y] >= debut[x]) {
+                        liens[place[y]] += brutsLiens[i];
+                    } else {
+                        place[y] = k;
+                        voisins[k] = y;
+                        liens[k++] = brutsLiens[i];
+                    }
+                }
+            }
+            debut[n] = k;
+            return new Niveau(n, debut, Arrays.copyOf(voisins, k), Arrays.copyOf(liens, k), poids);
+        }
+
+        double poidsTotal() {
+            double total = 0;
+            for (double p : poids) total += p;
+            return total;
+        }
+
+        // Couplage par le lien le plus lourd (à égalité, le voisin le plus léger), dans un
+        // ordre aléatoire ; un sommet déjà trop lourd reste seul
+        Niveau contracter(Random aleatoire, double poidsMaxFusion) {
+            int[] ordre = permutation(n, aleatoire);
+            vers = new int[n];
+            Arrays.fill(vers, -1);
+            int nbGrossiers = 0;
+            for (int u : ordre) {
+                if (vers[u] >= 0) continue;
+                int choisi = -1;
+                for (int i = debut[u]; i < debut[u + 1]; i++) {
+                    int v = voisins[i];
+                    if (vers[v] >= 0 || poids[u] + poids[v] > poidsMaxFusion) continue;
+                    if (choisi < 0 || liens[i] > liens[choisi] || (liens[i] == liens[choisi] && poids[v] < poids[voisins[choisi]])) {
+                        choisi = i;
+                    }
+                }
+                vers[u] = nbGrossiers;
+                if (choisi >= 0) vers[voisins[choisi]] = nbGrossiers;
+                nbGrossiers++;
+            }
+
+            double[] poidsGrossiers = new double[nbGrossiers];
+            for (int u = 0; u < n; u++) poidsGrossiers[vers[u]] += poids[u];
+            int[] a = new int[voisins.length];
+            int[] b = new int[voisins.length];
+            int[] nb = new int[voisins.length];
+            int nbLiens = 0;
+            for (int u = 0; u < n; u++) {
+                for (int i = debut[u]; i < debut[u + 1]; i++) {
+                    if (u < voisins[i]) {
+                        a[nbLiens] = vers[u];
+                        b[nbLiens] = vers[voisins[i]];
+                        nb[nbLiens++] = liens[i];
+                    }
+                }
+            }
+            return depuisLiens(nbGrossiers, a, b, nb, nbLiens, poidsGrossiers);
+        }
+
+        // Chaque secteur grandit depuis un germe (le sommet libre le plus loin, en nombre de
+        // rues, des germes précédents) en prenant le voisin le plus attaché à lui, jusqu'à
+        // sa part du poids ; le dernier prend le reste
+        int[] croissance(int nbParties, Random aleatoire) {
+            int[] partie = new int[n];
+            Arrays.fill(partie, -1);
+            double cible = poidsTotal() / nbParties;
+            int[] distance = new int[n];
+            Arrays.fill(distance, Integer.MAX_VALUE);
+            int[] file = new int[n];
+            TasIndexe frontiere = new TasIndexe(n);
+            int[] composante = composantes();
+            boolean[] entamee = new boolean[n];
+            int germe = aleatoire.nextInt(n);
+
+            for (int p = 0; p < nbParties - 1 && germe >= 0; p++) {
+                double poidsPartie = 0;
+                frontiere.vider();
+                frontiere.inserer(germe, 0.0);
+                int libre = 0;
+                while (poidsPartie < cible) {
+                    if (frontiere.estVide()) {
+                        // Composante épuisée (ville en plusieurs morceaux) : on continue dans une
+                        // composante que personne n'a encore entamée ; sinon la partie est
+                        // enfermée par les précédentes et reprend depuis un sommet libre
+                        while (libre < n && (partie[libre] >= 0 || entamee[composante[libre]])) libre++;
+                        int reprise = libre;
+                        if (reprise == n) {
+                            reprise = 0;
+                            while (reprise < n && partie[reprise] >= 0) reprise++;
+                            if (reprise == n) break;
+                        }
+                        frontiere.inserer(reprise, 0.0);
+                    }
+                    int u = frontiere.extraireMin();
+                    partie[u] = p;
+                    entamee[composante[u]] = true;
+                    poidsPartie += poids[u];
+                    for (int i = debut[u]; i < debut[u + 1]; i++) {
+                        int v = voisins[i];
+                        if (partie[v] >= 0) continue;
+                        // Clé : moins le nombre de liens vers la partie (plus attaché = plus tôt)
+                        double cle = frontiere.contient(v) ? frontiere.getCle(v) - liens[i] : -liens[i];
+                        frontiere.insererOuDiminuer(v, cle);
+                    }
+                }
+                // Germe suivant : le plus loin de tout ce qui est déjà pris, dans une composante
+                // déjà entamée si possible (sinon chaque petit morceau isolé ferait un secteur)
+                int tete = 0, queue = 0;
+                for (int u = 0; u < n; u++) {
+                    if (partie[u] == p) {
+                        distance[u] = 0;
+                        file[queue++] = u;
+                    }
+                }
+                while (tete < queue) {
+                    int u = file[tete++];
+                    for (int i = debut[u]; i < debut[u + 1]; i++) {
+                        int v = voisins[i];
+                        if (distance[v] > distance[u] + 1) {
+                            distance[v] = distance[u] + 1;
+                            file[queue++] = v;
+                        }
+                    }
+                }
+                germe = -1;
+                for (int u = 0; u < n; u++) {
+                    if (partie[u] >= 0) continue;
+                    boolean atteint = distance[u] < Integer.MAX_VALUE;
+                    boolean germeAtteint = germe >= 0 && distance[germe] < Integer.MAX_VALUE;
+                    if (germe < 0 || (atteint && !germeAtteint)
+                            || (atteint == germeAtteint && distance[u] > distance[germe])) {
+                        germe = u;
+                    }
+                }
+            }
+            for (int u = 0; u < n; u++) {
+                if (partie[u] < 0) partie[u] = nbParties - 1;
+            }
+            return partie;
+        }
+
+        // Numéro de composante connexe de chaque sommet
+        int[] composantes() {
+            int[] composante = new int[n];
+            Arrays.fill(composante, -1);
+            int[] file = new int[n];
+            int nbComposantes = 0;
+            for (int s = 0; s < n; s++) {
+                if (composante[s] >= 0) continue;
+                int tete = 0, queue = 0;
+                composante[s] = nbComposantes;
+                file[queue++] = s;
+                while (tete < queue) {
+                    int u = file[tete++];
+                    for (int i = debut[u]; i < debut[u + 1]; i++) {
+                        if (composante[voisins[i]] < 0) {
+                            composante[voisins[i]] = nbComposantes;
+                            file[queue++] = voisins[i];
+                        }
+                    }
+                }
+                nbComposantes++;
+            }
+            return composante;
+        }
+
+        // Déplacements de sommets du bord : on gagne des liens sans dépasser poidsMax, ou
+        // on soulage une partie trop lourde en perdant le moins de liens possible
+        void affiner(int[] partie, int nbParties, double poidsMax) {
+            double[] poidsParties = new double[nbParties];
+            for (int u = 0; u < n; u++) poidsParties[partie[u]] += poids[u];
+            int[] connexion = new int[nbParties];
+            int[] touchees = new int[nbParties];
+
+            for (int passe = 0; passe < NB_PASSES_AFFINAGE; passe++) {
+                int nbDeplacements = 0;
+                for (int u = 0; u < n; u++) {
+                    int p = partie[u];
+                    int nbTouchees = 0;
+                    boolean auBord = false;
+                    for (int i = debut[u]; i < debut[u + 1]; i++) {
+                        int q = partie[voisins[i]];
+                        if (connexion[q] == 0) touchees[nbTouchees++] = q;
+                        connexion[q] += liens[i];
+                        auBord |= (q != p);
+                    }
+                    if (auBord) {
+                        boolean tropLourde = poidsParties[p] > poidsMax;
+                        int meilleure = -1;
+                        for (int t = 0; t < nbTouchees; t++) {
+                            int q = touchees[t];
+                            if (q == p || poidsParties[q] + poids[u] > poidsMax) continue;
+                            int gain = connexion[q] - connexion[p];
+                            boolean utile = gain > 0
+                                    || (gain == 0 && poidsParties[q] + poids[u] < poidsParties[p])
+                                    || tropLourde;
+                            if (utile && (meilleure < 0 || gain > connexion[meilleure] - connexion[p]
+                                    || (gain == connexion[meilleure] - connexion[p] && poidsParties[q] < poidsParties[meilleure]))) {
+                                meilleure = q;
+                            }
+                        }
+                        if (meilleure >= 0) {
+                            partie[u] = meilleure;
+                            poidsParties[p] -= poids[u];
+                            poidsParties[meilleure] += poids[u];
+                            nbDeplacements++;
+                        }
+                    }
+                    for (int t = 0; t < nbTouchees; t++) connexion[touchees[t]] = 0;
+                }
+                if (nbDeplacements == 0) break;
+            }
+        }
+
+        long coupe(int[] partie) {
+            long total = 0;
+            for (int u = 0; u < n; u++) {
+                for (int i = debut[u]; i < debut[u + 1]; i++) {
+                    if (u < voisins[i] && partie[u] != partie[voisins[i]]) total += liens[i];
+                }
+            }
+            return total;
+        }
+
+        // Chaque partie ne garde que son plus gros morceau d'un seul tenant ; les autres
+        // morceaux vont à la partie voisine à laquelle ils sont le plus attachés parmi celles
+        // qui restent sous poidsMax (à égalité, la plus légère)
+        void rattacherMorceaux(int[] partie, int nbParties, double poidsMax) {
+            double[] poidsParties = new double[nbParties];
+            for (int u = 0; u < n; u++) poidsParties[partie[u]] += poids[u];
+            int[] morceau = new int[n];
+            int[] file = new int[n];
+            boolean change = true;
+            for (int tour = 0; change && tour < nbParties + 1; tour++) {
+                change = false;
+                Arrays.fill(morceau, -1);
+                List<int[]> morceaux = new ArrayList<>();     // { partie, premier sommet de la file, taille }
+                List<Double> poidsMorceaux = new ArrayList<>();
+                int queue = 0;
+                for (int s = 0; s < n; s++) {
+                    if (morceau[s] >= 0) continue;
+                    int numero = morceaux.size();
+                    int premier = queue;
+                    double poidsMorceau = 0;
+                    morceau[s] = numero;
+                    file[queue++] = s;
+                    for (int tete = premier; tete < queue; tete++) {
+                        int u = file[tete];
+                        poidsMorceau += poids[u];
+                        for (int i = debut[u]; i < debut[u + 1]; i++) {
+                            int v = voisins[i];
+                            if (morceau[v] < 0 && partie[v] == partie[u]) {
+                                morceau[v] = numero;
+                                file[queue++] = v;
+                            }
+                        }
+                    }
+                    morceaux.add(new int[] { partie[s], premier, queue - premier });
+                    poidsMorceaux.add(poidsMorceau);
+                }
+
+                // Le morceau principal de chaque partie : le plus lourd
+                int[] principal = new int[nbParties];
+                Arrays.fill(principal, -1);
+                for (int m = 0; m < morceaux.size(); m++) {
+                    int p = morceaux.get(m)[0];
+                    if (principal[p] < 0 || poidsMorceaux.get(m) > poidsMorceaux.get(principal[p])) principal[p] = m;
+                }
+                int[] connexion = new int[nbParties];
+                for (int m = 0; m < morceaux.size(); m++) {
+                    int[] morceauM = morceaux.get(m);
+                    int p = morceauM[0];
+                    if (principal[p] == m) continue;
+                    Arrays.fill(connexion, 0);
+                    for (int k = morceauM[1]; k < morceauM[1] + morceauM[2]; k++) {
+                        int u = file[k];
+                        for (int i = debut[u]; i < debut[u + 1]; i++) {
+                            int q = partie[voisins[i]];
+                            if (q != p) connexion[q] += liens[i];
+                        }
+                    }
+                    double poidsMorceau = poidsMorceaux.get(m);
+                    int meilleure = -1;
+                    for (int q = 0; q < nbParties; q++) {
+                        if (connexion[q] == 0 || poidsParties[q] + poidsMorceau > poidsMax) continue;
+                        if (meilleure < 0 || connexion[q] > connexion[meilleure]
+                                || (connexion[q] == connexion[meilleure] && poidsParties[q] < poidsParties[meilleure])) {
+                            meilleure = q;
+                        }
+                    }
+                    // Morceau isolé de tout (composante à part du graphe) ou qu'aucun voisin ne
+                    // peut prendre sans devenir trop lourd : il reste où il est
+                    if (meilleure < 0) continue;
+                    for (int k = morceauM[1]; k < morceauM[1] + morceauM[2]; k++) partie[file[k]] = meilleure;
+                    poidsParties[p] -= poidsMorceau;
+                    poidsParties[meilleure] += poidsMorceau;
+                    change = true;
+                }
+            }
+        }
+    }
+
+    private static int[] permutation(int n, Random aleatoire) {
+        int[] ordre = new int[n];
+        for (int i = 0; i < n; i++) ordre[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = aleatoire.nextInt(i + 1);
+            int t = ordre[i];
+            ordre[i] = ordre[j];
+            ordre[j] = t;
+        }
+        return ordre;
+    }
+}
@@ -0,0 +1,505 @@
+package algorithmes.base;
+
+import modele.graphe.*;
+import java.lang.invoke.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+
+/**
+ * Plus courts chemins depuis une source vers tous les sommets, calculés en parallèle
+ * (delta-stepping) : pour les analyses sur toute une métropole, là où Dijkstra
+ * n'utilise qu'un cœur.
+ *
+ * Les sommets attendent dans des paquets de largeur delta selon leur distance
+ * provisoire. On vide les paquets dans l'ordre ; dans un paquet, tous les sommets sont
+ * traités en même temps : relâchement des arcs légers (poids <= delta) jusqu'à ce que
+ * le paquet ne bouge plus, puis des arcs lourds, qui ne peuvent mener qu'aux paquets
+ * suivants. Les distances sont dans un long[] (bits du double, qui se comparent comme
+ * des long pour des distances >= 0) mis à jour par compare-and-set.
+ *
+ * Les distances sont exactement celles de Dijkstra / DijkstraFige, au bit près : chaque
+ * distance est la plus petite des sommes (dans l'ordre du chemin) des poids d'un chemin,
+ * quel que soit l'ordre des relâchements. Entre deux plus courts chemins de même
+ * longueur, l'arbre des chemins peut en revanche différer de celui de Dijkstra ; il ne
+ * dépend pas des threads (premier arc entrant qui donne la distance).
+ *
+ * Delta est choisi d'après les poids des arcs (voir choisirDelta) sauf si setDelta le fixe.
+ */
+public class DeltaStepping {
+
+    // En dessous, un paquet est traité par le thread appelant (pas de tâches)
+    private static final int SOMMETS_PAR_TACHE = 512;
+    // Au-delà, les paquets coûtent plus en mémoire qu'ils ne rapportent
+    private static final int NB_PAQUETS_MAX = 1 << 16;
+
+    private static final VarHandle DISTANCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle MARQUES = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final long INFINI = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+
+    private final GrapheFige graphe;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private double deltaImpose = 0;     // 0 : choisi automatiquement
+
+    // Arcs de chaque sommet, légers d'abord (pour le delta courant)
+    private double delta;
+    private double poidsMax;
+    private int[] arcsTries;
+    private int[] finLegers;
+
+    // Arcs entrants (pour l'arbre des chemins) : arcs rangés par cible, et leur origine
+    private final int[] debutEntrants;
+    private final int[] arcsEntrants;
+    private final int[] origine;
+
+    // Résultats du dernier calcul
+    private int source = -1;
+    private final long[] distances;
+    private final int[] arcPredecesseur;
+    private final int[] marque;          // dédoublonnage des sommets (numéro de passe)
+    private int passe;
+    private int nbPhases;
+    private final LongAdder nbArcsRelaches = new LongAdder();
+
+    public DeltaStepping(GrapheFige graphe) {
+        this.graphe = graphe;
+        int n = graphe.getNbSommets();
+        int m = graphe.getNbArcs();
+        this.distances = new long[n];
+        this.arcPredecesseur = new int[n];
+        this.marque = new int[n];
+
+        origine = new int[m];
+        debutEntrants = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int a = graphe.premierArc(u); a < graphe.finArcs(u); a++) {
+                origine[a] = u;
+                debutEntrants[graphe.getCible(a) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) debutEntrants[v + 1] += debutEntrants[v];
+        arcsEntrants = new int[m];
+        int[] prochain = Arrays.copyOf(debutEntrants, n);
+        for (int a = 0; a < m; a++) arcsEntrants[prochain[graphe.getCible(a)]++] = a;
+    }
+
+    public GrapheFige getGraphe() {
+        return graphe;
+    }
+
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+
+    // Largeur des paquets ; 0 pour la laisser choisir d'après les poids
+    public void setDelta(double delta) {
+        if (!(delta >= 0) || Double.isInfinite(delta)) {
+            throw new IllegalArgumentException("Delta doit être >= 0 et fini : " + delta);
+        }
+        this.deltaImpose = delta;
+        this.arcsTries = null;
+    }
+
+    // Delta du dernier calcul
+    public double getDelta() { return delta; }
+
+    // Compteurs du dernier calcul : phases (relâchements en parallèle) et arcs relâchés
+    public int getNbPhases() { return nbPhases; }
+    public long getNbArcsRelaches() { return nbArcsRelaches.sum(); }
+
+    // Delta d'après les poids des arcs. Meyer et Sanders conseillent poids max / degré
+    // moyen : un paquet plus large fait relâcher des arcs plusieurs fois, un paquet plus
+    // étroit laisse trop peu de sommets à traiter ensemble. Le centile 99 remplace le
+    // max (une autoroute isolée ne doit pas tout élargir) et la médiane sert de plancher
+    // (beaucoup d'arcs très courts ne doivent pas tout rétrécir).
+    static double choisirDelta(GrapheFige graphe) {
+        int m = graphe.getNbArcs();
+        // Échantillon régulier d'au plus 4096 arcs
+        int pas = Math.max(1, m / 4096);
+        double[] echantillon = new double[(m + pas - 1) / pas];
+        for (int a = 0, i = 0; a < m; a += pas) echantillon[i++] = graphe.getPoids(a);
+        Arrays.sort(echantillon);
+        if (echantillon.length == 0 || echantillon[echantillon.length - 1] == 0) return 1.0;
+        double mediane = echantillon[echantillon.length / 2];
+        double centile99 = echantillon[(int) (0.99 * (echantillon.length - 1))];
+        double degreMoyen = Math.max(1.0, m / (double) graphe.getNbSommets());
+        return Math.max(Math.max(mediane, centile99 / degreMoyen), Double.MIN_NORMAL);
+    }
+
+    private void preparer() {
+        double voulu = (deltaImpose > 0) ? deltaImpose : choisirDelta(graphe);
+        if (arcsTries != null && voulu == delta) return;
+        poidsMax = 0;
+        for (int a = 0; a < graphe.getNbArcs(); a++) poidsMax = Math.max(poidsMax, graphe.getPoids(a));
+        if (deltaImpose == 0) {
+            voulu = Math.max(voulu, poidsMax / (NB_PAQUETS_MAX - 2));
+        } else if (poidsMax / voulu > NB_PAQUETS_MAX - 2) {
+            throw new IllegalArgumentException("Delta trop petit pour des arcs de " + poidsMax + " : " + voulu);
+        }
+        delta = voulu;
+        int n = graphe.getNbSommets();
+        arcsTries = new int[graphe.getNbArcs()];
+        finLegers = new int[n];
+        for (int u = 0; u < n; u++) {
+            int debut = graphe.premierArc(u), fin = graphe.finArcs(u);
+            int legers = debut, lourds = fin;
+            for (int a = debut; a < fin; a++) {
+                if (graphe.getPoids(a) <= delta) arcsTries[legers++] = a;
+                else arcsTries[--lourds] = a;
+            }
+            finLegers[u] = legers;
+        }
+    }
+
+    public void executer(Sommet source) {
+        int indice = graphe.getIndice(source);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + source);
+        }
+        executer(indice);
+    }
+
+    public void executer(int source) {
+        preparer();
+        int n = graphe.getNbSommets();
+        this.source = source;
+        Arrays.fill(distances, INFINI);
+        Arrays.fill(marque, 0);
+        passe = 0;
+        nbPhases = 0;
+        nbArcsRelaches.reset();
+
+        // Paquet b dans la case b % nbCases : à tout moment, les distances provisoires
+        // tiennent dans delta + poids max à partir du paquet courant
+        int nbCases = (int) (poidsMax / delta) + 2;
+        ListeEntiers[] cases = new ListeEntiers[nbCases];
+        for (int c = 0; c < nbCases; c++) cases[c] = new ListeEntiers();
+
+        distances[source] = Double.doubleToRawLongBits(0.0);
+        cases[0].ajouter(source);
+        int[] ameliores = new int[n];
+        AtomicInteger nbAmeliores = new AtomicInteger();
+        ListeEntiers regles = new ListeEntiers();    // sommets sortis du paquet courant
+
+        long paquet = 0;
+        while (true) {
+            // Prochain paquet non vide (les entrées périmées sont jetées au passage)
+            int[] frontiere = null;
+            int taille = 0;
+            for (int k = 0; k < nbCases && frontiere == null; k++, paquet++) {
+                ListeEntiers liste = cases[(int) (paquet % nbCases)];
+                if (liste.taille == 0) continue;
+                passe++;
+                for (int i = 0; i < liste.taille; i++) {
+                    int v = liste.valeurs[i];
+                    if (marque[v] != passe && numeroPaquet(v) == paquet) {
+                        marque[v] = passe;
+                        liste.valeurs[taille++] = v;
+                    }
+                }
+                if (taille > 0) {
+                    frontiere = liste.valeurs;
+                    liste.valeurs = new int[4];
+                }
+                liste.taille = 0;
+                if (frontiere != null) break;
+            }
+            if (frontiere == null) break;
+
+            // Arcs légers, jusqu'à ce que plus aucun sommet n'entre dans le paquet
+            regles.taille = 0;
+            while (taille > 0) {
+                for (int i = 0; i < taille; i++) regles.ajouter(frontiere[i]);
+                relacher(frontiere, taille, true, ameliores, nbAmeliores);
+                int suivants = 0;
+                int[] prochaine = new int[Math.max(4, nbAmeliores.get())];
+                for (int i = 0; i < nbAmeliores.get(); i++) {
+                    int v = ameliores[i];
+                    long b = numeroPaquet(v);
+                    if (b == paquet) prochaine[suivants++] = v;
+                    else cases[(int) (b % nbCases)].ajouter(v);
+                }
+                frontiere = prochaine;
+                taille = suivants;
+            }
+
+            // Arcs lourds de tous les sommets sortis du paquet (sans doublons)
+            passe++;
+            int nbRegles = 0;
+            for (int i = 0; i < regles.taille; i++) {
+                int v = regles.valeurs[i];
+                if (marque[v] != passe) {
+                    marque[v] = passe;
+                    regles.valeurs[nbRegles++] = v;
+                }
+            }
+            relacher(regles.valeurs, nbRegles, false, ameliores, nbAmeliores);
+            for (int i = 0; i < nbAmeliores.get(); i++) {
+                int v = ameliores[i];
+                cases[(int) (numeroPaquet(v) % nbCases)].ajouter(v);
+            }
+        }
+
+        construireArbre();
+    }
+
+    private long numeroPaquet(int v) {
+        return (long) (Double.longBitsToDouble(distances[v]) / delta);
+    }
+
+    // Relâche les arcs légers (ou lourds) des sommets ; ameliores reçoit, une fois chacun,
+    // les sommets dont la distance a baissé
+    private void relacher(int[] sommets, int taille, boolean legers, int[] ameliores, AtomicInteger nbAmeliores) {
+        nbPhases++;
+        passe++;
+        nbAmeliores.set(0);
+        Relaxation tache = new Relaxation(sommets, 0, taille, legers, passe, ameliores, nbAmeliores);
+        if (taille <= SOMMETS_PAR_TACHE) {
+            tache.compute();
+        } else {
+            pool.invoke(tache);
+        }
+    }
+
+    private final class Relaxation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sommets;
+        private final int debut;
+        private final int fin;
+        private final boolean legers;
+        private final int passeCourante;
+        private final int[] ameliores;
+        private final AtomicInteger nbAmeliores;
+
+        Relaxation(int[] sommets, int debut, int fin, boolean legers, int passeCourante,
+                   int[] ameliores, AtomicInteger nbAmeliores) {
+            this.sommets = sommets;
+            this.debut = debut;
+            this.fin = fin;
+            this.legers = legers;
+            this.passeCourante = passeCourante;
+            this.ameliores = ameliores;
+            this.nbAmeliores = nbAmeliores;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut > SOMMETS_PAR_TACHE) {
+                int milieu = (debut + fin) >>> 1;
+                invokeAll(new Relaxation(sommets, debut, milieu, legers, passeCourante, ameliores, nbAmeliores),
+                        new Relaxation(sommets, milieu, fin, legers, passeCourante, ameliores, nbAmeliores));
+                return;
+            }
+            ListeEntiers locaux = new ListeEntiers();
+            long relaches = 0;
+            for (int i = debut; i < fin; i++) {
+                int u = sommets[i];
+                double du = Double.longBitsToDouble((long) DISTANCES.getOpaque(distances, u));
+                int premier = legers ? graphe.premierArc(u) : finLegers[u];
+                int dernier = legers ? finLegers[u] : graphe.finArcs(u);
+                relaches += dernier - premier;
+                for (int k = premier; k < dernier; k++) {
+                    int a = arcsTries[k];
+                    int v = graphe.getCible(a);
+                    long nouvelle = Double.doubleToRawLongBits(du + graphe.getPoids(a));
+                    if (diminuer(v, nouvelle) && marquer(v)) locaux.ajouter(v);
+                }
+            }
+            nbArcsRelaches.add(relaches);
+            if (locaux.taille > 0) {
+                int place = nbAmeliores.getAndAdd(locaux.taille);
+                System.arraycopy(locaux.valeurs, 0, ameliores, place, locaux.taille);
+            }
+        }
+
+        // Minimum atomique ; vrai si la distance a baissé
+        private boolean diminuer(int v, long nouvelle) {
+            long ancienne = (long) DISTANCES.getOpaque(distances, v);
+            while (nouvelle < ancienne) {
+                long lue = (long) DISTANCES.compareAndExchange(distances, v, ancienne, nouvelle);
+                if (lue == ancienne) return true;
+                ancienne = lue;
+            }
+            return false;
+        }
+
+        // Vrai pour le premier thread qui signale v pendant cette passe
+        private boolean marquer(int v) {
+            int vue = (int) MARQUES.getOpaque(marque, v);
+            while (vue != passeCourante) {
+                int lue = (int) MARQUES.compareAndExchange(marque, v, vue, passeCourante);
+                if (lue == vue) return true;
+                vue = lue;
+            }
+            return false;
+        }
+    }
+
+    // Arbre des chemins : pour chaque sommet, le premier arc entrant qui donne exactement
+    // sa distance depuis un sommet plus proche de la source. Les égalités (arcs de poids
+    // nul) sont réglées ensuite de proche en proche depuis les sommets déjà rattachés.
+    private void construireArbre() {
+        int n = graphe.getNbSommets();
+        pool.invoke(new Rattachement(0, n));
+        arcPredecesseur[source] = -1;
+
+        ListeEntiers restants = new ListeEntiers();
+        for (int v = 0; v < n; v++) {
+            if (v != source && arcPredecesseur[v] < 0 && distances[v] != INFINI) restants.ajouter(v);
+        }
+        boolean progres = true;
+        while (restants.taille > 0 && progres) {
+            progres = false;
+            int garde = 0;
+            for (int i = 0; i < restants.taille; i++) {
+                int v = restants.valeurs[i];
+                for (int k = debutEntrants[v]; k < debutEntrants[v + 1]; k++) {
+                    int a = arcsEntrants[k];
+                    int u = origine[a];
+                    if ((u == source || arcPredecesseur[u] >= 0) && u != v && donneDistance(a, v)) {
+                        arcPredecesseur[v] = a;
+                        progres = true;
+                        break;
+                    }
+                }
+                if (arcPredecesseur[v] < 0) restants.valeurs[garde++] = v;
+            }
+            restants.taille = garde;
+        }
+    }
+
+    private boolean donneDistance(int arc, int v) {
+        double du = Double.longBitsToDouble(distances[origine[arc]]);
+        return du + graphe.getPoids(arc) == Double.longBitsToDouble(distances[v]);
+    }
+
+    private final class Rattachement extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int debut;
+        private final int fin;
+
+        Rattachement(int debut, int fin) {
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut > 8 * SOMMETS_PAR_TACHE) {
+                int milieu = (debut + fin) >>> 1;
+                invokeAll(new Rattachement(debut, milieu), new Rattachement(milieu, fin));
+                return;
+            }
+            for (int v = debut; v < fin; v++) {
+                arcPredecesseur[v] = -1;
+                if (distances[v] == INFINI) continue;
+                for (int k = debutEntrants[v]; k < debutEntrants[v + 1]; k++) {
+                    int a = arcsEntrants[k];
+                    if (distances[origine[a]] < distances[v] && donneDistance(a, v)) {
+                        arcPredecesseur[v] = a;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Accès par indice
+
+    public double getDistance(int destination) {
+        return Double.longBitsToDouble(distances[destination]);
+    }
+
+    public boolean estAccessible(int destination) {
+        return distances[destination] != INFINI;
+    }
+
+    public int getArcPredecesseur(int destination) {
+        return arcPredecesseur[destination];
+    }
+
+    // Copie de toutes les distances (POSITIVE_INFINITY pour les sommets inaccessibles)
+    public double[] getDistances() {
+        double[] copie = new double[distances.length];
+        for (int v = 0; v < copie.length; v++) copie[v] = Double.longBitsToDouble(distances[v]);
+        return copie;
+    }
+
+    // Accès par Sommet (mêmes méthodes que Dijkstra)
+
+    public double getDistance(Sommet destination) {
+        int indice = graphe.getIndice(destination);
+        return (indice < 0) ? Double.POSITIVE_INFINITY : getDistance(indice);
+    }
+
+    public boolean estAccessible(Sommet destination) {
+        return getDistance(destination) < Double.POSITIVE_INFINITY;
+    }
+
+    public List<Sommet> getChemin(Sommet destination) {
+        List<Sommet> chemin = new ArrayList<>();
+        int v = graphe.getIndice(destination);
+        if (v < 0 || !estAccessible(v)) {
+            return chemin;
+        }
+        chemin.add(graphe.getSommet(v));
+        while (arcPredecesseur[v] >= 0) {
+            v = origine[arcPredecesseur[v]];
+            chemin.add(graphe.getSommet(v));
+        }
+        Collections.reverse(chemin);
+        return chemin;
+    }
+
+    public List<Arete> getAretesChemins(Sommet destination) {
+        List<Arete> aretes = new ArrayList<>();
+        int v = graphe.getIndice(destination);
+        if (v < 0 || !estAccessible(v)) {
+            return aretes;
+        }
+        while (arcPredecesseur[v] >= 0) {
+            int arc = arcPredecesseur[v];
+            aretes.add(graphe.getArete(graphe.getNumeroArete(arc)));
+            v = origine[arc];
+        }
+        Collections.reverse(aretes);
+        return aretes;
+    }
+
+    public void afficherResultats() {
+        System.out.println("=== DELTA-STEPPING (delta = " + delta + ") depuis " + graphe.getSommet(source).getId() + " ===");
+        System.out.println();
+
+        for (int v = 0; v < graphe.getNbSommets(); v++) {
+            if (v == source) continue;
+
+            Sommet sommet = graphe.getSommet(v);
+            if (!estAccessible(v)) {
+                System.out.println(sommet.getId() + " : INACCESSIBLE");
+            } else {
+                System.out.println(sommet.getId() + " : distance = " + getDistance(v));
+                List<Sommet> chemin = getChemin(sommet);
+                System.out.print("  Chemin : ");
+                for (int i = 0; i < chemin.size(); i++) {
+                    System.out.print(chemin.get(i).getId());
+                    if (i < chemin.size() - 1) System.out.print(" → ");
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    // Petite liste d'int qui grandit (évite les List<Integer>)
+    private static final class ListeEntiers {
+        private int[] valeurs = new int[4];
+        private int taille;
+
+        void ajouter(int valeur) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = valeur;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package modele.graphe;
+
+import java.util.*;
+
+
+/**
+ * Dictionnaire des identifiants de sommets : identifiant -> numéro dense (0, 1, 2...
+ * dans l'ordre d'ajout), et l'inverse.
+ *
+ * Les identifiants sont mis bout à bout dans un seul char[] ; un identifiant est repéré
+ * par un long (début, longueur). La table de hachage est un int[] à adressage ouvert où
+ * chaque case tient le numéro et le hachage côte à côte. Pas d'objet par entrée (ni
+ * Map.Entry, ni Integer) : une recherche lit la case, la position du texte et ses
+ * caractères. Le hachage est celui de String.hashCode, gardé en cache par les String.
+ *
+ * Les caractères sont une copie : les Sommet gardent leurs propres String (id, nom), le
+ * gain par rapport à une HashMap vient des entrées et des Integer en moins.
+ * getId recrée une String à la demande. Non synchronisé : un seul thread écrit, et
+ * personne ne lit pendant ce temps.
+ */
+public final class DictionnaireSommets {
+
+    private char[] caracteres;
+    private int nbCaracteres;
+
+    private long[] positionId;     // numéro -> (début << 32) | longueur de l'identifiant
+    private int nb;
+
+    private int[] cases;           // paires (numéro, hachage) ; numéro -1 pour une case vide
+    private int masque;            // nombre de cases - 1 (au plus à moitié pleines)
+
+    public DictionnaireSommets() {
+        this(16);
+    }
+
+    public DictionnaireSommets(int capacite) {
+        int c = Math.max(4, capacite);
+        caracteres = new char[8 * c];
+        positionId = new long[c];
+        nouvellesCases(Integer.highestOneBit(2 * c - 1) << 1);
+    }
+
+    private DictionnaireSommets(DictionnaireSommets autre) {
+        caracteres = Arrays.copyOf(autre.caracteres, autre.nbCaracteres);
+        nbCaracteres = autre.nbCaracteres;
+        positionId = Arrays.copyOf(autre.positionId, Math.max(1, autre.nb));
+        nb = autre.nb;
+        cases = autre.cases.clone();
+        masque = autre.masque;
+    }
+
+    // Copie indépendante (les deux dictionnaires peuvent ensuite évoluer séparément)
+    public DictionnaireSommets copier() {
+        return new DictionnaireSommets(this);
+    }
+
+    public int taille() { return nb; }
+
+    // Place occupée par les textes (en caractères)
+    public int getNbCaracteres() { return nbCaracteres; }
+
+    // Numéro de l'identifiant, -1 s'il est inconnu
+    public int getNumero(CharSequence id) {
+        int hachage = hacher(id);
+        for (int c = melanger(hachage) & masque; ; c = (c + 1) & masque) {
+            int k = cases[2 * c];
+            if (k < 0) return -1;
+            if (cases[2 * c + 1] == hachage && memeTexte(positionId[k], id)) return k;
+        }
+    }
+
+    // Numéro de l'identifiant, ajouté s'il est nouveau
+    public int ajouter(CharSequence id) {
+        if (id == null) {
+            throw new IllegalArgumentException("L'identifiant ne peut pas être null");
+        }
+        int existant = getNumero(id);
+        if (existant >= 0) return existant;
+
+        if (nb == positionId.length) {
+            positionId = Arrays.copyOf(positionId, 2 * nb);
+        }
+        int k = nb++;
+        positionId[k] = ajouterTexte(id);
+        if (2 * nb > masque + 1) {
+            int[] anciennes = cases;
+            nouvellesCases(2 * (masque + 1));
+            for (int c = 0; c < anciennes.length; c += 2) {
+                if (anciennes[c] >= 0) placer(anciennes[c], anciennes[c + 1]);
+            }
+        }
+        placer(k, hacher(id));
+        return k;
+    }
+
+    public String getId(int numero) {
+        verifier(numero);
+        return texte(positionId[numero]);
+    }
+
+    public boolean aPourId(int numero, CharSequence id) {
+        verifier(numero);
+        return memeTexte(positionId[numero], id);
+    }
+
+    private void verifier(int numero) {
+        if (numero < 0 || numero >= nb) {
+            throw new IndexOutOfBoundsException("Numéro de sommet invalide : " + numero);
+        }
+    }
+
+    private long ajouterTexte(CharSequence texte) {
+        int longueur = texte.length();
+        if ((long) nbCaracteres + longueur > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Dictionnaire plein (" + nbCaracteres + " caractères)");
+        }
+        if (nbCaracteres + longueur > caracteres.length) {
+            caracteres = Arrays.copyOf(caracteres,
+                    (int) Math.min(Integer.MAX_VALUE - 8, Math.max(2L * caracteres.length, nbCaracteres + longueur)));
+        }
+        if (texte instanceof String) {
+            ((String) texte).getChars(0, longueur, caracteres, nbCaracteres);
+        } else {
+            for (int i = 0; i < longueur; i++) caracteres[nbCaracteres + i] = texte.charAt(i);
+        }
+        long position = ((long) nbCaracteres << 32) | longueur;
+        nbCaracteres += longueur;
+        return position;
+    }
+
+    private String texte(long position) {
+        return new String(caracteres, (int) (position >>> 32), (int) position);
+    }
+
+    private boolean memeTexte(long position, CharSequence texte) {
+        int longueur = (int) position;
+        if (texte.length() != longueur) return false;
+        int d = (int) (position >>> 32);
+        for (int i = 0; i < longueur; i++) {
+            if (caracteres[d + i] != texte.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void placer(int k, int hachage) {
+        int c = melanger(hachage) & masque;
+        while (cases[2 * c] >= 0) c = (c + 1) & masque;
+        cases[2 * c] = k;
+        cases[2 * c + 1] = hachage;
+    }
+
+    private void nouvellesCases(int nbCases) {
+        cases = new int[2 * nbCases];
+        Arrays.fill(cases, -1);
+        masque = nbCases - 1;
+    }
+
+    // Même valeur que String.hashCode (gardé en cache par chaque String)
+    private static int hacher(CharSequence texte) {
+        if (texte instanceof String) return texte.hashCode();
+        int h = 0;
+        for (int i = 0; i < texte.length(); i++) h = 31 * h + texte.charAt(i);
+        return h;
+    }
+
+    // La table est indexée par masque : on ramène les bits de poids fort vers le bas, comme
+    // HashMap. Des identifiants qui se suivent ("1001", "1002"...) tombent dans des cases
+    // voisines : un chargement dans l'ordre du fichier reste dans le cache.
+    private static int melanger(int h) {
+        return h ^ (h >>> 16);
+    }
+}
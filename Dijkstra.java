@@ -10,87 +10,235 @@ public class Dijkstra {
     private Graphe graphe;
     private Sommet source;
 
-    // Résultats du calcul
-    private Map<Sommet, Double> distances;      // Distance minimale depuis la source
-    private Map<Sommet, Sommet> predecesseurs;  // Prédécesseur dans le plus court chemin
-    private Set<Sommet> visites;                // Sommets déjà visités
+    // Résultats du calcul, indexés par le numéro du sommet dans le graphe
+    private double[] distances;      // Distance minimale depuis la source
+    private int[] predecesseurs;      // Numéro du prédécesseur dans le plus court chemin (-1 si aucun)
+    private Arete[] aretesPredecesseurs; // Arête empruntée pour arriver au sommet
+    private boolean[] visites;       // Sommets déjà visités
+
+    // File de priorité réutilisée d'un appel à l'autre (aucune allocation après le premier appel)
+    private TasIndexe filePriorite;
+
+    // Mode "point à point" : on s'arrête dès que toutes les cibles sont visitées
+    private int[] cibles = new int[0];
+    private int nbCibles;
+    private int nbCiblesRestantes;
+    private int nbSommetsVisites;
+
+    // Autres compteurs du dernier calcul, versés dans statistiques (si branchées) à la fin
+    private int nbArcsRelaches;
+    private int nbArcsIgnores;
+    private int nbInsertions;
+    private int nbDiminutions;
+    private int picFile;
+    private StatistiquesRecherche statistiques;
+
+    // Index d'accessibilité (facultatif) : une recherche vers des cibles toutes inaccessibles
+    // s'arrête avant de remplir la file
+    private ComposantesFortes composantes;
+
+    // Sommet en cours d'exploration, lu par le visiteur de relaxation
+    private int sommetCourant;
+    private final Graphe.VisiteurArc relaxation = this::relaxer;
 
     public Dijkstra(Graphe graphe) {
         this.graphe = graphe;
-        this.distances = new HashMap<>();
-        this.predecesseurs = new HashMap<>();
-        this.visites = new HashSet<>();
+        this.distances = new double[0];
+        this.predecesseurs = new int[0];
+        this.aretesPredecesseurs = new Arete[0];
+        this.visites = new boolean[0];
+        this.filePriorite = new TasIndexe(graphe.getNbSommets());
     }
 
 
+    public void setComposantesFortes(ComposantesFortes composantes) {
+        if (composantes != null && !composantes.concerne(graphe)) {
+            throw new IllegalArgumentException("Composantes calculées sur un autre graphe");
+        }
+        this.composantes = composantes;
+    }
+
+    public ComposantesFortes getComposantesFortes() { return composantes; }
+
     public void executer(Sommet source) {
+        executer(source, new Sommet[0]);
+    }
+
+
+    // Comme executer(source), mais s'arrête dès que toutes les cibles sont visitées.
+    // Seules les distances des sommets visités sont alors connues (les autres sont INACCESSIBLES).
+    public void executer(Sommet source, Sommet... destinations) {
+        long debut = (statistiques != null) ? System.nanoTime() : 0;
         this.source = source;
         initialiser();
+        preparerCibles(destinations);
+        if (ciblesInaccessibles()) {
+            // Recherche refusée par l'index d'accessibilité : comptée quand même, sans arc relâché
+            enregistrerStatistiques(debut);
+            return;
+        }
 
         // File de priorité pour choisir le sommet avec la plus petite distance
-        PriorityQueue<SommetDistance> filePriorite = new PriorityQueue<>();
-        filePriorite.offer(new SommetDistance(source, 0.0));
+        // (un sommet n'y est qu'une fois : on diminue sa clé au lieu de l'ajouter à nouveau)
+        int indiceSource = graphe.getIndice(source);
+        filePriorite.inserer(indiceSource, 0.0);
+        nbInsertions = picFile = 1;
 
-        while (!filePriorite.isEmpty()) {
-            SommetDistance current = filePriorite.poll();
-            Sommet sommetCourant = current.sommet;
-
-            // Si déjà visité, on passe au suivant
-            if (visites.contains(sommetCourant)) {
-                continue;
-            }
+        while (!filePriorite.estVide()) {
+            sommetCourant = filePriorite.extraireMin();
 
             // Marquer comme visité
-            visites.add(sommetCourant);
+            visites[sommetCourant] = true;
+            nbSommetsVisites++;
 
-            // Explorer les successeurs
-            for (Sommet successeur : graphe.getSuccesseurs(sommetCourant)) {
-                if (!visites.contains(successeur)) {
-                    relaxer(sommetCourant, successeur, filePriorite);
-                }
+            // Toutes les cibles atteintes : inutile d'explorer le reste du graphe
+            if (nbCiblesRestantes > 0 && estCible(sommetCourant) && --nbCiblesRestantes == 0) {
+                break;
             }
+
+            // Explorer les successeurs (arcs parcourus directement, sans liste ni getArete)
+            graphe.parcourirSuccesseurs(sommetCourant, relaxation);
+        }
+
+        enregistrerStatistiques(debut);
+    }
+
+    private void enregistrerStatistiques(long debut) {
+        if (statistiques != null) {
+            statistiques.enregistrer(nbSommetsVisites, nbArcsRelaches, nbArcsIgnores, nbInsertions, nbDiminutions,
+                    picFile, System.nanoTime() - debut);
         }
     }
 
 
     private void initialiser() {
-        distances.clear();
-        predecesseurs.clear();
-        visites.clear();
+        if (graphe.getIndice(source) < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + source);
+        }
 
-        // Initialiser toutes les distances à l'infini
-        for (Sommet sommet : graphe.getSommets()) {
-            distances.put(sommet, Double.POSITIVE_INFINITY);
-            predecesseurs.put(sommet, null);
+        // Les tableaux ne sont réalloués que si le graphe a grossi
+        int n = graphe.getNbSommets();
+        if (distances.length != n) {
+            distances = new double[n];
+            predecesseurs = new int[n];
+            aretesPredecesseurs = new Arete[n];
+            visites = new boolean[n];
+            filePriorite.assurerCapacite(n);
         }
+        filePriorite.vider();
+
+        // Initialiser toutes les distances à l'infini
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecesseurs, -1);
+        Arrays.fill(aretesPredecesseurs, null);
+        Arrays.fill(visites, false);
 
         // Distance de la source = 0
-        distances.put(source, 0.0);
+        distances[graphe.getIndice(source)] = 0.0;
+        nbSommetsVisites = nbArcsRelaches = nbArcsIgnores = nbInsertions = nbDiminutions = picFile = 0;
+    }
+
+    private void preparerCibles(Sommet[] destinations) {
+        if (cibles.length < destinations.length) {
+            cibles = new int[destinations.length];
+        }
+        nbCibles = 0;
+        for (Sommet destination : destinations) {
+            int indice = graphe.getIndice(destination);
+            if (indice < 0) {
+                throw new IllegalArgumentException("Sommet inconnu : " + destination);
+            }
+            if (!estCible(indice)) {
+                cibles[nbCibles++] = indice;
+            }
+        }
+        nbCiblesRestantes = nbCibles;
+    }
+
+    // Vrai si l'index (à jour) garantit qu'aucune cible n'est accessible depuis la source
+    private boolean ciblesInaccessibles() {
+        if (composantes == null || nbCibles == 0 || !composantes.estAJour()) return false;
+        int indiceSource = graphe.getIndice(source);
+        for (int i = 0; i < nbCibles; i++) {
+            if (composantes.peutAtteindre(indiceSource, cibles[i])) return false;
+        }
+        return true;
     }
 
-    private void relaxer(Sommet u, Sommet v, PriorityQueue<SommetDistance> filePriorite) {
-        Arete arete = graphe.getArete(u, v);
-        if (arete == null) return;
+    private boolean estCible(int sommet) {
+        for (int i = 0; i < nbCibles; i++) {
+            if (cibles[i] == sommet) return true;
+        }
+        return false;
+    }
 
-        double nouvelleDistance = distances.get(u) + arete.getPoids();
+    private void relaxer(int v, Arete arete, double poids) {
+        nbArcsRelaches++;
+        if (visites[v]) {
+            nbArcsIgnores++;
+            return;
+        }
+
+        double nouvelleDistance = distances[sommetCourant] + poids;
 
         // Si on trouve un chemin plus court vers v
-        if (nouvelleDistance < distances.get(v)) {
-            distances.put(v, nouvelleDistance);
-            predecesseurs.put(v, u);
-            filePriorite.offer(new SommetDistance(v, nouvelleDistance));
+        if (nouvelleDistance < distances[v]) {
+            if (distances[v] == Double.POSITIVE_INFINITY) {
+                nbInsertions++;
+                picFile = Math.max(picFile, filePriorite.taille() + 1);
+            } else {
+                nbDiminutions++;
+            }
+            distances[v] = nouvelleDistance;
+            predecesseurs[v] = sommetCourant;
+            aretesPredecesseurs[v] = arete;
+            filePriorite.insererOuDiminuer(v, nouvelleDistance);
         }
     }
 
 
     public double getDistance(Sommet destination) {
-        return distances.getOrDefault(destination, Double.POSITIVE_INFINITY);
+        int indice = graphe.getIndice(destination);
+        // Un sommet non visité n'a qu'une distance provisoire (recherche arrêtée avant lui)
+        if (indice < 0 || indice >= distances.length || !visites[indice]) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distances[indice];
+    }
+
+
+    // Nombre de sommets visités par le dernier appel à executer
+    public int getNbSommetsVisites() {
+        return nbSommetsVisites;
+    }
+
+    // Autres compteurs du dernier appel à executer
+    public int getNbArcsRelaches() { return nbArcsRelaches; }
+    public int getNbArcsIgnores() { return nbArcsIgnores; }
+    public int getNbInsertions() { return nbInsertions; }
+    public int getNbDiminutions() { return nbDiminutions; }
+    public int getPicFile() { return picFile; }
+
+    // null pour ne plus rien enregistrer
+    public void setStatistiques(StatistiquesRecherche statistiques) {
+        this.statistiques = statistiques;
+    }
+
+    public StatistiquesRecherche getStatistiques() { return statistiques; }
+
+
+    // Copie des résultats d'un calcul complet (executer(source) sans cibles)
+    ArbreChemins extraireArbre() {
+        if (nbCibles > 0) {
+            throw new IllegalStateException("L'arbre n'est complet qu'après executer(source) sans cibles");
+        }
+        return new ArbreChemins(graphe, graphe.getIndice(source), graphe.getVersion(), distances.clone(),
+                predecesseurs.clone(), aretesPredecesseurs.clone());
     }
 
 
     public boolean estAccessible(Sommet destination) {
-        return distances.containsKey(destination) &&
-                distances.get(destination) < Double.POSITIVE_INFINITY;
+        return getDistance(destination) < Double.POSITIVE_INFINITY;
     }
 
 
@@ -102,11 +250,12 @@ public class Dijkstra {
         }
 
         // Reconstruire le chemin en remontant les prédécesseurs
-        Sommet courant = destination;
-        while (courant != null) {
-            chemin.add(0, courant); // Ajouter au début
-            courant = predecesseurs.get(courant);
+        int courant = graphe.getIndice(destination);
+        while (courant >= 0) {
+            chemin.add(graphe.getSommet(courant));
+            courant = predecesseurs[courant];
         }
+        Collections.reverse(chemin);
 
         return chemin;
     }
@@ -114,16 +263,18 @@ public class Dijkstra {
 
     public List<Arete> getAretesChemins(Sommet destination) {
         List<Arete> aretes = new ArrayList<>();
-        List<Sommet> chemin = getChemin(destination);
-
-        for (int i = 0; i < chemin.size() - 1; i++) {
-            Sommet u = chemin.get(i);
-            Sommet v = chemin.get(i + 1);
-            Arete arete = graphe.getArete(u, v);
-            if (arete != null) {
-                aretes.add(arete);
-            }
+
+        if (!estAccessible(destination)) {
+            return aretes;
+        }
+
+        // Remonter les arêtes mémorisées (juste même s'il y a plusieurs rues entre deux intersections)
+        int courant = graphe.getIndice(destination);
+        while (predecesseurs[courant] >= 0) {
+            aretes.add(aretesPredecesseurs[courant]);
+            courant = predecesseurs[courant];
         }
+        Collections.reverse(aretes);
 
         return aretes;
     }
@@ -212,6 +363,15 @@ public class Dijkstra {
     }
 
 
+    // Requête pour un seul camion : Dijkstra depuis la source, arrêté dès que les deux
+    // extrémités de la rue de l'habitation sont visitées
+    public ResultatChemin getCheminVersHabitation(Sommet source, Habitation destination) {
+        Arete areteDestination = destination.getArete();
+        executer(source, areteDestination.getSommet1(), areteDestination.getSommet2());
+        return getCheminVersHabitation(destination);
+    }
+
+
     public void afficherCheminVersHabitation(Habitation habitation) {
         System.out.println("=== CHEMIN VERS " + habitation.getNom() + " ===");
         System.out.println("Localisation : " + habitation);
@@ -226,20 +386,4 @@ public class Dijkstra {
         }
         System.out.println();
     }
-
-
-    private static class SommetDistance implements Comparable<SommetDistance> {
-        Sommet sommet;
-        double distance;
-
-        SommetDistance(Sommet sommet, double distance) {
-            this.sommet = sommet;
-            this.distance = distance;
-        }
-
-        @Override
-        public int compareTo(SommetDistance autre) {
-            return Double.compare(this.distance, autre.distance);
-        }
-    }
 }
\ No newline at end of file
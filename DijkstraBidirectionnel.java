@@ -0,0 +1,206 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+
+
+/**
+ * Dijkstra bidirectionnel pour une requête point à point.
+ *
+ * Une recherche part du centre (en avant), l'autre part de la destination en
+ * remontant les arcs (en arrière, donc en respectant les sens uniques HO2/HO3).
+ * On s'arrête quand les deux fronts se sont croisés : on visite en général
+ * beaucoup moins de sommets qu'un Dijkstra complet.
+ *
+ * Pour une habitation, la recherche arrière part des deux extrémités de sa rue
+ * avec comme distance de départ le détour sur la rue, ce qui donne le même
+ * résultat que Dijkstra.getCheminVersHabitation.
+ */
+public class DijkstraBidirectionnel {
+
+    private static final int AVANT = 0;
+    private static final int ARRIERE = 1;
+
+    private final Graphe graphe;
+
+    // Un jeu de tableaux par sens de recherche ([AVANT] et [ARRIERE])
+    private double[][] distances = new double[2][0];
+    private int[][] predecesseurs = new int[2][0];    // sommet précédent dans le sens de la recherche
+    private boolean[][] visites = new boolean[2][0];
+    private final TasIndexe[] files = new TasIndexe[2];
+
+    // Sommets touchés pendant la requête : on ne remet à zéro qu'eux
+    private int[] touches = new int[0];
+    private boolean[] estTouche = new boolean[0];
+    private int nbTouches;
+
+    // Meilleur chemin trouvé : longueur et sommet où les deux recherches se rejoignent
+    private double meilleureDistance;
+    private int sommetRencontre;
+    private int nbSommetsVisites;
+
+    // Contexte lu par les visiteurs de relaxation
+    private int sensCourant;
+    private int sommetCourant;
+    private final Graphe.VisiteurArc relaxation = this::relaxer;
+
+    public DijkstraBidirectionnel(Graphe graphe) {
+        this.graphe = graphe;
+        files[AVANT] = new TasIndexe(graphe.getNbSommets());
+        files[ARRIERE] = new TasIndexe(graphe.getNbSommets());
+    }
+
+    public ResultatChemin calculer(Sommet depart, Sommet destination) {
+        preparer(depart);
+        int cible = indice(destination);
+        initialiserSource(ARRIERE, cible, 0.0);
+        return rechercher();
+    }
+
+    public ResultatChemin getCheminVersHabitation(Sommet depart, Habitation destination) {
+        preparer(depart);
+        Arete areteDestination = destination.getArete();
+        Sommet sommet1 = areteDestination.getSommet1();
+        Sommet sommet2 = areteDestination.getSommet2();
+        initialiserSource(ARRIERE, indice(sommet1), destination.getDistanceDepuisSommet(sommet1));
+        initialiserSource(ARRIERE, indice(sommet2), destination.getDistanceDepuisSommet(sommet2));
+        return rechercher();
+    }
+
+    // Nombre de sommets visités (dans les deux sens) par la dernière requête
+    public int getNbSommetsVisites() {
+        return nbSommetsVisites;
+    }
+
+    private int indice(Sommet sommet) {
+        int indice = graphe.getIndice(sommet);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + sommet);
+        }
+        return indice;
+    }
+
+    private void preparer(Sommet depart) {
+        int n = graphe.getNbSommets();
+        if (estTouche.length != n) {
+            for (int sens = AVANT; sens <= ARRIERE; sens++) {
+                distances[sens] = new double[n];
+                predecesseurs[sens] = new int[n];
+                visites[sens] = new boolean[n];
+                Arrays.fill(distances[sens], Double.POSITIVE_INFINITY);
+                Arrays.fill(predecesseurs[sens], -1);
+                files[sens].assurerCapacite(n);
+            }
+            touches = new int[n];
+            estTouche = new boolean[n];
+            nbTouches = 0;
+        }
+
+        // Remise à zéro des seuls sommets touchés par la requête précédente
+        for (int i = 0; i < nbTouches; i++) {
+            int v = touches[i];
+            estTouche[v] = false;
+            for (int sens = AVANT; sens <= ARRIERE; sens++) {
+                distances[sens][v] = Double.POSITIVE_INFINITY;
+                predecesseurs[sens][v] = -1;
+                visites[sens][v] = false;
+            }
+        }
+        nbTouches = 0;
+        files[AVANT].vider();
+        files[ARRIERE].vider();
+
+        meilleureDistance = Double.POSITIVE_INFINITY;
+        sommetRencontre = -1;
+        nbSommetsVisites = 0;
+
+        initialiserSource(AVANT, indice(depart), 0.0);
+    }
+
+    private void initialiserSource(int sens, int sommet, double distance) {
+        if (distance < distances[sens][sommet]) {
+            toucher(sommet);
+            distances[sens][sommet] = distance;
+            files[sens].insererOuDiminuer(sommet, distance);
+            ameliorerRencontre(sommet);
+        }
+    }
+
+    private void toucher(int sommet) {
+        if (!estTouche[sommet]) {
+            estTouche[sommet] = true;
+            touches[nbTouches++] = sommet;
+        }
+    }
+
+    private void ameliorerRencontre(int sommet) {
+        double total = distances[AVANT][sommet] + distances[ARRIERE][sommet];
+        if (total < meilleureDistance) {
+            meilleureDistance = total;
+            sommetRencontre = sommet;
+        }
+    }
+
+    private ResultatChemin rechercher() {
+        TasIndexe avant = files[AVANT];
+        TasIndexe arriere = files[ARRIERE];
+
+        while (!avant.estVide() && !arriere.estVide()) {
+            // Plus aucun chemin ne peut battre le meilleur trouvé : les fronts se sont croisés
+            if (avant.cleMin() + arriere.cleMin() >= meilleureDistance) {
+                break;
+            }
+
+            // On avance le front dont la plus petite distance est la plus faible
+            sensCourant = (avant.cleMin() <= arriere.cleMin()) ? AVANT : ARRIERE;
+            sommetCourant = files[sensCourant].extraireMin();
+            visites[sensCourant][sommetCourant] = true;
+            nbSommetsVisites++;
+
+            if (sensCourant == AVANT) {
+                graphe.parcourirSuccesseurs(sommetCourant, relaxation);
+            } else {
+                graphe.parcourirPredecesseurs(sommetCourant, relaxation);
+            }
+        }
+
+        return construireResultat();
+    }
+
+    private void relaxer(int v, Arete arete, double poids) {
+        if (visites[sensCourant][v]) return;
+
+        double nouvelleDistance = distances[sensCourant][sommetCourant] + poids;
+        if (nouvelleDistance < distances[sensCourant][v]) {
+            toucher(v);
+            distances[sensCourant][v] = nouvelleDistance;
+            predecesseurs[sensCourant][v] = sommetCourant;
+            files[sensCourant].insererOuDiminuer(v, nouvelleDistance);
+            ameliorerRencontre(v);
+        }
+    }
+
+    private ResultatChemin construireResultat() {
+        if (sommetRencontre < 0) {
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+
+        // Partie avant : du départ jusqu'au sommet de rencontre
+        List<Sommet> chemin = new ArrayList<>();
+        for (int v = sommetRencontre; v >= 0; v = predecesseurs[AVANT][v]) {
+            chemin.add(graphe.getSommet(v));
+        }
+        Collections.reverse(chemin);
+
+        // Partie arrière : du sommet de rencontre jusqu'à la destination
+        int v = sommetRencontre;
+        while (predecesseurs[ARRIERE][v] >= 0) {
+            v = predecesseurs[ARRIERE][v];
+            chemin.add(graphe.getSommet(v));
+        }
+
+        return new ResultatChemin(chemin, meilleureDistance, graphe.getSommet(v));
+    }
+}
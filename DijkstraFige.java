@@ -0,0 +1,292 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+
+
+/**
+ * Dijkstra sur un GrapheFige : mêmes résultats que Dijkstra mais tout est indexé
+ * par des entiers (tableaux au lieu de HashMap).
+ */
+public class DijkstraFige {
+
+    private final GrapheFige graphe;
+    private int source = -1;
+
+    // Résultats du calcul, indexés par le numéro du sommet. Au lieu de tout remettre à zéro
+    // avant chaque calcul (O(V)), on numérote les calculs : une case n'est valable que si sa
+    // marque vaut le numéro du calcul en cours, ce qui rend la remise à zéro gratuite.
+    private final double[] distances;
+    private final int[] arcPredecesseur;   // Arc utilisé pour arriver au sommet (-1 si aucun)
+    private final int[] marqueAtteint;     // == epoque : distance et arc valables pour ce calcul
+    private final int[] marqueVisite;      // == epoque : sommet visité (distance définitive)
+    private final boolean[] estCible;
+    private final TasIndexe filePriorite;
+    private int epoque;
+
+    // Compteurs du dernier calcul, versés dans statistiques (si branchées) à la fin
+    private int nbSommetsFixes;
+    private int nbArcsRelaches;
+    private int nbArcsIgnores;
+    private int nbInsertions;
+    private int nbDiminutions;
+    private int picFile;
+    private StatistiquesRecherche statistiques;
+
+    public DijkstraFige(GrapheFige graphe) {
+        this.graphe = graphe;
+        int n = graphe.getNbSommets();
+        this.distances = new double[n];
+        this.arcPredecesseur = new int[n];
+        this.marqueAtteint = new int[n];
+        this.marqueVisite = new int[n];
+        this.estCible = new boolean[n];
+        this.filePriorite = new TasIndexe(n);
+    }
+
+    public GrapheFige getGraphe() {
+        return graphe;
+    }
+
+    // null pour ne plus rien enregistrer (les compteurs du dernier calcul restent lisibles)
+    public void setStatistiques(StatistiquesRecherche statistiques) {
+        this.statistiques = statistiques;
+    }
+
+    public StatistiquesRecherche getStatistiques() { return statistiques; }
+
+    // Compteurs du dernier calcul
+    public int getNbSommetsFixes() { return nbSommetsFixes; }
+    public int getNbArcsRelaches() { return nbArcsRelaches; }
+    public int getNbArcsIgnores() { return nbArcsIgnores; }
+    public int getNbInsertions() { return nbInsertions; }
+    public int getNbDiminutions() { return nbDiminutions; }
+    public int getPicFile() { return picFile; }
+
+    public void executer(Sommet source) {
+        int indice = graphe.getIndice(source);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + source);
+        }
+        executer(indice);
+    }
+
+    public void executer(int source) {
+        long debut = (statistiques != null) ? System.nanoTime() : 0;
+        initialiser();
+        this.source = source;
+        ajouterSource(source, 0.0);
+        propager(0);
+        enregistrerStatistiques(debut);
+    }
+
+    // Dijkstra à plusieurs sources, chacune avec sa distance de départ (ex : les deux bouts
+    // de la rue d'une habitation). Si des cibles sont données, on s'arrête quand elles sont
+    // toutes visitées ; seules les distances des sommets visités sont alors connues.
+    public void executer(int[] sources, double[] distancesDepart, int[] cibles) {
+        long debut = (statistiques != null) ? System.nanoTime() : 0;
+        initialiser();
+        this.source = sources[0];
+        for (int i = 0; i < sources.length; i++) {
+            ajouterSource(sources[i], distancesDepart[i]);
+        }
+
+        int nbCibles = 0;
+        if (cibles != null) {
+            for (int cible : cibles) {
+                if (!estCible[cible]) {
+                    estCible[cible] = true;
+                    nbCibles++;
+                }
+            }
+        }
+        propager(nbCibles);
+        if (cibles != null) {
+            for (int cible : cibles) {
+                estCible[cible] = false;
+            }
+        }
+        enregistrerStatistiques(debut);
+    }
+
+    private void initialiser() {
+        epoque++;
+        if (epoque == Integer.MAX_VALUE) {
+            // Après 2 milliards de calculs on repart de zéro une fois
+            Arrays.fill(marqueAtteint, 0);
+            Arrays.fill(marqueVisite, 0);
+            epoque = 1;
+        }
+        filePriorite.vider();
+        nbSommetsFixes = nbArcsRelaches = nbArcsIgnores = nbInsertions = nbDiminutions = picFile = 0;
+    }
+
+    private void enregistrerStatistiques(long debut) {
+        if (statistiques != null) {
+            statistiques.enregistrer(nbSommetsFixes, nbArcsRelaches, nbArcsIgnores, nbInsertions, nbDiminutions,
+                    picFile, System.nanoTime() - debut);
+        }
+    }
+
+    private void ajouterSource(int sommet, double distance) {
+        if (distance < distanceProvisoire(sommet)) {
+            compterAjout(sommet);
+            marqueAtteint[sommet] = epoque;
+            distances[sommet] = distance;
+            arcPredecesseur[sommet] = -1;
+            filePriorite.insererOuDiminuer(sommet, distance);
+        }
+    }
+
+    // Avant la mise à jour de la distance : insertion si le sommet n'était pas encore atteint
+    private void compterAjout(int sommet) {
+        if (marqueAtteint[sommet] == epoque) {
+            nbDiminutions++;
+        } else {
+            nbInsertions++;
+            picFile = Math.max(picFile, filePriorite.taille() + 1);
+        }
+    }
+
+    private double distanceProvisoire(int sommet) {
+        return (marqueAtteint[sommet] == epoque) ? distances[sommet] : Double.POSITIVE_INFINITY;
+    }
+
+    private void propager(int nbCibles) {
+        while (!filePriorite.estVide()) {
+            int u = filePriorite.extraireMin();
+            marqueVisite[u] = epoque;
+            nbSommetsFixes++;
+            if (nbCibles > 0 && estCible[u] && --nbCibles == 0) {
+                break;
+            }
+
+            double du = distances[u];
+            int debutArcs = graphe.premierArc(u), fin = graphe.finArcs(u);
+            nbArcsRelaches += fin - debutArcs;
+            for (int a = debutArcs; a < fin; a++) {
+                int v = graphe.getCible(a);
+                if (marqueVisite[v] == epoque) {
+                    nbArcsIgnores++;
+                    continue;
+                }
+                double nouvelleDistance = du + graphe.getPoids(a);
+                if (nouvelleDistance < distanceProvisoire(v)) {
+                    compterAjout(v);
+                    marqueAtteint[v] = epoque;
+                    distances[v] = nouvelleDistance;
+                    arcPredecesseur[v] = a;
+                    filePriorite.insererOuDiminuer(v, nouvelleDistance);
+                }
+            }
+        }
+    }
+
+    // Accès par indice
+
+    public double getDistance(int destination) {
+        return (marqueVisite[destination] == epoque) ? distances[destination] : Double.POSITIVE_INFINITY;
+    }
+
+    public boolean estAccessible(int destination) {
+        return getDistance(destination) < Double.POSITIVE_INFINITY;
+    }
+
+    public int getArcPredecesseur(int destination) {
+        return (marqueVisite[destination] == epoque) ? arcPredecesseur[destination] : -1;
+    }
+
+    // Accès par Sommet (mêmes méthodes que Dijkstra)
+
+    public double getDistance(Sommet destination) {
+        int indice = graphe.getIndice(destination);
+        return (indice < 0) ? Double.POSITIVE_INFINITY : getDistance(indice);
+    }
+
+    public boolean estAccessible(Sommet destination) {
+        return getDistance(destination) < Double.POSITIVE_INFINITY;
+    }
+
+    public List<Sommet> getChemin(Sommet destination) {
+        List<Sommet> chemin = new ArrayList<>();
+        int v = graphe.getIndice(destination);
+        if (v < 0 || !estAccessible(v)) {
+            return chemin;
+        }
+
+        // Remonter les arcs prédécesseurs jusqu'à la source
+        chemin.add(graphe.getSommet(v));
+        while (arcPredecesseur[v] >= 0) {
+            v = origineArc(arcPredecesseur[v], v);
+            chemin.add(graphe.getSommet(v));
+        }
+        Collections.reverse(chemin);
+        return chemin;
+    }
+
+    public List<Arete> getAretesChemins(Sommet destination) {
+        List<Arete> aretes = new ArrayList<>();
+        int v = graphe.getIndice(destination);
+        if (v < 0 || !estAccessible(v)) {
+            return aretes;
+        }
+
+        while (arcPredecesseur[v] >= 0) {
+            int arc = arcPredecesseur[v];
+            aretes.add(graphe.getArete(graphe.getNumeroArete(arc)));
+            v = origineArc(arc, v);
+        }
+        Collections.reverse(aretes);
+        return aretes;
+    }
+
+    // L'origine d'un arc est l'autre extrémité de son arête
+    private int origineArc(int arc, int cible) {
+        int e = graphe.getNumeroArete(arc);
+        int s1 = graphe.getExtremite1(e);
+        return (s1 == cible) ? graphe.getExtremite2(e) : s1;
+    }
+
+    public ResultatChemin getCheminVersHabitation(Habitation destination) {
+        Arete areteDestination = destination.getArete();
+        Sommet sommet1 = areteDestination.getSommet1();
+        Sommet sommet2 = areteDestination.getSommet2();
+
+        double dist1 = getDistance(sommet1) + destination.getDistanceDepuisSommet(sommet1);
+        double dist2 = getDistance(sommet2) + destination.getDistanceDepuisSommet(sommet2);
+
+        if (dist1 == Double.POSITIVE_INFINITY && dist2 == Double.POSITIVE_INFINITY) {
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+        if (dist1 <= dist2) {
+            return new ResultatChemin(getChemin(sommet1), dist1, sommet1);
+        } else {
+            return new ResultatChemin(getChemin(sommet2), dist2, sommet2);
+        }
+    }
+
+    public void afficherResultats() {
+        System.out.println("=== DIJKSTRA (graphe figé) depuis " + graphe.getSommet(source).getId() + " ===");
+        System.out.println();
+
+        for (int v = 0; v < graphe.getNbSommets(); v++) {
+            if (v == source) continue;
+
+            Sommet sommet = graphe.getSommet(v);
+            if (!estAccessible(v)) {
+                System.out.println(sommet.getId() + " : INACCESSIBLE");
+            } else {
+                System.out.println(sommet.getId() + " : distance = " + distances[v]);
+                List<Sommet> chemin = getChemin(sommet);
+                System.out.print("  Chemin : ");
+                for (int i = 0; i < chemin.size(); i++) {
+                    System.out.print(chemin.get(i).getId());
+                    if (i < chemin.size() - 1) System.out.print(" → ");
+                }
+                System.out.println();
+            }
+        }
+    }
+}
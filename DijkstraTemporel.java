@@ -0,0 +1,246 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+
+
+/**
+ * Dijkstra dépendant de l'heure : on part à un instant donné et l'étiquette d'un sommet
+ * est son heure d'arrivée au plus tôt. Le coût d'un arc se lit dans ProfilsTemps à
+ * l'heure où on l'emprunte.
+ *
+ * Comme toutes les arêtes respectent FIFO (vérifié par ProfilsTemps.affecter), attendre
+ * à un carrefour ne sert jamais et chaque sommet est fixé une seule fois, exactement
+ * comme le Dijkstra statique : même boucle que DijkstraFige (remise à zéro gratuite par
+ * numéro de calcul, TasIndexe), seul le calcul du poids d'un arc change.
+ *
+ * Exemple : partir du dépôt à 7h30 et savoir quand on arrive à une habitation :
+ *   heureArrivee(depot, ProfilsTemps.instant(7, 30), habitation)
+ */
+public class DijkstraTemporel {
+
+    private final GrapheFige graphe;
+    private final ProfilsTemps profils;
+    private double depart;
+
+    private final double[] arrivees;
+    private final int[] arcPredecesseur;   // -1 pour la source et les sommets non atteints
+    private final int[] marqueAtteint;     // == epoque : arrivée et arc valables pour ce calcul
+    private final int[] marqueVisite;      // == epoque : sommet fixé
+    private final boolean[] estCible;
+    private final TasIndexe filePriorite;
+    private int epoque;
+
+    // Compteurs du dernier calcul, versés dans statistiques (si branchées) à la fin
+    private int nbSommetsFixes;
+    private int nbArcsRelaches;
+    private int nbArcsIgnores;
+    private int nbInsertions;
+    private int nbDiminutions;
+    private int picFile;
+    private StatistiquesRecherche statistiques;
+
+    public DijkstraTemporel(ProfilsTemps profils) {
+        this.profils = profils;
+        this.graphe = profils.getGraphe();
+        int n = graphe.getNbSommets();
+        this.arrivees = new double[n];
+        this.arcPredecesseur = new int[n];
+        this.marqueAtteint = new int[n];
+        this.marqueVisite = new int[n];
+        this.estCible = new boolean[n];
+        this.filePriorite = new TasIndexe(n);
+    }
+
+    public GrapheFige getGraphe() { return graphe; }
+    public ProfilsTemps getProfils() { return profils; }
+    public double getDepart() { return depart; }
+
+    public void setStatistiques(StatistiquesRecherche statistiques) {
+        this.statistiques = statistiques;
+    }
+
+    public int getNbSommetsFixes() { return nbSommetsFixes; }
+    public int getNbArcsRelaches() { return nbArcsRelaches; }
+
+    public void executer(Sommet source, double depart) {
+        executer(indice(source), depart, null);
+    }
+
+    // Si des cibles sont données, on s'arrête quand elles sont toutes fixées
+    public void executer(int source, double depart, int[] cibles) {
+        if (Double.isNaN(depart) || Double.isInfinite(depart)) {
+            throw new IllegalArgumentException("Instant de départ invalide : " + depart);
+        }
+        long debut = (statistiques != null) ? System.nanoTime() : 0;
+        initialiser();
+        this.depart = depart;
+        nbInsertions = picFile = 1;
+        marqueAtteint[source] = epoque;
+        arrivees[source] = depart;
+        arcPredecesseur[source] = -1;
+        filePriorite.inserer(source, depart);
+
+        int nbCibles = 0;
+        if (cibles != null) {
+            for (int cible : cibles) {
+                if (!estCible[cible]) {
+                    estCible[cible] = true;
+                    nbCibles++;
+                }
+            }
+        }
+        propager(nbCibles);
+        if (cibles != null) {
+            for (int cible : cibles) {
+                estCible[cible] = false;
+            }
+        }
+
+        if (statistiques != null) {
+            statistiques.enregistrer(nbSommetsFixes, nbArcsRelaches, nbArcsIgnores, nbInsertions, nbDiminutions,
+                    picFile, System.nanoTime() - debut);
+        }
+    }
+
+    private void initialiser() {
+        epoque++;
+        if (epoque == Integer.MAX_VALUE) {
+            Arrays.fill(marqueAtteint, 0);
+            Arrays.fill(marqueVisite, 0);
+            epoque = 1;
+        }
+        filePriorite.vider();
+        nbSommetsFixes = nbArcsRelaches = nbArcsIgnores = nbInsertions = nbDiminutions = picFile = 0;
+    }
+
+    private void propager(int nbCibles) {
+        while (!filePriorite.estVide()) {
+            int u = filePriorite.extraireMin();
+            marqueVisite[u] = epoque;
+            nbSommetsFixes++;
+            if (nbCibles > 0 && estCible[u] && --nbCibles == 0) {
+                break;
+            }
+
+            double tu = arrivees[u];
+            int debutArcs = graphe.premierArc(u), fin = graphe.finArcs(u);
+            nbArcsRelaches += fin - debutArcs;
+            for (int a = debutArcs; a < fin; a++) {
+                int v = graphe.getCible(a);
+                if (marqueVisite[v] == epoque) {
+                    nbArcsIgnores++;
+                    continue;
+                }
+                double arrivee = tu + profils.getTempsParcoursArc(a, tu);
+                if (marqueAtteint[v] != epoque) {
+                    nbInsertions++;
+                    picFile = Math.max(picFile, filePriorite.taille() + 1);
+                } else if (arrivee < arrivees[v]) {
+                    nbDiminutions++;
+                } else {
+                    continue;
+                }
+                marqueAtteint[v] = epoque;
+                arrivees[v] = arrivee;
+                arcPredecesseur[v] = a;
+                filePriorite.insererOuDiminuer(v, arrivee);
+            }
+        }
+    }
+
+    // Heure d'arrivée au plus tôt (POSITIVE_INFINITY si le sommet n'a pas été fixé)
+    public double getArrivee(int sommet) {
+        return (marqueVisite[sommet] == epoque) ? arrivees[sommet] : Double.POSITIVE_INFINITY;
+    }
+
+    public double getDuree(int sommet) {
+        return getArrivee(sommet) - depart;
+    }
+
+    public boolean estAccessible(int sommet) {
+        return getArrivee(sommet) < Double.POSITIVE_INFINITY;
+    }
+
+    public int getArcPredecesseur(int sommet) {
+        return (marqueVisite[sommet] == epoque) ? arcPredecesseur[sommet] : -1;
+    }
+
+    public double getArrivee(Sommet sommet) {
+        int indice = graphe.getIndice(sommet);
+        return (indice < 0) ? Double.POSITIVE_INFINITY : getArrivee(indice);
+    }
+
+    public List<Sommet> getChemin(Sommet destination) {
+        List<Sommet> chemin = new ArrayList<>();
+        int v = graphe.getIndice(destination);
+        if (v < 0 || !estAccessible(v)) {
+            return chemin;
+        }
+        chemin.add(graphe.getSommet(v));
+        while (arcPredecesseur[v] >= 0) {
+            v = origineArc(arcPredecesseur[v], v);
+            chemin.add(graphe.getSommet(v));
+        }
+        Collections.reverse(chemin);
+        return chemin;
+    }
+
+    private int origineArc(int arc, int cible) {
+        int e = graphe.getNumeroArete(arc);
+        int s1 = graphe.getExtremite1(e);
+        return (s1 == cible) ? graphe.getExtremite2(e) : s1;
+    }
+
+    // Après executer : chemin vers l'habitation ; distanceTotale est la durée du trajet (en
+    // secondes), le bout de rue jusqu'à la maison étant parcouru au rythme de la rue à cette heure
+    public ResultatChemin getCheminVersHabitation(Habitation destination) {
+        Arete arete = destination.getArete();
+        Sommet sommet1 = arete.getSommet1();
+        Sommet sommet2 = arete.getSommet2();
+        double arrivee1 = arriveeMaison(destination, sommet1);
+        double arrivee2 = arriveeMaison(destination, sommet2);
+
+        if (arrivee1 == Double.POSITIVE_INFINITY && arrivee2 == Double.POSITIVE_INFINITY) {
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+        if (arrivee1 <= arrivee2) {
+            return new ResultatChemin(getChemin(sommet1), arrivee1 - depart, sommet1);
+        } else {
+            return new ResultatChemin(getChemin(sommet2), arrivee2 - depart, sommet2);
+        }
+    }
+
+    // Heure d'arrivée à l'habitation en partant de depart à l'instant donné (POSITIVE_INFINITY
+    // si elle est inaccessible) ; la recherche s'arrête aux deux bouts de sa rue
+    public double heureArrivee(Sommet depart, double instant, Habitation habitation) {
+        Arete arete = habitation.getArete();
+        executer(indice(depart), instant, new int[] { indice(arete.getSommet1()), indice(arete.getSommet2()) });
+        double duree = getCheminVersHabitation(habitation).distanceTotale;
+        return instant + duree;
+    }
+
+    private double arriveeMaison(Habitation habitation, Sommet extremite) {
+        int s = graphe.getIndice(extremite);
+        double arrivee = getArrivee(s);
+        if (arrivee == Double.POSITIVE_INFINITY) return arrivee;
+        Arete arete = habitation.getArete();
+        int e = graphe.chercherArete(arete);
+        if (e < 0) {
+            throw new IllegalArgumentException("Arête inconnue : " + arete);
+        }
+        double longueur = graphe.getPoidsArete(e);
+        double fraction = (longueur > 0) ? habitation.getDistanceDepuisSommet(extremite) / longueur : 0;
+        return arrivee + fraction * profils.getTempsParcours(e, arrivee);
+    }
+
+    private int indice(Sommet sommet) {
+        int indice = graphe.getIndice(sommet);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + sommet);
+        }
+        return indice;
+    }
+}
@@ -0,0 +1,235 @@
+package algorithmes.tournees;
+
+import algorithmes.base.TasIndexe;
+import java.util.*;
+
+
+/**
+ * Flot de coût minimum (version primale-duale des plus courts chemins successifs),
+ * sur des tableaux de primitifs.
+ *
+ * Chaque phase fait un seul Dijkstra depuis tous les noeuds qui ont encore de l'offre
+ * (coûts réduits par les potentiels, donc positifs), met à jour les potentiels, puis
+ * pousse un flot bloquant (façon Dinic) sur les arcs de coût réduit nul. Une phase
+ * sature en général beaucoup de paires offre/demande d'un coup : il y a bien moins de
+ * phases que d'unités de flot.
+ *
+ * L'arc numéro a (renvoyé par ajouterArc) a son arc inverse résiduel en a ^ 1.
+ * Les coûts sont des entiers (long) : les tests "coût réduit nul" sont exacts.
+ */
+final class FlotCoutMin {
+
+    static final int CAPACITE_INFINIE = Integer.MAX_VALUE / 2;
+
+    private final int nbNoeuds;
+    private final int[] offre;       // > 0 : le noeud doit envoyer, < 0 : le noeud doit recevoir
+
+    private int nbArcs;
+    private int[] origine = new int[16];
+    private int[] destination = new int[16];
+    private int[] capacite = new int[16];    // capacité résiduelle
+    private long[] cout = new long[16];
+
+    private long coutTotal;
+
+    FlotCoutMin(int nbNoeuds) {
+        this.nbNoeuds = nbNoeuds;
+        this.offre = new int[nbNoeuds];
+    }
+
+    int ajouterArc(int de, int vers, int cap, long c) {
+        if (c < 0) throw new IllegalArgumentException("Les coûts doivent être positifs");
+        if (nbArcs + 2 > origine.length) {
+            int taille = origine.length * 2;
+            origine = Arrays.copyOf(origine, taille);
+            destination = Arrays.copyOf(destination, taille);
+            capacite = Arrays.copyOf(capacite, taille);
+            cout = Arrays.copyOf(cout, taille);
+        }
+        int a = nbArcs;
+        origine[a] = de;
+        destination[a] = vers;
+        capacite[a] = cap;
+        cout[a] = c;
+        origine[a + 1] = vers;
+        destination[a + 1] = de;
+        capacite[a + 1] = 0;
+        cout[a + 1] = -c;
+        nbArcs += 2;
+        return a;
+    }
+
+    void ajouterOffre(int noeud, int quantite) {
+        offre[noeud] += quantite;
+    }
+
+    // Flot passé sur l'arc a (a renvoyé par ajouterArc)
+    int getFlot(int a) {
+        return capacite[a ^ 1];
+    }
+
+    long getCoutTotal() {
+        return coutTotal;
+    }
+
+    // Renvoie false si les demandes ne peuvent pas toutes être satisfaites
+    boolean resoudre() {
+        long bilan = 0;
+        for (int v = 0; v < nbNoeuds; v++) bilan += offre[v];
+        if (bilan != 0) {
+            throw new IllegalArgumentException("Offres et demandes déséquilibrées : " + bilan);
+        }
+
+        // Arcs sortants de chaque noeud (format CSR, arcs inverses compris)
+        int[] debut = new int[nbNoeuds + 1];
+        for (int a = 0; a < nbArcs; a++) debut[origine[a] + 1]++;
+        for (int v = 0; v < nbNoeuds; v++) debut[v + 1] += debut[v];
+        int[] sortants = new int[nbArcs];
+        int[] prochain = Arrays.copyOf(debut, nbNoeuds);
+        for (int a = 0; a < nbArcs; a++) sortants[prochain[origine[a]]++] = a;
+
+        long[] potentiel = new long[nbNoeuds];
+        long[] distance = new long[nbNoeuds];
+        boolean[] fixe = new boolean[nbNoeuds];
+        int[] niveau = new int[nbNoeuds];
+        int[] courant = new int[nbNoeuds];
+        int[] file = new int[nbNoeuds];
+        int[] pileArcs = new int[nbNoeuds];
+        TasIndexe filePriorite = new TasIndexe(nbNoeuds);
+
+        int demandeRestante = 0;
+        for (int v = 0; v < nbNoeuds; v++) {
+            if (offre[v] < 0) demandeRestante -= offre[v];
+        }
+        coutTotal = 0;
+
+        while (demandeRestante > 0) {
+            // 1. Dijkstra multi-sources sur les coûts réduits, arrêté quand toutes les
+            //    demandes restantes sont atteintes
+            Arrays.fill(distance, Long.MAX_VALUE);
+            Arrays.fill(fixe, false);
+            filePriorite.vider();
+            int nbDemandes = 0;
+            for (int v = 0; v < nbNoeuds; v++) {
+                if (offre[v] > 0) {
+                    distance[v] = 0;
+                    filePriorite.inserer(v, 0.0);
+                } else if (offre[v] < 0) {
+                    nbDemandes++;
+                }
+            }
+            long dernier = 0;
+            while (!filePriorite.estVide() && nbDemandes > 0) {
+                int u = filePriorite.extraireMin();
+                fixe[u] = true;
+                dernier = distance[u];
+                if (offre[u] < 0) nbDemandes--;
+                for (int i = debut[u]; i < debut[u + 1]; i++) {
+                    int a = sortants[i];
+                    if (capacite[a] == 0) continue;
+                    int v = destination[a];
+                    long d = distance[u] + cout[a] + potentiel[u] - potentiel[v];
+                    if (d < distance[v]) {
+                        distance[v] = d;
+                        filePriorite.insererOuDiminuer(v, d);
+                    }
+                }
+            }
+            if (nbDemandes > 0) {
+                // Des demandes sont hors d'atteinte, et le resteront (pousser du flot ne
+                // crée que des arcs entre noeuds déjà atteints)
+                return false;
+            }
+            // Les noeuds non fixés sont au moins à "dernier" : les coûts réduits restent positifs
+            for (int v = 0; v < nbNoeuds; v++) {
+                potentiel[v] += fixe[v] ? distance[v] : dernier;
+            }
+
+            // 2. Flot bloquant sur les arcs de coût réduit nul (niveaux en largeur, puis
+            //    chemins en profondeur avec un arc courant par noeud)
+            int pousse = 0;
+            while (true) {
+                Arrays.fill(niveau, -1);
+                int tete = 0, queue = 0;
+                for (int v = 0; v < nbNoeuds; v++) {
+                    if (offre[v] > 0) {
+                        niveau[v] = 0;
+                        file[queue++] = v;
+                    }
+                }
+                boolean demandeAtteinte = false;
+                while (tete < queue) {
+                    int u = file[tete++];
+                    if (offre[u] < 0) demandeAtteinte = true;
+                    for (int i = debut[u]; i < debut[u + 1]; i++) {
+                        int a = sortants[i];
+                        int v = destination[a];
+                        if (capacite[a] > 0 && niveau[v] < 0 && estAdmissible(a, potentiel)) {
+                            niveau[v] = niveau[u] + 1;
+                            file[queue++] = v;
+                        }
+                    }
+                }
+                if (!demandeAtteinte) break;
+
+                System.arraycopy(debut, 0, courant, 0, nbNoeuds);
+                for (int s = 0; s < nbNoeuds; s++) {
+                    while (offre[s] > 0 && niveau[s] == 0) {
+                        int n = cheminAugmentant(s, debut, sortants, niveau, courant, pileArcs, potentiel);
+                        if (n < 0) break;
+                        // Goulot : offre de la source, demande du puits, capacités
+                        int puits = destination[pileArcs[n - 1]];
+                        int q = Math.min(offre[s], -offre[puits]);
+                        for (int i = 0; i < n; i++) q = Math.min(q, capacite[pileArcs[i]]);
+                        for (int i = 0; i < n; i++) {
+                            int a = pileArcs[i];
+                            capacite[a] -= q;
+                            capacite[a ^ 1] += q;
+                            coutTotal += q * cout[a];
+                        }
+                        offre[s] -= q;
+                        offre[puits] += q;
+                        demandeRestante -= q;
+                        pousse += q;
+                    }
+                }
+            }
+            if (pousse == 0) return false;
+        }
+        return true;
+    }
+
+    private boolean estAdmissible(int a, long[] potentiel) {
+        return cout[a] + potentiel[origine[a]] - potentiel[destination[a]] == 0;
+    }
+
+    // Chemin admissible de s vers un noeud en demande, arcs rangés dans pileArcs ;
+    // renvoie sa longueur, ou -1. Les arcs qui ne mènent nulle part sont abandonnés
+    // (courant avance), ce qui borne le travail d'une phase.
+    private int cheminAugmentant(int s, int[] debut, int[] sortants, int[] niveau, int[] courant,
+                                 int[] pileArcs, long[] potentiel) {
+        int n = 0;
+        int u = s;
+        while (true) {
+            if (n > 0 && offre[u] < 0) return n;
+            boolean avance = false;
+            while (courant[u] < debut[u + 1]) {
+                int a = sortants[courant[u]];
+                int v = destination[a];
+                if (capacite[a] > 0 && niveau[v] == niveau[u] + 1 && estAdmissible(a, potentiel)) {
+                    pileArcs[n++] = a;
+                    u = v;
+                    avance = true;
+                    break;
+                }
+                courant[u]++;
+            }
+            if (avance) continue;
+            // Impasse : on la retire des niveaux et on recule d'un arc
+            niveau[u] = -1;
+            if (n == 0) return -1;
+            u = origine[pileArcs[--n]];
+            courant[u]++;
+        }
+    }
+}
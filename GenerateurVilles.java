@@ -0,0 +1,295 @@
+package utils;
+
+import modele.graphe.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+
+/**
+ * Réseaux routiers synthétiques pour les mesures de performance, de quelques milliers
+ * à plusieurs millions de sommets, sous chaque hypothèse :
+ *  - grille : quartier en damier, rues à 100 m ;
+ *  - géométrique : points au hasard, chacun relié à ses plus proches voisins ;
+ *  - sans échelle : attachement préférentiel (quelques carrefours très chargés).
+ *
+ * Les poids sont les distances à vol d'oiseau (arrondies au décimètre), les sommets
+ * ont leurs coordonnées : les heuristiques de AEtoile restent valables.
+ * Pour que les itinéraires existent aussi en HO2, une rue "à double sens" y devient
+ * deux arêtes orientées (une par sens) ; la grille est bordée de telles rues et ses
+ * rues intérieures alternent de sens (comme à Manhattan), ce qui la rend fortement connexe.
+ * Même graine, mêmes paramètres : même graphe.
+ *
+ * Écriture d'un fichier au format de LecteurGraphe :
+ *   java utils.GenerateurVilles grille HO2 100000 data/grille.txt [graine]
+ */
+public final class GenerateurVilles {
+
+    public enum Modele { GRILLE, GEOMETRIQUE, SANS_ECHELLE }
+
+    private static final double ECART = 100.0;          // distance moyenne entre carrefours
+    private static final int NB_VOISINS = 3;             // graphe géométrique
+    private static final int NB_LIENS = 2;               // graphe sans échelle
+
+    private GenerateurVilles() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage : java utils.GenerateurVilles <grille|geometrique|sans_echelle> "
+                    + "<HO1|HO2|HO3> <nbSommets> <fichier> [graine]");
+            return;
+        }
+        Modele modele = Modele.valueOf(args[0].toUpperCase());
+        Graphe.TypeHypothese type = Graphe.TypeHypothese.valueOf(args[1]);
+        long graine = (args.length > 4) ? Long.parseLong(args[4]) : 1;
+        Graphe graphe = generer(modele, type, Integer.parseInt(args[2]), graine);
+        ecrireTexte(graphe, args[3]);
+        System.out.println(graphe);
+    }
+
+    public static Graphe generer(Modele modele, Graphe.TypeHypothese type, int nbSommets, long graine) {
+        switch (modele) {
+            case GRILLE: return grille(type, nbSommets, graine);
+            case GEOMETRIQUE: return geometrique(type, nbSommets, graine);
+            default: return sansEchelle(type, nbSommets, graine);
+        }
+    }
+
+
+    // GRILLE
+
+    // Grille d'au moins nbSommets carrefours (côtés pairs)
+    public static Graphe grille(Graphe.TypeHypothese type, int nbSommets, long graine) {
+        int largeur = Math.max(2, (int) Math.ceil(Math.sqrt(nbSommets)));
+        largeur += largeur % 2;
+        int hauteur = Math.max(2, (nbSommets + largeur - 1) / largeur);
+        hauteur += hauteur % 2;
+
+        Random r = new Random(graine);
+        Graphe graphe = new Graphe(type);
+        Sommet[] sommets = new Sommet[largeur * hauteur];
+        for (int y = 0; y < hauteur; y++) {
+            for (int x = 0; x < largeur; x++) {
+                sommets[y * largeur + x] = creerSommet(graphe, y * largeur + x, x * ECART, y * ECART);
+            }
+        }
+        for (int y = 0; y < hauteur; y++) {
+            for (int x = 0; x < largeur; x++) {
+                int u = y * largeur + x;
+                if (x + 1 < largeur) {
+                    // Rue horizontale : vers l'est sur les lignes paires, vers l'ouest sinon
+                    boolean bordure = (y == 0 || y == hauteur - 1);
+                    if (y % 2 == 0) ajouterRue(graphe, sommets, u, u + 1, r, bordure);
+                    else ajouterRue(graphe, sommets, u + 1, u, r, bordure);
+                }
+                if (y + 1 < hauteur) {
+                    // Rue verticale : vers le nord sur les colonnes paires, vers le sud sinon
+                    boolean bordure = (x == 0 || x == largeur - 1);
+                    if (x % 2 == 0) ajouterRue(graphe, sommets, u, u + largeur, r, bordure);
+                    else ajouterRue(graphe, sommets, u + largeur, u, r, bordure);
+                }
+            }
+        }
+        return graphe;
+    }
+
+
+    // GÉOMÉTRIQUE
+
+    // Points au hasard dans un carré, chacun relié à ses NB_VOISINS plus proches voisins
+    // (recherche dans une grille de cases de la taille de l'écart moyen)
+    public static Graphe geometrique(Graphe.TypeHypothese type, int nbSommets, long graine) {
+        Random r = new Random(graine);
+        int n = Math.max(2, nbSommets);
+        int nbCases = Math.max(1, (int) Math.sqrt(n));
+        double cote = nbCases * ECART;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = r.nextDouble() * cote;
+            y[i] = r.nextDouble() * cote;
+        }
+
+        // Points rangés par case (format CSR)
+        int[] debutCase = new int[nbCases * nbCases + 1];
+        int[] caseDe = new int[n];
+        for (int i = 0; i < n; i++) {
+            caseDe[i] = numeroCase(x[i], nbCases) * nbCases + numeroCase(y[i], nbCases);
+            debutCase[caseDe[i] + 1]++;
+        }
+        for (int c = 0; c < nbCases * nbCases; c++) debutCase[c + 1] += debutCase[c];
+        int[] points = new int[n];
+        int[] prochain = Arrays.copyOf(debutCase, nbCases * nbCases);
+        for (int i = 0; i < n; i++) points[prochain[caseDe[i]]++] = i;
+
+        // Paires (u, v) avec u < v, codées u * n + v puis dédoublonnées par un tri
+        long[] paires = new long[n * NB_VOISINS];
+        int nbPaires = 0;
+        int[] voisins = new int[NB_VOISINS];
+        double[] distances = new double[NB_VOISINS];
+        for (int i = 0; i < n; i++) {
+            int cx = caseDe[i] / nbCases, cy = caseDe[i] % nbCases;
+            int trouves = 0;
+            // On élargit l'anneau de cases jusqu'à avoir assez de voisins, plus un anneau
+            // pour ne pas manquer un voisin plus proche dans la case d'à côté
+            for (int rayon = 1, dernier = Integer.MAX_VALUE; rayon <= Math.min(dernier, nbCases); rayon++) {
+                trouves = 0;
+                for (int a = Math.max(0, cx - rayon); a <= Math.min(nbCases - 1, cx + rayon); a++) {
+                    for (int b = Math.max(0, cy - rayon); b <= Math.min(nbCases - 1, cy + rayon); b++) {
+                        int c = a * nbCases + b;
+                        for (int k = debutCase[c]; k < debutCase[c + 1]; k++) {
+                            int j = points[k];
+                            if (j == i) continue;
+                            trouves = garderPlusProche(voisins, distances, trouves, j, distance(x, y, i, j));
+                        }
+                    }
+                }
+                if (trouves == NB_VOISINS && dernier == Integer.MAX_VALUE) dernier = rayon + 1;
+            }
+            for (int k = 0; k < trouves; k++) {
+                int j = voisins[k];
+                paires[nbPaires++] = (long) Math.min(i, j) * n + Math.max(i, j);
+            }
+        }
+        Arrays.sort(paires, 0, nbPaires);
+
+        Graphe graphe = new Graphe(type);
+        Sommet[] sommets = new Sommet[n];
+        for (int i = 0; i < n; i++) sommets[i] = creerSommet(graphe, i, x[i], y[i]);
+        for (int k = 0; k < nbPaires; k++) {
+            if (k > 0 && paires[k] == paires[k - 1]) continue;
+            ajouterRueAuHasard(graphe, sommets, (int) (paires[k] / n), (int) (paires[k] % n), r);
+        }
+        return graphe;
+    }
+
+    private static int numeroCase(double coordonnee, int nbCases) {
+        return Math.min(nbCases - 1, (int) (coordonnee / ECART));
+    }
+
+    // Insertion dans la liste triée des plus proches ; renvoie sa nouvelle taille
+    private static int garderPlusProche(int[] voisins, double[] distances, int taille, int j, double d) {
+        if (taille == voisins.length && d >= distances[taille - 1]) return taille;
+        int i = (taille < voisins.length) ? taille++ : taille - 1;
+        while (i > 0 && distances[i - 1] > d) {
+            distances[i] = distances[i - 1];
+            voisins[i] = voisins[i - 1];
+            i--;
+        }
+        distances[i] = d;
+        voisins[i] = j;
+        return taille;
+    }
+
+
+    // SANS ÉCHELLE
+
+    // Barabási-Albert : chaque nouveau carrefour se relie à NB_LIENS carrefours existants,
+    // choisis avec une probabilité proportionnelle à leur degré
+    public static Graphe sansEchelle(Graphe.TypeHypothese type, int nbSommets, long graine) {
+        Random r = new Random(graine);
+        int n = Math.max(NB_LIENS + 1, nbSommets);
+        double cote = Math.sqrt(n) * ECART;
+        Graphe graphe = new Graphe(type);
+        Sommet[] sommets = new Sommet[n];
+        for (int i = 0; i < n; i++) {
+            sommets[i] = creerSommet(graphe, i, r.nextDouble() * cote, r.nextDouble() * cote);
+        }
+
+        // Chaque extrémité d'arête apparaît une fois ici : tirer dedans, c'est tirer selon le degré
+        int[] extremites = new int[2 * NB_LIENS * n];
+        int nbExtremites = 0;
+        for (int i = 0; i < NB_LIENS; i++) {
+            for (int j = i + 1; j <= NB_LIENS; j++) {
+                ajouterRueAuHasard(graphe, sommets, i, j, r);
+                extremites[nbExtremites++] = i;
+                extremites[nbExtremites++] = j;
+            }
+        }
+        int[] choisis = new int[NB_LIENS];
+        for (int i = NB_LIENS + 1; i < n; i++) {
+            int nbChoisis = 0;
+            while (nbChoisis < NB_LIENS) {
+                int j = extremites[r.nextInt(nbExtremites)];
+                boolean dejaPris = false;
+                for (int k = 0; k < nbChoisis; k++) dejaPris |= (choisis[k] == j);
+                if (!dejaPris) choisis[nbChoisis++] = j;
+            }
+            for (int k = 0; k < NB_LIENS; k++) {
+                ajouterRueAuHasard(graphe, sommets, choisis[k], i, r);
+                extremites[nbExtremites++] = choisis[k];
+                extremites[nbExtremites++] = i;
+            }
+        }
+        return graphe;
+    }
+
+
+    // RUES
+
+    private static Sommet creerSommet(Graphe graphe, int numero, double x, double y) {
+        String id = "V" + numero;
+        Sommet sommet = new Sommet(id, id, x, y);
+        graphe.ajouterSommet(sommet);
+        return sommet;
+    }
+
+    private static double distance(double[] x, double[] y, int i, int j) {
+        return Math.hypot(x[i] - x[j], y[i] - y[j]);
+    }
+
+    // Trois chances sur quatre d'être à double sens (sinon, en HO2, une bonne partie de
+    // la ville n'est plus accessible), sinon sens unique dans un sens au hasard
+    private static void ajouterRueAuHasard(Graphe graphe, Sommet[] sommets, int u, int v, Random r) {
+        if (r.nextInt(4) != 0) ajouterRue(graphe, sommets, u, v, r, true);
+        else if (r.nextBoolean()) ajouterRue(graphe, sommets, u, v, r, false);
+        else ajouterRue(graphe, sommets, v, u, r, false);
+    }
+
+    // Rue de u vers v (le sens ne compte que pour une rue à sens unique)
+    private static void ajouterRue(Graphe graphe, Sommet[] sommets, int u, int v, Random r, boolean doubleSens) {
+        Sommet s1 = sommets[u], s2 = sommets[v];
+        double poids = Math.max(1.0, Math.round(Math.hypot(s1.getX() - s2.getX(), s1.getY() - s2.getY()) * 10) / 10.0);
+        switch (graphe.getTypeHypothese()) {
+            case HO1:
+                graphe.ajouterArete(new Arete(s1, s2, poids, "", true, 1), u, v);
+                break;
+            case HO2:
+                graphe.ajouterArete(new Arete(s1, s2, poids, "", false, 1 + r.nextInt(2)), u, v);
+                if (doubleSens) graphe.ajouterArete(new Arete(s2, s1, poids, "", false, 1 + r.nextInt(2)), v, u);
+                break;
+            default:
+                // HO3 : en plus, un tiers des rues à sens unique passent à double sens
+                boolean bidirectionnelle = doubleSens || r.nextInt(3) == 0;
+                graphe.ajouterArete(new Arete(s1, s2, poids, "", bidirectionnelle, 1 + r.nextInt(2)), u, v);
+                break;
+        }
+    }
+
+
+    // ÉCRITURE AU FORMAT TEXTE
+
+    public static void ecrireTexte(Graphe graphe, String cheminFichier) throws IOException {
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(cheminFichier), StandardCharsets.UTF_8), 1 << 16)) {
+            w.write("TYPE: " + graphe.getTypeHypothese() + "\n");
+            w.write("SOMMETS:\n");
+            for (Sommet sommet : graphe.getSommets()) {
+                w.write(sommet.getId());
+                if (!Double.isNaN(sommet.getX())) {
+                    w.write(" " + sommet.getX() + " " + sommet.getY());
+                }
+                w.write('\n');
+            }
+            w.write("ARETES:\n");
+            boolean ho1 = graphe.getTypeHypothese() == Graphe.TypeHypothese.HO1;
+            for (Arete arete : graphe.getAretes()) {
+                w.write(arete.getSommet1().getId() + " " + arete.getSommet2().getId() + " " + arete.getPoids());
+                if (!ho1) w.write(" " + arete.isBidirectionnelle() + " " + arete.getNbVoies());
+                if (!arete.getNom().isEmpty()) w.write(" " + arete.getNom());
+                w.write('\n');
+            }
+        }
+    }
+}
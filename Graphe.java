@@ -12,39 +12,79 @@ public class Graphe {
     }
 
     private TypeHypothese typeHypothese;
-    private Map<String, Sommet> sommets;
+    private DictionnaireSommets indices;    // id du sommet -> numéro (0, 1, 2... dans l'ordre d'ajout)
+    private List<Sommet> sommets;           // numéro -> sommet
     private List<Arete> aretes;
-    private Map<Sommet, List<Arete>> adjacence;
+    private List<ListeAdjacence> adjacence; // numéro du sommet -> arêtes incidentes
+
+    // Augmente à chaque modification qui peut changer un plus court chemin (ajout de sommet
+    // ou d'arête, poids ou sens d'une arête) : un résultat calculé à la version v est périmé
+    // dès que getVersion() != v
+    private long version;
+
+    // Visiteur appelé pour chaque arc (voisin, arête, poids) sans créer de liste intermédiaire
+    public interface VisiteurArc {
+        void visiter(int voisin, Arete arete, double poids);
+    }
 
     public Graphe(TypeHypothese typeHypothese) {
         this.typeHypothese = typeHypothese;
-        this.sommets = new HashMap<>();
+        this.indices = new DictionnaireSommets();
+        this.sommets = new ArrayList<>();
         this.aretes = new ArrayList<>();
-        this.adjacence = new HashMap<>();
+        this.adjacence = new ArrayList<>();
     }
 
     // Getters
     public TypeHypothese getTypeHypothese() { return typeHypothese; }
     public int getNbSommets() { return sommets.size(); }
     public int getNbAretes() { return aretes.size(); }
-    public Collection<Sommet> getSommets() { return sommets.values(); }
+    public Collection<Sommet> getSommets() { return Collections.unmodifiableList(sommets); }
     public List<Arete> getAretes() { return new ArrayList<>(aretes); }
-    public Sommet getSommet(String id) { return sommets.get(id); }
+    public long getVersion() { return version; }
+
+    // Appelé aussi par les setters de Arete
+    void incrementerVersion() { version++; }
+
+    public Sommet getSommet(String id) {
+        int indice = indices.getNumero(id);
+        return (indice >= 0) ? sommets.get(indice) : null;
+    }
+
+    // Numérotation dense des sommets (stable : un sommet garde son numéro)
+    public Sommet getSommet(int indice) { return sommets.get(indice); }
+
+    public int getIndice(Sommet sommet) {
+        return indices.getNumero(sommet.getId());
+    }
+
+    // Numéro d'un identifiant (-1 s'il est inconnu), sans passer par le Sommet
+    public int getIndice(String id) {
+        return indices.getNumero(id);
+    }
+
+    // Copie du dictionnaire des identifiants, pour figer()
+    DictionnaireSommets copierDictionnaire() {
+        return indices.copier();
+    }
 
     // Ajout de sommets
     public boolean ajouterSommet(Sommet sommet) {
         if (sommet == null) {
             throw new IllegalArgumentException("Le sommet ne peut pas être null");
         }
-        if (sommets.containsKey(sommet.getId())) {
+        if (indices.ajouter(sommet.getId()) < sommets.size()) {
             return false;
         }
-        sommets.put(sommet.getId(), sommet);
-        adjacence.put(sommet, new ArrayList<>());
+        sommets.add(sommet);
+        adjacence.add(new ListeAdjacence());
+        version++;
         return true;
     }
 
-    // Ajout d'arêtes
+    // Ajout d'arêtes. Une arête n'appartient qu'à un seul graphe (ses setters font changer
+    // la version de ce graphe) : l'ajouter à un second graphe lève IllegalArgumentException,
+    // il faut y ajouter une copie (comme Secteur.copier)
     public void ajouterArete(Arete arete) {
         if (arete == null) {
             throw new IllegalArgumentException("L'arête ne peut pas être null");
@@ -53,14 +93,32 @@ public class Graphe {
         Sommet s1 = arete.getSommet1();
         Sommet s2 = arete.getSommet2();
 
-        if (!sommets.containsKey(s1.getId())) ajouterSommet(s1);
-        if (!sommets.containsKey(s2.getId())) ajouterSommet(s2);
+        int i1 = indices.getNumero(s1.getId());
+        if (i1 < 0) {
+            ajouterSommet(s1);
+            i1 = sommets.size() - 1;
+        }
+        int i2 = indices.getNumero(s2.getId());
+        if (i2 < 0) {
+            ajouterSommet(s2);
+            i2 = sommets.size() - 1;
+        }
+        ajouterArete(arete, i1, i2);
+    }
 
+    // Ajout quand on connaît déjà les numéros des deux extrémités (chargement en masse) :
+    // pas de recherche par identifiant. Même règle : l'arête ne doit être dans aucun autre graphe
+    public void ajouterArete(Arete arete, int indice1, int indice2) {
+        if (!sommets.get(indice1).equals(arete.getSommet1()) || !sommets.get(indice2).equals(arete.getSommet2())) {
+            throw new IllegalArgumentException("Numéros de sommets incohérents pour l'arête " + arete);
+        }
         validerArete(arete);
+        arete.rattacher(this);
 
         aretes.add(arete);
-        adjacence.get(s1).add(arete);
-        adjacence.get(s2).add(arete);
+        adjacence.get(indice1).ajouter(arete, indice2, true);
+        adjacence.get(indice2).ajouter(arete, indice1, false);
+        version++;
     }
 
     private void validerArete(Arete arete) {
@@ -83,37 +141,80 @@ public class Graphe {
     }
 
     // Voisinage
+
+    // Vue en lecture seule (pas de copie) des arêtes incidentes au sommet
     public List<Arete> getAretesAdjacentes(Sommet sommet) {
-        return new ArrayList<>(adjacence.getOrDefault(sommet, new ArrayList<>()));
+        int indice = getIndice(sommet);
+        return (indice < 0) ? Collections.emptyList() : adjacence.get(indice);
     }
 
     public List<Sommet> getSuccesseurs(Sommet sommet) {
         List<Sommet> successeurs = new ArrayList<>();
-        List<Arete> aretesAdj = adjacence.getOrDefault(sommet, new ArrayList<>());
+        int indice = getIndice(sommet);
+        if (indice >= 0) {
+            parcourirSuccesseurs(indice, (voisin, arete, poids) -> successeurs.add(sommets.get(voisin)));
+        }
+        return successeurs;
+    }
 
-        for (Arete arete : aretesAdj) {
-            Sommet autre = arete.getAutreSommet(sommet);
-            if (arete.peutAllerDe(sommet, autre)) {
-                successeurs.add(autre);
+    // Appelle le visiteur pour chaque arc sortant du sommet, en respectant le sens des arêtes
+    // (même règle que Arete.peutAllerDe). Aucune allocation.
+    public void parcourirSuccesseurs(int sommet, VisiteurArc visiteur) {
+        ListeAdjacence liste = adjacence.get(sommet);
+        for (int i = 0; i < liste.taille; i++) {
+            Arete arete = liste.aretes[i];
+            // depuis sommet1 on peut toujours partir, depuis sommet2 seulement si double sens
+            if (liste.depuisSommet1[i] || arete.isBidirectionnelle()) {
+                visiteur.visiter(liste.voisins[i], arete, arete.getPoids());
+            }
+        }
+    }
+
+    public void parcourirSuccesseurs(Sommet sommet, VisiteurArc visiteur) {
+        int indice = getIndice(sommet);
+        if (indice >= 0) {
+            parcourirSuccesseurs(indice, visiteur);
+        }
+    }
+
+    // Arcs entrants : le visiteur reçoit le sommet d'où l'on vient (utile pour chercher "à l'envers")
+    public void parcourirPredecesseurs(int sommet, VisiteurArc visiteur) {
+        ListeAdjacence liste = adjacence.get(sommet);
+        for (int i = 0; i < liste.taille; i++) {
+            Arete arete = liste.aretes[i];
+            // on arrive toujours sur sommet2, et sur sommet1 seulement si double sens
+            if (!liste.depuisSommet1[i] || arete.isBidirectionnelle()) {
+                visiteur.visiter(liste.voisins[i], arete, arete.getPoids());
             }
         }
-        return successeurs;
     }
 
     public int getDegre(Sommet sommet) {
-        return adjacence.getOrDefault(sommet, new ArrayList<>()).size();
+        int indice = getIndice(sommet);
+        return (indice < 0) ? 0 : adjacence.get(indice).taille;
     }
 
     public Arete getArete(Sommet s1, Sommet s2) {
-        List<Arete> aretesS1 = adjacence.getOrDefault(s1, new ArrayList<>());
-        for (Arete arete : aretesS1) {
-            if (arete.contient(s2)) {
-                return arete;
+        int i1 = getIndice(s1);
+        int i2 = getIndice(s2);
+        if (i1 < 0 || i2 < 0) {
+            return null;
+        }
+        ListeAdjacence liste = adjacence.get(i1);
+        for (int i = 0; i < liste.taille; i++) {
+            if (liste.voisins[i] == i2) {
+                return liste.aretes[i];
             }
         }
         return null;
     }
 
+    // Instantané immuable pour les calculs d'itinéraires : le Graphe reste modifiable à côté,
+    // mais pas les arêtes déjà figées (voir GrapheFige)
+    public GrapheFige figer() {
+        return new GrapheFige(this);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -122,4 +223,38 @@ public class Graphe {
         sb.append("Arêtes : ").append(getNbAretes()).append("\n");
         return sb.toString();
     }
+
+    // Arêtes incidentes à un sommet, rangées dans des tableaux parallèles :
+    // l'arête, le numéro du voisin, et si le sommet est le sommet1 de l'arête
+    private static class ListeAdjacence extends AbstractList<Arete> {
+        private Arete[] aretes = new Arete[4];
+        private int[] voisins = new int[4];
+        private boolean[] depuisSommet1 = new boolean[4];
+        private int taille;
+
+        private void ajouter(Arete arete, int voisin, boolean estSommet1) {
+            if (taille == aretes.length) {
+                aretes = Arrays.copyOf(aretes, taille * 2);
+                voisins = Arrays.copyOf(voisins, taille * 2);
+                depuisSommet1 = Arrays.copyOf(depuisSommet1, taille * 2);
+            }
+            aretes[taille] = arete;
+            voisins[taille] = voisin;
+            depuisSommet1[taille] = estSommet1;
+            taille++;
+        }
+
+        @Override
+        public Arete get(int index) {
+            if (index < 0 || index >= taille) {
+                throw new IndexOutOfBoundsException("Index : " + index);
+            }
+            return aretes[index];
+        }
+
+        @Override
+        public int size() {
+            return taille;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,456 @@
+package utils;
+
+import modele.graphe.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+
+/**
+ * Format binaire d'un GrapheFige, chargé avec FileChannel.map.
+ *
+ * Le fichier contient directement les tableaux du graphe figé (colonnes des
+ * arêtes et arcs au format CSR) : au chargement on les recopie en bloc, sans
+ * rien découper ni convertir ligne par ligne comme LecteurGraphe. Les noms des
+ * rues sont rangés dans un dictionnaire (une rue coupée en 50 tronçons n'a
+ * qu'un seul nom dans le fichier). chargerHorsTas range les arêtes hors du tas
+ * (AretesHorsTas), pour les réseaux trop gros pour des objets Arete.
+ *
+ * Organisation (petit-boutiste, chaque section alignée sur 8 octets) :
+ *   en-tête   : MAGIC, VERSION, type, nbSommets, nbAretes, nbArcs, nbNoms, tailles des textes
+ *   sommets   : identifiants (débuts + octets UTF-8), x, y, numéro de nom (-1 = l'identifiant)
+ *   noms      : dictionnaire (débuts + octets UTF-8)
+ *   arêtes    : extremite1, extremite2, poids, drapeaux, numéro de nom
+ *   arcs      : debut, cible, numeroArete
+ *
+ * Conversion depuis le format texte :
+ *   java utils.GrapheBinaire data/HO1.txt data/HO1.graphe
+ */
+public final class GrapheBinaire {
+
+    private static final int MAGIC = 0x47524631;   // "GRF1"
+    private static final int VERSION = 1;
+    private static final int TAILLE_EN_TETE = 48;
+
+    // Drapeaux des arêtes (mêmes bits que GrapheFige)
+    private static final int BIDIRECTIONNELLE = 1;
+
+    // Taille maximale d'une projection mémoire : au-delà on découpe en morceaux
+    private static final long TAILLE_MORCEAU = 1L << 30;
+
+    // Nombre d'arêtes recopiées à la fois par chargerHorsTas
+    private static final int TAILLE_LOT = 1 << 20;
+
+    private GrapheBinaire() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage : java utils.GrapheBinaire <fichier texte> <fichier binaire>");
+            return;
+        }
+        convertirDepuisTexte(args[0], args[1]);
+    }
+
+    public static GrapheFige convertirDepuisTexte(String cheminTexte, String cheminBinaire) throws IOException {
+        GrapheFige graphe = LecteurGraphe.chargerDepuisFichier(cheminTexte).figer();
+        ecrire(graphe, cheminBinaire);
+        return graphe;
+    }
+
+
+    // ÉCRITURE
+
+    public static void ecrire(GrapheFige graphe, String cheminFichier) throws IOException {
+        int n = graphe.getNbSommets();
+        int m = graphe.getNbAretes();
+        int nbArcs = graphe.getNbArcs();
+
+        // Dictionnaire des noms (sommets dont le nom diffère de l'identifiant, puis rues)
+        Map<String, Integer> numerosNoms = new HashMap<>();
+        List<byte[]> noms = new ArrayList<>();
+        int[] nomSommet = new int[n];
+        for (int i = 0; i < n; i++) {
+            Sommet sommet = graphe.getSommet(i);
+            nomSommet[i] = sommet.getNom().equals(sommet.getId()) ? -1 : numeroNom(sommet.getNom(), numerosNoms, noms);
+        }
+        int[] nomArete = new int[m];
+        for (int e = 0; e < m; e++) {
+            nomArete[e] = numeroNom(graphe.getArete(e).getNom(), numerosNoms, noms);
+        }
+        List<byte[]> identifiants = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            identifiants.add(graphe.getSommet(i).getId().getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (FileChannel canal = FileChannel.open(Paths.get(cheminFichier),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Ecrivain sortie = new Ecrivain(canal);
+
+            sortie.ecrireInt(MAGIC);
+            sortie.ecrireInt(VERSION);
+            sortie.ecrireInt(graphe.getTypeHypothese().ordinal());
+            sortie.ecrireInt(n);
+            sortie.ecrireInt(m);
+            sortie.ecrireInt(nbArcs);
+            sortie.ecrireInt(noms.size());
+            sortie.ecrireInt(0);
+            sortie.ecrireLong(tailleTextes(identifiants));
+            sortie.ecrireLong(tailleTextes(noms));
+
+            // Sommets
+            ecrireTextes(sortie, identifiants);
+            for (int i = 0; i < n; i++) sortie.ecrireDouble(graphe.getSommet(i).getX());
+            for (int i = 0; i < n; i++) sortie.ecrireDouble(graphe.getSommet(i).getY());
+            for (int i = 0; i < n; i++) sortie.ecrireInt(nomSommet[i]);
+            sortie.aligner();
+
+            // Noms
+            ecrireTextes(sortie, noms);
+
+            // Arêtes
+            for (int e = 0; e < m; e++) sortie.ecrireInt(graphe.getExtremite1(e));
+            sortie.aligner();
+            for (int e = 0; e < m; e++) sortie.ecrireInt(graphe.getExtremite2(e));
+            sortie.aligner();
+            for (int e = 0; e < m; e++) sortie.ecrireDouble(graphe.getPoidsArete(e));
+            for (int e = 0; e < m; e++) {
+                sortie.ecrireOctet((byte) ((graphe.getNbVoies(e) << 1)
+                        | (graphe.estBidirectionnelle(e) ? BIDIRECTIONNELLE : 0)));
+            }
+            sortie.aligner();
+            for (int e = 0; e < m; e++) sortie.ecrireInt(nomArete[e]);
+            sortie.aligner();
+
+            // Arcs
+            for (int u = 0; u < n; u++) sortie.ecrireInt(graphe.premierArc(u));
+            sortie.ecrireInt(nbArcs);
+            sortie.aligner();
+            for (int a = 0; a < nbArcs; a++) sortie.ecrireInt(graphe.getCible(a));
+            sortie.aligner();
+            for (int a = 0; a < nbArcs; a++) sortie.ecrireInt(graphe.getNumeroArete(a));
+            sortie.aligner();
+
+            sortie.vider();
+        }
+    }
+
+    private static int numeroNom(String nom, Map<String, Integer> numeros, List<byte[]> noms) {
+        Integer numero = numeros.get(nom);
+        if (numero == null) {
+            numero = noms.size();
+            numeros.put(nom, numero);
+            noms.add(nom.getBytes(StandardCharsets.UTF_8));
+        }
+        return numero;
+    }
+
+    private static long tailleTextes(List<byte[]> textes) {
+        long total = 0;
+        for (byte[] texte : textes) total += texte.length;
+        return total;
+    }
+
+    private static void ecrireTextes(Ecrivain sortie, List<byte[]> textes) throws IOException {
+        if (tailleTextes(textes) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Textes trop volumineux pour le format binaire");
+        }
+        int position = 0;
+        for (byte[] texte : textes) {
+            sortie.ecrireInt(position);
+            position += texte.length;
+        }
+        sortie.ecrireInt(position);
+        sortie.aligner();
+        for (byte[] texte : textes) sortie.ecrireOctets(texte);
+        sortie.aligner();
+    }
+
+
+    // LECTURE
+
+    public static GrapheFige charger(String cheminFichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(cheminFichier), StandardOpenOption.READ)) {
+            EnTete entete = EnTete.lire(canal, cheminFichier);
+            int n = entete.nbSommets;
+            int m = entete.nbAretes;
+            Lecteur entree = new Lecteur(canal, TAILLE_EN_TETE);
+
+            // Sommets
+            String[] identifiants = entree.lireTextes(n, entete.tailleIdentifiants);
+            double[] x = entree.lireDoubles(n);
+            double[] y = entree.lireDoubles(n);
+            int[] nomSommet = entree.lireInts(n);
+
+            // Noms
+            String[] noms = entree.lireTextes(entete.nbNoms, entete.tailleNoms);
+
+            // Arêtes
+            int[] extremite1 = entree.lireInts(m);
+            int[] extremite2 = entree.lireInts(m);
+            double[] poids = entree.lireDoubles(m);
+            byte[] drapeaux = entree.lireOctets(m);
+            int[] nomArete = entree.lireInts(m);
+
+            // Arcs
+            int[] debut = entree.lireInts(n + 1);
+            int[] cible = entree.lireInts(entete.nbArcs);
+            int[] numeroArete = entree.lireInts(entete.nbArcs);
+
+            Sommet[] sommets = creerSommets(identifiants, x, y, nomSommet, noms);
+            Arete[] aretes = new Arete[m];
+            for (int e = 0; e < m; e++) {
+                aretes[e] = new Arete(sommets[extremite1[e]], sommets[extremite2[e]], poids[e], noms[nomArete[e]],
+                        (drapeaux[e] & BIDIRECTIONNELLE) != 0, (drapeaux[e] & 0xFF) >>> 1);
+            }
+            return GrapheFige.depuisTableaux(entete.type, sommets, aretes,
+                    extremite1, extremite2, debut, cible, numeroArete);
+        }
+    }
+
+    // Comme charger, mais les arêtes sont recopiées directement du fichier vers des
+    // AretesHorsTas, par lots : ni objet Arete ni colonne d'arêtes dans le tas. Les arcs
+    // sont recalculés à partir des arêtes (même ordre que ceux du fichier).
+    public static GrapheFige chargerHorsTas(String cheminFichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(cheminFichier), StandardOpenOption.READ)) {
+            EnTete entete = EnTete.lire(canal, cheminFichier);
+            int n = entete.nbSommets;
+            int m = entete.nbAretes;
+            Lecteur entree = new Lecteur(canal, TAILLE_EN_TETE);
+
+            String[] identifiants = entree.lireTextes(n, entete.tailleIdentifiants);
+            double[] x = entree.lireDoubles(n);
+            double[] y = entree.lireDoubles(n);
+            int[] nomSommet = entree.lireInts(n);
+            String[] noms = entree.lireTextes(entete.nbNoms, entete.tailleNoms);
+            Sommet[] sommets = creerSommets(identifiants, x, y, nomSommet, noms);
+
+            AretesHorsTas aretes = new AretesHorsTas();
+            for (int k = 0; k < noms.length; k++) {
+                if (aretes.ajouterNom(noms[k]) != k) {
+                    throw new IllegalArgumentException("Fichier binaire corrompu (noms en double)");
+                }
+            }
+
+            long debutExtremite1 = entree.sauter(4L * m);
+            long debutExtremite2 = entree.sauter(4L * m);
+            long debutPoids = entree.sauter(8L * m);
+            long debutDrapeaux = entree.sauter(m);
+            long debutNoms = entree.sauter(4L * m);
+            for (int fait = 0; fait < m; ) {
+                int nb = Math.min(m - fait, TAILLE_LOT);
+                IntBuffer ext1 = entree.projeter(debutExtremite1 + 4L * fait, 4L * nb).asIntBuffer();
+                IntBuffer ext2 = entree.projeter(debutExtremite2 + 4L * fait, 4L * nb).asIntBuffer();
+                DoubleBuffer poids = entree.projeter(debutPoids + 8L * fait, 8L * nb).asDoubleBuffer();
+                ByteBuffer drapeaux = entree.projeter(debutDrapeaux + fait, nb);
+                IntBuffer nomArete = entree.projeter(debutNoms + 4L * fait, 4L * nb).asIntBuffer();
+                for (int i = 0; i < nb; i++) {
+                    int d = drapeaux.get(i);
+                    aretes.ajouter(ext1.get(i), ext2.get(i), poids.get(i), nomArete.get(i),
+                            (d & BIDIRECTIONNELLE) != 0, (d & 0xFF) >>> 1);
+                }
+                fait += nb;
+            }
+            return GrapheFige.depuisAretesHorsTas(entete.type, sommets, aretes);
+        }
+    }
+
+    private static Sommet[] creerSommets(String[] identifiants, double[] x, double[] y, int[] nomSommet, String[] noms) {
+        Sommet[] sommets = new Sommet[identifiants.length];
+        for (int i = 0; i < sommets.length; i++) {
+            String nom = (nomSommet[i] < 0) ? identifiants[i] : noms[nomSommet[i]];
+            sommets[i] = new Sommet(identifiants[i], nom, x[i], y[i]);
+        }
+        return sommets;
+    }
+
+
+    // En-tête vérifié (MAGIC, version, type)
+    private static final class EnTete {
+        Graphe.TypeHypothese type;
+        int nbSommets;
+        int nbAretes;
+        int nbArcs;
+        int nbNoms;
+        long tailleIdentifiants;
+        long tailleNoms;
+
+        static EnTete lire(FileChannel canal, String cheminFichier) throws IOException {
+            if (canal.size() < TAILLE_EN_TETE) {
+                throw new IllegalArgumentException("Fichier binaire trop court : " + cheminFichier);
+            }
+            ByteBuffer zone = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAILLE_EN_TETE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (zone.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Ce n'est pas un graphe binaire : " + cheminFichier);
+            }
+            int version = zone.getInt(4);
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Version de graphe binaire non supportée : " + version);
+            }
+            int numeroType = zone.getInt(8);
+            Graphe.TypeHypothese[] types = Graphe.TypeHypothese.values();
+            if (numeroType < 0 || numeroType >= types.length) {
+                throw new IllegalArgumentException("Type inconnu dans le fichier : " + numeroType);
+            }
+            EnTete entete = new EnTete();
+            entete.type = types[numeroType];
+            entete.nbSommets = zone.getInt(12);
+            entete.nbAretes = zone.getInt(16);
+            entete.nbArcs = zone.getInt(20);
+            entete.nbNoms = zone.getInt(24);
+            entete.tailleIdentifiants = zone.getLong(32);
+            entete.tailleNoms = zone.getLong(40);
+            return entete;
+        }
+    }
+
+
+    // Écriture tamponnée en petit-boutiste, avec la position courante pour l'alignement
+    private static final class Ecrivain {
+        private final FileChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        Ecrivain(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void ecrireInt(int valeur) throws IOException {
+            place(4);
+            tampon.putInt(valeur);
+            position += 4;
+        }
+
+        void ecrireLong(long valeur) throws IOException {
+            place(8);
+            tampon.putLong(valeur);
+            position += 8;
+        }
+
+        void ecrireDouble(double valeur) throws IOException {
+            place(8);
+            tampon.putDouble(valeur);
+            position += 8;
+        }
+
+        void ecrireOctet(byte valeur) throws IOException {
+            place(1);
+            tampon.put(valeur);
+            position++;
+        }
+
+        void ecrireOctets(byte[] valeurs) throws IOException {
+            for (byte valeur : valeurs) ecrireOctet(valeur);
+        }
+
+        void aligner() throws IOException {
+            while (position % 8 != 0) ecrireOctet((byte) 0);
+        }
+
+        private void place(int taille) throws IOException {
+            if (tampon.remaining() < taille) vider();
+        }
+
+        void vider() throws IOException {
+            tampon.flip();
+            while (tampon.hasRemaining()) canal.write(tampon);
+            tampon.clear();
+        }
+    }
+
+
+    // Lecture des sections dans l'ordre, chacune recopiée en bloc depuis la projection mémoire
+    private static final class Lecteur {
+        private final FileChannel canal;
+        private long position;
+
+        Lecteur(FileChannel canal, long position) {
+            this.canal = canal;
+            this.position = position;
+        }
+
+        int[] lireInts(int taille) throws IOException {
+            int[] valeurs = new int[taille];
+            int fait = 0;
+            while (fait < taille) {
+                int nb = (int) Math.min(taille - fait, TAILLE_MORCEAU / 4);
+                projeter(4L * nb).asIntBuffer().get(valeurs, fait, nb);
+                fait += nb;
+            }
+            aligner();
+            return valeurs;
+        }
+
+        double[] lireDoubles(int taille) throws IOException {
+            double[] valeurs = new double[taille];
+            int fait = 0;
+            while (fait < taille) {
+                int nb = (int) Math.min(taille - fait, TAILLE_MORCEAU / 8);
+                projeter(8L * nb).asDoubleBuffer().get(valeurs, fait, nb);
+                fait += nb;
+            }
+            aligner();
+            return valeurs;
+        }
+
+        byte[] lireOctets(int taille) throws IOException {
+            byte[] valeurs = new byte[taille];
+            int fait = 0;
+            while (fait < taille) {
+                int nb = (int) Math.min(taille - fait, TAILLE_MORCEAU);
+                projeter(nb).get(valeurs, fait, nb);
+                fait += nb;
+            }
+            aligner();
+            return valeurs;
+        }
+
+        String[] lireTextes(int nombre, long tailleTotale) throws IOException {
+            int[] debuts = lireInts(nombre + 1);
+            if (tailleTotale > Integer.MAX_VALUE || debuts[nombre] != tailleTotale) {
+                throw new IllegalArgumentException("Fichier binaire corrompu (textes)");
+            }
+            byte[] octets = lireOctets((int) tailleTotale);
+            String[] textes = new String[nombre];
+            for (int i = 0; i < nombre; i++) {
+                textes[i] = new String(octets, debuts[i], debuts[i + 1] - debuts[i], StandardCharsets.UTF_8);
+            }
+            return textes;
+        }
+
+        // Passe une section sans la lire ; rend sa position dans le fichier
+        long sauter(long taille) throws IOException {
+            if (position + taille > canal.size()) {
+                throw new IllegalArgumentException("Fichier binaire tronqué");
+            }
+            long debut = position;
+            position += taille;
+            aligner();
+            return debut;
+        }
+
+        ByteBuffer projeter(long debut, long taille) throws IOException {
+            if (debut + taille > canal.size()) {
+                throw new IllegalArgumentException("Fichier binaire tronqué");
+            }
+            return canal.map(FileChannel.MapMode.READ_ONLY, debut, taille).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private ByteBuffer projeter(long taille) throws IOException {
+            if (position + taille > canal.size()) {
+                throw new IllegalArgumentException("Fichier binaire tronqué");
+            }
+            ByteBuffer zone = canal.map(FileChannel.MapMode.READ_ONLY, position, taille).order(ByteOrder.LITTLE_ENDIAN);
+            position += taille;
+            return zone;
+        }
+
+        private void aligner() {
+            position = (position + 7) & ~7L;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package modele.graphe;
+
+import java.util.*;
+
+/**
+ * Instantané immuable d'un Graphe, indexé par des entiers (format CSR).
+ *
+ * Le Graphe "normal" sert à construire le réseau ; une fois construit on le fige
+ * et les algorithmes de plus court chemin travaillent sur des tableaux d'entiers
+ * et de doubles au lieu de suivre des Map de Sommet / List d'Arete.
+ *
+ * Poids, sens et nombre de voies des arêtes sont recopiés dans les tableaux, mais getArete
+ * rend les Arete du Graphe d'origine (chercherArete les retrouve par identité). Le Graphe
+ * peut encore recevoir des sommets et des arêtes, absents de l'instantané ; ses arêtes déjà
+ * figées, elles, ne doivent plus être modifiées (Arete.setPoids, setBidirectionnelle,
+ * setNbVoies) : getArete ne serait plus d'accord avec getPoidsArete et les arcs. Pour
+ * changer une rue, modifier le Graphe puis figer à nouveau.
+ */
+public final class GrapheFige {
+
+    // Drapeaux des arêtes : bit 0 = bidirectionnelle, bits 1 à 7 = nbVoies
+    private static final int BIDIRECTIONNELLE = 1;
+    private static final int MAX_VOIES = 127;
+
+    private final Graphe.TypeHypothese typeHypothese;
+
+    // Sommets : indice -> Sommet (et l'inverse, utilisé seulement à l'entrée de l'API)
+    private final Sommet[] sommets;
+    private final DictionnaireSommets indices;
+
+    // Arêtes : une colonne par attribut, indexée par le numéro de l'arête
+    // (ou, pour un graphe hors tas, les colonnes de horsTas et ces tableaux à null)
+    private final AretesHorsTas horsTas;
+    private final Arete[] aretes;
+    private final int[] extremite1;
+    private final int[] extremite2;
+    private final double[] poidsAretes;
+    private final byte[] drapeaux;
+
+    // Arcs sortants : les arcs du sommet u sont les indices [debut[u], debut[u + 1])
+    // Une arête bidirectionnelle donne deux arcs, une arête orientée un seul (sommet1 -> sommet2)
+    private final int[] debut;
+    private final int[] cible;
+    private final double[] poids;
+    private final int[] numeroArete;
+
+    GrapheFige(Graphe graphe) {
+        this.typeHypothese = graphe.getTypeHypothese();
+        this.horsTas = null;
+
+        // Numérotation des sommets
+        int n = graphe.getNbSommets();
+        this.sommets = graphe.getSommets().toArray(new Sommet[0]);
+        this.indices = graphe.copierDictionnaire();
+
+        // Colonnes des arêtes
+        List<Arete> liste = graphe.getAretes();
+        int m = liste.size();
+        this.aretes = liste.toArray(new Arete[0]);
+        this.extremite1 = new int[m];
+        this.extremite2 = new int[m];
+        this.poidsAretes = new double[m];
+        this.drapeaux = new byte[m];
+
+        int nbArcs = 0;
+        for (int e = 0; e < m; e++) {
+            Arete arete = aretes[e];
+            if (arete.getNbVoies() < 0 || arete.getNbVoies() > MAX_VOIES) {
+                throw new IllegalArgumentException("Nombre de voies non supporté : " + arete);
+            }
+            extremite1[e] = indices.getNumero(arete.getSommet1().getId());
+            extremite2[e] = indices.getNumero(arete.getSommet2().getId());
+            poidsAretes[e] = arete.getPoids();
+            drapeaux[e] = (byte) ((arete.getNbVoies() << 1)
+                    | (arete.isBidirectionnelle() ? BIDIRECTIONNELLE : 0));
+            nbArcs += arete.isBidirectionnelle() ? 2 : 1;
+        }
+
+        // Comptage des arcs sortants puis somme préfixe pour obtenir les débuts
+        this.debut = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            debut[extremite1[e] + 1]++;
+            if (estBidirectionnelle(e)) debut[extremite2[e] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            debut[u + 1] += debut[u];
+        }
+
+        // Remplissage des arcs
+        this.cible = new int[nbArcs];
+        this.poids = new double[nbArcs];
+        this.numeroArete = new int[nbArcs];
+        int[] prochain = Arrays.copyOf(debut, n);
+        for (int e = 0; e < m; e++) {
+            placerArc(prochain, extremite1[e], extremite2[e], e);
+            if (estBidirectionnelle(e)) placerArc(prochain, extremite2[e], extremite1[e], e);
+        }
+    }
+
+    // Reconstruction à partir de tableaux déjà calculés (ex : lus dans un fichier binaire),
+    // sans repasser par un Graphe. Les arcs doivent suivre le même ordre que ceux de figer().
+    private GrapheFige(Graphe.TypeHypothese typeHypothese, Sommet[] sommets, Arete[] aretes,
+                       int[] extremite1, int[] extremite2, int[] debut, int[] cible, int[] numeroArete) {
+        int n = sommets.length;
+        int m = aretes.length;
+        if (extremite1.length != m || extremite2.length != m || debut.length != n + 1
+                || debut[0] != 0 || debut[n] != cible.length || numeroArete.length != cible.length) {
+            throw new IllegalArgumentException("Tableaux du graphe incohérents");
+        }
+        this.typeHypothese = typeHypothese;
+        this.sommets = sommets;
+        this.indices = indexer(sommets);
+
+        this.horsTas = null;
+        this.aretes = aretes;
+        this.extremite1 = extremite1;
+        this.extremite2 = extremite2;
+        this.poidsAretes = new double[m];
+        this.drapeaux = new byte[m];
+        for (int e = 0; e < m; e++) {
+            if (aretes[e].getNbVoies() < 0 || aretes[e].getNbVoies() > MAX_VOIES) {
+                throw new IllegalArgumentException("Nombre de voies non supporté : " + aretes[e]);
+            }
+            poidsAretes[e] = aretes[e].getPoids();
+            drapeaux[e] = (byte) ((aretes[e].getNbVoies() << 1)
+                    | (aretes[e].isBidirectionnelle() ? BIDIRECTIONNELLE : 0));
+        }
+
+        this.debut = debut;
+        this.cible = cible;
+        this.numeroArete = numeroArete;
+        this.poids = new double[cible.length];
+        for (int a = 0; a < cible.length; a++) {
+            poids[a] = poidsAretes[numeroArete[a]];
+        }
+    }
+
+    public static GrapheFige depuisTableaux(Graphe.TypeHypothese typeHypothese, Sommet[] sommets, Arete[] aretes,
+                                            int[] extremite1, int[] extremite2,
+                                            int[] debut, int[] cible, int[] numeroArete) {
+        return new GrapheFige(typeHypothese, sommets, aretes, extremite1, extremite2, debut, cible, numeroArete);
+    }
+
+    // Graphe dont les arêtes restent hors du tas : seuls les arcs (tableaux d'entiers et
+    // de doubles) et les sommets sont dans le tas. Les arcs suivent l'ordre de figer().
+    // getArete rend alors une copie détachée, à chaque appel. Les arêtes sont figées (plus
+    // d'ajout) : les arcs recopient leurs poids.
+    private GrapheFige(Graphe.TypeHypothese typeHypothese, Sommet[] sommets, AretesHorsTas horsTas) {
+        int n = sommets.length;
+        int m = horsTas.getNbAretes();
+        this.typeHypothese = typeHypothese;
+        this.sommets = sommets;
+        this.indices = indexer(sommets);
+
+        horsTas.figer();
+        this.horsTas = horsTas;
+        this.aretes = null;
+        this.extremite1 = null;
+        this.extremite2 = null;
+        this.poidsAretes = null;
+        this.drapeaux = null;
+
+        long nbArcs = 0;
+        this.debut = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            int u = horsTas.getExtremite1(e), v = horsTas.getExtremite2(e);
+            if (u >= n || v >= n) {
+                throw new IllegalArgumentException("Arête " + e + " : sommet inconnu");
+            }
+            debut[u + 1]++;
+            nbArcs++;
+            if (horsTas.estBidirectionnelle(e)) {
+                debut[v + 1]++;
+                nbArcs++;
+            }
+        }
+        if (nbArcs > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Trop d'arcs : " + nbArcs);
+        }
+        for (int u = 0; u < n; u++) {
+            debut[u + 1] += debut[u];
+        }
+
+        this.cible = new int[(int) nbArcs];
+        this.poids = new double[(int) nbArcs];
+        this.numeroArete = new int[(int) nbArcs];
+        int[] prochain = Arrays.copyOf(debut, n);
+        for (int e = 0; e < m; e++) {
+            int u = horsTas.getExtremite1(e), v = horsTas.getExtremite2(e);
+            placerArc(prochain, u, v, e);
+            if (horsTas.estBidirectionnelle(e)) placerArc(prochain, v, u, e);
+        }
+    }
+
+    public static GrapheFige depuisAretesHorsTas(Graphe.TypeHypothese typeHypothese, Sommet[] sommets,
+                                                 AretesHorsTas aretes) {
+        return new GrapheFige(typeHypothese, sommets, aretes);
+    }
+
+    private static DictionnaireSommets indexer(Sommet[] sommets) {
+        DictionnaireSommets indices = new DictionnaireSommets(sommets.length);
+        for (int i = 0; i < sommets.length; i++) {
+            if (indices.ajouter(sommets[i].getId()) != i) {
+                throw new IllegalArgumentException("Identifiant de sommet en double : " + sommets[i].getId());
+            }
+        }
+        return indices;
+    }
+
+    private void placerArc(int[] prochain, int u, int v, int e) {
+        int a = prochain[u]++;
+        cible[a] = v;
+        poids[a] = getPoidsArete(e);
+        numeroArete[a] = e;
+    }
+
+    // Getters généraux
+    public Graphe.TypeHypothese getTypeHypothese() { return typeHypothese; }
+    public int getNbSommets() { return sommets.length; }
+    public int getNbAretes() { return (horsTas != null) ? horsTas.getNbAretes() : aretes.length; }
+    public int getNbArcs() { return cible.length; }
+
+    // Passage Sommet <-> indice (à faire une seule fois, à la frontière de l'API)
+    public Sommet getSommet(int indice) { return sommets[indice]; }
+
+    public int getIndice(Sommet sommet) {
+        return indices.getNumero(sommet.getId());
+    }
+
+    public int getIndice(String id) {
+        return indices.getNumero(id);
+    }
+
+    // Arcs sortants : for (int a = premierArc(u); a < finArcs(u); a++) { ... }
+    public int premierArc(int sommet) { return debut[sommet]; }
+    public int finArcs(int sommet) { return debut[sommet + 1]; }
+    public int getDegreSortant(int sommet) { return debut[sommet + 1] - debut[sommet]; }
+    public int getCible(int arc) { return cible[arc]; }
+    public double getPoids(int arc) { return poids[arc]; }
+    public int getNumeroArete(int arc) { return numeroArete[arc]; }
+
+    // Attributs des arêtes (par numéro d'arête). Sur le tas, getArete rend l'Arete du Graphe
+    // d'origine (à ne plus modifier, voir plus haut). Hors tas, une copie détachée à chaque
+    // appel (pas d'identité : repasser par chercherArete pour retrouver le numéro ; pour
+    // parcourir sans allouer, AretesHorsTas.VueArete)
+    public Arete getArete(int numero) {
+        return (horsTas != null) ? horsTas.versArete(numero, sommets) : aretes[numero];
+    }
+
+    public int getExtremite1(int numero) {
+        return (horsTas != null) ? horsTas.getExtremite1(numero) : extremite1[numero];
+    }
+
+    public int getExtremite2(int numero) {
+        return (horsTas != null) ? horsTas.getExtremite2(numero) : extremite2[numero];
+    }
+
+    public double getPoidsArete(int numero) {
+        return (horsTas != null) ? horsTas.getPoids(numero) : poidsAretes[numero];
+    }
+
+    public boolean estBidirectionnelle(int numero) {
+        if (horsTas != null) return horsTas.estBidirectionnelle(numero);
+        return (drapeaux[numero] & BIDIRECTIONNELLE) != 0;
+    }
+
+    public int getNbVoies(int numero) {
+        if (horsTas != null) return horsTas.getNbVoies(numero);
+        return (drapeaux[numero] & 0xFF) >>> 1;
+    }
+
+    // Numéro d'une arête (-1 si elle n'est pas dans le graphe). Deux rues peuvent relier les
+    // mêmes sommets : on compare l'objet Arete lui-même, ou pour un graphe hors tas (dont les
+    // Arete sont des copies) tous ses attributs
+    public int chercherArete(Arete arete) {
+        int u = getIndice(arete.getSommet1());
+        int v = getIndice(arete.getSommet2());
+        if (u < 0 || v < 0) return -1;
+        for (int a = debut[u]; a < debut[u + 1]; a++) {
+            int e = numeroArete[a];
+            if (cible[a] != v || getExtremite1(e) != u) continue;
+            if (horsTas == null) {
+                if (aretes[e] == arete) return e;
+            } else if (horsTas.getPoids(e) == arete.getPoids()
+                    && horsTas.estBidirectionnelle(e) == arete.isBidirectionnelle()
+                    && horsTas.getNbVoies(e) == arete.getNbVoies()
+                    && horsTas.getNom(e).equals(arete.getNom())) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    // Arêtes hors tas (null si les arêtes sont des objets Arete)
+    public AretesHorsTas getAretesHorsTas() { return horsTas; }
+
+    @Override
+    public String toString() {
+        return "GrapheFige " + typeHypothese + " (" + getNbSommets() + " sommets, "
+                + getNbAretes() + " arêtes, " + getNbArcs() + " arcs)";
+    }
+}
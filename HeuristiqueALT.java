@@ -0,0 +1,161 @@
+package algorithmes.base;
+
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Estimation ALT (A*, Landmarks, inégalité Triangulaire) pour A*.
+ *
+ * On choisit quelques sommets "repères" éloignés les uns des autres et on calcule
+ * une fois pour toutes les distances depuis et vers chaque repère. Pour un repère L,
+ * l'inégalité triangulaire donne deux minorants de d(v, t) :
+ *   d(L, t) - d(L, v)   et   d(v, L) - d(t, L)
+ * On prend le plus grand sur tous les repères. Pas besoin de coordonnées, et les
+ * sens uniques (HO2/HO3) sont pris en compte puisqu'on part de vraies distances.
+ */
+public class HeuristiqueALT implements AEtoile.Heuristique {
+
+    private final Graphe graphe;
+    private final int[] reperes;
+
+    // depuisRepere[k][v] = d(repère k, v) et versRepere[k][v] = d(v, repère k)
+    private final double[][] depuisRepere;
+    private final double[][] versRepere;
+
+    // Valeurs des cibles de la requête en cours, recopiées pour aller plus vite
+    private double[] depuisRepereCible = new double[0];
+    private double[] versRepereCible = new double[0];
+    private double[] decalages = new double[0];
+    private int nbCibles;
+
+    public HeuristiqueALT(Graphe graphe, int nbReperes) {
+        if (nbReperes <= 0) {
+            throw new IllegalArgumentException("Il faut au moins un repère");
+        }
+        this.graphe = graphe;
+        int n = graphe.getNbSommets();
+        int k = Math.min(nbReperes, n);
+        this.reperes = new int[k];
+        this.depuisRepere = new double[k][];
+        this.versRepere = new double[k][];
+
+        TasIndexe file = new TasIndexe(n);
+        double[] score = new double[n];
+        Arrays.fill(score, Double.POSITIVE_INFINITY);
+
+        // Premier repère : le sommet le plus loin du sommet 0 ; ensuite, à chaque fois,
+        // le sommet le plus loin de tous les repères déjà choisis
+        double[] depuisZero = calculerDistances(0, true, file);
+        int suivant = plusLoin(depuisZero, null);
+        for (int r = 0; r < k; r++) {
+            reperes[r] = suivant;
+            depuisRepere[r] = calculerDistances(suivant, true, file);
+            versRepere[r] = calculerDistances(suivant, false, file);
+            for (int v = 0; v < n; v++) {
+                score[v] = Math.min(score[v], eloignement(depuisRepere[r][v], versRepere[r][v]));
+            }
+            suivant = plusLoin(score, reperes);
+        }
+    }
+
+    public List<Sommet> getReperes() {
+        List<Sommet> liste = new ArrayList<>();
+        for (int repere : reperes) {
+            liste.add(graphe.getSommet(repere));
+        }
+        return liste;
+    }
+
+    @Override
+    public void preparer(int[] cibles, double[] decalages, int nbCibles) {
+        int k = reperes.length;
+        if (depuisRepereCible.length < nbCibles * k) {
+            depuisRepereCible = new double[nbCibles * k];
+            versRepereCible = new double[nbCibles * k];
+        }
+        for (int i = 0; i < nbCibles; i++) {
+            for (int r = 0; r < k; r++) {
+                depuisRepereCible[i * k + r] = depuisRepere[r][cibles[i]];
+                versRepereCible[i * k + r] = versRepere[r][cibles[i]];
+            }
+        }
+        this.decalages = decalages;
+        this.nbCibles = nbCibles;
+    }
+
+    @Override
+    public double estimer(int sommet) {
+        int k = reperes.length;
+        double estimation = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < nbCibles; i++) {
+            double h = 0.0;
+            for (int r = 0; r < k; r++) {
+                h = plusGrandMinorant(h, depuisRepereCible[i * k + r] - depuisRepere[r][sommet]);
+                h = plusGrandMinorant(h, versRepere[r][sommet] - versRepereCible[i * k + r]);
+            }
+            estimation = Math.min(estimation, h + decalages[i]);
+        }
+        return estimation;
+    }
+
+    // INF - x = INF est un vrai minorant (cible inaccessible), mais INF - INF = NaN ne dit rien
+    private static double plusGrandMinorant(double actuel, double candidat) {
+        return (candidat > actuel) ? candidat : actuel;
+    }
+
+    // Distance "aller + retour" au repère, les parties inaccessibles comptant pour très loin
+    private static double eloignement(double depuis, double vers) {
+        if (depuis == Double.POSITIVE_INFINITY && vers == Double.POSITIVE_INFINITY) {
+            return Double.MAX_VALUE;
+        }
+        return (depuis == Double.POSITIVE_INFINITY ? 0 : depuis) + (vers == Double.POSITIVE_INFINITY ? 0 : vers);
+    }
+
+    private static int plusLoin(double[] valeurs, int[] exclus) {
+        int meilleur = 0;
+        double max = -1;
+        for (int v = 0; v < valeurs.length; v++) {
+            double valeur = valeurs[v];
+            if (valeur != Double.POSITIVE_INFINITY && valeur > max && !contient(exclus, v)) {
+                max = valeur;
+                meilleur = v;
+            }
+        }
+        return meilleur;
+    }
+
+    private static boolean contient(int[] tableau, int valeur) {
+        if (tableau == null) return false;
+        for (int x : tableau) {
+            if (x == valeur) return true;
+        }
+        return false;
+    }
+
+    // Dijkstra complet depuis (enAvant) ou vers (!enAvant) un sommet
+    private double[] calculerDistances(int depart, boolean enAvant, TasIndexe file) {
+        double[] distances = new double[graphe.getNbSommets()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[depart] = 0.0;
+        file.vider();
+        file.inserer(depart, 0.0);
+
+        while (!file.estVide()) {
+            int u = file.extraireMin();
+            double du = distances[u];
+            Graphe.VisiteurArc relaxation = (v, arete, poids) -> {
+                if (du + poids < distances[v]) {
+                    distances[v] = du + poids;
+                    file.insererOuDiminuer(v, du + poids);
+                }
+            };
+            if (enAvant) {
+                graphe.parcourirSuccesseurs(u, relaxation);
+            } else {
+                graphe.parcourirPredecesseurs(u, relaxation);
+            }
+        }
+        return distances;
+    }
+}
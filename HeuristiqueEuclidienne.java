@@ -0,0 +1,71 @@
+package algorithmes.base;
+
+import modele.graphe.*;
+
+
+/**
+ * Estimation "à vol d'oiseau" pour A*, à partir des coordonnées des sommets.
+ *
+ * Les longueurs des rues ne sont pas forcément dans la même unité que les
+ * coordonnées (ni toujours plus grandes que la ligne droite si les coordonnées
+ * sont approximatives), donc on calcule une fois le plus petit rapport
+ * longueur / vol d'oiseau sur toutes les arêtes et on multiplie par ce facteur :
+ * l'estimation reste un minorant quoi qu'il arrive.
+ */
+public class HeuristiqueEuclidienne implements AEtoile.Heuristique {
+
+    private final double[] x;
+    private final double[] y;
+    private final double facteur;
+
+    private int[] cibles = new int[0];
+    private double[] decalages = new double[0];
+    private int nbCibles;
+
+    public HeuristiqueEuclidienne(Graphe graphe) {
+        int n = graphe.getNbSommets();
+        this.x = new double[n];
+        this.y = new double[n];
+        for (int i = 0; i < n; i++) {
+            Sommet sommet = graphe.getSommet(i);
+            if (!sommet.aDesCoordonnees()) {
+                throw new IllegalArgumentException(
+                        "Coordonnées manquantes pour le sommet " + sommet.getId() + " (utiliser HeuristiqueALT)");
+            }
+            x[i] = sommet.getX();
+            y[i] = sommet.getY();
+        }
+
+        double rapportMin = Double.POSITIVE_INFINITY;
+        for (Arete arete : graphe.getAretes()) {
+            double volOiseau = arete.getSommet1().distanceEuclidienne(arete.getSommet2());
+            if (volOiseau > 0) {
+                rapportMin = Math.min(rapportMin, arete.getPoids() / volOiseau);
+            }
+        }
+        // Petite marge pour que les arrondis ne rendent jamais l'estimation trop grande
+        this.facteur = (rapportMin == Double.POSITIVE_INFINITY) ? 0.0 : rapportMin * (1 - 1e-9);
+    }
+
+    public double getFacteur() {
+        return facteur;
+    }
+
+    @Override
+    public void preparer(int[] cibles, double[] decalages, int nbCibles) {
+        this.cibles = cibles;
+        this.decalages = decalages;
+        this.nbCibles = nbCibles;
+    }
+
+    @Override
+    public double estimer(int sommet) {
+        double estimation = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < nbCibles; i++) {
+            int c = cibles[i];
+            double h = facteur * Math.hypot(x[sommet] - x[c], y[sommet] - y[c]) + decalages[i];
+            if (h < estimation) estimation = h;
+        }
+        return estimation;
+    }
+}
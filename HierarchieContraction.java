@@ -0,0 +1,393 @@
+package algorithmes.base;
+
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Hiérarchie de contraction (Contraction Hierarchies) construite sur un GrapheFige.
+ *
+ * Pré-calcul : on "contracte" les sommets un par un, du moins important au plus
+ * important. Contracter v, c'est le retirer du graphe en ajoutant un raccourci
+ * u -> w à chaque fois que u -> v -> w était le seul plus court chemin entre u et w.
+ * Les arcs gardent leur sens, donc les sens uniques (HO2/HO3) restent respectés.
+ *
+ * Une requête (voir RequeteHierarchie) ne fait plus qu'un Dijkstra bidirectionnel
+ * qui ne monte que vers des sommets plus importants : quelques centaines de sommets
+ * visités au lieu de tout le graphe. Le graphe routier change rarement, on paie
+ * donc le pré-calcul une fois pour des milliers de requêtes.
+ */
+public final class HierarchieContraction {
+
+    // Nombre max de sommets visités par une recherche de témoin pendant le pré-calcul
+    // (plus petit quand on ne fait qu'estimer la priorité d'un sommet)
+    private static final int LIMITE_TEMOIN = 500;
+    private static final int LIMITE_SIMULATION = 60;
+
+    private final GrapheFige graphe;
+    private final int[] rang;   // ordre de contraction : plus le rang est grand, plus le sommet est important
+
+    // Arcs de la hiérarchie (arcs d'origine puis raccourcis)
+    private final int[] depart;
+    private final int[] arrivee;
+    private final int[] arcOrigine;   // arc du GrapheFige pour un arc d'origine, -1 pour un raccourci
+    private final int[] enfant1;      // raccourci u -> w = enfant1 (u -> v) puis enfant2 (v -> w)
+    private final int[] enfant2;
+    private final int nbRaccourcis;
+
+    // Graphe montant "avant" : arcs u -> w avec rang[w] > rang[u], rangés par u
+    private final int[] debutAvant;
+    private final int[] arcsAvant;
+
+    // Graphe montant "arrière" : arcs u -> w avec rang[u] > rang[w], rangés par w
+    private final int[] debutArriere;
+    private final int[] arcsArriere;
+    private final double[] poids;
+
+    private HierarchieContraction(GrapheFige graphe, int[] rang, Contracteur c) {
+        this.graphe = graphe;
+        this.rang = rang;
+        int m = c.nbArcs;
+        this.depart = Arrays.copyOf(c.depart, m);
+        this.arrivee = Arrays.copyOf(c.arrivee, m);
+        this.arcOrigine = Arrays.copyOf(c.arcOrigine, m);
+        this.enfant1 = Arrays.copyOf(c.enfant1, m);
+        this.enfant2 = Arrays.copyOf(c.enfant2, m);
+        this.poids = Arrays.copyOf(c.poids, m);
+        this.nbRaccourcis = c.nbRaccourcis;
+
+        int n = graphe.getNbSommets();
+        this.debutAvant = new int[n + 1];
+        this.debutArriere = new int[n + 1];
+        for (int a = 0; a < m; a++) {
+            if (rang[arrivee[a]] > rang[depart[a]]) {
+                debutAvant[depart[a] + 1]++;
+            } else {
+                debutArriere[arrivee[a] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            debutAvant[v + 1] += debutAvant[v];
+            debutArriere[v + 1] += debutArriere[v];
+        }
+        this.arcsAvant = new int[debutAvant[n]];
+        this.arcsArriere = new int[debutArriere[n]];
+        int[] prochainAvant = Arrays.copyOf(debutAvant, n);
+        int[] prochainArriere = Arrays.copyOf(debutArriere, n);
+        for (int a = 0; a < m; a++) {
+            if (rang[arrivee[a]] > rang[depart[a]]) {
+                arcsAvant[prochainAvant[depart[a]]++] = a;
+            } else {
+                arcsArriere[prochainArriere[arrivee[a]]++] = a;
+            }
+        }
+    }
+
+    public static HierarchieContraction construire(GrapheFige graphe) {
+        Contracteur contracteur = new Contracteur(graphe);
+        int[] rang = contracteur.contracterTout();
+        return new HierarchieContraction(graphe, rang, contracteur);
+    }
+
+    public GrapheFige getGraphe() { return graphe; }
+    public int getNbRaccourcis() { return nbRaccourcis; }
+    public int getRang(int sommet) { return rang[sommet]; }
+
+    // Accès utilisés par RequeteHierarchie
+    int premierArcAvant(int sommet) { return debutAvant[sommet]; }
+    int finArcsAvant(int sommet) { return debutAvant[sommet + 1]; }
+    int arcAvant(int i) { return arcsAvant[i]; }
+    int premierArcArriere(int sommet) { return debutArriere[sommet]; }
+    int finArcsArriere(int sommet) { return debutArriere[sommet + 1]; }
+    int arcArriere(int i) { return arcsArriere[i]; }
+    int getDepart(int arc) { return depart[arc]; }
+    int getArrivee(int arc) { return arrivee[arc]; }
+    double getPoids(int arc) { return poids[arc]; }
+
+    // Remplace un arc de la hiérarchie par les arcs du GrapheFige qu'il représente (dans l'ordre)
+    void deplier(int arc, List<Integer> arcsOrigine, int[] pile) {
+        int taille = 0;
+        pile[taille++] = arc;
+        while (taille > 0) {
+            int a = pile[--taille];
+            if (arcOrigine[a] >= 0) {
+                arcsOrigine.add(arcOrigine[a]);
+            } else {
+                // enfant1 doit sortir en premier, donc on l'empile en dernier
+                pile[taille++] = enfant2[a];
+                pile[taille++] = enfant1[a];
+            }
+        }
+    }
+
+    // Profondeur max de la pile pour deplier (un raccourci empile au plus 2 arcs par niveau)
+    int getTaillePile() {
+        return 2 * graphe.getNbSommets() + 2;
+    }
+
+
+    /**
+     * Pré-calcul : graphe de travail qui grossit avec les raccourcis, et ordre de contraction
+     * avec mise à jour paresseuse des priorités.
+     */
+    private static final class Contracteur {
+
+        private final int n;
+
+        private int[] depart = new int[16];
+        private int[] arrivee = new int[16];
+        private double[] poids = new double[16];
+        private int[] arcOrigine = new int[16];
+        private int[] enfant1 = new int[16];
+        private int[] enfant2 = new int[16];
+        private int nbArcs;
+        private int nbRaccourcis;
+
+        private final ListeEntiers[] sortants;
+        private final ListeEntiers[] entrants;
+        private final boolean[] contracte;
+        private final int[] nbVoisinsContractes;
+
+        // Recherche de témoin (Dijkstra local qui évite le sommet contracté)
+        private final double[] distancesTemoin;
+        private final TasIndexe fileTemoin;
+        private final int[] touches;
+        private int nbTouches;
+        private final boolean[] estCibleTemoin;
+        private int nbCiblesTemoin;
+
+        Contracteur(GrapheFige graphe) {
+            this.n = graphe.getNbSommets();
+            this.sortants = new ListeEntiers[n];
+            this.entrants = new ListeEntiers[n];
+            for (int v = 0; v < n; v++) {
+                sortants[v] = new ListeEntiers();
+                entrants[v] = new ListeEntiers();
+            }
+            this.contracte = new boolean[n];
+            this.nbVoisinsContractes = new int[n];
+            this.distancesTemoin = new double[n];
+            Arrays.fill(distancesTemoin, Double.POSITIVE_INFINITY);
+            this.fileTemoin = new TasIndexe(n);
+            this.touches = new int[n];
+            this.estCibleTemoin = new boolean[n];
+
+            // Arcs d'origine : entre deux sommets on ne garde que le plus court
+            int[] meilleurArc = new int[n];
+            Arrays.fill(meilleurArc, -1);
+            for (int u = 0; u < n; u++) {
+                for (int a = graphe.premierArc(u); a < graphe.finArcs(u); a++) {
+                    int v = graphe.getCible(a);
+                    if (meilleurArc[v] < 0 || graphe.getPoids(a) < graphe.getPoids(meilleurArc[v])) {
+                        meilleurArc[v] = a;
+                    }
+                }
+                for (int a = graphe.premierArc(u); a < graphe.finArcs(u); a++) {
+                    int v = graphe.getCible(a);
+                    if (meilleurArc[v] == a) {
+                        ajouterArc(u, v, graphe.getPoids(a), a, -1, -1);
+                    }
+                }
+                for (int a = graphe.premierArc(u); a < graphe.finArcs(u); a++) {
+                    meilleurArc[graphe.getCible(a)] = -1;
+                }
+            }
+        }
+
+        private int ajouterArc(int u, int v, double w, int origine, int e1, int e2) {
+            if (nbArcs == depart.length) {
+                int capacite = nbArcs * 2;
+                depart = Arrays.copyOf(depart, capacite);
+                arrivee = Arrays.copyOf(arrivee, capacite);
+                poids = Arrays.copyOf(poids, capacite);
+                arcOrigine = Arrays.copyOf(arcOrigine, capacite);
+                enfant1 = Arrays.copyOf(enfant1, capacite);
+                enfant2 = Arrays.copyOf(enfant2, capacite);
+            }
+            int a = nbArcs++;
+            depart[a] = u;
+            arrivee[a] = v;
+            poids[a] = w;
+            arcOrigine[a] = origine;
+            enfant1[a] = e1;
+            enfant2[a] = e2;
+            sortants[u].ajouter(a);
+            entrants[v].ajouter(a);
+            return a;
+        }
+
+        int[] contracterTout() {
+            TasIndexe file = new TasIndexe(n);
+            for (int v = 0; v < n; v++) {
+                file.inserer(v, priorite(v));
+            }
+
+            int[] rang = new int[n];
+            int prochainRang = 0;
+            while (!file.estVide()) {
+                int v = file.extraireMin();
+
+                // Mise à jour paresseuse : si v n'est plus le meilleur candidat, on le remet
+                double p = priorite(v);
+                if (!file.estVide() && p > file.cleMin()) {
+                    file.inserer(v, p);
+                    continue;
+                }
+
+                contracter(v, false);
+                contracte[v] = true;
+                rang[v] = prochainRang++;
+
+                // Les voisins ont perdu un voisin : on retire v de leurs listes et leur priorité change
+                mettreAJourVoisins(v, sortants[v], true, file);
+                mettreAJourVoisins(v, entrants[v], false, file);
+            }
+            return rang;
+        }
+
+        private void mettreAJourVoisins(int v, ListeEntiers arcs, boolean versArrivee, TasIndexe file) {
+            for (int i = 0; i < arcs.taille; i++) {
+                int a = arcs.valeurs[i];
+                int voisin = versArrivee ? arrivee[a] : depart[a];
+                if (!contracte[voisin] && file.contient(voisin)) {
+                    retirerArcsContractes(versArrivee ? entrants[voisin] : sortants[voisin], !versArrivee);
+                    nbVoisinsContractes[voisin]++;
+                    file.supprimer(voisin);
+                    file.inserer(voisin, priorite(voisin));
+                }
+            }
+        }
+
+        private void retirerArcsContractes(ListeEntiers arcs, boolean versArrivee) {
+            int garde = 0;
+            for (int i = 0; i < arcs.taille; i++) {
+                int a = arcs.valeurs[i];
+                if (!contracte[versArrivee ? arrivee[a] : depart[a]]) {
+                    arcs.valeurs[garde++] = a;
+                }
+            }
+            arcs.taille = garde;
+        }
+
+        // 2 x (raccourcis ajoutés - arcs retirés) + voisins déjà contractés (répartit la contraction)
+        private double priorite(int v) {
+            int raccourcis = contracter(v, true);
+            int retires = nbActifs(entrants[v], false) + nbActifs(sortants[v], true);
+            return 2 * (raccourcis - retires) + nbVoisinsContractes[v];
+        }
+
+        private int nbActifs(ListeEntiers arcs, boolean versArrivee) {
+            int nb = 0;
+            for (int i = 0; i < arcs.taille; i++) {
+                int a = arcs.valeurs[i];
+                if (!contracte[versArrivee ? arrivee[a] : depart[a]]) nb++;
+            }
+            return nb;
+        }
+
+        // Contracte v (ou compte seulement les raccourcis nécessaires si simuler)
+        private int contracter(int v, boolean simuler) {
+            int nbNecessaires = 0;
+            ListeEntiers entree = entrants[v];
+            ListeEntiers sortie = sortants[v];
+
+            for (int i = 0; i < entree.taille; i++) {
+                int a1 = entree.valeurs[i];
+                int u = depart[a1];
+                if (contracte[u]) continue;
+
+                double maxChemin = -1;
+                for (int j = 0; j < sortie.taille; j++) {
+                    int a2 = sortie.valeurs[j];
+                    int w = arrivee[a2];
+                    if (!contracte[w] && w != u) {
+                        maxChemin = Math.max(maxChemin, poids[a1] + poids[a2]);
+                        if (!estCibleTemoin[w]) {
+                            estCibleTemoin[w] = true;
+                            nbCiblesTemoin++;
+                        }
+                    }
+                }
+                if (maxChemin < 0) continue; // aucun chemin u -> v -> w à préserver
+
+                rechercherTemoins(u, v, maxChemin, simuler ? LIMITE_SIMULATION : LIMITE_TEMOIN);
+                for (int j = 0; j < sortie.taille; j++) {
+                    estCibleTemoin[arrivee[sortie.valeurs[j]]] = false;
+                }
+                nbCiblesTemoin = 0;
+
+                for (int j = 0; j < sortie.taille; j++) {
+                    int a2 = sortie.valeurs[j];
+                    int w = arrivee[a2];
+                    if (contracte[w] || w == u) continue;
+                    double viaV = poids[a1] + poids[a2];
+                    if (distancesTemoin[w] > viaV) {
+                        nbNecessaires++;
+                        if (!simuler) {
+                            ajouterArc(u, w, viaV, -1, a1, a2);
+                            nbRaccourcis++;
+                            // le raccourci devient lui-même un témoin pour les suivants
+                            if (distancesTemoin[w] == Double.POSITIVE_INFINITY) {
+                                touches[nbTouches++] = w;
+                            }
+                            distancesTemoin[w] = viaV;
+                        }
+                    }
+                }
+                effacerTemoins();
+            }
+            return nbNecessaires;
+        }
+
+        // Dijkstra local depuis u, sans passer par v, borné en distance et en nombre de sommets ;
+        // il s'arrête aussi dès que tous les voisins w de v sont atteints
+        private void rechercherTemoins(int u, int v, double borne, int limite) {
+            distancesTemoin[u] = 0.0;
+            touches[nbTouches++] = u;
+            fileTemoin.inserer(u, 0.0);
+            int visites = 0;
+
+            while (!fileTemoin.estVide() && visites < limite) {
+                if (fileTemoin.cleMin() > borne) break;
+                int x = fileTemoin.extraireMin();
+                visites++;
+                if (estCibleTemoin[x] && --nbCiblesTemoin == 0) break;
+                ListeEntiers arcs = sortants[x];
+                for (int i = 0; i < arcs.taille; i++) {
+                    int a = arcs.valeurs[i];
+                    int y = arrivee[a];
+                    if (y == v || contracte[y]) continue;
+                    double d = distancesTemoin[x] + poids[a];
+                    if (d < distancesTemoin[y]) {
+                        if (distancesTemoin[y] == Double.POSITIVE_INFINITY) {
+                            touches[nbTouches++] = y;
+                        }
+                        distancesTemoin[y] = d;
+                        fileTemoin.insererOuDiminuer(y, d);
+                    }
+                }
+            }
+            fileTemoin.vider();
+        }
+
+        private void effacerTemoins() {
+            for (int i = 0; i < nbTouches; i++) {
+                distancesTemoin[touches[i]] = Double.POSITIVE_INFINITY;
+            }
+            nbTouches = 0;
+        }
+    }
+
+    // Petite liste d'int qui grandit (évite les List<Integer>)
+    private static final class ListeEntiers {
+        private int[] valeurs = new int[4];
+        private int taille;
+
+        void ajouter(int valeur) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = valeur;
+        }
+    }
+}
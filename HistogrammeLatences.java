@@ -0,0 +1,108 @@
+package algorithmes.base;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+
+/**
+ * Histogramme de durées (en nanosecondes) alimenté par plusieurs threads sans verrou.
+ *
+ * Échelle log-linéaire : chaque puissance de deux est coupée en 16 cases égales, donc
+ * une valeur est rangée à 1/16 (6 %) près, de la nanoseconde à plusieurs années,
+ * dans 960 compteurs. Enregistrer une valeur ne coûte qu'un incrément atomique.
+ */
+public final class HistogrammeLatences {
+
+    private static final int BITS_SOUS_CASES = 4;
+    private static final int NB_SOUS_CASES = 1 << BITS_SOUS_CASES;
+    private static final int NB_CASES = (64 - BITS_SOUS_CASES) * NB_SOUS_CASES;
+
+    private final AtomicLongArray cases = new AtomicLongArray(NB_CASES);
+    private final LongAdder nbValeurs = new LongAdder();
+    private final LongAdder somme = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void enregistrer(long nanos) {
+        long valeur = Math.max(0, nanos);
+        cases.getAndIncrement(numeroCase(valeur));
+        nbValeurs.increment();
+        somme.add(valeur);
+        max.accumulate(valeur);
+    }
+
+    // Les compteurs sont remis à zéro un par un : une valeur enregistrée pendant ce temps
+    // peut être à moitié comptée
+    public void reinitialiser() {
+        for (int i = 0; i < NB_CASES; i++) cases.set(i, 0);
+        nbValeurs.reset();
+        somme.reset();
+        max.reset();
+    }
+
+    public Instantane getInstantane() {
+        long[] copie = new long[NB_CASES];
+        long total = 0;
+        for (int i = 0; i < NB_CASES; i++) {
+            copie[i] = cases.get(i);
+            total += copie[i];
+        }
+        return new Instantane(copie, total, somme.sum(), max.get());
+    }
+
+    static int numeroCase(long valeur) {
+        if (valeur < NB_SOUS_CASES) return (int) valeur;
+        int exposant = 63 - Long.numberOfLeadingZeros(valeur);
+        int sousCase = (int) (valeur >>> (exposant - BITS_SOUS_CASES)) & (NB_SOUS_CASES - 1);
+        return (exposant - BITS_SOUS_CASES + 1) * NB_SOUS_CASES + sousCase;
+    }
+
+    // Plus grande valeur rangée dans la case
+    static long borneSuperieure(int numeroCase) {
+        if (numeroCase < NB_SOUS_CASES) return numeroCase;
+        int decalage = numeroCase / NB_SOUS_CASES - 1;
+        long debut = (long) (NB_SOUS_CASES + numeroCase % NB_SOUS_CASES) << decalage;
+        return debut + (1L << decalage) - 1;
+    }
+
+
+    // Copie figée de l'histogramme (les centiles sont lus dessus, sans gêner les threads
+    // qui continuent d'enregistrer)
+    public static final class Instantane {
+        private final long[] cases;
+        private final long nbValeurs;
+        private final long somme;
+        private final long max;
+
+        private Instantane(long[] cases, long nbValeurs, long somme, long max) {
+            this.cases = cases;
+            this.nbValeurs = nbValeurs;
+            this.somme = somme;
+            this.max = max;
+        }
+
+        public long getNbValeurs() { return nbValeurs; }
+        public long getMax() { return max; }
+
+        public double getMoyenne() {
+            return (nbValeurs == 0) ? 0.0 : somme / (double) nbValeurs;
+        }
+
+        // Valeur au centile donné (entre 0 et 100), arrondie au-dessus à la précision des cases
+        public long getCentile(double centile) {
+            if (nbValeurs == 0) return 0;
+            long rang = Math.max(1, (long) Math.ceil(centile / 100.0 * nbValeurs));
+            long cumul = 0;
+            for (int i = 0; i < cases.length; i++) {
+                cumul += cases[i];
+                if (cumul >= rang) return Math.min(borneSuperieure(i), max);
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d valeurs, moyenne %.1f µs, p50 %.1f µs, p99 %.1f µs, max %.1f µs",
+                    nbValeurs, getMoyenne() / 1e3, getCentile(50) / 1e3, getCentile(99) / 1e3, max / 1e3);
+        }
+    }
+}
@@ -75,8 +75,21 @@ public class LecteurGraphe {
 
             // LECTURE DES SOMMETS
             if (sectionSommets) {
-                // Exemple de ligne : "G"
-                Sommet sommet = new Sommet(ligne);
+                // Exemple de ligne : "G" ou "G 120.5 48.0" (avec les coordonnées x y)
+                String[] parts = ligne.split("\\s+");
+                Sommet sommet;
+
+                if (parts.length == 1) {
+                    sommet = new Sommet(parts[0]);
+                } else if (parts.length == 3) {
+                    double x = Double.parseDouble(parts[1]);
+                    double y = Double.parseDouble(parts[2]);
+                    sommet = new Sommet(parts[0], parts[0], x, y);
+                } else {
+                    throw new IllegalArgumentException(
+                            "Format sommet attendu : id [x y] : " + ligne
+                    );
+                }
                 graphe.ajouterSommet(sommet);
             }
 
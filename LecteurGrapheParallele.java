@@ -0,0 +1,592 @@
+package utils;
+
+import modele.graphe.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Lecture rapide du format texte de LecteurGraphe (TYPE: / SOMMETS: / ARETES:)
+ * pour les très gros fichiers.
+ *
+ * Le fichier est projeté en mémoire et lu octet par octet, sans créer de String
+ * par ligne (seulement pour les identifiants des sommets et les noms des rues).
+ * Les sommets sont lus à la suite ; la section ARETES: est découpée en tranches
+ * qui commencent chacune au début d'une ligne, et chaque tranche est lue sur un
+ * thread différent (découpage, nombres, recherche des extrémités, création des
+ * Arete et vérification des règles HO1/HO2/HO3). Les arêtes sont ensuite
+ * ajoutées au graphe dans l'ordre du fichier.
+ *
+ * Le résultat et les règles sont les mêmes que LecteurGraphe, mais les erreurs
+ * donnent le numéro de la ligne fautive.
+ */
+public final class LecteurGrapheParallele {
+
+    // Taille des fenêtres de lecture séquentielle (une ligne ne peut pas dépasser cette taille)
+    private static final int TAILLE_FENETRE = 1 << 26;
+    // Taille maximale d'une tranche d'arêtes lue par un thread
+    private static final long TAILLE_MAX_TRANCHE = 1L << 28;
+
+    private final FileChannel canal;
+    private final long taille;
+    private final ForkJoinPool pool;
+
+    private Graphe graphe;
+    private TableIdentifiants table;
+    private boolean sectionSommets;
+    private int numeroLigne;
+
+    private LecteurGrapheParallele(FileChannel canal, ForkJoinPool pool) throws IOException {
+        this.canal = canal;
+        this.taille = canal.size();
+        this.pool = pool;
+    }
+
+    public static Graphe chargerDepuisFichier(String cheminFichier) throws IOException {
+        return chargerDepuisFichier(cheminFichier, ForkJoinPool.commonPool());
+    }
+
+    public static Graphe chargerDepuisFichier(String cheminFichier, ForkJoinPool pool) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(cheminFichier), StandardOpenOption.READ)) {
+            LecteurGrapheParallele lecteur = new LecteurGrapheParallele(canal, pool);
+            lecteur.lire();
+            if (lecteur.graphe == null) {
+                throw new IllegalArgumentException("Fichier vide ou format invalide");
+            }
+            return lecteur.graphe;
+        }
+    }
+
+
+    // LECTURE SÉQUENTIELLE (en-têtes et sommets)
+
+    private void lire() throws IOException {
+        long position = 0;
+        fenetres:
+        while (position < taille) {
+            int longueur = (int) Math.min(TAILLE_FENETRE, taille - position);
+            ByteBuffer fenetre = canal.map(FileChannel.MapMode.READ_ONLY, position, longueur);
+            boolean finFichier = (position + longueur == taille);
+
+            int p = 0;
+            while (p < longueur) {
+                int q = finDeLigne(fenetre, p, longueur);
+                if (q == longueur && !finFichier) break;   // ligne coupée : on reprojette à partir d'elle
+                numeroLigne++;
+
+                int debut = debutTexte(fenetre, p, q);
+                int fin = finTexte(fenetre, debut, q);
+                p = Math.min(q + 1, longueur);
+
+                if (debut == fin || fenetre.get(debut) == '#') {
+                    continue;
+                }
+                if (commencePar(fenetre, debut, fin, "TYPE:")) {
+                    lireType(fenetre, debut + 5, fin);
+                    continue;
+                }
+                if (egal(fenetre, debut, fin, "SOMMETS:")) {
+                    sectionSommets = true;
+                    continue;
+                }
+                if (egal(fenetre, debut, fin, "ARETES:")) {
+                    sectionSommets = false;
+                    verifierGraphe();
+                    // La suite du fichier est lue en parallèle jusqu'au prochain en-tête éventuel
+                    position = lireAretes(position + p);
+                    continue fenetres;
+                }
+                verifierGraphe();
+                if (sectionSommets) {
+                    lireSommet(fenetre, debut, fin);
+                }
+            }
+            if (p == 0) {
+                throw erreur(numeroLigne + 1, "Ligne trop longue");
+            }
+            position += p;
+        }
+    }
+
+    private void verifierGraphe() {
+        if (graphe == null) {
+            throw erreur(numeroLigne, "Le fichier doit commencer par TYPE: HO1/HO2/HO3");
+        }
+    }
+
+    private void lireType(ByteBuffer tampon, int debut, int fin) {
+        debut = debutTexte(tampon, debut, fin);
+        String type = texte(tampon, debut, fin);
+        Graphe.TypeHypothese typeHyp;
+        switch (type) {
+            case "HO1":
+                typeHyp = Graphe.TypeHypothese.HO1;
+                break;
+            case "HO2":
+                typeHyp = Graphe.TypeHypothese.HO2;
+                break;
+            case "HO3":
+                typeHyp = Graphe.TypeHypothese.HO3;
+                break;
+            default:
+                throw erreur(numeroLigne, "Type inconnu : " + type);
+        }
+        graphe = new Graphe(typeHyp);
+        table = new TableIdentifiants();
+    }
+
+    // "id" ou "id x y"
+    private void lireSommet(ByteBuffer tampon, int debut, int fin) {
+        int[] jetons = new int[8];
+        int nbJetons = decouper(tampon, debut, fin, jetons);
+        Sommet sommet;
+        try {
+            if (nbJetons == 1) {
+                sommet = new Sommet(texte(tampon, jetons[0], jetons[1]));
+            } else if (nbJetons == 3) {
+                double x = lireDouble(tampon, jetons[2], jetons[3]);
+                double y = lireDouble(tampon, jetons[4], jetons[5]);
+                String id = texte(tampon, jetons[0], jetons[1]);
+                sommet = new Sommet(id, id, x, y);
+            } else {
+                throw new IllegalArgumentException("Format sommet attendu : id [x y] : " + texte(tampon, debut, fin));
+            }
+        } catch (IllegalArgumentException e) {
+            throw erreur(numeroLigne, e.getMessage());
+        }
+        if (graphe.ajouterSommet(sommet)) {
+            table.ajouter(tampon, jetons[0], jetons[1], graphe.getNbSommets() - 1);
+        }
+    }
+
+
+    // LECTURE PARALLÈLE DES ARÊTES
+
+    // Lit les arêtes à partir de la position donnée ; renvoie la position où la lecture
+    // séquentielle doit reprendre (un en-tête rencontré, ou la fin du fichier)
+    private long lireAretes(long position) throws IOException {
+        long reste = taille - position;
+        if (reste <= 0) return taille;
+
+        int nbTranches = (int) Math.max(4L * pool.getParallelism(), (reste + TAILLE_MAX_TRANCHE - 1) / TAILLE_MAX_TRANCHE);
+        nbTranches = (int) Math.min(nbTranches, reste);
+        List<Tranche> tranches = new ArrayList<>(nbTranches);
+        long debut = position;
+        for (int i = 1; i <= nbTranches; i++) {
+            long fin = (i == nbTranches) ? taille : debutLigneSuivante(position + reste * i / nbTranches);
+            if (fin > debut) {
+                tranches.add(new Tranche(graphe, table, canal, debut, fin));
+                debut = fin;
+            }
+        }
+
+        for (Future<Tranche> resultat : pool.invokeAll(tranches)) {
+            try {
+                resultat.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Lecture interrompue", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        // Ajout dans l'ordre du fichier ; seule la première tranche qui s'est arrêtée compte
+        for (Tranche tranche : tranches) {
+            for (int i = 0; i < tranche.nbAretes; i++) {
+                graphe.ajouterArete(tranche.aretes[i], tranche.extremites1[i], tranche.extremites2[i]);
+            }
+            if (tranche.messageErreur != null) {
+                throw erreur(numeroLigne + tranche.nbLignes + 1, tranche.messageErreur);
+            }
+            numeroLigne += tranche.nbLignes;
+            if (tranche.positionEnTete >= 0) {
+                return tranche.positionEnTete;
+            }
+        }
+        return taille;
+    }
+
+    // Début de la première ligne qui commence à la position donnée ou après
+    private long debutLigneSuivante(long position) throws IOException {
+        if (position <= 0) return 0;
+        long p = position - 1;
+        while (p < taille) {
+            int longueur = (int) Math.min(1 << 16, taille - p);
+            ByteBuffer morceau = canal.map(FileChannel.MapMode.READ_ONLY, p, longueur);
+            for (int i = 0; i < longueur; i++) {
+                if (morceau.get(i) == '\n') return p + i + 1;
+            }
+            p += longueur;
+        }
+        return taille;
+    }
+
+
+    // Une tranche de la section ARETES: lue par un thread. Elle s'arrête à la première
+    // erreur ou au premier en-tête ; le reste est alors ignoré.
+    private static final class Tranche implements Callable<Tranche> {
+        private final Graphe graphe;
+        private final TableIdentifiants table;
+        private final FileChannel canal;
+        private final long debut;
+        private final long fin;
+        private final boolean ho1;
+
+        Arete[] aretes;
+        int[] extremites1;
+        int[] extremites2;
+        int nbAretes;
+
+        // Noms des rues déjà vus dans la tranche : une seule String par nom
+        private final TableIdentifiants numerosNoms = new TableIdentifiants();
+        private final List<String> noms = new ArrayList<>();
+        int nbLignes;                 // lignes entièrement lues (avant l'erreur ou l'en-tête)
+        long positionEnTete = -1;
+        String messageErreur;
+
+        Tranche(Graphe graphe, TableIdentifiants table, FileChannel canal, long debut, long fin) {
+            this.graphe = graphe;
+            this.table = table;
+            this.canal = canal;
+            this.debut = debut;
+            this.fin = fin;
+            this.ho1 = graphe.getTypeHypothese() == Graphe.TypeHypothese.HO1;
+            // Une ligne d'arête fait rarement moins de 16 octets
+            int capacite = (int) Math.max(16, (fin - debut) / 16);
+            this.aretes = new Arete[capacite];
+            this.extremites1 = new int[capacite];
+            this.extremites2 = new int[capacite];
+        }
+
+        @Override
+        public Tranche call() throws IOException {
+            int longueur = (int) (fin - debut);
+            ByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, debut, longueur);
+            int[] jetons = new int[12];
+
+            int p = 0;
+            while (p < longueur) {
+                int q = finDeLigne(tampon, p, longueur);
+                int d = debutTexte(tampon, p, q);
+                int f = finTexte(tampon, d, q);
+
+                if (d < f && tampon.get(d) != '#') {
+                    if (commencePar(tampon, d, f, "TYPE:") || egal(tampon, d, f, "SOMMETS:")
+                            || egal(tampon, d, f, "ARETES:")) {
+                        positionEnTete = debut + p;
+                        return this;
+                    }
+                    try {
+                        lireArete(tampon, d, f, jetons);
+                    } catch (IllegalArgumentException e) {
+                        messageErreur = e.getMessage();
+                        return this;
+                    }
+                }
+                nbLignes++;
+                p = q + 1;
+            }
+            return this;
+        }
+
+        // Mêmes règles et mêmes messages que LecteurGraphe
+        private void lireArete(ByteBuffer tampon, int debut, int fin, int[] jetons) {
+            int nbJetons = decouper(tampon, debut, fin, jetons);
+            if (nbJetons < 3) {
+                throw new IllegalArgumentException("Format invalide : " + texte(tampon, debut, fin));
+            }
+            double poids = lireDouble(tampon, jetons[4], jetons[5]);
+
+            int i1 = table.chercher(tampon, jetons[0], jetons[1]);
+            int i2 = table.chercher(tampon, jetons[2], jetons[3]);
+            if (i1 < 0) {
+                throw new IllegalArgumentException("Sommet inconnu : " + texte(tampon, jetons[0], jetons[1]));
+            }
+            if (i2 < 0) {
+                throw new IllegalArgumentException("Sommet inconnu : " + texte(tampon, jetons[2], jetons[3]));
+            }
+            Sommet s1 = graphe.getSommet(i1);
+            Sommet s2 = graphe.getSommet(i2);
+
+            Arete arete;
+            if (ho1) {
+                String nom = (nbJetons > 3) ? nom(tampon, jetons[6], jetons[7]) : "";
+                arete = new Arete(s1, s2, poids, nom, true, 1);
+            } else {
+                if (nbJetons < 5) {
+                    throw new IllegalArgumentException(
+                            "Format HO2/HO3 attendu : sommet1 sommet2 poids bidirectionnel nbVoies [nom]");
+                }
+                boolean bidirectionnel = egalSansCasse(tampon, jetons[6], jetons[7], "true");
+                int nbVoies = lireInt(tampon, jetons[8], jetons[9]);
+                String nom = (nbJetons > 5) ? nom(tampon, jetons[10], jetons[11]) : "";
+                arete = new Arete(s1, s2, poids, nom, bidirectionnel, nbVoies);
+                if (graphe.getTypeHypothese() == Graphe.TypeHypothese.HO2 && bidirectionnel) {
+                    throw new IllegalArgumentException("HO2: arêtes doivent être orientées");
+                }
+            }
+            ajouter(arete, i1, i2);
+        }
+
+        private String nom(ByteBuffer tampon, int debut, int fin) {
+            int numero = numerosNoms.chercher(tampon, debut, fin);
+            if (numero < 0) {
+                numero = noms.size();
+                noms.add(texte(tampon, debut, fin));
+                numerosNoms.ajouter(tampon, debut, fin, numero);
+            }
+            return noms.get(numero);
+        }
+
+        private void ajouter(Arete arete, int i1, int i2) {
+            if (nbAretes == aretes.length) {
+                int capacite = nbAretes * 2;
+                aretes = Arrays.copyOf(aretes, capacite);
+                extremites1 = Arrays.copyOf(extremites1, capacite);
+                extremites2 = Arrays.copyOf(extremites2, capacite);
+            }
+            aretes[nbAretes] = arete;
+            extremites1[nbAretes] = i1;
+            extremites2[nbAretes] = i2;
+            nbAretes++;
+        }
+    }
+
+
+    // Identifiant -> numéro (du sommet, ou du nom de rue), cherché directement avec les octets du fichier
+    // (adressage ouvert, pas de String créée pour la recherche)
+    private static final class TableIdentifiants {
+        private byte[] octets = new byte[1 << 12];
+        private int[] debuts = new int[256];     // octets de l'identifiant k : [debuts[k], debuts[k + 1])
+        private int[] numeros = new int[256];
+        private int nb;
+        private int[] cases = nouvellesCases(512);
+
+        void ajouter(ByteBuffer tampon, int debut, int fin, int numero) {
+            int longueur = fin - debut;
+            if (nb + 2 > debuts.length) {
+                debuts = Arrays.copyOf(debuts, debuts.length * 2);
+                numeros = Arrays.copyOf(numeros, numeros.length * 2);
+            }
+            int position = debuts[nb];
+            while (position + longueur > octets.length) {
+                octets = Arrays.copyOf(octets, octets.length * 2);
+            }
+            for (int i = 0; i < longueur; i++) {
+                octets[position + i] = tampon.get(debut + i);
+            }
+            debuts[nb + 1] = position + longueur;
+            numeros[nb] = numero;
+            nb++;
+
+            if (2 * nb > cases.length) {
+                redimensionner();
+            } else {
+                placer(nb - 1, hacher(tampon, debut, fin));
+            }
+        }
+
+        int chercher(ByteBuffer tampon, int debut, int fin) {
+            int masque = cases.length - 1;
+            for (int c = hacher(tampon, debut, fin) & masque; cases[c] >= 0; c = (c + 1) & masque) {
+                int k = cases[c];
+                if (memesOctets(k, tampon, debut, fin)) return numeros[k];
+            }
+            return -1;
+        }
+
+        private boolean memesOctets(int k, ByteBuffer tampon, int debut, int fin) {
+            int d = debuts[k];
+            if (debuts[k + 1] - d != fin - debut) return false;
+            for (int i = debut; i < fin; i++) {
+                if (octets[d++] != tampon.get(i)) return false;
+            }
+            return true;
+        }
+
+        private void placer(int k, int hache) {
+            int masque = cases.length - 1;
+            int c = hache & masque;
+            while (cases[c] >= 0) c = (c + 1) & masque;
+            cases[c] = k;
+        }
+
+        private void redimensionner() {
+            cases = nouvellesCases(cases.length * 2);
+            ByteBuffer tout = ByteBuffer.wrap(octets);
+            for (int k = 0; k < nb; k++) {
+                placer(k, hacher(tout, debuts[k], debuts[k + 1]));
+            }
+        }
+
+        private static int[] nouvellesCases(int taille) {
+            int[] cases = new int[taille];
+            Arrays.fill(cases, -1);
+            return cases;
+        }
+
+        // FNV-1a, puis mélange des bits de poids fort vers le bas (la table est indexée par masque)
+        private static int hacher(ByteBuffer tampon, int debut, int fin) {
+            int h = 0x811C9DC5;
+            for (int i = debut; i < fin; i++) {
+                h = (h ^ (tampon.get(i) & 0xFF)) * 0x01000193;
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+
+
+    // OUTILS SUR LES OCTETS
+
+    private static int finDeLigne(ByteBuffer tampon, int debut, int fin) {
+        for (int i = debut; i < fin; i++) {
+            if (tampon.get(i) == '\n') return i;
+        }
+        return fin;
+    }
+
+    // Comme String.trim : on enlève tout ce qui est <= ' '
+    private static int debutTexte(ByteBuffer tampon, int debut, int fin) {
+        while (debut < fin && (tampon.get(debut) & 0xFF) <= ' ') debut++;
+        return debut;
+    }
+
+    private static int finTexte(ByteBuffer tampon, int debut, int fin) {
+        while (fin > debut && (tampon.get(fin - 1) & 0xFF) <= ' ') fin--;
+        return fin;
+    }
+
+    // Les mêmes séparateurs que split("\\s+")
+    private static boolean estEspace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    // Découpe [debut, fin) en jetons : jetons[2k] et jetons[2k + 1] bornent le k-ième.
+    // Renvoie le nombre total de jetons (ceux qui ne tiennent pas dans le tableau sont comptés)
+    private static int decouper(ByteBuffer tampon, int debut, int fin, int[] jetons) {
+        int nb = 0;
+        int i = debut;
+        while (i < fin) {
+            while (i < fin && estEspace(tampon.get(i))) i++;
+            if (i == fin) break;
+            int d = i;
+            while (i < fin && !estEspace(tampon.get(i))) i++;
+            if (2 * nb + 1 < jetons.length) {
+                jetons[2 * nb] = d;
+                jetons[2 * nb + 1] = i;
+            }
+            nb++;
+        }
+        return nb;
+    }
+
+    private static boolean commencePar(ByteBuffer tampon, int debut, int fin, String prefixe) {
+        if (fin - debut < prefixe.length()) return false;
+        for (int i = 0; i < prefixe.length(); i++) {
+            if (tampon.get(debut + i) != prefixe.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean egal(ByteBuffer tampon, int debut, int fin, String mot) {
+        return fin - debut == mot.length() && commencePar(tampon, debut, fin, mot);
+    }
+
+    // Comme Boolean.parseBoolean : "true" sans tenir compte de la casse
+    private static boolean egalSansCasse(ByteBuffer tampon, int debut, int fin, String mot) {
+        if (fin - debut != mot.length()) return false;
+        for (int i = 0; i < mot.length(); i++) {
+            if (Character.toLowerCase((char) tampon.get(debut + i)) != mot.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static String texte(ByteBuffer tampon, int debut, int fin) {
+        byte[] octets = new byte[fin - debut];
+        for (int i = 0; i < octets.length; i++) {
+            octets[i] = tampon.get(debut + i);
+        }
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    private static final double[] PUISSANCES_DIX = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Cas courant "123" ou "-12.5" lu directement : tant que la mantisse tient dans 2^53
+    // et qu'il y a au plus 22 décimales, mantisse / 10^k est exactement ce que donne
+    // Double.parseDouble. Sinon (exposant, très long nombre...) on passe par Double.parseDouble.
+    private static double lireDouble(ByteBuffer tampon, int debut, int fin) {
+        int i = debut;
+        boolean negatif = false;
+        if (i < fin && (tampon.get(i) == '-' || tampon.get(i) == '+')) {
+            negatif = tampon.get(i) == '-';
+            i++;
+        }
+        long mantisse = 0;
+        int nbChiffres = 0;
+        int nbDecimales = 0;
+        boolean point = false;
+        for (; i < fin; i++) {
+            byte b = tampon.get(i);
+            if (b >= '0' && b <= '9') {
+                if (mantisse >= (1L << 53) / 10) {
+                    return lireDoubleLent(tampon, debut, fin);
+                }
+                mantisse = mantisse * 10 + (b - '0');
+                nbChiffres++;
+                if (point) nbDecimales++;
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                return lireDoubleLent(tampon, debut, fin);
+            }
+        }
+        if (nbChiffres == 0 || nbDecimales >= PUISSANCES_DIX.length) {
+            return lireDoubleLent(tampon, debut, fin);
+        }
+        double valeur = mantisse / PUISSANCES_DIX[nbDecimales];
+        return negatif ? -valeur : valeur;
+    }
+
+    private static double lireDoubleLent(ByteBuffer tampon, int debut, int fin) {
+        String nombre = texte(tampon, debut, fin);
+        try {
+            return Double.parseDouble(nombre);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nombre invalide : " + nombre);
+        }
+    }
+
+    // Petits entiers positifs lus directement, le reste par Integer.parseInt
+    private static int lireInt(ByteBuffer tampon, int debut, int fin) {
+        if (fin > debut && fin - debut <= 9) {
+            int valeur = 0;
+            int i = debut;
+            while (i < fin && tampon.get(i) >= '0' && tampon.get(i) <= '9') {
+                valeur = valeur * 10 + (tampon.get(i++) - '0');
+            }
+            if (i == fin) return valeur;
+        }
+        String nombre = texte(tampon, debut, fin);
+        try {
+            return Integer.parseInt(nombre);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nombre invalide : " + nombre);
+        }
+    }
+
+    private static IllegalArgumentException erreur(int ligne, String message) {
+        return new IllegalArgumentException("Ligne " + ligne + " : " + message);
+    }
+}
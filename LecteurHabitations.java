@@ -0,0 +1,111 @@
+package utils;
+
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+
+/**
+ * Chargement en bloc des habitations d'un réseau dans un RepertoireHabitations.
+ *
+ * Une habitation par ligne : "sommetReference autreSommet distance nom", la distance
+ * étant mesurée depuis le sommet de référence (comme le constructeur de Habitation)
+ * et le nom pouvant contenir des espaces. Exemple : "B D 50 M. Dupont".
+ * Les lignes vides et les commentaires (#) sont ignorés ; les erreurs donnent le
+ * numéro de la ligne fautive.
+ */
+public final class LecteurHabitations {
+
+    private LecteurHabitations() {
+    }
+
+    public static RepertoireHabitations chargerDepuisFichier(String cheminFichier, GrapheFige graphe)
+            throws IOException {
+        // Identifiant -> numéro du sommet, une seule fois pour tout le fichier
+        Map<String, Integer> indices = new HashMap<>(2 * graphe.getNbSommets());
+        for (int u = 0; u < graphe.getNbSommets(); u++) {
+            indices.put(graphe.getSommet(u).getId(), u);
+        }
+
+        RepertoireHabitations repertoire = new RepertoireHabitations(graphe);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(cheminFichier), StandardCharsets.UTF_8), 1 << 16)) {
+            String ligne;
+            int numeroLigne = 0;
+            while ((ligne = reader.readLine()) != null) {
+                numeroLigne++;
+                ligne = ligne.trim();
+                if (ligne.isEmpty() || ligne.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    lireLigne(ligne, graphe, indices, repertoire);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Ligne " + numeroLigne + " : " + e.getMessage(), e);
+                }
+            }
+        }
+        return repertoire;
+    }
+
+    private static void lireLigne(String ligne, GrapheFige graphe, Map<String, Integer> indices,
+                                  RepertoireHabitations repertoire) {
+        // Trois champs séparés par des blancs, puis le nom (le reste de la ligne)
+        int fin1 = finDeChamp(ligne, 0);
+        int debut2 = debutDeChamp(ligne, fin1);
+        int fin2 = finDeChamp(ligne, debut2);
+        int debut3 = debutDeChamp(ligne, fin2);
+        int fin3 = finDeChamp(ligne, debut3);
+        int debutNom = debutDeChamp(ligne, fin3);
+        if (debutNom >= ligne.length()) {
+            throw new IllegalArgumentException(
+                    "Format attendu : sommetReference autreSommet distance nom : " + ligne);
+        }
+
+        int reference = indice(indices, ligne.substring(0, fin1));
+        int autre = indice(indices, ligne.substring(debut2, fin2));
+        double distance = Double.parseDouble(ligne.substring(debut3, fin3));
+
+        int e = chercherArete(graphe, reference, autre);
+        if (e < 0) {
+            throw new IllegalArgumentException("Pas de rue entre " + ligne.substring(0, fin1)
+                    + " et " + ligne.substring(debut2, fin2));
+        }
+        if (distance < 0 || distance > graphe.getPoidsArete(e)) {
+            throw new IllegalArgumentException("La distance doit être entre 0 et la longueur de l'arête");
+        }
+        double position = (graphe.getExtremite1(e) == reference) ? distance : graphe.getPoidsArete(e) - distance;
+        repertoire.ajouter(ligne.substring(debutNom), e, position);
+    }
+
+    private static int indice(Map<String, Integer> indices, String id) {
+        Integer indice = indices.get(id);
+        if (indice == null) {
+            throw new IllegalArgumentException("Sommet inconnu : " + id);
+        }
+        return indice;
+    }
+
+    // Une arête orientée n'a d'arc que depuis son sommet1 : on cherche des deux côtés
+    private static int chercherArete(GrapheFige graphe, int u, int v) {
+        for (int a = graphe.premierArc(u); a < graphe.finArcs(u); a++) {
+            if (graphe.getCible(a) == v) return graphe.getNumeroArete(a);
+        }
+        for (int a = graphe.premierArc(v); a < graphe.finArcs(v); a++) {
+            if (graphe.getCible(a) == u) return graphe.getNumeroArete(a);
+        }
+        return -1;
+    }
+
+    private static int finDeChamp(String ligne, int i) {
+        while (i < ligne.length() && !Character.isWhitespace(ligne.charAt(i))) i++;
+        return i;
+    }
+
+    private static int debutDeChamp(String ligne, int i) {
+        while (i < ligne.length() && Character.isWhitespace(ligne.charAt(i))) i++;
+        return i;
+    }
+}
@@ -0,0 +1,178 @@
+package algorithmes.base;
+
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Matrice des plus courtes distances entre des points de collecte : d'abord les
+ * dépôts (Sommet, ex : le centre de traitement), puis les habitations.
+ *
+ * Une habitation est au milieu d'une rue : pour en partir on roule jusqu'à une
+ * des deux extrémités (distance getDistanceDepuisSommet), et pour y arriver on
+ * passe par une des deux extrémités, comme dans Dijkstra.getCheminVersHabitation.
+ * Deux habitations de la même rue sont aussi reliées directement par la rue.
+ *
+ * Chaque ligne est un Dijkstra multi-source (les deux bouts de la rue de départ)
+ * arrêté dès que toutes les extrémités utiles sont visitées. Les lignes sont
+ * calculées en parallèle sur un ForkJoinPool, chaque thread ayant son propre
+ * DijkstraFige. Les distances sont rangées dans un seul float[] (ligne par ligne) :
+ * la précision du float (quelques mm sur 100 km) suffit et la matrice prend deux
+ * fois moins de place.
+ */
+public final class MatriceDistances {
+
+    // En dessous, on ne découpe plus le travail en sous-tâches
+    private static final int LIGNES_PAR_TACHE = 8;
+
+    private final int taille;
+    private final int nbDepots;
+    private final float[] valeurs;
+
+    private MatriceDistances(int taille, int nbDepots) {
+        this.taille = taille;
+        this.nbDepots = nbDepots;
+        this.valeurs = new float[taille * taille];
+    }
+
+    public static MatriceDistances calculer(GrapheFige graphe, List<Sommet> depots, List<Habitation> habitations) {
+        return calculer(graphe, depots, habitations, ForkJoinPool.commonPool());
+    }
+
+    public static MatriceDistances calculer(GrapheFige graphe, List<Sommet> depots,
+                                            List<Habitation> habitations, ForkJoinPool pool) {
+        long taille = (long) depots.size() + habitations.size();
+        if (taille * taille > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Trop de points pour une seule matrice : " + taille);
+        }
+        Points points = new Points(graphe, depots, habitations);
+        MatriceDistances matrice = new MatriceDistances(points.taille, depots.size());
+
+        // Un DijkstraFige par thread du pool, réutilisé pour toutes ses lignes
+        ThreadLocal<DijkstraFige> espaces = ThreadLocal.withInitial(() -> new DijkstraFige(graphe));
+        pool.invoke(new CalculLignes(matrice, points, espaces, 0, points.taille));
+        return matrice;
+    }
+
+    public int getTaille() { return taille; }
+    public int getNbDepots() { return nbDepots; }
+    public int getNbHabitations() { return taille - nbDepots; }
+
+    // Numéro de ligne / colonne d'un dépôt ou d'une habitation (dans l'ordre des listes données)
+    public int indiceDepot(int k) { return k; }
+    public int indiceHabitation(int k) { return nbDepots + k; }
+
+    // Distance pour aller du point i au point j (infini si inaccessible)
+    public double get(int i, int j) {
+        return valeurs[i * taille + j];
+    }
+
+
+    // Extrémités (sommet + distance sur la rue) par lesquelles on quitte ou rejoint chaque point
+    private static final class Points {
+        final int taille;
+        final int[][] sommets;        // 1 sommet pour un dépôt, 2 pour une habitation
+        final double[][] decalages;
+        final Arete[] aretes;         // rue de l'habitation (null pour un dépôt)
+        final double[] positions;     // distance depuis sommet1 de la rue
+        final int[] cibles;           // toutes les extrémités, sans doublon
+
+        Points(GrapheFige graphe, List<Sommet> depots, List<Habitation> habitations) {
+            this.taille = depots.size() + habitations.size();
+            this.sommets = new int[taille][];
+            this.decalages = new double[taille][];
+            this.aretes = new Arete[taille];
+            this.positions = new double[taille];
+
+            int i = 0;
+            for (Sommet depot : depots) {
+                sommets[i] = new int[] { indice(graphe, depot) };
+                decalages[i] = new double[] { 0.0 };
+                i++;
+            }
+            for (Habitation habitation : habitations) {
+                Arete arete = habitation.getArete();
+                Sommet s1 = arete.getSommet1();
+                Sommet s2 = arete.getSommet2();
+                sommets[i] = new int[] { indice(graphe, s1), indice(graphe, s2) };
+                decalages[i] = new double[] {
+                        habitation.getDistanceDepuisSommet(s1), habitation.getDistanceDepuisSommet(s2) };
+                aretes[i] = arete;
+                positions[i] = habitation.getDistanceDepuisSommet(s1);
+                i++;
+            }
+
+            Set<Integer> toutes = new LinkedHashSet<>();
+            for (int[] extremites : sommets) {
+                for (int s : extremites) toutes.add(s);
+            }
+            this.cibles = toutes.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private static int indice(GrapheFige graphe, Sommet sommet) {
+            int indice = graphe.getIndice(sommet);
+            if (indice < 0) {
+                throw new IllegalArgumentException("Sommet inconnu : " + sommet);
+            }
+            return indice;
+        }
+    }
+
+
+    private static final class CalculLignes extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MatriceDistances matrice;
+        private final Points points;
+        private final ThreadLocal<DijkstraFige> espaces;
+        private final int debut;
+        private final int fin;
+
+        CalculLignes(MatriceDistances matrice, Points points, ThreadLocal<DijkstraFige> espaces, int debut, int fin) {
+            this.matrice = matrice;
+            this.points = points;
+            this.espaces = espaces;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= LIGNES_PAR_TACHE) {
+                DijkstraFige dijkstra = espaces.get();
+                for (int i = debut; i < fin; i++) {
+                    calculerLigne(dijkstra, i);
+                }
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new CalculLignes(matrice, points, espaces, debut, milieu),
+                    new CalculLignes(matrice, points, espaces, milieu, fin));
+        }
+
+        private void calculerLigne(DijkstraFige dijkstra, int i) {
+            dijkstra.executer(points.sommets[i], points.decalages[i], points.cibles);
+
+            int taille = points.taille;
+            int ligne = i * taille;
+            for (int j = 0; j < taille; j++) {
+                double meilleure = Double.POSITIVE_INFINITY;
+                if (i == j) {
+                    meilleure = 0.0;
+                } else {
+                    int[] extremites = points.sommets[j];
+                    for (int k = 0; k < extremites.length; k++) {
+                        meilleure = Math.min(meilleure, dijkstra.getDistance(extremites[k]) + points.decalages[j][k]);
+                    }
+                    // Deux habitations sur la même rue : on peut rester dans la rue
+                    if (points.aretes[i] != null && points.aretes[i] == points.aretes[j]) {
+                        meilleure = Math.min(meilleure, Math.abs(points.positions[i] - points.positions[j]));
+                    }
+                }
+                matrice.valeurs[ligne + j] = (float) meilleure;
+            }
+        }
+    }
+}
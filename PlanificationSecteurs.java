@@ -0,0 +1,276 @@
+package algorithmes.tournees;
+
+import algorithmes.base.*;
+import modele.graphe.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+
+/**
+ * Tournées d'une ville trop grande pour être planifiée d'un bloc : on la découpe en
+ * secteurs (DecoupageSecteurs) et chaque secteur est planifié à part par
+ * TourneesCapacitees, tous les secteurs en parallèle.
+ *
+ * Chaque secteur est planifié depuis son entrée (son carrefour le plus proche du dépôt)
+ * sur un graphe réduit : ses rues, à collecter, plus les rues voisines jusqu'à une certaine
+ * profondeur, où l'on peut seulement passer (en sens unique, il faut parfois sortir du
+ * secteur pour revenir). Cette profondeur double jusqu'à ce que toutes les rues du
+ * secteur soient accessibles depuis l'entrée et permettent d'y revenir.
+ *
+ * Les tournées sont ensuite recousues sur la ville : mêmes Sommet, Arete d'origine, et
+ * trajets haut-le-pied du dépôt à l'entrée et de l'entrée au dépôt.
+ * Le résultat ne dépend que de la graine et du nombre de tours (setNbToursMax), comme
+ * pour TourneesCapacitees (un travailleur par secteur).
+ */
+public class PlanificationSecteurs {
+
+    private final Graphe graphe;
+    private final int nbSecteurs;
+    private final double capacite;
+    private final ToDoubleFunction<Arete> demande;
+
+    private long graine = 0;
+    private long dureeMaxMillis = 10_000;
+    private int nbToursMax = Integer.MAX_VALUE;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // Résultats du dernier calcul
+    private List<Secteur> secteurs = Collections.emptyList();
+    private List<List<Tournee>> tourneesParSecteur = Collections.emptyList();
+    private int nbAretesCoupees;
+
+    public PlanificationSecteurs(Graphe graphe, int nbSecteurs, double capacite) {
+        this(graphe, nbSecteurs, capacite, arete -> arete.getPoids() * arete.getNbVoies());
+    }
+
+    public PlanificationSecteurs(Graphe graphe, int nbSecteurs, double capacite, ToDoubleFunction<Arete> demande) {
+        if (nbSecteurs <= 0) {
+            throw new IllegalArgumentException("Il faut au moins un secteur");
+        }
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité doit être > 0");
+        }
+        this.graphe = graphe;
+        this.nbSecteurs = nbSecteurs;
+        this.capacite = capacite;
+        this.demande = demande;
+    }
+
+    public void setGraine(long graine) { this.graine = graine; }
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+    // Durée et nombre de tours de recherche accordés à chaque secteur
+    public void setDureeMaxMillis(long dureeMaxMillis) { this.dureeMaxMillis = dureeMaxMillis; }
+    public void setNbToursMax(int nbToursMax) { this.nbToursMax = nbToursMax; }
+
+    public List<Secteur> getSecteurs() { return secteurs; }
+    public List<Tournee> getTournees(int secteur) { return tourneesParSecteur.get(secteur); }
+    public int getNbAretesCoupees() { return nbAretesCoupees; }
+
+    public double getCoutTotal() {
+        double total = 0;
+        for (List<Tournee> tournees : tourneesParSecteur) {
+            for (Tournee tournee : tournees) total += tournee.getLongueur();
+        }
+        return total;
+    }
+
+    public List<Tournee> calculer(Sommet depot) {
+        GrapheFige fige = graphe.figer();
+        int indiceDepot = fige.getIndice(depot);
+        if (indiceDepot < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + depot);
+        }
+        DecoupageSecteurs decoupage = new DecoupageSecteurs(graphe, nbSecteurs);
+        decoupage.setGraine(graine);
+        secteurs = decoupage.decouper();
+        nbAretesCoupees = decoupage.getNbAretesCoupees();
+
+        // Entrée de chaque secteur : le bout de rue du secteur le plus proche du dépôt
+        DijkstraFige dijkstra = new DijkstraFige(fige);
+        dijkstra.executer(indiceDepot);
+        Sommet[] entrees = new Sommet[secteurs.size()];
+        List<Callable<List<Tournee>>> calculs = new ArrayList<>();
+        for (Secteur secteur : secteurs) {
+            Sommet entree = null;
+            for (Arete arete : secteur.getAretes()) {
+                for (Sommet sommet : new Sommet[] { arete.getSommet1(), arete.getSommet2() }) {
+                    if (entree == null || dijkstra.getDistance(sommet) < dijkstra.getDistance(entree)) entree = sommet;
+                }
+            }
+            if (entree != null && !dijkstra.estAccessible(entree)) {
+                throw new IllegalArgumentException("Secteur " + secteur.getNumero() + " inaccessible depuis le dépôt");
+            }
+            entrees[secteur.getNumero()] = entree;
+            Sommet entreeSecteur = entree;
+            calculs.add(() -> (entreeSecteur == null) ? new ArrayList<>() : planifier(secteur, entreeSecteur));
+        }
+
+        List<List<Tournee>> locales = new ArrayList<>();
+        for (Future<List<Tournee>> resultat : pool.invokeAll(calculs)) {
+            try {
+                locales.add(resultat.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Calcul interrompu", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        // Couture : dépôt -> entrée, tournée du secteur, entrée -> dépôt
+        tourneesParSecteur = new ArrayList<>();
+        List<Tournee> toutes = new ArrayList<>();
+        for (Secteur secteur : secteurs) {
+            Sommet entree = entrees[secteur.getNumero()];
+            List<Tournee> cousues = new ArrayList<>();
+            if (entree != null) {
+                int indiceEntree = fige.getIndice(entree);
+                dijkstra.executer(new int[] { indiceDepot }, new double[] { 0.0 }, new int[] { indiceEntree });
+                List<Sommet> allerSommets = dijkstra.getChemin(entree);
+                List<Arete> allerAretes = dijkstra.getAretesChemins(entree);
+                dijkstra.executer(new int[] { indiceEntree }, new double[] { 0.0 }, new int[] { indiceDepot });
+                if (!dijkstra.estAccessible(indiceDepot)) {
+                    throw new IllegalArgumentException("Pas de retour au dépôt depuis le secteur " + secteur.getNumero());
+                }
+                List<Sommet> retourSommets = dijkstra.getChemin(depot);
+                List<Arete> retourAretes = dijkstra.getAretesChemins(depot);
+                for (Tournee tournee : locales.get(secteur.getNumero())) {
+                    cousues.add(coudre(allerSommets, allerAretes, tournee, retourSommets, retourAretes));
+                }
+            }
+            tourneesParSecteur.add(Collections.unmodifiableList(cousues));
+            toutes.addAll(cousues);
+        }
+        return toutes;
+    }
+
+    // Tournées du secteur, depuis et vers son entrée, en rues d'origine
+    private List<Tournee> planifier(Secteur secteur, Sommet entree) {
+        Set<Arete> aCollecter = Collections.newSetFromMap(new IdentityHashMap<>());
+        aCollecter.addAll(secteur.getAretes());
+
+        Map<Arete, Arete> originales = new IdentityHashMap<>();
+        Graphe local = null;
+        for (int profondeur = 1; ; profondeur *= 2) {
+            // Plus rien à ajouter (toute la ville, ou toute sa partie connexe) : on s'arrête là
+            int nbPrecedent = (local == null) ? -1 : local.getNbSommets();
+            originales.clear();
+            local = construireGrapheLocal(secteur, profondeur, originales);
+            if (local.getNbSommets() == nbPrecedent || toutAccessible(local, entree, secteur.getAretes())) {
+                break;
+            }
+        }
+
+        TourneesCapacitees tournees = new TourneesCapacitees(local, capacite,
+                arete -> demande.applyAsDouble(originales.get(arete)));
+        tournees.setRuesACollecter(arete -> aCollecter.contains(originales.get(arete)));
+        tournees.setNbTravailleurs(1);
+        tournees.setPool(pool);
+        tournees.setGraine(graine + secteur.getNumero());
+        tournees.setDureeMaxMillis(dureeMaxMillis);
+        tournees.setNbToursMax(nbToursMax);
+
+        List<Tournee> resultat = new ArrayList<>();
+        for (Tournee tournee : tournees.calculer(entree)) {
+            List<Arete> aretes = new ArrayList<>();
+            boolean[] collecte = new boolean[tournee.getNbPassages()];
+            for (int i = 0; i < tournee.getNbPassages(); i++) {
+                aretes.add(originales.get(tournee.getAretes().get(i)));
+                collecte[i] = tournee.estCollecte(i);
+            }
+            resultat.add(new Tournee(tournee.getSommets(), aretes, collecte));
+        }
+        return resultat;
+    }
+
+    // Rues du secteur et toutes les rues dont les deux bouts sont à moins de profondeur
+    // rues (sens ignoré) d'un bout de rue du secteur ; originales : copie -> rue d'origine
+    private Graphe construireGrapheLocal(Secteur secteur, int profondeur, Map<Arete, Arete> originales) {
+        int[] distance = new int[graphe.getNbSommets()];
+        Arrays.fill(distance, -1);
+        List<Sommet> atteints = new ArrayList<>();
+        for (Arete arete : secteur.getAretes()) {
+            for (Sommet sommet : new Sommet[] { arete.getSommet1(), arete.getSommet2() }) {
+                int i = graphe.getIndice(sommet);
+                if (distance[i] < 0) {
+                    distance[i] = 0;
+                    atteints.add(sommet);
+                }
+            }
+        }
+        for (int k = 0; k < atteints.size(); k++) {
+            Sommet sommet = atteints.get(k);
+            int d = distance[graphe.getIndice(sommet)];
+            if (d == profondeur) continue;
+            for (Arete arete : graphe.getAretesAdjacentes(sommet)) {
+                Sommet autre = arete.getAutreSommet(sommet);
+                int j = graphe.getIndice(autre);
+                if (distance[j] < 0) {
+                    distance[j] = d + 1;
+                    atteints.add(autre);
+                }
+            }
+        }
+
+        Graphe local = new Graphe(graphe.getTypeHypothese());
+        for (Sommet sommet : atteints) local.ajouterSommet(sommet);
+        for (Sommet sommet : atteints) {
+            for (Arete arete : graphe.getAretesAdjacentes(sommet)) {
+                // Chaque rue une seule fois : quand on la voit depuis son sommet1
+                if (arete.getSommet1().equals(sommet) && distance[graphe.getIndice(arete.getSommet2())] >= 0) {
+                    originales.put(Secteur.copier(local, arete), arete);
+                }
+            }
+        }
+        return local;
+    }
+
+    // Chaque rue du secteur est-elle accessible depuis l'entrée, avec un retour possible ?
+    private static boolean toutAccessible(Graphe local, Sommet entree, List<Arete> aretes) {
+        boolean[] aller = parcourir(local, local.getIndice(entree), true);
+        boolean[] retour = parcourir(local, local.getIndice(entree), false);
+        for (Arete arete : aretes) {
+            int s1 = local.getIndice(arete.getSommet1());
+            int s2 = local.getIndice(arete.getSommet2());
+            if (!aller[s1] || !aller[s2] || !retour[s1] || !retour[s2]) return false;
+        }
+        return true;
+    }
+
+    private static boolean[] parcourir(Graphe local, int depart, boolean versLAvant) {
+        boolean[] atteint = new boolean[local.getNbSommets()];
+        int[] file = new int[local.getNbSommets()];
+        int[] queue = { 0 };
+        atteint[depart] = true;
+        file[queue[0]++] = depart;
+        Graphe.VisiteurArc visiteur = (voisin, arete, poids) -> {
+            if (!atteint[voisin]) {
+                atteint[voisin] = true;
+                file[queue[0]++] = voisin;
+            }
+        };
+        for (int tete = 0; tete < queue[0]; tete++) {
+            if (versLAvant) local.parcourirSuccesseurs(file[tete], visiteur);
+            else local.parcourirPredecesseurs(file[tete], visiteur);
+        }
+        return atteint;
+    }
+
+    private static Tournee coudre(List<Sommet> allerSommets, List<Arete> allerAretes, Tournee tournee,
+                                  List<Sommet> retourSommets, List<Arete> retourAretes) {
+        List<Sommet> sommets = new ArrayList<>(allerSommets);
+        sommets.addAll(tournee.getSommets().subList(1, tournee.getSommets().size()));
+        sommets.addAll(retourSommets.subList(1, retourSommets.size()));
+        List<Arete> aretes = new ArrayList<>(allerAretes);
+        aretes.addAll(tournee.getAretes());
+        aretes.addAll(retourAretes);
+        boolean[] collecte = new boolean[aretes.size()];
+        for (int i = 0; i < tournee.getNbPassages(); i++) {
+            collecte[allerAretes.size() + i] = tournee.estCollecte(i);
+        }
+        return new Tournee(sommets, aretes, collecte);
+    }
+}
@@ -0,0 +1,314 @@
+package algorithmes.tournees;
+
+import algorithmes.base.TasIndexe;
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Problème du postier chinois pour l'hypothèse HO1 (toutes les rues à double sens,
+ * une voie) : plus courte tournée depuis le dépôt qui passe au moins une fois dans
+ * chaque rue.
+ *
+ * Les sommets de degré impair doivent être reliés deux à deux par des rues parcourues
+ * une seconde fois (haut-le-pied). On choisit ces paires par un couplage parfait de
+ * poids minimum (CouplageParfait), puis on double les rues des plus courts chemins
+ * correspondants et on suit un circuit eulérien depuis le dépôt.
+ *
+ * Pas de calcul de toutes les distances entre sommets impairs : depuis chaque sommet
+ * impair, un Dijkstra limité s'arrête dès qu'il a atteint ses nbCandidats plus proches
+ * voisins impairs, et seules ces paires sont proposées au couplage. Sur un réseau
+ * routier le couplage optimal n'utilise en pratique que des paires proches. Pour être
+ * sûr qu'un couplage parfait existe parmi les paires proposées, on ajoute aussi les
+ * paires de sommets impairs consécutifs dans l'ordre d'un parcours en profondeur
+ * depuis le dépôt (elles forment à elles seules un couplage parfait).
+ */
+public class PostierChinois {
+
+    public static final int NB_CANDIDATS_DEFAUT = 10;
+
+    // Distances arrondies au millimètre pour le couplage (qui travaille en entiers)
+    private static final double PRECISION = 1000.0;
+
+    private final Graphe graphe;
+    private final int nbCandidats;
+
+    // Graphe non orienté au format CSR (numéros d'arêtes = ordre de graphe.getAretes())
+    private final int nbSommets;
+    private final List<Arete> aretes;
+    private final int[] extremite1;
+    private final int[] extremite2;
+    private final double[] poids;
+    private final int[] debut;
+    private final int[] voisins;
+    private final int[] aretesArcs;
+
+    // Espace de travail des Dijkstra limités (remis à zéro par numéro de calcul)
+    private final double[] distances;
+    private final int[] areteArrivee;
+    private final int[] marque;
+    private int epoque;
+    private final TasIndexe filePriorite;
+
+    private int nbSommetsImpairs;
+    private int nbPairesCandidates;
+
+    public PostierChinois(Graphe graphe) {
+        this(graphe, NB_CANDIDATS_DEFAUT);
+    }
+
+    public PostierChinois(Graphe graphe, int nbCandidats) {
+        if (graphe.getTypeHypothese() != Graphe.TypeHypothese.HO1) {
+            throw new IllegalArgumentException("Le postier chinois non orienté ne s'applique qu'à HO1 (graphe "
+                    + graphe.getTypeHypothese() + ")");
+        }
+        if (nbCandidats <= 0) {
+            throw new IllegalArgumentException("Il faut au moins un candidat par sommet impair");
+        }
+        this.graphe = graphe;
+        this.nbCandidats = nbCandidats;
+
+        nbSommets = graphe.getNbSommets();
+        aretes = graphe.getAretes();
+        int m = aretes.size();
+        extremite1 = new int[m];
+        extremite2 = new int[m];
+        poids = new double[m];
+        debut = new int[nbSommets + 1];
+        for (int e = 0; e < m; e++) {
+            Arete arete = aretes.get(e);
+            extremite1[e] = graphe.getIndice(arete.getSommet1());
+            extremite2[e] = graphe.getIndice(arete.getSommet2());
+            poids[e] = arete.getPoids();
+            debut[extremite1[e] + 1]++;
+            debut[extremite2[e] + 1]++;
+        }
+        for (int v = 0; v < nbSommets; v++) debut[v + 1] += debut[v];
+        voisins = new int[2 * m];
+        aretesArcs = new int[2 * m];
+        int[] prochain = Arrays.copyOf(debut, nbSommets);
+        for (int e = 0; e < m; e++) {
+            int i = prochain[extremite1[e]]++;
+            voisins[i] = extremite2[e];
+            aretesArcs[i] = e;
+            i = prochain[extremite2[e]]++;
+            voisins[i] = extremite1[e];
+            aretesArcs[i] = e;
+        }
+
+        distances = new double[nbSommets];
+        areteArrivee = new int[nbSommets];
+        marque = new int[nbSommets];
+        filePriorite = new TasIndexe(nbSommets);
+    }
+
+    // Statistiques du dernier calcul
+    public int getNbSommetsImpairs() { return nbSommetsImpairs; }
+    public int getNbPairesCandidates() { return nbPairesCandidates; }
+
+    public Tournee calculer(Sommet depot) {
+        int d = graphe.getIndice(depot);
+        if (d < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + depot);
+        }
+        int[] ordre = parcoursEnProfondeur(d);
+        boolean[] accessible = new boolean[nbSommets];
+        for (int v : ordre) {
+            if (v >= 0) accessible[v] = true;
+        }
+        for (int e = 0; e < extremite1.length; e++) {
+            if (!accessible[extremite1[e]]) {
+                throw new IllegalArgumentException("Rue inaccessible depuis le dépôt : " + aretes.get(e));
+            }
+        }
+
+        // 1. Sommets impairs, numérotés dans l'ordre du parcours
+        int[] impairs = new int[nbSommets];
+        int[] numeroImpair = new int[nbSommets];
+        Arrays.fill(numeroImpair, -1);
+        nbSommetsImpairs = 0;
+        for (int v : ordre) {
+            if (v >= 0 && graphe.getDegre(graphe.getSommet(v)) % 2 == 1) {
+                numeroImpair[v] = nbSommetsImpairs;
+                impairs[nbSommetsImpairs++] = v;
+            }
+        }
+
+        // 2. Couplage sur les paires de voisins proches
+        int[] partenaires = coupler(impairs, numeroImpair, Math.min(nbCandidats, Math.max(nbSommetsImpairs - 1, 1)));
+        if (partenaires == null) {
+            // Ne devrait pas arriver : les paires consécutives forment déjà un couplage parfait
+            throw new IllegalStateException("Aucun couplage parfait des sommets impairs");
+        }
+
+        // 3. Rues à repasser : chemin le plus court de chaque paire
+        int[] nbPassages = new int[aretes.size()];
+        Arrays.fill(nbPassages, 1);
+        for (int a = 0; a < nbSommetsImpairs; a++) {
+            int b = partenaires[a];
+            if (a < b) {
+                int cible = impairs[b];
+                explorer(impairs[a], cible, null, 0);
+                for (int v = cible; v != impairs[a]; ) {
+                    int e = areteArrivee[v];
+                    nbPassages[e]++;
+                    v = (extremite1[e] == v) ? extremite2[e] : extremite1[e];
+                }
+            }
+        }
+        // Repasser deux fois de plus dans une rue ne change pas la parité : inutile
+        int total = 0;
+        for (int e = 0; e < nbPassages.length; e++) {
+            if (nbPassages[e] > 2) nbPassages[e] = 2 - nbPassages[e] % 2;
+            total += nbPassages[e];
+        }
+
+        // 4. Circuit eulérien dans le multigraphe (chaque passage = une copie de la rue)
+        int[] origines = new int[total];
+        int[] extremites = new int[total];
+        int[] areteDuPassage = new int[total];
+        int k = 0;
+        for (int e = 0; e < nbPassages.length; e++) {
+            for (int p = 0; p < nbPassages[e]; p++) {
+                origines[k] = extremite1[e];
+                extremites[k] = extremite2[e];
+                areteDuPassage[k] = e;
+                k++;
+            }
+        }
+        CircuitEulerien circuit = new CircuitEulerien(nbSommets, origines, extremites, false, d);
+
+        int[] passages = circuit.getPassages();
+        int[] sommetsCircuit = circuit.getSommets();
+        List<Sommet> sommets = new ArrayList<>(sommetsCircuit.length);
+        for (int v : sommetsCircuit) sommets.add(graphe.getSommet(v));
+        List<Arete> parcours = new ArrayList<>(passages.length);
+        boolean[] collecte = new boolean[passages.length];
+        boolean[] dejaCollectee = new boolean[aretes.size()];
+        for (int i = 0; i < passages.length; i++) {
+            int e = areteDuPassage[passages[i]];
+            parcours.add(aretes.get(e));
+            collecte[i] = !dejaCollectee[e];
+            dejaCollectee[e] = true;
+        }
+        return new Tournee(sommets, parcours, collecte);
+    }
+
+    // Sommets accessibles depuis le dépôt dans l'ordre d'un parcours en profondeur
+    // (sans récursion), complété par des -1
+    private int[] parcoursEnProfondeur(int depot) {
+        boolean[] vu = new boolean[nbSommets];
+        int[] ordre = new int[nbSommets];
+        Arrays.fill(ordre, -1);
+        int[] pile = new int[nbSommets];
+        int[] curseur = Arrays.copyOf(debut, nbSommets);
+        int hauteur = 0;
+        int nb = 0;
+        vu[depot] = true;
+        ordre[nb++] = depot;
+        pile[hauteur++] = depot;
+        while (hauteur > 0) {
+            int v = pile[hauteur - 1];
+            if (curseur[v] == debut[v + 1]) {
+                hauteur--;
+                continue;
+            }
+            int w = voisins[curseur[v]++];
+            if (!vu[w]) {
+                vu[w] = true;
+                ordre[nb++] = w;
+                pile[hauteur++] = w;
+            }
+        }
+        return ordre;
+    }
+
+    // Couplage parfait sur les k plus proches voisins impairs de chaque sommet impair et
+    // les paires (0, 1), (2, 3)... de numéros consécutifs ; partenaires en numéros d'impairs
+    private int[] coupler(int[] impairs, int[] numeroImpair, int k) {
+        int nb = nbSommetsImpairs;
+        int[] candidats = new int[nb * k];
+        Arrays.fill(candidats, -1);
+        int capacite = nb * k + nb / 2;
+        int[] sommets1 = new int[capacite];
+        int[] sommets2 = new int[capacite];
+        long[] poidsPaires = new long[capacite];
+        int nbPaires = 0;
+
+        int[] trouves = new int[k];
+        for (int a = 0; a < nb; a++) {
+            int nbTrouves = explorer(impairs[a], -1, trouves, k);
+            for (int i = 0; i < nbTrouves; i++) {
+                int v = trouves[i];
+                int b = numeroImpair[v];
+                candidats[a * k + i] = b;
+                // Paire déjà proposée par b (traité avant a) ?
+                if (b > a || !estCandidat(candidats, k, b, a)) {
+                    sommets1[nbPaires] = a;
+                    sommets2[nbPaires] = b;
+                    poidsPaires[nbPaires] = Math.round(distances[v] * PRECISION);
+                    nbPaires++;
+                }
+            }
+        }
+        for (int a = 0; a + 1 < nb; a += 2) {
+            if (!estCandidat(candidats, k, a, a + 1) && !estCandidat(candidats, k, a + 1, a)) {
+                explorer(impairs[a], impairs[a + 1], null, 0);
+                sommets1[nbPaires] = a;
+                sommets2[nbPaires] = a + 1;
+                poidsPaires[nbPaires] = Math.round(distances[impairs[a + 1]] * PRECISION);
+                nbPaires++;
+            }
+        }
+        nbPairesCandidates = nbPaires;
+        return CouplageParfait.calculer(nb, Arrays.copyOf(sommets1, nbPaires), Arrays.copyOf(sommets2, nbPaires),
+                Arrays.copyOf(poidsPaires, nbPaires));
+    }
+
+    private static boolean estCandidat(int[] candidats, int k, int a, int b) {
+        for (int j = 0; j < k && candidats[a * k + j] >= 0; j++) {
+            if (candidats[a * k + j] == b) return true;
+        }
+        return false;
+    }
+
+    // Dijkstra depuis source, arrêté quand cible est atteinte (cible >= 0) ou quand nbCherches
+    // autres sommets impairs sont atteints (rangés dans trouves). Renvoie le nombre trouvé.
+    private int explorer(int source, int cible, int[] trouves, int nbCherches) {
+        if (++epoque == Integer.MAX_VALUE) {
+            Arrays.fill(marque, 0);
+            epoque = 1;
+        }
+        filePriorite.vider();
+        distances[source] = 0.0;
+        areteArrivee[source] = -1;
+        marque[source] = epoque;
+        filePriorite.inserer(source, 0.0);
+
+        int nbTrouves = 0;
+        while (!filePriorite.estVide()) {
+            int v = filePriorite.extraireMin();
+            if (v == cible) break;
+            if (trouves != null && v != source && (debut[v + 1] - debut[v]) % 2 == 1) {
+                trouves[nbTrouves++] = v;
+                if (nbTrouves == nbCherches) break;
+            }
+            for (int j = debut[v]; j < debut[v + 1]; j++) {
+                int w = voisins[j];
+                int e = aretesArcs[j];
+                double nouvelleDistance = distances[v] + poids[e];
+                if (marque[w] != epoque) {
+                    marque[w] = epoque;
+                    distances[w] = nouvelleDistance;
+                    areteArrivee[w] = e;
+                    filePriorite.inserer(w, nouvelleDistance);
+                } else if (nouvelleDistance < distances[w] && filePriorite.contient(w)) {
+                    distances[w] = nouvelleDistance;
+                    areteArrivee[w] = e;
+                    filePriorite.diminuerCle(w, nouvelleDistance);
+                }
+            }
+        }
+        return nbTrouves;
+    }
+}
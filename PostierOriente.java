@@ -0,0 +1,346 @@
+package algorithmes.tournees;
+
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Postier chinois pour les hypothèses HO2 (rues orientées) et HO3 (mélange).
+ *
+ * Passages obligatoires (collecte) selon la rue :
+ *  - double sens, une voie (ramassageCompletEnUnPassage) : un passage, dans le sens
+ *    qu'on veut ;
+ *  - double sens, plusieurs voies : un passage dans chaque sens (un par côté) ;
+ *  - sens unique : un passage de sommet1 vers sommet2, deux s'il y a plusieurs voies.
+ *
+ * Les passages obligatoires laissent des sommets déséquilibrés (plus d'arrivées que de
+ * départs ou l'inverse). Un flot de coût minimum (FlotCoutMin) choisit les rues à
+ * reprendre haut-le-pied pour tout rééquilibrer, puis on suit un circuit eulérien
+ * depuis le dépôt.
+ *
+ * Sans rue à passage unique dans un sens au choix (cas HO2), la tournée est optimale.
+ * Sinon (HO3), c'est une heuristique : une telle rue est d'abord prise de sommet1 vers
+ * sommet2, et le flot peut la retourner gratuitement (arc inverse de capacité 2, coût
+ * nul). Un retournement à moitié (flot 1) devient un aller-retour dans la rue. C'est la
+ * relaxation habituelle du problème mixte, qui lui est NP-difficile : son coût est une
+ * borne inférieure, donc s'il n'y a aucun retournement à moitié la tournée est quand
+ * même optimale (estOptimale). Sinon on fixe le sens des rues en aller-retour et on
+ * recommence (quelques tours au plus), en gardant la tournée la plus courte trouvée.
+ */
+public class PostierOriente {
+
+    // Distances arrondies au millimètre pour le flot (qui travaille en entiers)
+    private static final double PRECISION = 1000.0;
+
+    // Nombre maximum de flots calculés pour le cas mixte
+    private static final int NB_TOURS_MAX = 8;
+
+    private final Graphe graphe;
+
+    // Données du calcul en cours
+    private int nbSommets;
+    private List<Arete> aretes;
+    private int[] extremite1;
+    private int[] extremite2;
+    private long[] couts;
+
+    private boolean optimale;
+    private int nbRetournees;
+    private int nbTours;
+
+    public PostierOriente(Graphe graphe) {
+        if (graphe.getTypeHypothese() == Graphe.TypeHypothese.HO1) {
+            throw new IllegalArgumentException("Graphe HO1 : utiliser PostierChinois");
+        }
+        this.graphe = graphe;
+    }
+
+    // Statistiques du dernier calcul
+    public boolean estOptimale() { return optimale; }
+    public int getNbRetournees() { return nbRetournees; }
+    public int getNbTours() { return nbTours; }
+
+    // Résultat d'un équilibrage : sens des rues à sens au choix (+1 de sommet1 vers sommet2,
+    // -1 à l'envers, 0 pour un aller-retour) et passages haut-le-pied de chaque rue
+    private static final class Equilibrage {
+        int[] sens;
+        int[] hautLePiedAller;
+        int[] hautLePiedRetour;
+        int nbAllersRetours;
+        long cout;
+    }
+
+    public Tournee calculer(Sommet depot) {
+        int d = graphe.getIndice(depot);
+        if (d < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + depot);
+        }
+        nbSommets = graphe.getNbSommets();
+        aretes = graphe.getAretes();
+        int m = aretes.size();
+        extremite1 = new int[m];
+        extremite2 = new int[m];
+        couts = new long[m];
+        for (int e = 0; e < m; e++) {
+            Arete arete = aretes.get(e);
+            extremite1[e] = graphe.getIndice(arete.getSommet1());
+            extremite2[e] = graphe.getIndice(arete.getSommet2());
+            couts[e] = Math.round(arete.getPoids() * PRECISION);
+        }
+        verifierConnexite(d);
+
+        // Rues à sens au choix dont le sens est fixé (de sommet1 vers sommet2) par les tours précédents
+        boolean[] fixee = new boolean[m];
+        Equilibrage meilleur = null;
+        nbTours = 0;
+        while (true) {
+            Equilibrage equilibrage = equilibrer(fixee);
+            nbTours++;
+            if (meilleur == null || equilibrage.cout < meilleur.cout) meilleur = equilibrage;
+            if (equilibrage.nbAllersRetours == 0 || nbTours == NB_TOURS_MAX) break;
+            for (int e = 0; e < m; e++) {
+                if (equilibrage.sens[e] == 0) fixee[e] = true;
+            }
+        }
+        // Le premier tour est la relaxation (borne inférieure) : optimal s'il n'a pas d'aller-retour
+        optimale = (nbTours == 1);
+        return construireTournee(meilleur, d);
+    }
+
+    private Equilibrage equilibrer(boolean[] fixee) {
+        int m = aretes.size();
+
+        // 1. Passages obligatoires et bilan (arrivées - départs) de chaque sommet
+        FlotCoutMin flot = new FlotCoutMin(nbSommets);
+        int[] bilan = new int[nbSommets];
+        int[] arcRetournement = new int[m];
+        Arrays.fill(arcRetournement, -1);
+        long cout = 0;
+        for (int e = 0; e < m; e++) {
+            Arete arete = aretes.get(e);
+            int u = extremite1[e];
+            int v = extremite2[e];
+            int passages = passagesObligatoires(arete);
+            bilan[v] += passages;
+            bilan[u] -= passages;
+            cout += passages * couts[e];
+            if (arete.ramassageCompletEnUnPassage()) {
+                if (!fixee[e]) arcRetournement[e] = flot.ajouterArc(v, u, 2, 0);
+            } else if (arete.isBidirectionnelle()) {
+                bilan[u]++;
+                bilan[v]--;
+                cout += couts[e];
+            }
+        }
+        // Sommet avec trop d'arrivées : il doit repartir haut-le-pied (offre)
+        for (int v = 0; v < nbSommets; v++) flot.ajouterOffre(v, bilan[v]);
+
+        // 2. Rues reprises haut-le-pied, dans les sens autorisés
+        int[] arcAller = new int[m];
+        int[] arcRetour = new int[m];
+        Arrays.fill(arcRetour, -1);
+        for (int e = 0; e < m; e++) {
+            arcAller[e] = flot.ajouterArc(extremite1[e], extremite2[e], FlotCoutMin.CAPACITE_INFINIE, couts[e]);
+            if (aretes.get(e).isBidirectionnelle()) {
+                arcRetour[e] = flot.ajouterArc(extremite2[e], extremite1[e], FlotCoutMin.CAPACITE_INFINIE, couts[e]);
+            }
+        }
+        if (!flot.resoudre()) {
+            throw new IllegalArgumentException("Réseau pas fortement connexe : impossible de revenir au dépôt "
+                    + "depuis certaines rues");
+        }
+
+        Equilibrage equilibrage = new Equilibrage();
+        equilibrage.sens = new int[m];
+        equilibrage.hautLePiedAller = new int[m];
+        equilibrage.hautLePiedRetour = new int[m];
+        Arrays.fill(equilibrage.sens, 1);
+        for (int e = 0; e < m; e++) {
+            equilibrage.hautLePiedAller[e] = flot.getFlot(arcAller[e]);
+            if (arcRetour[e] >= 0) equilibrage.hautLePiedRetour[e] = flot.getFlot(arcRetour[e]);
+            cout += (long) (equilibrage.hautLePiedAller[e] + equilibrage.hautLePiedRetour[e]) * couts[e];
+            if (arcRetournement[e] >= 0) {
+                int retournement = flot.getFlot(arcRetournement[e]);
+                equilibrage.sens[e] = (retournement == 0) ? 1 : (retournement == 2) ? -1 : 0;
+            }
+        }
+
+        // 3. Les allers-retours restants coûtent un passage haut-le-pied de plus
+        int nbAllersRetours = 0;
+        for (int e = 0; e < m; e++) {
+            if (equilibrage.sens[e] == 0) nbAllersRetours++;
+        }
+        if (nbAllersRetours > 0) orienterCycles(equilibrage.sens, nbAllersRetours);
+        for (int e = 0; e < m; e++) {
+            if (equilibrage.sens[e] == 0) {
+                equilibrage.nbAllersRetours++;
+                cout += couts[e];
+            }
+        }
+        equilibrage.cout = cout;
+        return equilibrage;
+    }
+
+    // Multigraphe orienté équilibré (passages de collecte puis haut-le-pied) et circuit eulérien
+    private Tournee construireTournee(Equilibrage equilibrage, int depot) {
+        Passages passages = new Passages();
+        nbRetournees = 0;
+        for (int e = 0; e < aretes.size(); e++) {
+            Arete arete = aretes.get(e);
+            int u = extremite1[e];
+            int v = extremite2[e];
+            int sens = equilibrage.sens[e];
+            if (arete.ramassageCompletEnUnPassage()) {
+                if (sens < 0) {
+                    passages.ajouter(v, u, e, true);
+                    nbRetournees++;
+                } else {
+                    passages.ajouter(u, v, e, true);
+                    if (sens == 0) passages.ajouter(v, u, e, false);
+                }
+            } else {
+                for (int p = 0; p < passagesObligatoires(arete); p++) passages.ajouter(u, v, e, true);
+                if (arete.isBidirectionnelle()) passages.ajouter(v, u, e, true);
+            }
+            for (int p = equilibrage.hautLePiedAller[e]; p > 0; p--) passages.ajouter(u, v, e, false);
+            for (int p = equilibrage.hautLePiedRetour[e]; p > 0; p--) passages.ajouter(v, u, e, false);
+        }
+
+        CircuitEulerien circuit = new CircuitEulerien(nbSommets, passages.origines(), passages.extremites(), true, depot);
+        int[] ordre = circuit.getPassages();
+        int[] sommetsCircuit = circuit.getSommets();
+        List<Sommet> sommets = new ArrayList<>(sommetsCircuit.length);
+        for (int v : sommetsCircuit) sommets.add(graphe.getSommet(v));
+        List<Arete> parcours = new ArrayList<>(ordre.length);
+        boolean[] collecte = new boolean[ordre.length];
+        for (int i = 0; i < ordre.length; i++) {
+            parcours.add(aretes.get(passages.arete[ordre[i]]));
+            collecte[i] = passages.collecte[ordre[i]];
+        }
+        return new Tournee(sommets, parcours, collecte);
+    }
+
+    // Les rues en aller-retour qui forment un cycle peuvent être prises une seule fois, toutes
+    // dans le sens du cycle : chaque sommet du cycle garde son équilibre et on économise les
+    // retours haut-le-pied. On cherche ces cycles en marchant dans les rues en aller-retour
+    // (pile du chemin courant ; revenir sur un sommet du chemin ferme un cycle).
+    private void orienterCycles(int[] sens, int nbAllersRetours) {
+        int n = nbSommets;
+        int[] rues = new int[nbAllersRetours];
+        int k = 0;
+        int[] debut = new int[n + 1];
+        for (int e = 0; e < sens.length; e++) {
+            if (sens[e] == 0) {
+                rues[k++] = e;
+                debut[extremite1[e] + 1]++;
+                debut[extremite2[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) debut[v + 1] += debut[v];
+        int[] incidentes = new int[2 * k];
+        int[] prochain = Arrays.copyOf(debut, n);
+        for (int i = 0; i < k; i++) {
+            incidentes[prochain[extremite1[rues[i]]]++] = rues[i];
+            incidentes[prochain[extremite2[rues[i]]]++] = rues[i];
+        }
+
+        boolean[] vue = new boolean[sens.length];
+        int[] position = new int[n];         // place du sommet dans le chemin courant, ou -1
+        Arrays.fill(position, -1);
+        int[] curseur = Arrays.copyOf(debut, n);
+        int[] cheminSommets = new int[k + 1];
+        int[] cheminRues = new int[k + 1];
+        for (int depart = 0; depart < n; depart++) {
+            if (curseur[depart] == debut[depart + 1]) continue;
+            int hauteur = 0;
+            cheminSommets[hauteur++] = depart;
+            position[depart] = 0;
+            while (hauteur > 0) {
+                int x = cheminSommets[hauteur - 1];
+                while (curseur[x] < debut[x + 1] && vue[incidentes[curseur[x]]]) curseur[x]++;
+                if (curseur[x] == debut[x + 1]) {
+                    // Impasse : la rue par laquelle on est arrivé reste en aller-retour
+                    position[x] = -1;
+                    hauteur--;
+                    continue;
+                }
+                int e = incidentes[curseur[x]++];
+                vue[e] = true;
+                int y = (extremite1[e] == x) ? extremite2[e] : extremite1[e];
+                cheminRues[hauteur] = e;
+                if (position[y] < 0) {
+                    position[y] = hauteur;
+                    cheminSommets[hauteur++] = y;
+                    continue;
+                }
+                // Cycle y -> ... -> x -> y : chaque rue prise dans le sens du parcours
+                for (int i = position[y] + 1; i <= hauteur; i++) {
+                    int r = cheminRues[i];
+                    int de = cheminSommets[i - 1];
+                    sens[r] = (extremite1[r] == de) ? 1 : -1;
+                }
+                for (int i = position[y] + 1; i < hauteur; i++) position[cheminSommets[i]] = -1;
+                hauteur = position[y] + 1;
+            }
+        }
+    }
+
+    // Passages de sommet1 vers sommet2 à faire en collectant (une rue à sens au choix
+    // est d'abord prise dans ce sens-là)
+    private static int passagesObligatoires(Arete arete) {
+        if (arete.isBidirectionnelle()) return 1;
+        return arete.getNbVoies() > 1 ? 2 : 1;
+    }
+
+    // Toutes les rues doivent être reliées au dépôt (sans tenir compte du sens ; le flot
+    // vérifie ensuite qu'on peut toujours revenir)
+    private void verifierConnexite(int depot) {
+        int n = nbSommets;
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        for (int e = 0; e < extremite1.length; e++) {
+            parent[racine(parent, extremite1[e])] = racine(parent, extremite2[e]);
+        }
+        int r = racine(parent, depot);
+        for (int e = 0; e < extremite1.length; e++) {
+            if (racine(parent, extremite1[e]) != r) {
+                throw new IllegalArgumentException("Rue inaccessible depuis le dépôt : " + aretes.get(e));
+            }
+        }
+    }
+
+    private static int racine(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    // Liste extensible des passages du multigraphe
+    private static final class Passages {
+        int taille;
+        int[] origine = new int[16];
+        int[] extremite = new int[16];
+        int[] arete = new int[16];
+        boolean[] collecte = new boolean[16];
+
+        void ajouter(int de, int vers, int e, boolean enCollecte) {
+            if (taille == origine.length) {
+                int t = taille * 2;
+                origine = Arrays.copyOf(origine, t);
+                extremite = Arrays.copyOf(extremite, t);
+                arete = Arrays.copyOf(arete, t);
+                collecte = Arrays.copyOf(collecte, t);
+            }
+            origine[taille] = de;
+            extremite[taille] = vers;
+            arete[taille] = e;
+            collecte[taille] = enCollecte;
+            taille++;
+        }
+
+        int[] origines() { return Arrays.copyOf(origine, taille); }
+        int[] extremites() { return Arrays.copyOf(extremite, taille); }
+    }
+}
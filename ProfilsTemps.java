@@ -0,0 +1,237 @@
+package modele.graphe;
+
+import java.util.*;
+
+
+/**
+ * Temps de parcours des rues selon l'heure, pour un GrapheFige.
+ *
+ * Le temps "libre" d'une arête est son poids multiplié par secondesParUnite. Un profil
+ * est une fonction linéaire par morceaux de l'heure (périodique sur une journée) qui
+ * multiplie ce temps libre : 1 la nuit, 2.5 à 8h... Le temps de parcours de l'arête e
+ * partant à l'instant t vaut tempsLibre(e) * facteur(profil(e), t). Une arête sans profil
+ * garde son temps libre à toute heure.
+ *
+ * Les profils décrivent une forme (heure de pointe en centre-ville, axe de sortie...) et
+ * non une rue : quelques dizaines suffisent pour une ville entière. Tous les points sont
+ * rangés bout à bout dans deux tableaux partagés, et un profil identique à un profil
+ * existant n'est pas ajouté une seconde fois (ajouterProfil rend le numéro existant).
+ *
+ * Chaque arête doit respecter FIFO (partir plus tard ne fait jamais arriver plus tôt) :
+ * c'est ce qui permet à DijkstraTemporel de fixer chaque sommet une seule fois.
+ * Vérifié par affecter.
+ *
+ * Instants en secondes depuis minuit ; au-delà d'une journée on reprend le profil.
+ */
+public final class ProfilsTemps {
+
+    public static final double PERIODE = 24 * 3600.0;
+    public static final int SANS_PROFIL = -1;
+
+    private final GrapheFige graphe;
+    private final double secondesParUnite;
+
+    // Points des profils : ceux du profil p sont les indices [debutProfil[p], debutProfil[p + 1])
+    private double[] instants = new double[64];
+    private double[] facteurs = new double[64];
+    private int nbPoints;
+    private int[] debutProfil = new int[9];
+    private double[] penteMin = new double[8];   // plus forte baisse du facteur (par seconde)
+    private int nbProfils;
+    private final Map<Cle, Integer> numerosProfils = new HashMap<>();
+
+    private final int[] profilArete;
+
+    public ProfilsTemps(GrapheFige graphe, double secondesParUnite) {
+        if (!(secondesParUnite > 0) || Double.isInfinite(secondesParUnite)) {
+            throw new IllegalArgumentException("secondesParUnite doit être > 0");
+        }
+        this.graphe = graphe;
+        this.secondesParUnite = secondesParUnite;
+        this.profilArete = new int[graphe.getNbAretes()];
+        Arrays.fill(profilArete, SANS_PROFIL);
+    }
+
+    public static double instant(int heures, int minutes) {
+        if (heures < 0 || minutes < 0 || minutes >= 60) {
+            throw new IllegalArgumentException("Heure invalide : " + heures + ":" + minutes);
+        }
+        return heures * 3600.0 + minutes * 60.0;
+    }
+
+    public GrapheFige getGraphe() { return graphe; }
+    public double getSecondesParUnite() { return secondesParUnite; }
+    public int getNbProfils() { return nbProfils; }
+    public int getNbPoints() { return nbPoints; }
+
+    // Profil donné par ses points (instants croissants dans [0, PERIODE), facteurs > 0) ;
+    // entre le dernier point et le premier du lendemain, le facteur est aussi interpolé
+    public int ajouterProfil(double[] instantsProfil, double[] facteursProfil) {
+        int longueur = instantsProfil.length;
+        if (longueur == 0 || facteursProfil.length != longueur) {
+            throw new IllegalArgumentException("Un profil a autant d'instants que de facteurs (au moins un)");
+        }
+        for (int i = 0; i < longueur; i++) {
+            double t = instantsProfil[i];
+            if (!(t >= 0 && t < PERIODE) || (i > 0 && !(t > instantsProfil[i - 1]))) {
+                throw new IllegalArgumentException("Instants du profil non croissants ou hors de la journée : " + t);
+            }
+            double f = facteursProfil[i];
+            if (!(f > 0) || Double.isInfinite(f)) {
+                throw new IllegalArgumentException("Facteur du profil invalide : " + f);
+            }
+        }
+
+        // Points ajoutés à la suite, puis retirés si le profil existait déjà
+        if (nbPoints + longueur > instants.length) {
+            int capacite = Math.max(2 * instants.length, nbPoints + longueur);
+            instants = Arrays.copyOf(instants, capacite);
+            facteurs = Arrays.copyOf(facteurs, capacite);
+        }
+        System.arraycopy(instantsProfil, 0, instants, nbPoints, longueur);
+        System.arraycopy(facteursProfil, 0, facteurs, nbPoints, longueur);
+        Integer existant = numerosProfils.get(new Cle(nbPoints, longueur));
+        if (existant != null) return existant;
+
+        if (nbProfils + 1 == debutProfil.length) {
+            debutProfil = Arrays.copyOf(debutProfil, 2 * debutProfil.length);
+            penteMin = Arrays.copyOf(penteMin, 2 * penteMin.length);
+        }
+        int p = nbProfils++;
+        debutProfil[p] = nbPoints;
+        nbPoints += longueur;
+        debutProfil[p + 1] = nbPoints;
+        penteMin[p] = calculerPenteMin(p);
+        numerosProfils.put(new Cle(debutProfil[p], longueur), p);
+        return p;
+    }
+
+    private double calculerPenteMin(int p) {
+        int debut = debutProfil[p], fin = debutProfil[p + 1];
+        double pente = 0;
+        for (int i = debut; i < fin; i++) {
+            int j = (i + 1 < fin) ? i + 1 : debut;
+            double duree = (j > i) ? instants[j] - instants[i] : instants[j] + PERIODE - instants[i];
+            if (duree > 0) pente = Math.min(pente, (facteurs[j] - facteurs[i]) / duree);
+        }
+        return pente;
+    }
+
+    // SANS_PROFIL pour revenir au temps libre
+    public void affecter(int arete, int profil) {
+        if (profil != SANS_PROFIL) {
+            if (profil < 0 || profil >= nbProfils) {
+                throw new IllegalArgumentException("Profil inconnu : " + profil);
+            }
+            // FIFO : le temps de parcours ne baisse jamais plus vite que le temps ne passe
+            if (getTempsLibre(arete) * penteMin[profil] < -1) {
+                throw new IllegalArgumentException("Profil " + profil + " non FIFO pour l'arête " + arete
+                        + " (temps libre " + getTempsLibre(arete) + " s)");
+            }
+        }
+        profilArete[arete] = profil;
+    }
+
+    public void affecter(Arete arete, int profil) {
+        int e = graphe.chercherArete(arete);
+        if (e < 0) {
+            throw new IllegalArgumentException("Arête inconnue : " + arete);
+        }
+        affecter(e, profil);
+    }
+
+    public int getProfil(int arete) { return profilArete[arete]; }
+
+    public double getTempsLibre(int arete) {
+        return graphe.getPoidsArete(arete) * secondesParUnite;
+    }
+
+    // Temps pour parcourir l'arête en partant à l'instant depart (en secondes)
+    public double getTempsParcours(int arete, double depart) {
+        double libre = graphe.getPoidsArete(arete) * secondesParUnite;
+        int p = profilArete[arete];
+        return (p == SANS_PROFIL) ? libre : libre * getFacteur(p, depart);
+    }
+
+    // Même chose par arc (utilisé par DijkstraTemporel)
+    public double getTempsParcoursArc(int arc, double depart) {
+        double libre = graphe.getPoids(arc) * secondesParUnite;
+        int p = profilArete[graphe.getNumeroArete(arc)];
+        return (p == SANS_PROFIL) ? libre : libre * getFacteur(p, depart);
+    }
+
+    public double getFacteur(int profil, double t) {
+        int debut = debutProfil[profil], fin = debutProfil[profil + 1];
+        double h = t % PERIODE;
+        if (h < 0) h += PERIODE;
+
+        // Dernier point d'instant <= h (recherche dichotomique) ; avant le premier point on
+        // est encore sur le segment qui part du dernier point de la veille
+        int bas = debut, haut = fin - 1;
+        if (h < instants[debut]) {
+            bas = fin - 1;
+        } else {
+            while (bas < haut) {
+                int milieu = (bas + haut + 1) >>> 1;
+                if (instants[milieu] <= h) bas = milieu; else haut = milieu - 1;
+            }
+        }
+        int suivant = (bas + 1 < fin) ? bas + 1 : debut;
+        if (suivant == bas) return facteurs[bas];
+        double t0 = instants[bas], t1 = instants[suivant];
+        if (t1 <= t0) t1 += PERIODE;
+        if (h < t0) h += PERIODE;
+        return facteurs[bas] + (facteurs[suivant] - facteurs[bas]) * (h - t0) / (t1 - t0);
+    }
+
+    // Plus petit facteur d'un profil (borne inférieure du temps de parcours)
+    public double getFacteurMin(int profil) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = debutProfil[profil]; i < debutProfil[profil + 1]; i++) min = Math.min(min, facteurs[i]);
+        return min;
+    }
+
+    @Override
+    public String toString() {
+        int nbAffectees = 0;
+        for (int p : profilArete) if (p != SANS_PROFIL) nbAffectees++;
+        return "ProfilsTemps (" + nbProfils + " profils, " + nbPoints + " points, "
+                + nbAffectees + "/" + profilArete.length + " arêtes)";
+    }
+
+
+    // Clé de dédoublonnage : un morceau des tableaux de points
+    private final class Cle {
+        private final int debut;
+        private final int longueur;
+        private final int hachage;
+
+        Cle(int debut, int longueur) {
+            this.debut = debut;
+            this.longueur = longueur;
+            int h = longueur;
+            for (int i = debut; i < debut + longueur; i++) {
+                h = 31 * h + Double.hashCode(instants[i]);
+                h = 31 * h + Double.hashCode(facteurs[i]);
+            }
+            this.hachage = h;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Cle)) return false;
+            Cle autre = (Cle) obj;
+            if (autre.longueur != longueur || autre.hachage != hachage) return false;
+            for (int i = 0; i < longueur; i++) {
+                if (instants[debut + i] != instants[autre.debut + i]
+                        || facteurs[debut + i] != facteurs[autre.debut + i]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hachage;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package modele.graphe.modele.entites;
+
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Toutes les habitations d'un réseau, rangées rue par rue.
+ *
+ * Une habitation n'est ici qu'un numéro : son nom, le numéro de son arête dans le
+ * GrapheFige et sa position sur la rue (toujours mesurée depuis sommet1) sont dans
+ * des tableaux de primitifs. Pour chaque arête, ses habitations sont triées par
+ * position (format CSR, comme les arcs du GrapheFige) : "les habitations de cette
+ * rue, dans l'ordre" ou "celles entre 100 m et 200 m" se lisent sans parcourir
+ * tout le répertoire. Les objets Habitation ne sont créés qu'à la demande.
+ *
+ * On ajoute toutes les habitations d'abord ; le rangement est refait à la première
+ * requête qui suit un ajout.
+ */
+public final class RepertoireHabitations {
+
+    private final GrapheFige graphe;
+
+    // Habitations dans l'ordre d'ajout
+    private int nbHabitations;
+    private String[] noms = new String[16];
+    private int[] aretes = new int[16];
+    private double[] positions = new double[16];   // distance depuis sommet1 de l'arête
+
+    // Rangement par arête : les habitations de l'arête e sont rangees[debut[e] .. debut[e + 1]),
+    // triées par position (positionsRangees est la copie des positions dans le même ordre)
+    private int[] debut;
+    private int[] rangees;
+    private double[] positionsRangees;
+    private boolean aJour;
+
+    public RepertoireHabitations(GrapheFige graphe) {
+        this.graphe = graphe;
+    }
+
+    public GrapheFige getGraphe() { return graphe; }
+    public int getNbHabitations() { return nbHabitations; }
+
+
+    // AJOUTS
+
+    // Renvoie le numéro de l'habitation dans le répertoire
+    public int ajouter(Habitation habitation) {
+        Arete arete = habitation.getArete();
+        return ajouter(habitation.getNom(), getNumeroArete(arete),
+                habitation.getDistanceDepuisSommet(arete.getSommet1()));
+    }
+
+    public int ajouter(String nom, int numeroArete, double positionDepuisSommet1) {
+        if (nom == null || nom.trim().isEmpty()) {
+            throw new IllegalArgumentException("Le nom ne peut pas être vide");
+        }
+        verifierArete(numeroArete);
+        if (!(positionDepuisSommet1 >= 0 && positionDepuisSommet1 <= graphe.getPoidsArete(numeroArete))) {
+            throw new IllegalArgumentException("La distance doit être entre 0 et la longueur de l'arête");
+        }
+        if (nbHabitations == noms.length) {
+            int taille = noms.length * 2;
+            noms = Arrays.copyOf(noms, taille);
+            aretes = Arrays.copyOf(aretes, taille);
+            positions = Arrays.copyOf(positions, taille);
+        }
+        int h = nbHabitations++;
+        noms[h] = nom;
+        aretes[h] = numeroArete;
+        positions[h] = positionDepuisSommet1;
+        aJour = false;
+        return h;
+    }
+
+    // Numéro de l'arête dans le GrapheFige (aussi pour un graphe hors tas, dont les Arete
+    // sont des copies)
+    public int getNumeroArete(Arete arete) {
+        int e = graphe.chercherArete(arete);
+        if (e < 0) {
+            throw new IllegalArgumentException("Arête absente du graphe : " + arete);
+        }
+        return e;
+    }
+
+
+    // UNE HABITATION
+
+    public String getNom(int habitation) { return noms[verifier(habitation)]; }
+    public int getNumeroArete(int habitation) { return aretes[verifier(habitation)]; }
+    public double getPosition(int habitation) { return positions[verifier(habitation)]; }
+
+    public Habitation getHabitation(int habitation) {
+        verifier(habitation);
+        Arete arete = graphe.getArete(aretes[habitation]);
+        return new Habitation(noms[habitation], arete, arete.getSommet1(), positions[habitation]);
+    }
+
+    private int verifier(int habitation) {
+        if (habitation < 0 || habitation >= nbHabitations) {
+            throw new IllegalArgumentException("Habitation inconnue : " + habitation);
+        }
+        return habitation;
+    }
+
+    private int verifierArete(int numeroArete) {
+        if (numeroArete < 0 || numeroArete >= graphe.getNbAretes()) {
+            throw new IllegalArgumentException("Arête inconnue : " + numeroArete);
+        }
+        return numeroArete;
+    }
+
+
+    // REQUÊTES PAR RUE (positions depuis sommet1, bornes comprises)
+
+    public int getNbHabitations(int numeroArete) {
+        verifierArete(numeroArete);
+        ranger();
+        return debut[numeroArete + 1] - debut[numeroArete];
+    }
+
+    // Numéros des habitations de la rue, de sommet1 vers sommet2
+    public int[] getHabitationsSurArete(int numeroArete) {
+        verifierArete(numeroArete);
+        ranger();
+        return Arrays.copyOfRange(rangees, debut[numeroArete], debut[numeroArete + 1]);
+    }
+
+    public int[] getHabitationsEntre(int numeroArete, double de, double a) {
+        verifierArete(numeroArete);
+        ranger();
+        int i = premierePositionAuMoins(numeroArete, de);
+        int j = premierePositionAuMoins(numeroArete, Math.nextUp(a));
+        return (i < j) ? Arrays.copyOfRange(rangees, i, j) : new int[0];
+    }
+
+    // Les k habitations les plus proches d'un point de la rue (en restant sur la rue),
+    // de la plus proche à la plus lointaine
+    public int[] getPlusProches(int numeroArete, double position, int k) {
+        verifierArete(numeroArete);
+        if (k < 0) {
+            throw new IllegalArgumentException("k doit être >= 0 : " + k);
+        }
+        ranger();
+        int gauche = premierePositionAuMoins(numeroArete, position) - 1;
+        int droite = gauche + 1;
+        int min = debut[numeroArete], max = debut[numeroArete + 1];
+        int[] resultat = new int[Math.min(k, max - min)];
+        for (int i = 0; i < resultat.length; i++) {
+            boolean prendreGauche = droite >= max || (gauche >= min
+                    && position - positionsRangees[gauche] <= positionsRangees[droite] - position);
+            resultat[i] = rangees[prendreGauche ? gauche-- : droite++];
+        }
+        return resultat;
+    }
+
+    public List<Habitation> getHabitations(Arete arete) {
+        return versHabitations(getHabitationsSurArete(getNumeroArete(arete)));
+    }
+
+    public List<Habitation> getHabitationsEntre(Arete arete, double de, double a) {
+        return versHabitations(getHabitationsEntre(getNumeroArete(arete), de, a));
+    }
+
+    public List<Habitation> versHabitations(int[] numeros) {
+        List<Habitation> liste = new ArrayList<>(numeros.length);
+        for (int h : numeros) liste.add(getHabitation(h));
+        return liste;
+    }
+
+    // Indice (dans rangees) de la première habitation de l'arête à une position >= valeur
+    private int premierePositionAuMoins(int numeroArete, double valeur) {
+        int bas = debut[numeroArete], haut = debut[numeroArete + 1];
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (positionsRangees[milieu] < valeur) bas = milieu + 1;
+            else haut = milieu;
+        }
+        return bas;
+    }
+
+
+    // RANGEMENT
+
+    // Tri par arête (comptage), puis par position dans chaque arête (tri fusion stable :
+    // à position égale, l'ordre d'ajout est gardé)
+    private void ranger() {
+        if (aJour) return;
+        int m = graphe.getNbAretes();
+        debut = new int[m + 1];
+        for (int h = 0; h < nbHabitations; h++) debut[aretes[h] + 1]++;
+        for (int e = 0; e < m; e++) debut[e + 1] += debut[e];
+
+        rangees = new int[nbHabitations];
+        positionsRangees = new double[nbHabitations];
+        int[] prochain = Arrays.copyOf(debut, m);
+        for (int h = 0; h < nbHabitations; h++) {
+            int i = prochain[aretes[h]]++;
+            rangees[i] = h;
+            positionsRangees[i] = positions[h];
+        }
+
+        int[] tamponNumeros = new int[nbHabitations];
+        double[] tamponPositions = new double[nbHabitations];
+        for (int e = 0; e < m; e++) {
+            trier(debut[e], debut[e + 1], tamponNumeros, tamponPositions);
+        }
+        aJour = true;
+    }
+
+    private void trier(int de, int a, int[] tamponNumeros, double[] tamponPositions) {
+        if (a - de <= 16) {
+            for (int i = de + 1; i < a; i++) {
+                double p = positionsRangees[i];
+                int h = rangees[i];
+                int j = i;
+                while (j > de && positionsRangees[j - 1] > p) {
+                    positionsRangees[j] = positionsRangees[j - 1];
+                    rangees[j] = rangees[j - 1];
+                    j--;
+                }
+                positionsRangees[j] = p;
+                rangees[j] = h;
+            }
+            return;
+        }
+        int milieu = (de + a) >>> 1;
+        trier(de, milieu, tamponNumeros, tamponPositions);
+        trier(milieu, a, tamponNumeros, tamponPositions);
+        if (positionsRangees[milieu - 1] <= positionsRangees[milieu]) return;
+
+        System.arraycopy(rangees, de, tamponNumeros, de, a - de);
+        System.arraycopy(positionsRangees, de, tamponPositions, de, a - de);
+        int i = de, j = milieu;
+        for (int k = de; k < a; k++) {
+            if (j >= a || (i < milieu && tamponPositions[i] <= tamponPositions[j])) {
+                rangees[k] = tamponNumeros[i];
+                positionsRangees[k] = tamponPositions[i++];
+            } else {
+                rangees[k] = tamponNumeros[j];
+                positionsRangees[k] = tamponPositions[j++];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RepertoireHabitations (" + nbHabitations + " habitations sur "
+                + graphe.getNbAretes() + " arêtes)";
+    }
+}
@@ -0,0 +1,227 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+
+
+/**
+ * Requêtes point à point sur une HierarchieContraction.
+ *
+ * Dijkstra bidirectionnel où chaque côté ne monte que vers des sommets plus
+ * importants. Le chemin trouvé contient des raccourcis qu'on "déplie" ensuite
+ * pour retrouver les vraies rues (Sommet et Arete du graphe).
+ *
+ * Un objet par thread : la hiérarchie est partagée en lecture seule, mais les
+ * tableaux de travail de la requête sont propres à chaque RequeteHierarchie.
+ */
+public class RequeteHierarchie {
+
+    private final HierarchieContraction hierarchie;
+    private final GrapheFige graphe;
+
+    private final double[] distancesAvant;
+    private final double[] distancesArriere;
+    private final int[] arcAvant;        // arc de la hiérarchie qui a amené au sommet (-1 au départ)
+    private final int[] arcArriere;
+    private final TasIndexe fileAvant;
+    private final TasIndexe fileArriere;
+
+    // Sommets touchés pendant la requête : on ne remet à zéro qu'eux
+    private final int[] touches;
+    private final boolean[] estTouche;
+    private int nbTouches;
+
+    private double meilleureDistance;
+    private int sommetRencontre;
+    private int nbSommetsVisites;
+    private final int[] pile;
+
+    // Chemin déplié de la dernière requête
+    private final List<Integer> arcsChemin = new ArrayList<>();
+    private int departChemin;
+
+    public RequeteHierarchie(HierarchieContraction hierarchie) {
+        this.hierarchie = hierarchie;
+        this.graphe = hierarchie.getGraphe();
+        int n = graphe.getNbSommets();
+        this.distancesAvant = new double[n];
+        this.distancesArriere = new double[n];
+        this.arcAvant = new int[n];
+        this.arcArriere = new int[n];
+        Arrays.fill(distancesAvant, Double.POSITIVE_INFINITY);
+        Arrays.fill(distancesArriere, Double.POSITIVE_INFINITY);
+        Arrays.fill(arcAvant, -1);
+        Arrays.fill(arcArriere, -1);
+        this.fileAvant = new TasIndexe(n);
+        this.fileArriere = new TasIndexe(n);
+        this.touches = new int[n];
+        this.estTouche = new boolean[n];
+        this.pile = new int[hierarchie.getTaillePile()];
+    }
+
+    // Distance seule (pas de dépliage du chemin)
+    public double distance(Sommet depart, Sommet destination) {
+        preparer(indice(depart));
+        initialiserArriere(indice(destination), 0.0);
+        rechercher();
+        return meilleureDistance;
+    }
+
+    public ResultatChemin calculer(Sommet depart, Sommet destination) {
+        preparer(indice(depart));
+        initialiserArriere(indice(destination), 0.0);
+        rechercher();
+        return construireResultat();
+    }
+
+    // Même sémantique que Dijkstra.getCheminVersHabitation : on vise les deux bouts de la rue
+    public ResultatChemin getCheminVersHabitation(Sommet depart, Habitation destination) {
+        preparer(indice(depart));
+        Arete areteDestination = destination.getArete();
+        Sommet sommet1 = areteDestination.getSommet1();
+        Sommet sommet2 = areteDestination.getSommet2();
+        initialiserArriere(indice(sommet1), destination.getDistanceDepuisSommet(sommet1));
+        initialiserArriere(indice(sommet2), destination.getDistanceDepuisSommet(sommet2));
+        rechercher();
+        return construireResultat();
+    }
+
+    // Rues empruntées par le dernier chemin calculé (avec calculer ou getCheminVersHabitation)
+    public List<Arete> getAretesDernierChemin() {
+        List<Arete> aretes = new ArrayList<>();
+        for (int arc : arcsChemin) {
+            aretes.add(graphe.getArete(graphe.getNumeroArete(arc)));
+        }
+        return aretes;
+    }
+
+    public int getNbSommetsVisites() {
+        return nbSommetsVisites;
+    }
+
+    private int indice(Sommet sommet) {
+        int indice = graphe.getIndice(sommet);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + sommet);
+        }
+        return indice;
+    }
+
+    private void preparer(int source) {
+        for (int i = 0; i < nbTouches; i++) {
+            int v = touches[i];
+            estTouche[v] = false;
+            distancesAvant[v] = Double.POSITIVE_INFINITY;
+            distancesArriere[v] = Double.POSITIVE_INFINITY;
+            arcAvant[v] = -1;
+            arcArriere[v] = -1;
+        }
+        nbTouches = 0;
+        fileAvant.vider();
+        fileArriere.vider();
+        meilleureDistance = Double.POSITIVE_INFINITY;
+        sommetRencontre = -1;
+        nbSommetsVisites = 0;
+        arcsChemin.clear();
+        departChemin = source;
+
+        toucher(source);
+        distancesAvant[source] = 0.0;
+        fileAvant.inserer(source, 0.0);
+    }
+
+    private void initialiserArriere(int sommet, double distance) {
+        if (distance < distancesArriere[sommet]) {
+            toucher(sommet);
+            distancesArriere[sommet] = distance;
+            fileArriere.insererOuDiminuer(sommet, distance);
+        }
+    }
+
+    private void toucher(int sommet) {
+        if (!estTouche[sommet]) {
+            estTouche[sommet] = true;
+            touches[nbTouches++] = sommet;
+        }
+    }
+
+    private void rechercher() {
+        // Chaque côté continue tant qu'il peut encore améliorer le meilleur chemin
+        // (on ne peut pas s'arrêter au premier croisement : les chemins montent puis descendent)
+        while (true) {
+            boolean avantUtile = !fileAvant.estVide() && fileAvant.cleMin() < meilleureDistance;
+            boolean arriereUtile = !fileArriere.estVide() && fileArriere.cleMin() < meilleureDistance;
+            if (!avantUtile && !arriereUtile) break;
+
+            if (avantUtile && (!arriereUtile || fileAvant.cleMin() <= fileArriere.cleMin())) {
+                int u = fileAvant.extraireMin();
+                nbSommetsVisites++;
+                verifierRencontre(u);
+                for (int i = hierarchie.premierArcAvant(u); i < hierarchie.finArcsAvant(u); i++) {
+                    int a = hierarchie.arcAvant(i);
+                    relaxer(hierarchie.getArrivee(a), distancesAvant[u] + hierarchie.getPoids(a), a,
+                            distancesAvant, arcAvant, fileAvant);
+                }
+            } else {
+                int u = fileArriere.extraireMin();
+                nbSommetsVisites++;
+                verifierRencontre(u);
+                for (int i = hierarchie.premierArcArriere(u); i < hierarchie.finArcsArriere(u); i++) {
+                    int a = hierarchie.arcArriere(i);
+                    relaxer(hierarchie.getDepart(a), distancesArriere[u] + hierarchie.getPoids(a), a,
+                            distancesArriere, arcArriere, fileArriere);
+                }
+            }
+        }
+    }
+
+    private void relaxer(int v, double distance, int arc, double[] distances, int[] arcs, TasIndexe file) {
+        if (distance < distances[v]) {
+            toucher(v);
+            distances[v] = distance;
+            arcs[v] = arc;
+            file.insererOuDiminuer(v, distance);
+        }
+    }
+
+    private void verifierRencontre(int sommet) {
+        double total = distancesAvant[sommet] + distancesArriere[sommet];
+        if (total < meilleureDistance) {
+            meilleureDistance = total;
+            sommetRencontre = sommet;
+        }
+    }
+
+    private ResultatChemin construireResultat() {
+        if (sommetRencontre < 0) {
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+
+        // Arcs de la hiérarchie : montée avant (à remettre dans l'ordre), puis descente arrière
+        List<Integer> arcsHierarchie = new ArrayList<>();
+        for (int v = sommetRencontre; arcAvant[v] >= 0; v = hierarchie.getDepart(arcAvant[v])) {
+            arcsHierarchie.add(arcAvant[v]);
+        }
+        Collections.reverse(arcsHierarchie);
+        int arrivee = sommetRencontre;
+        while (arcArriere[arrivee] >= 0) {
+            int a = arcArriere[arrivee];
+            arcsHierarchie.add(a);
+            arrivee = hierarchie.getArrivee(a);
+        }
+
+        // Dépliage des raccourcis en arcs du GrapheFige
+        for (int a : arcsHierarchie) {
+            hierarchie.deplier(a, arcsChemin, pile);
+        }
+
+        List<Sommet> chemin = new ArrayList<>();
+        chemin.add(graphe.getSommet(departChemin));
+        for (int arc : arcsChemin) {
+            chemin.add(graphe.getSommet(graphe.getCible(arc)));
+        }
+        return new ResultatChemin(chemin, meilleureDistance, graphe.getSommet(arrivee));
+    }
+}
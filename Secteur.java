@@ -0,0 +1,69 @@
+package algorithmes.tournees;
+
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Un secteur de collecte produit par DecoupageSecteurs : ses carrefours, les rues qu'il
+ * collecte, et son sous-graphe.
+ *
+ * Le sous-graphe reprend les mêmes objets Sommet que la ville mais des copies des Arete
+ * (une arête n'appartient qu'à un graphe) : getAreteOriginale fait le lien. Une rue coupée
+ * appartient au secteur de son sommet1 ; son sommet2 fait alors partie du sous-graphe sans
+ * être un carrefour du secteur. La frontière, ce sont les carrefours du secteur qui
+ * touchent une rue d'un autre secteur.
+ */
+public final class Secteur {
+
+    private final int numero;
+    private final List<Sommet> sommets;
+    private final List<Sommet> frontiere;
+    private final List<Arete> aretes;              // rues d'origine collectées par ce secteur
+    private final Graphe sousGraphe;
+    private final Map<Arete, Arete> originales = new IdentityHashMap<>();
+    private final double longueur;
+
+    Secteur(int numero, Graphe.TypeHypothese type, List<Sommet> sommets, List<Sommet> frontiere, List<Arete> aretes) {
+        this.numero = numero;
+        this.sommets = Collections.unmodifiableList(sommets);
+        this.frontiere = Collections.unmodifiableList(frontiere);
+        this.aretes = Collections.unmodifiableList(aretes);
+        this.sousGraphe = new Graphe(type);
+        for (Sommet sommet : sommets) sousGraphe.ajouterSommet(sommet);
+        double total = 0;
+        for (Arete arete : aretes) {
+            originales.put(copier(sousGraphe, arete), arete);
+            total += arete.getPoids();
+        }
+        this.longueur = total;
+    }
+
+    // Copie de l'arête ajoutée au graphe (ses extrémités y sont ajoutées si besoin)
+    static Arete copier(Graphe graphe, Arete arete) {
+        Arete copie = new Arete(arete.getSommet1(), arete.getSommet2(), arete.getPoids(), arete.getNom(),
+                arete.isBidirectionnelle(), arete.getNbVoies());
+        graphe.ajouterArete(copie);
+        return copie;
+    }
+
+    public int getNumero() { return numero; }
+    public List<Sommet> getSommets() { return sommets; }
+    public List<Sommet> getFrontiere() { return frontiere; }
+    public List<Arete> getAretes() { return aretes; }
+    public Graphe getSousGraphe() { return sousGraphe; }
+
+    // Longueur totale des rues du secteur
+    public double getLongueur() { return longueur; }
+
+    // Rue de la ville correspondant à une arête du sous-graphe (null si ce n'en est pas une)
+    public Arete getAreteOriginale(Arete areteSousGraphe) {
+        return originales.get(areteSousGraphe);
+    }
+
+    @Override
+    public String toString() {
+        return "Secteur " + numero + " (" + sommets.size() + " carrefours, " + aretes.size() + " rues, "
+                + String.format("%.0f", longueur) + " m, " + frontiere.size() + " carrefours en frontière)";
+    }
+}
@@ -0,0 +1,165 @@
+package algorithmes.base;
+
+import algorithmes.base.Dijkstra.ResultatChemin;
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+
+/**
+ * Service de calcul d'itinéraires utilisable par plusieurs threads en même temps.
+ *
+ * Le GrapheFige est partagé en lecture seule. Chaque requête emprunte un
+ * DijkstraFige (ses tableaux de travail) dans une réserve et le rend à la fin :
+ * pas d'allocation par requête, et la remise à zéro entre deux requêtes ne coûte
+ * rien grâce au numéro de calcul de DijkstraFige.
+ *
+ * Le nombre de requêtes simultanées est limité par un sémaphore (par défaut le
+ * nombre de cœurs), donc la réserve ne dépasse jamais cette taille, même si des
+ * milliers de threads virtuels appellent le service. Pas de synchronized ni de
+ * ThreadLocal : un thread virtuel qui attend ne bloque pas son thread porteur.
+ *
+ * Les composantes fortement connexes sont calculées une fois à la création : une
+ * requête vers un sommet inaccessible (sens uniques) est rejetée en O(1), sans
+ * emprunter d'espace de travail ni lancer de recherche.
+ *
+ * Toutes les recherches alimentent les mêmes StatistiquesRecherche (getStatistiques,
+ * à publier par JMX si besoin), y compris les requêtes rejetées.
+ */
+public class ServiceItineraires {
+
+    private final GrapheFige graphe;
+    private final ComposantesFortes composantes;
+    private final Semaphore places;
+    private final Queue<DijkstraFige> reserve = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nbEspacesCrees = new AtomicInteger();
+    private final StatistiquesRecherche statistiques = new StatistiquesRecherche();
+
+    public ServiceItineraires(GrapheFige graphe) {
+        this(graphe, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ServiceItineraires(GrapheFige graphe, int nbRequetesSimultanees) {
+        if (nbRequetesSimultanees <= 0) {
+            throw new IllegalArgumentException("Il faut au moins une requête simultanée");
+        }
+        this.graphe = graphe;
+        this.composantes = new ComposantesFortes(graphe);
+        this.places = new Semaphore(nbRequetesSimultanees);
+    }
+
+    public GrapheFige getGraphe() {
+        return graphe;
+    }
+
+    public ComposantesFortes getComposantesFortes() {
+        return composantes;
+    }
+
+    // Aller jusqu'à l'habitation et revenir au dépôt (O(1), sans recherche)
+    public boolean peutDesservir(Sommet depot, Habitation habitation) {
+        return composantes.peutDesservir(depot, habitation);
+    }
+
+    public StatistiquesRecherche getStatistiques() {
+        return statistiques;
+    }
+
+    // Nombre de DijkstraFige créés depuis le début (au plus nbRequetesSimultanees)
+    public int getNbEspacesCrees() {
+        return nbEspacesCrees.get();
+    }
+
+    public double distance(Sommet depart, Sommet destination) {
+        long debut = System.nanoTime();
+        int s = indice(depart);
+        int t = indice(destination);
+        if (!composantes.peutAtteindre(s, t)) {
+            enregistrerRefus(debut);
+            return Double.POSITIVE_INFINITY;
+        }
+        DijkstraFige dijkstra = emprunter();
+        try {
+            dijkstra.executer(new int[] { s }, new double[] { 0.0 }, new int[] { t });
+            return dijkstra.getDistance(t);
+        } finally {
+            rendre(dijkstra);
+        }
+    }
+
+    public ResultatChemin calculer(Sommet depart, Sommet destination) {
+        long debut = System.nanoTime();
+        int s = indice(depart);
+        int t = indice(destination);
+        if (!composantes.peutAtteindre(s, t)) {
+            enregistrerRefus(debut);
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+        DijkstraFige dijkstra = emprunter();
+        try {
+            dijkstra.executer(new int[] { s }, new double[] { 0.0 }, new int[] { t });
+            if (!dijkstra.estAccessible(t)) {
+                return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+            }
+            return new ResultatChemin(dijkstra.getChemin(destination), dijkstra.getDistance(t), destination);
+        } finally {
+            rendre(dijkstra);
+        }
+    }
+
+    // Même sémantique que Dijkstra.getCheminVersHabitation
+    public ResultatChemin getCheminVersHabitation(Sommet depart, Habitation destination) {
+        long debut = System.nanoTime();
+        int s = indice(depart);
+        Arete arete = destination.getArete();
+        int[] cibles = { indice(arete.getSommet1()), indice(arete.getSommet2()) };
+        if (!composantes.peutAtteindre(s, cibles[0]) && !composantes.peutAtteindre(s, cibles[1])) {
+            enregistrerRefus(debut);
+            return new ResultatChemin(new ArrayList<>(), Double.POSITIVE_INFINITY, null);
+        }
+        DijkstraFige dijkstra = emprunter();
+        try {
+            dijkstra.executer(new int[] { s }, new double[] { 0.0 }, cibles);
+            return dijkstra.getCheminVersHabitation(destination);
+        } finally {
+            rendre(dijkstra);
+        }
+    }
+
+    // Requête écartée par l'index d'accessibilité : comptée comme une recherche qui n'a rien
+    // parcouru, pour que nombre de requêtes et latences restent justes
+    private void enregistrerRefus(long debut) {
+        statistiques.enregistrer(0, 0, 0, 0, 0, 0, System.nanoTime() - debut);
+    }
+
+    private int indice(Sommet sommet) {
+        int indice = graphe.getIndice(sommet);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + sommet);
+        }
+        return indice;
+    }
+
+    private DijkstraFige emprunter() {
+        try {
+            places.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Requête interrompue", e);
+        }
+        DijkstraFige dijkstra = reserve.poll();
+        if (dijkstra == null) {
+            nbEspacesCrees.incrementAndGet();
+            dijkstra = new DijkstraFige(graphe);
+            dijkstra.setStatistiques(statistiques);
+        }
+        return dijkstra;
+    }
+
+    private void rendre(DijkstraFige dijkstra) {
+        reserve.offer(dijkstra);
+        places.release();
+    }
+}
@@ -1,7 +1,5 @@
 package modele.graphe;
 
-import java.util.Objects;
-
 public class Sommet {
 
     // L'identifiant unique du sommet (ex: "A", "B", "G"...)
@@ -12,6 +10,11 @@ public class Sommet {
     // On peut le changer, donc pas "final"
     private String nom;
 
+    // Coordonnées de l'intersection (en mètres, repère local), NaN si inconnues
+    // Elles servent seulement à guider la recherche (A*), jamais à calculer des distances
+    private double x = Double.NaN;
+    private double y = Double.NaN;
+
 
     public Sommet(String id, String nom) {
         this.id = id;
@@ -19,6 +22,13 @@ public class Sommet {
     }
 
 
+    public Sommet(String id, String nom, double x, double y) {
+        this(id, nom);
+        this.x = x;
+        this.y = y;
+    }
+
+
     public Sommet(String id) {
         this(id, id);  // Appelle le constructeur du dessus avec nom=id
     }
@@ -33,11 +43,33 @@ public class Sommet {
         return nom;
     }
 
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public boolean aDesCoordonnees() {
+        return !Double.isNaN(x) && !Double.isNaN(y);
+    }
+
+    // Distance à vol d'oiseau (NaN si un des deux sommets n'a pas de coordonnées)
+    public double distanceEuclidienne(Sommet autre) {
+        return Math.hypot(x - autre.x, y - autre.y);
+    }
+
     // SETTERS (pour modifier les valeurs)
 
     public void setNom(String nom) {
         this.nom = nom;
     }
+
+    public void setCoordonnees(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
     // Pas de setId() car l'ID ne change JAMAIS !
 
 
@@ -54,9 +86,10 @@ public class Sommet {
     }
 
 
+    // Le hachage de String est gardé en cache (Objects.hash créerait un tableau à chaque appel)
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return id.hashCode();
     }
 
 
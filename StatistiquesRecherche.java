@@ -0,0 +1,167 @@
+package algorithmes.base;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+
+/**
+ * Compteurs des recherches de plus courts chemins, partagés par tous les threads
+ * (ex : toutes les requêtes d'un ServiceItineraires).
+ *
+ * Pendant une recherche, Dijkstra / DijkstraFige comptent dans leurs propres champs
+ * (de simples int) ; ils ne passent par ici qu'une fois à la fin, pour ajouter leurs
+ * totaux (LongAdder : pas de contention entre threads) et la durée de la recherche
+ * dans l'histogramme. Le surcoût est donc de quelques additions par requête, et on
+ * peut laisser les statistiques branchées en production.
+ *
+ * Ce qui est compté :
+ *  - sommets fixés (sortis de la file avec leur distance définitive) ;
+ *  - arcs relâchés (examinés depuis un sommet fixé), dont ceux ignorés parce qu'ils
+ *    mènent à un sommet déjà fixé (la file indexée ne contient jamais d'entrée
+ *    périmée : c'est là que se retrouve ce travail inutile) ;
+ *  - opérations sur la file : insertions et diminutions de clé, et la plus grande
+ *    taille atteinte par la file sur une recherche.
+ *
+ * Lecture : getInstantane(), ou par JMX après enregistrerJmx(nom).
+ */
+public final class StatistiquesRecherche implements StatistiquesRechercheMXBean {
+
+    private final LongAdder nbRecherches = new LongAdder();
+    private final LongAdder nbSommetsFixes = new LongAdder();
+    private final LongAdder nbArcsRelaches = new LongAdder();
+    private final LongAdder nbArcsIgnores = new LongAdder();
+    private final LongAdder nbInsertions = new LongAdder();
+    private final LongAdder nbDiminutions = new LongAdder();
+    private final LongAccumulator picFile = new LongAccumulator(Math::max, 0);
+    private final HistogrammeLatences latences = new HistogrammeLatences();
+
+    private ObjectName nomJmx;
+
+    // Appelé une fois à la fin de chaque recherche
+    void enregistrer(int sommetsFixes, int arcsRelaches, int arcsIgnores, int insertions, int diminutions,
+                     int tailleMaxFile, long dureeNanos) {
+        nbRecherches.increment();
+        nbSommetsFixes.add(sommetsFixes);
+        nbArcsRelaches.add(arcsRelaches);
+        nbArcsIgnores.add(arcsIgnores);
+        nbInsertions.add(insertions);
+        nbDiminutions.add(diminutions);
+        picFile.accumulate(tailleMaxFile);
+        latences.enregistrer(dureeNanos);
+    }
+
+    @Override public long getNbRecherches() { return nbRecherches.sum(); }
+    @Override public long getNbSommetsFixes() { return nbSommetsFixes.sum(); }
+    @Override public long getNbArcsRelaches() { return nbArcsRelaches.sum(); }
+    @Override public long getNbArcsIgnores() { return nbArcsIgnores.sum(); }
+    @Override public long getNbInsertions() { return nbInsertions.sum(); }
+    @Override public long getNbDiminutions() { return nbDiminutions.sum(); }
+    @Override public long getPicFile() { return picFile.get(); }
+
+    @Override public double getLatenceMoyenneMicros() { return latences.getInstantane().getMoyenne() / 1e3; }
+    @Override public double getLatenceP50Micros() { return latences.getInstantane().getCentile(50) / 1e3; }
+    @Override public double getLatenceP90Micros() { return latences.getInstantane().getCentile(90) / 1e3; }
+    @Override public double getLatenceP99Micros() { return latences.getInstantane().getCentile(99) / 1e3; }
+    @Override public double getLatenceP999Micros() { return latences.getInstantane().getCentile(99.9) / 1e3; }
+    @Override public double getLatenceMaxMicros() { return latences.getInstantane().getMax() / 1e3; }
+
+    @Override
+    public void reinitialiser() {
+        nbRecherches.reset();
+        nbSommetsFixes.reset();
+        nbArcsRelaches.reset();
+        nbArcsIgnores.reset();
+        nbInsertions.reset();
+        nbDiminutions.reset();
+        picFile.reset();
+        latences.reinitialiser();
+    }
+
+    public Instantane getInstantane() {
+        return new Instantane(getNbRecherches(), getNbSommetsFixes(), getNbArcsRelaches(), getNbArcsIgnores(),
+                getNbInsertions(), getNbDiminutions(), getPicFile(), latences.getInstantane());
+    }
+
+
+    // JMX
+
+    // Publie les compteurs sous "algorithmes.base:type=StatistiquesRecherche,name=<nom>"
+    public synchronized void enregistrerJmx(String nom) {
+        if (nomJmx != null) {
+            throw new IllegalStateException("Statistiques déjà publiées sous " + nomJmx);
+        }
+        try {
+            ObjectName objet = new ObjectName("algorithmes.base:type=StatistiquesRecherche,name="
+                    + ObjectName.quote(nom));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objet);
+            nomJmx = objet;
+        } catch (JMException e) {
+            throw new IllegalStateException("Publication JMX impossible : " + nom, e);
+        }
+    }
+
+    public synchronized void retirerJmx() {
+        if (nomJmx == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(nomJmx);
+        } catch (JMException e) {
+            throw new IllegalStateException("Retrait JMX impossible : " + nomJmx, e);
+        } finally {
+            nomJmx = null;
+        }
+    }
+
+
+    // Copie des compteurs à un instant donné
+    public static final class Instantane {
+        private final long nbRecherches;
+        private final long nbSommetsFixes;
+        private final long nbArcsRelaches;
+        private final long nbArcsIgnores;
+        private final long nbInsertions;
+        private final long nbDiminutions;
+        private final long picFile;
+        private final HistogrammeLatences.Instantane latences;
+
+        private Instantane(long nbRecherches, long nbSommetsFixes, long nbArcsRelaches, long nbArcsIgnores,
+                           long nbInsertions, long nbDiminutions, long picFile,
+                           HistogrammeLatences.Instantane latences) {
+            this.nbRecherches = nbRecherches;
+            this.nbSommetsFixes = nbSommetsFixes;
+            this.nbArcsRelaches = nbArcsRelaches;
+            this.nbArcsIgnores = nbArcsIgnores;
+            this.nbInsertions = nbInsertions;
+            this.nbDiminutions = nbDiminutions;
+            this.picFile = picFile;
+            this.latences = latences;
+        }
+
+        public long getNbRecherches() { return nbRecherches; }
+        public long getNbSommetsFixes() { return nbSommetsFixes; }
+        public long getNbArcsRelaches() { return nbArcsRelaches; }
+        public long getNbArcsIgnores() { return nbArcsIgnores; }
+        public long getNbInsertions() { return nbInsertions; }
+        public long getNbDiminutions() { return nbDiminutions; }
+        public long getPicFile() { return picFile; }
+        public HistogrammeLatences.Instantane getLatences() { return latences; }
+
+        // Moyennes par recherche
+        public double getSommetsFixesParRecherche() { return parRecherche(nbSommetsFixes); }
+        public double getArcsRelachesParRecherche() { return parRecherche(nbArcsRelaches); }
+
+        private double parRecherche(long total) {
+            return (nbRecherches == 0) ? 0.0 : total / (double) nbRecherches;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d recherches : %.1f sommets fixés et %.1f arcs relâchés par recherche, %d arcs ignorés, "
+                            + "%d insertions, %d diminutions, file au plus à %d%nLatences : %s",
+                    nbRecherches, getSommetsFixesParRecherche(), getArcsRelachesParRecherche(), nbArcsIgnores,
+                    nbInsertions, nbDiminutions, picFile, latences);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package algorithmes.base;
+
+
+/**
+ * Vue JMX de StatistiquesRecherche (jconsole, VisualVM...) : cumuls depuis la
+ * dernière remise à zéro, latences des recherches en microsecondes.
+ */
+public interface StatistiquesRechercheMXBean {
+
+    long getNbRecherches();
+    long getNbSommetsFixes();
+    long getNbArcsRelaches();
+    long getNbArcsIgnores();
+    long getNbInsertions();
+    long getNbDiminutions();
+    long getPicFile();
+
+    double getLatenceMoyenneMicros();
+    double getLatenceP50Micros();
+    double getLatenceP90Micros();
+    double getLatenceP99Micros();
+    double getLatenceP999Micros();
+    double getLatenceMaxMicros();
+
+    void reinitialiser();
+}
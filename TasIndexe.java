@@ -0,0 +1,168 @@
+package algorithmes.base;
+
+import java.util.Arrays;
+
+
+/**
+ * Tas d-aire (d = 4) indexé par des numéros de sommets, avec clés double.
+ *
+ * Chaque sommet est au plus une fois dans le tas : au lieu de rajouter un doublon
+ * quand on trouve un chemin plus court, on diminue sa clé. La taille reste donc
+ * bornée par le nombre de sommets et rien n'est alloué pendant une recherche.
+ * Le tas se réutilise d'une recherche à l'autre (vider() coûte O(taille)).
+ */
+public final class TasIndexe {
+
+    private static final int ARITE = 4;
+
+    private int[] tas;          // tas[i] = sommet rangé à la case i
+    private double[] cles;      // cles[i] = clé du sommet rangé à la case i
+    private int[] position;     // position[sommet] = case dans le tas, -1 si absent
+    private int taille;
+
+    public TasIndexe(int nbSommets) {
+        this.tas = new int[Math.max(1, nbSommets)];
+        this.cles = new double[tas.length];
+        this.position = new int[tas.length];
+        Arrays.fill(position, -1);
+    }
+
+    // Agrandit le tas si le graphe a grossi depuis sa création
+    public void assurerCapacite(int nbSommets) {
+        if (nbSommets <= position.length) return;
+        int ancienne = position.length;
+        tas = Arrays.copyOf(tas, nbSommets);
+        cles = Arrays.copyOf(cles, nbSommets);
+        position = Arrays.copyOf(position, nbSommets);
+        Arrays.fill(position, ancienne, nbSommets, -1);
+    }
+
+    public int getCapacite() { return position.length; }
+    public int taille() { return taille; }
+    public boolean estVide() { return taille == 0; }
+
+    public boolean contient(int sommet) {
+        return position[sommet] >= 0;
+    }
+
+    public double getCle(int sommet) {
+        return cles[position[sommet]];
+    }
+
+    public int min() {
+        return tas[0];
+    }
+
+    public double cleMin() {
+        return cles[0];
+    }
+
+    public void inserer(int sommet, double cle) {
+        if (position[sommet] >= 0) {
+            throw new IllegalStateException("Sommet déjà dans le tas : " + sommet);
+        }
+        int i = taille++;
+        tas[i] = sommet;
+        cles[i] = cle;
+        position[sommet] = i;
+        monter(i);
+    }
+
+    public void diminuerCle(int sommet, double cle) {
+        int i = position[sommet];
+        if (i < 0 || cle > cles[i]) {
+            throw new IllegalStateException("Clé invalide pour le sommet " + sommet);
+        }
+        cles[i] = cle;
+        monter(i);
+    }
+
+    // Insère le sommet, ou diminue sa clé s'il y est déjà ; renvoie false si la clé n'a pas baissé
+    public boolean insererOuDiminuer(int sommet, double cle) {
+        int i = position[sommet];
+        if (i < 0) {
+            inserer(sommet, cle);
+            return true;
+        }
+        if (cle < cles[i]) {
+            cles[i] = cle;
+            monter(i);
+            return true;
+        }
+        return false;
+    }
+
+    public int extraireMin() {
+        int sommet = tas[0];
+        position[sommet] = -1;
+        taille--;
+        if (taille > 0) {
+            tas[0] = tas[taille];
+            cles[0] = cles[taille];
+            position[tas[0]] = 0;
+            descendre(0);
+        }
+        return sommet;
+    }
+
+    // Retire un sommet quelconque (utile quand une recherche abandonne un sommet)
+    public void supprimer(int sommet) {
+        int i = position[sommet];
+        if (i < 0) return;
+        position[sommet] = -1;
+        taille--;
+        if (i < taille) {
+            tas[i] = tas[taille];
+            cles[i] = cles[taille];
+            position[tas[i]] = i;
+            int deplace = tas[i];
+            monter(i);
+            descendre(position[deplace]);
+        }
+    }
+
+    public void vider() {
+        for (int i = 0; i < taille; i++) {
+            position[tas[i]] = -1;
+        }
+        taille = 0;
+    }
+
+    private void monter(int i) {
+        int sommet = tas[i];
+        double cle = cles[i];
+        while (i > 0) {
+            int parent = (i - 1) / ARITE;
+            if (cles[parent] <= cle) break;
+            tas[i] = tas[parent];
+            cles[i] = cles[parent];
+            position[tas[i]] = i;
+            i = parent;
+        }
+        tas[i] = sommet;
+        cles[i] = cle;
+        position[sommet] = i;
+    }
+
+    private void descendre(int i) {
+        int sommet = tas[i];
+        double cle = cles[i];
+        while (true) {
+            int premier = i * ARITE + 1;
+            if (premier >= taille) break;
+            int dernier = Math.min(premier + ARITE, taille);
+            int meilleur = premier;
+            for (int f = premier + 1; f < dernier; f++) {
+                if (cles[f] < cles[meilleur]) meilleur = f;
+            }
+            if (cles[meilleur] >= cle) break;
+            tas[i] = tas[meilleur];
+            cles[i] = cles[meilleur];
+            position[tas[i]] = i;
+            i = meilleur;
+        }
+        tas[i] = sommet;
+        cles[i] = cle;
+        position[sommet] = i;
+    }
+}
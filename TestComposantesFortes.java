@@ -0,0 +1,69 @@
+import algorithmes.base.*;
+import modele.graphe.*;
+
+/**
+ * Tests des recherches rejetées par ComposantesFortes.
+ * Lancer : java TestComposantesFortes (s'arrête à la première erreur).
+ */
+public class TestComposantesFortes {
+
+    public static void main(String[] args) {
+        testRejetCompteParDijkstra();
+        testRejetCompteParService();
+        System.out.println("✅ TestComposantesFortes : tous les tests passent");
+    }
+
+    // A -> B en sens unique : B ne peut pas atteindre A
+    private static Graphe sensUnique() {
+        Graphe graphe = new Graphe(Graphe.TypeHypothese.HO3);
+        Sommet a = new Sommet("A");
+        Sommet b = new Sommet("B");
+        graphe.ajouterSommet(a);
+        graphe.ajouterSommet(b);
+        graphe.ajouterArete(new Arete(a, b, 100, "rue", false, 1));
+        return graphe;
+    }
+
+    // Une recherche écartée par l'index reste une recherche pour les statistiques
+    static void testRejetCompteParDijkstra() {
+        Graphe graphe = sensUnique();
+        Sommet a = graphe.getSommet(0);
+        Sommet b = graphe.getSommet(1);
+        Dijkstra dijkstra = new Dijkstra(graphe);
+        dijkstra.setComposantesFortes(new ComposantesFortes(graphe));
+        StatistiquesRecherche statistiques = new StatistiquesRecherche();
+        dijkstra.setStatistiques(statistiques);
+
+        dijkstra.executer(b, a);
+        verifier(!dijkstra.estAccessible(a), "A ne doit pas être accessible depuis B");
+        verifier(statistiques.getNbRecherches() == 1, "la recherche rejetée doit être comptée");
+        verifier(statistiques.getNbArcsRelaches() == 0, "une recherche rejetée ne relâche aucun arc");
+        verifier(statistiques.getInstantane().getLatences().getNbValeurs() == 1,
+                "la latence de la recherche rejetée doit être enregistrée");
+
+        dijkstra.executer(a, b);
+        verifier(statistiques.getNbRecherches() == 2, "deux recherches au total");
+    }
+
+    static void testRejetCompteParService() {
+        Graphe graphe = sensUnique();
+        GrapheFige fige = graphe.figer();
+        Sommet a = graphe.getSommet(0);
+        Sommet b = graphe.getSommet(1);
+        ServiceItineraires service = new ServiceItineraires(fige, 1);
+
+        verifier(service.distance(b, a) == Double.POSITIVE_INFINITY, "distance B -> A infinie");
+        verifier(service.calculer(b, a).chemin.isEmpty(), "pas de chemin B -> A");
+        verifier(service.getNbEspacesCrees() == 0, "les requêtes rejetées n'empruntent pas d'espace de travail");
+        verifier(service.getStatistiques().getNbRecherches() == 2, "les deux requêtes rejetées doivent être comptées");
+
+        verifier(service.distance(a, b) == 100, "distance A -> B");
+        verifier(service.getStatistiques().getNbRecherches() == 3, "trois requêtes au total");
+    }
+
+    static void verifier(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Échec : " + message);
+        }
+    }
+}
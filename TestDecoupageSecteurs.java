@@ -0,0 +1,45 @@
+import algorithmes.tournees.*;
+import modele.graphe.*;
+import utils.*;
+import java.util.*;
+
+/**
+ * Tests de DecoupageSecteurs.
+ * Lancer : java TestDecoupageSecteurs (s'arrête à la première erreur).
+ */
+public class TestDecoupageSecteurs {
+
+    public static void main(String[] args) {
+        testToleranceRespectee();
+        System.out.println("✅ TestDecoupageSecteurs : tous les tests passent");
+    }
+
+    // Aucun secteur ne dépasse la moyenne de plus de la tolérance (5 % par défaut), y compris
+    // après le rattachement des morceaux détachés ; mesuré sur la longueur que rend le
+    // secteur, où une rue coupée compte en entier pour le secteur de son sommet1
+    static void testToleranceRespectee() {
+        GenerateurVilles.Modele[] modeles = { GenerateurVilles.Modele.GEOMETRIQUE, GenerateurVilles.Modele.SANS_ECHELLE };
+        for (GenerateurVilles.Modele modele : modeles) {
+            for (int nbSecteurs : new int[] { 4, 16 }) {
+                for (long graine = 1; graine <= 3; graine++) {
+                    Graphe graphe = GenerateurVilles.generer(modele, Graphe.TypeHypothese.HO1, 20000, graine);
+                    List<Secteur> secteurs = new DecoupageSecteurs(graphe, nbSecteurs).decouper();
+
+                    double total = 0;
+                    for (Arete arete : graphe.getAretes()) total += arete.getPoids();
+                    for (Secteur secteur : secteurs) {
+                        verifier(secteur.getLongueur() <= 1.05 * total / nbSecteurs + 1e-6, modele + ", " + nbSecteurs
+                                + " secteurs, graine " + graine + " : " + secteur + " à "
+                                + secteur.getLongueur() / (total / nbSecteurs) + " fois la moyenne");
+                    }
+                }
+            }
+        }
+    }
+
+    static void verifier(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Échec : " + message);
+        }
+    }
+}
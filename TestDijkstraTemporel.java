@@ -0,0 +1,50 @@
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import algorithmes.base.*;
+
+/**
+ * Tests de ProfilsTemps et DijkstraTemporel.
+ * Lancer : java TestDijkstraTemporel (s'arrête à la première erreur).
+ */
+public class TestDijkstraTemporel {
+
+    public static void main(String[] args) {
+        testHabitationSurRueParallele();
+        System.out.println("✅ TestDijkstraTemporel : tous les tests passent");
+    }
+
+    // Le profil et la longueur utilisés pour la maison sont ceux de sa rue, pas ceux de
+    // l'autre rue qui relie les mêmes carrefours
+    static void testHabitationSurRueParallele() {
+        Graphe graphe = new Graphe(Graphe.TypeHypothese.HO3);
+        Sommet a = new Sommet("A");
+        Sommet b = new Sommet("B");
+        graphe.ajouterSommet(a);
+        graphe.ajouterSommet(b);
+        Arete haute = new Arete(a, b, 100, "rue Haute", true, 1);
+        Arete basse = new Arete(a, b, 300, "rue Basse", true, 1);
+        graphe.ajouterArete(haute);
+        graphe.ajouterArete(basse);
+        GrapheFige fige = graphe.figer();
+
+        ProfilsTemps profils = new ProfilsTemps(fige, 1.0);
+        int double_ = profils.ajouterProfil(new double[] { 0 }, new double[] { 2 });
+        profils.affecter(basse, double_);
+        verifier(profils.getProfil(fige.chercherArete(basse)) == double_, "profil absent de la rue Basse");
+        verifier(profils.getProfil(fige.chercherArete(haute)) == ProfilsTemps.SANS_PROFIL,
+                "le profil de la rue Basse a été mis sur la rue Haute");
+
+        // Maison à 100 du carrefour A sur la rue Basse (300, facteur 2) : 100 * 2 = 200 s depuis A
+        Habitation maison = new Habitation("Maison", basse, a, 100);
+        DijkstraTemporel dijkstra = new DijkstraTemporel(profils);
+        double depart = ProfilsTemps.instant(7, 30);
+        double arrivee = dijkstra.heureArrivee(a, depart, maison);
+        verifier(Math.abs(arrivee - (depart + 200)) < 1e-9, "arrivée attendue " + (depart + 200) + ", obtenue " + arrivee);
+    }
+
+    static void verifier(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Échec : " + message);
+        }
+    }
+}
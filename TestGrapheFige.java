@@ -0,0 +1,97 @@
+import modele.graphe.*;
+
+/**
+ * Tests de GrapheFige (construction, colonnes des arêtes).
+ * Lancer : java TestGrapheFige (s'arrête à la première erreur).
+ */
+public class TestGrapheFige {
+
+    public static void main(String[] args) {
+        testNombreDeVoiesDepuisTableaux();
+        testChercherAreteRuesParalleles();
+        testPoidsHorsTasFiges();
+        System.out.println("✅ TestGrapheFige : tous les tests passent");
+    }
+
+    // depuisTableaux refuse, comme figer(), un nombre de voies qui ne tient pas sur 7 bits
+    static void testNombreDeVoiesDepuisTableaux() {
+        Sommet a = new Sommet("A");
+        Sommet b = new Sommet("B");
+        Sommet[] sommets = { a, b };
+        int[] ext1 = { 0 }, ext2 = { 1 }, debut = { 0, 1, 1 }, cible = { 1 }, numeroArete = { 0 };
+
+        GrapheFige graphe = GrapheFige.depuisTableaux(Graphe.TypeHypothese.HO3, sommets,
+                new Arete[] { new Arete(a, b, 10, "rue", false, 127) }, ext1, ext2, debut, cible, numeroArete);
+        verifier(graphe.getNbVoies(0) == 127, "127 voies doivent être conservées");
+
+        try {
+            GrapheFige.depuisTableaux(Graphe.TypeHypothese.HO3, sommets,
+                    new Arete[] { new Arete(a, b, 10, "rue", false, 200) }, ext1, ext2, debut, cible, numeroArete);
+            verifier(false, "200 voies auraient dû être refusées");
+        } catch (IllegalArgumentException e) {
+            // attendu
+        }
+    }
+
+    // Deux rues entre les mêmes carrefours : chacune doit retrouver son propre numéro
+    static void testChercherAreteRuesParalleles() {
+        Graphe graphe = new Graphe(Graphe.TypeHypothese.HO3);
+        Sommet a = new Sommet("A");
+        Sommet b = new Sommet("B");
+        graphe.ajouterSommet(a);
+        graphe.ajouterSommet(b);
+        Arete haute = new Arete(a, b, 100, "rue Haute", true, 1);
+        Arete basse = new Arete(a, b, 300, "rue Basse", true, 1);
+        graphe.ajouterArete(haute);
+        graphe.ajouterArete(basse);
+
+        GrapheFige fige = graphe.figer();
+        int eHaute = fige.chercherArete(haute);
+        int eBasse = fige.chercherArete(basse);
+        verifier(eHaute >= 0 && eBasse >= 0 && eHaute != eBasse, "les deux rues doivent avoir des numéros distincts");
+        verifier(fige.getArete(eHaute) == haute && fige.getArete(eBasse) == basse, "numéros inversés");
+        verifier(fige.chercherArete(new Arete(a, b, 100, "rue Haute", true, 1)) < 0,
+                "une autre Arete (même si identique) n'est pas dans le graphe");
+
+        // Hors tas, les Arete rendues sont des copies : on les reconnaît à leurs attributs
+        AretesHorsTas colonnes = new AretesHorsTas();
+        colonnes.ajouter(0, 1, 100, "rue Haute", true, 1);
+        colonnes.ajouter(0, 1, 300, "rue Basse", true, 1);
+        GrapheFige horsTas = GrapheFige.depuisAretesHorsTas(Graphe.TypeHypothese.HO3, new Sommet[] { a, b }, colonnes);
+        verifier(horsTas.chercherArete(horsTas.getArete(1)) == 1, "hors tas : rue Basse mal retrouvée");
+        verifier(horsTas.chercherArete(horsTas.getArete(0)) == 0, "hors tas : rue Haute mal retrouvée");
+        verifier(horsTas.chercherArete(new Arete(a, b, 200, "rue Basse", true, 1)) < 0,
+                "hors tas : une rue de poids différent n'est pas dans le graphe");
+    }
+
+    // Les arcs recopient les poids des arêtes hors tas : une fois le graphe construit, les
+    // arêtes ne changent plus et poids d'arc et poids d'arête restent égaux
+    static void testPoidsHorsTasFiges() {
+        Sommet[] sommets = { new Sommet("A"), new Sommet("B"), new Sommet("C") };
+        AretesHorsTas colonnes = new AretesHorsTas();
+        colonnes.ajouter(0, 1, 100, "rue 1", true, 1);
+        colonnes.ajouter(1, 2, 250, "rue 2", false, 1);
+        colonnes.ajouter(2, 0, 40, "rue 3", true, 2);
+        GrapheFige graphe = GrapheFige.depuisAretesHorsTas(Graphe.TypeHypothese.HO3, sommets, colonnes);
+
+        verifier(colonnes.estFige(), "les arêtes doivent être figées par le graphe");
+        try {
+            colonnes.ajouter(0, 2, 10, "rue 4", true, 1);
+            verifier(false, "un ajout après construction du graphe aurait dû être refusé");
+        } catch (IllegalStateException e) {
+            // attendu
+        }
+        verifier(graphe.getNbAretes() == 3, "le graphe doit garder ses 3 arêtes");
+        for (int a = 0; a < graphe.getNbArcs(); a++) {
+            int e = graphe.getNumeroArete(a);
+            verifier(graphe.getPoids(a) == graphe.getPoidsArete(e) && graphe.getPoids(a) == colonnes.getPoids(e),
+                    "poids de l'arc " + a + " différent de celui de son arête");
+        }
+    }
+
+    static void verifier(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Échec : " + message);
+        }
+    }
+}
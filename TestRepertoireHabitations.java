@@ -0,0 +1,106 @@
+import modele.graphe.*;
+import modele.graphe.modele.entites.*;
+import utils.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests de RepertoireHabitations.
+ * Lancer : java TestRepertoireHabitations (s'arrête à la première erreur).
+ */
+public class TestRepertoireHabitations {
+
+    public static void main(String[] args) throws IOException {
+        testGrapheHorsTas();
+        testNumeroAreteInvalide();
+        System.out.println("✅ TestRepertoireHabitations : tous les tests passent");
+    }
+
+    // Sur un graphe chargé hors tas, getArete rend une copie à chaque appel : les requêtes
+    // par Arete doivent quand même retrouver la rue (y compris entre deux rues parallèles)
+    static void testGrapheHorsTas() throws IOException {
+        Graphe graphe = new Graphe(Graphe.TypeHypothese.HO3);
+        Sommet a = new Sommet("A");
+        Sommet b = new Sommet("B");
+        Sommet c = new Sommet("C");
+        graphe.ajouterSommet(a);
+        graphe.ajouterSommet(b);
+        graphe.ajouterSommet(c);
+        graphe.ajouterArete(new Arete(a, b, 100, "rue Haute", true, 1));
+        graphe.ajouterArete(new Arete(a, b, 300, "rue Basse", true, 1));
+        graphe.ajouterArete(new Arete(b, c, 200, "avenue", false, 2));
+
+        File fichier = File.createTempFile("repertoire", ".graphe");
+        fichier.deleteOnExit();
+        GrapheBinaire.ecrire(graphe.figer(), fichier.getPath());
+        GrapheFige horsTas = GrapheBinaire.chargerHorsTas(fichier.getPath());
+        verifier(horsTas.getAretesHorsTas() != null, "le graphe devrait être hors tas");
+
+        RepertoireHabitations repertoire = new RepertoireHabitations(horsTas);
+        int basse = numeroParNom(horsTas, "rue Basse");
+        Arete rueBasse = horsTas.getArete(basse);
+        repertoire.ajouter(new Habitation("H2", rueBasse, rueBasse.getSommet1(), 250));
+        repertoire.ajouter(new Habitation("H1", rueBasse, rueBasse.getSommet1(), 50));
+        int haute = numeroParNom(horsTas, "rue Haute");
+        Arete rueHaute = horsTas.getArete(haute);
+        repertoire.ajouter(new Habitation("H3", rueHaute, rueHaute.getSommet1(), 10));
+
+        verifier(repertoire.getNumeroArete(horsTas.getArete(basse)) == basse, "rue Basse mal retrouvée");
+        verifier(repertoire.getNumeroArete(horsTas.getArete(haute)) == haute, "rue Haute mal retrouvée");
+
+        List<Habitation> surBasse = repertoire.getHabitations(horsTas.getArete(basse));
+        verifier(surBasse.size() == 2 && surBasse.get(0).getNom().equals("H1") && surBasse.get(1).getNom().equals("H2"),
+                "habitations de la rue Basse : " + surBasse);
+        List<Habitation> entre = repertoire.getHabitationsEntre(horsTas.getArete(basse), 100, 300);
+        verifier(entre.size() == 1 && entre.get(0).getNom().equals("H2"), "habitations entre 100 et 300 : " + entre);
+        verifier(repertoire.getHabitations(horsTas.getArete(haute)).size() == 1, "une habitation sur la rue Haute");
+
+        // Une habitation rendue par le répertoire peut y être ajoutée à nouveau
+        int h = repertoire.ajouter(repertoire.getHabitation(0));
+        verifier(repertoire.getNumeroArete(h) == basse, "habitation relue sur la mauvaise rue");
+    }
+
+    // Un mauvais numéro de rue est refusé par IllegalArgumentException, comme dans ajouter
+    static void testNumeroAreteInvalide() {
+        Graphe graphe = new Graphe(Graphe.TypeHypothese.HO3);
+        Sommet a = new Sommet("A");
+        Sommet b = new Sommet("B");
+        graphe.ajouterSommet(a);
+        graphe.ajouterSommet(b);
+        graphe.ajouterArete(new Arete(a, b, 100, "rue", true, 1));
+        RepertoireHabitations repertoire = new RepertoireHabitations(graphe.figer());
+        repertoire.ajouter("H1", 0, 40);
+
+        for (int e : new int[] { -1, 1 }) {
+            verifierRefus(() -> repertoire.getNbHabitations(e), "getNbHabitations(" + e + ")");
+            verifierRefus(() -> repertoire.getHabitationsSurArete(e), "getHabitationsSurArete(" + e + ")");
+            verifierRefus(() -> repertoire.getHabitationsEntre(e, 0, 100), "getHabitationsEntre(" + e + ")");
+            verifierRefus(() -> repertoire.getPlusProches(e, 50, 1), "getPlusProches(" + e + ")");
+        }
+        verifierRefus(() -> repertoire.getPlusProches(0, 50, -1), "getPlusProches avec k < 0");
+        verifier(repertoire.getPlusProches(0, 50, 0).length == 0, "k = 0 : aucune habitation");
+        verifier(repertoire.getPlusProches(0, 50, 5).length == 1, "k plus grand que la rue : toute la rue");
+    }
+
+    private static void verifierRefus(Runnable appel, String description) {
+        try {
+            appel.run();
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new IllegalStateException("Échec : " + description + " aurait dû être refusé");
+    }
+
+    private static int numeroParNom(GrapheFige graphe, String nom) {
+        for (int e = 0; e < graphe.getNbAretes(); e++) {
+            if (graphe.getArete(e).getNom().equals(nom)) return e;
+        }
+        throw new IllegalStateException("Rue introuvable : " + nom);
+    }
+
+    static void verifier(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Échec : " + message);
+        }
+    }
+}
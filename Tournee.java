@@ -0,0 +1,71 @@
+package algorithmes.tournees;
+
+import modele.graphe.*;
+import java.util.*;
+
+
+/**
+ * Tournée d'un camion : suite de rues parcourues depuis le dépôt jusqu'au retour.
+ *
+ * Une même rue peut être parcourue plusieurs fois ; pour chaque passage on sait
+ * si le camion ramasse (passage "collecte") ou s'il ne fait que passer (haut-le-pied).
+ */
+public class Tournee {
+
+    private final List<Sommet> sommets;     // sommets.size() == aretes.size() + 1
+    private final List<Arete> aretes;
+    private final boolean[] collecte;
+
+    public Tournee(List<Sommet> sommets, List<Arete> aretes, boolean[] collecte) {
+        if (sommets.size() != aretes.size() + 1 || collecte.length != aretes.size()) {
+            throw new IllegalArgumentException("Tournée incohérente : " + sommets.size() + " sommets pour "
+                    + aretes.size() + " rues");
+        }
+        this.sommets = Collections.unmodifiableList(new ArrayList<>(sommets));
+        this.aretes = Collections.unmodifiableList(new ArrayList<>(aretes));
+        this.collecte = collecte.clone();
+    }
+
+    public Sommet getDepart() { return sommets.get(0); }
+    public List<Sommet> getSommets() { return sommets; }
+    public List<Arete> getAretes() { return aretes; }
+    public int getNbPassages() { return aretes.size(); }
+
+    // Le camion ramasse-t-il lors du i-ème passage ?
+    public boolean estCollecte(int passage) {
+        return collecte[passage];
+    }
+
+    public double getLongueur() {
+        double longueur = 0.0;
+        for (Arete arete : aretes) longueur += arete.getPoids();
+        return longueur;
+    }
+
+    public double getLongueurCollecte() {
+        double longueur = 0.0;
+        for (int i = 0; i < aretes.size(); i++) {
+            if (collecte[i]) longueur += aretes.get(i).getPoids();
+        }
+        return longueur;
+    }
+
+    // Distance parcourue sans ramasser
+    public double getLongueurHautLePied() {
+        return getLongueur() - getLongueurCollecte();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tournée depuis ").append(getDepart().getId()).append(" : ")
+                .append(aretes.size()).append(" passages, ")
+                .append(String.format("%.2f", getLongueur())).append(" m (dont ")
+                .append(String.format("%.2f", getLongueurHautLePied())).append(" m haut-le-pied)\n");
+        for (int i = 0; i < sommets.size(); i++) {
+            sb.append(sommets.get(i).getId());
+            if (i < aretes.size()) sb.append(collecte[i] ? " → " : " ⇢ ");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,317 @@
+package algorithmes.tournees;
+
+import algorithmes.base.MatriceDistances;
+import java.util.*;
+
+
+/**
+ * Ordre de visite des habitations d'une journée (voyageur de commerce) à partir de la
+ * matrice des distances routières : départ d'un dépôt, chaque habitation une fois, retour.
+ *
+ * La matrice tient déjà compte de la position de chaque habitation dans sa rue
+ * (getDistanceDepuisSommet) et du sens des rues : elle n'est pas forcément symétrique.
+ *
+ * Construction par le plus proche voisin, puis amélioration locale :
+ *  - 2-opt (on retourne un morceau de la tournée) ;
+ *  - Or-opt (on déplace un morceau de 1 à 3 habitations, dans un sens ou l'autre).
+ * On ne regarde que les NB_CANDIDATS plus proches voisins de chaque habitation, et un
+ * bit "ne pas regarder" évite de revenir sur une habitation tant que rien n'a changé
+ * autour d'elle. Comme la matrice peut être asymétrique, le coût d'un morceau retourné
+ * se lit dans les sommes cumulées des distances à l'endroit et à l'envers.
+ */
+public final class TourneeHabitations {
+
+    public static final int NB_CANDIDATS = 8;
+    private static final int LONGUEUR_OR_OPT = 3;
+
+    private final MatriceDistances matrice;
+
+    // Tournée en cours : tournee[0] est le départ, pos[] la place de chaque point
+    private int n;
+    private int[] points;           // numéro local -> ligne de la matrice
+    private int[] tournee;
+    private int[] pos;
+    private double[] cumulEndroit;  // cumulEndroit[k] = distance de tournee[0] à tournee[k] en suivant la tournée
+    private double[] cumulEnvers;   // même chose en parcourant chaque arc à l'envers
+    private int[][] candidats;
+
+    private double longueur;
+    private int nbAmeliorations;
+
+    public TourneeHabitations(MatriceDistances matrice) {
+        this.matrice = matrice;
+    }
+
+    public double getLongueur() { return longueur; }
+    public int getNbAmeliorations() { return nbAmeliorations; }
+
+    // Renvoie les lignes de la matrice dans l'ordre de visite : le dépôt donné, puis toutes
+    // les habitations (le retour au dépôt est sous-entendu)
+    public int[] calculer(int depot) {
+        if (depot < 0 || depot >= matrice.getNbDepots()) {
+            throw new IllegalArgumentException("Dépôt inconnu : " + depot);
+        }
+        n = matrice.getNbHabitations() + 1;
+        points = new int[n];
+        points[0] = depot;
+        for (int k = 1; k < n; k++) {
+            points[k] = matrice.indiceHabitation(k - 1);
+            if (Double.isInfinite(d(0, k)) || Double.isInfinite(d(k, 0))) {
+                throw new IllegalArgumentException("Habitation inaccessible depuis le dépôt : " + (k - 1));
+            }
+        }
+
+        calculerCandidats();
+        construire();
+        ameliorer();
+
+        int[] ordre = new int[n];
+        for (int i = 0; i < n; i++) ordre[i] = points[tournee[i]];
+        return ordre;
+    }
+
+    private double d(int a, int b) {
+        return matrice.get(points[a], points[b]);
+    }
+
+    // Les plus proches voisins (dans un sens ou dans l'autre), triés. La matrice est lue
+    // ligne par ligne une seule fois : d(a, b) sert à la fois à la liste de a et à celle de b.
+    private void calculerCandidats() {
+        int k = Math.min(NB_CANDIDATS, n - 1);
+        candidats = new int[n][k];
+        double[][] proches = new double[n][k];
+        int[] tailles = new int[n];
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                if (b == a) continue;
+                double p = d(a, b);
+                proposer(a, b, p, proches, tailles, k);
+                proposer(b, a, p, proches, tailles, k);
+            }
+        }
+    }
+
+    private void proposer(int a, int b, double p, double[][] proches, int[] tailles, int k) {
+        int taille = tailles[a];
+        double[] cles = proches[a];
+        if (taille == k && p >= cles[k - 1]) return;
+        int[] liste = candidats[a];
+        for (int i = 0; i < taille; i++) {
+            if (liste[i] == b) {
+                if (p >= cles[i]) return;
+                // Déjà là avec une distance plus grande : on le retire avant de le remettre
+                System.arraycopy(liste, i + 1, liste, i, taille - i - 1);
+                System.arraycopy(cles, i + 1, cles, i, taille - i - 1);
+                taille--;
+                break;
+            }
+        }
+        int i = (taille < k) ? taille++ : k - 1;
+        while (i > 0 && cles[i - 1] > p) {
+            cles[i] = cles[i - 1];
+            liste[i] = liste[i - 1];
+            i--;
+        }
+        cles[i] = p;
+        liste[i] = b;
+        tailles[a] = taille;
+    }
+
+    // Plus proche voisin : d'abord parmi les candidats, sinon parcours complet
+    private void construire() {
+        tournee = new int[n];
+        pos = new int[n];
+        boolean[] visite = new boolean[n];
+        visite[0] = true;
+        int courant = 0;
+        int prochainNonVisite = 1;
+        for (int i = 1; i < n; i++) {
+            int choisi = -1;
+            double meilleure = Double.POSITIVE_INFINITY;
+            for (int c : candidats[courant]) {
+                if (!visite[c] && d(courant, c) < meilleure) {
+                    meilleure = d(courant, c);
+                    choisi = c;
+                }
+            }
+            if (choisi < 0) {
+                while (visite[prochainNonVisite]) prochainNonVisite++;
+                for (int c = prochainNonVisite; c < n; c++) {
+                    if (!visite[c] && d(courant, c) < meilleure) {
+                        meilleure = d(courant, c);
+                        choisi = c;
+                    }
+                }
+            }
+            visite[choisi] = true;
+            tournee[i] = choisi;
+            courant = choisi;
+        }
+        for (int i = 0; i < n; i++) pos[tournee[i]] = i;
+        cumulEndroit = new double[n + 1];
+        cumulEnvers = new double[n + 1];
+        mettreAJourCumuls(0);
+    }
+
+    // tournee[n] est de nouveau le départ
+    private int point(int i) {
+        return (i == n) ? tournee[0] : tournee[i];
+    }
+
+    private void mettreAJourCumuls(int depuis) {
+        for (int i = Math.max(depuis, 1); i <= n; i++) {
+            cumulEndroit[i] = cumulEndroit[i - 1] + d(tournee[i - 1], point(i));
+            cumulEnvers[i] = cumulEnvers[i - 1] + d(point(i), tournee[i - 1]);
+        }
+        longueur = cumulEndroit[n];
+    }
+
+    private void ameliorer() {
+        nbAmeliorations = 0;
+        if (n < 4) return;
+        // File des points à examiner (ceux dont le bit "ne pas regarder" est éteint)
+        boolean[] dansFile = new boolean[n];
+        ArrayDeque<Integer> file = new ArrayDeque<>(n);
+        for (int i = 1; i < n; i++) {
+            file.add(tournee[i]);
+            dansFile[tournee[i]] = true;
+        }
+        int[] touches = new int[8];
+        while (!file.isEmpty()) {
+            int a = file.poll();
+            dansFile[a] = false;
+            int nbTouches = essayerDeuxOpt(a, touches);
+            if (nbTouches == 0) nbTouches = essayerOrOpt(a, touches);
+            if (nbTouches > 0) {
+                nbAmeliorations++;
+                for (int i = 0; i < nbTouches; i++) {
+                    int p = touches[i];
+                    if (p != tournee[0] && !dansFile[p]) {
+                        dansFile[p] = true;
+                        file.add(p);
+                    }
+                }
+            }
+        }
+    }
+
+    // 2-opt : on retire les arcs (i, i+1) et (j, j+1), on ajoute (i, j) et (i+1, j+1) et le
+    // morceau i+1..j est parcouru à l'envers. Pour un candidat c de a, les deux 2-opt qui
+    // créent l'arc a-c sont (pos a, pos c) et (pos a - 1, pos c - 1), dans l'ordre des places.
+    private int essayerDeuxOpt(int a, int[] touches) {
+        for (int c : candidats[a]) {
+            if (c == tournee[0]) continue;
+            int p = Math.min(pos[a], pos[c]);
+            int q = Math.max(pos[a], pos[c]);
+            for (int decalage = 0; decalage <= 1; decalage++) {
+                int i = p - decalage;
+                int j = q - decalage;
+                if (i < 0 || j - i < 2) continue;
+                double gain = gainDeuxOpt(i, j);
+                if (gain > 1e-7) {
+                    touches[0] = tournee[i];
+                    touches[1] = tournee[i + 1];
+                    touches[2] = tournee[j];
+                    touches[3] = point(j + 1);
+                    retourner(i + 1, j);
+                    return 4;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private double gainDeuxOpt(int i, int j) {
+        int ti = tournee[i];
+        int ti1 = tournee[i + 1];
+        int tj = tournee[j];
+        int tj1 = point(j + 1);
+        double avant = d(ti, ti1) + d(tj, tj1) + (cumulEndroit[j] - cumulEndroit[i + 1]);
+        double apres = d(ti, tj) + d(ti1, tj1) + (cumulEnvers[j] - cumulEnvers[i + 1]);
+        return avant - apres;
+    }
+
+    private void retourner(int debut, int fin) {
+        for (int i = debut, j = fin; i < j; i++, j--) {
+            int t = tournee[i];
+            tournee[i] = tournee[j];
+            tournee[j] = t;
+        }
+        for (int i = debut; i <= fin; i++) pos[tournee[i]] = i;
+        mettreAJourCumuls(debut);
+    }
+
+    // Or-opt : le morceau de longueur 1 à 3 qui commence ou finit en a est inséré à côté
+    // d'un candidat de a (avant ou après), à l'endroit ou à l'envers
+    private int essayerOrOpt(int a, int[] touches) {
+        for (int longueurMorceau = 1; longueurMorceau <= LONGUEUR_OR_OPT; longueurMorceau++) {
+            for (int premier = pos[a] - longueurMorceau + 1; premier <= pos[a]; premier += Math.max(1, longueurMorceau - 1)) {
+                int dernier = premier + longueurMorceau - 1;
+                if (premier < 1 || dernier >= n) continue;
+                int avant = tournee[premier - 1];
+                int apres = point(dernier + 1);
+                double retrait = d(avant, tournee[premier]) + d(tournee[dernier], apres) - d(avant, apres)
+                        + (cumulEndroit[dernier] - cumulEndroit[premier]);
+                for (int c : candidats[a]) {
+                    int pc = pos[c];
+                    if (pc >= premier && pc <= dernier) continue;
+                    // Insertion entre (c, suivant de c) puis entre (précédent de c, c)
+                    for (int cote = 0; cote <= 1; cote++) {
+                        int x = (cote == 0) ? pc : pc - 1;
+                        if (x < 0 || (x >= premier - 1 && x <= dernier)) continue;
+                        int tx = tournee[x];
+                        int ty = point(x + 1);
+                        for (int envers = 0; envers <= 1; envers++) {
+                            int entree = (envers == 0) ? tournee[premier] : tournee[dernier];
+                            int sortie = (envers == 0) ? tournee[dernier] : tournee[premier];
+                            double interieur = (envers == 0) ? cumulEndroit[dernier] - cumulEndroit[premier]
+                                    : cumulEnvers[dernier] - cumulEnvers[premier];
+                            double ajout = d(tx, entree) + interieur + d(sortie, ty) - d(tx, ty);
+                            if (retrait - ajout > 1e-7) {
+                                touches[0] = avant;
+                                touches[1] = apres;
+                                touches[2] = tx;
+                                touches[3] = ty;
+                                touches[4] = tournee[premier];
+                                touches[5] = tournee[dernier];
+                                deplacer(premier, dernier, x, envers == 1);
+                                return 6;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Déplace tournee[premier..dernier] juste après la place x (x hors du morceau)
+    private void deplacer(int premier, int dernier, int x, boolean envers) {
+        int longueurMorceau = dernier - premier + 1;
+        int[] morceau = Arrays.copyOfRange(tournee, premier, dernier + 1);
+        int debutZone;
+        int finZone;
+        if (x > dernier) {
+            // Ce qui est entre le morceau et x recule
+            System.arraycopy(tournee, dernier + 1, tournee, premier, x - dernier);
+            int place = x - longueurMorceau + 1;
+            copierMorceau(morceau, place, envers);
+            debutZone = premier;
+            finZone = x;
+        } else {
+            // Ce qui est entre x et le morceau avance
+            System.arraycopy(tournee, x + 1, tournee, x + 1 + longueurMorceau, premier - x - 1);
+            copierMorceau(morceau, x + 1, envers);
+            debutZone = x + 1;
+            finZone = dernier;
+        }
+        for (int i = debutZone; i <= finZone; i++) pos[tournee[i]] = i;
+        mettreAJourCumuls(debutZone);
+    }
+
+    private void copierMorceau(int[] morceau, int place, boolean envers) {
+        for (int k = 0; k < morceau.length; k++) {
+            tournee[place + k] = envers ? morceau[morceau.length - 1 - k] : morceau[k];
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package algorithmes.tournees;
+
+import algorithmes.base.*;
+import modele.graphe.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+
+/**
+ * Tournées de plusieurs camions de capacité limitée (problème CARP) : chaque rue à
+ * collecter a une demande (par défaut poids * nbVoies, la longueur de trottoir à vider),
+ * et chaque camion part du dépôt, collecte des rues sans dépasser sa capacité, et revient.
+ * On minimise la distance totale.
+ *
+ * Les passages à faire sont ceux de PostierOriente (une rue à double sens d'une voie se
+ * collecte dans un sens au choix, les autres côté par côté). Les distances entre les bouts
+ * des rues sont calculées une fois pour toutes (MatriceDistances) : la recherche ne fait
+ * plus aucun Dijkstra.
+ *
+ * Recherche : ruine et reconstruction. On retire une rue et ses voisines les plus proches
+ * (ou une tournée entière), puis on les réinsère une à une au meilleur endroit. Une
+ * solution un peu moins bonne est acceptée (seuil), la meilleure est gardée. Plusieurs
+ * travailleurs cherchent en parallèle par tours de ITERATIONS_PAR_TOUR itérations ; à la
+ * fin de chaque tour tous repartent de la meilleure solution.
+ *
+ * Le résultat ne dépend que de la graine, du nombre de travailleurs et du nombre de tours
+ * faits : chaque travailleur a son propre générateur aléatoire, et on choisit la meilleure
+ * solution d'un tour à coût égal par numéro de travailleur. La durée maximale n'est
+ * vérifiée qu'entre deux tours ; pour un résultat reproductible d'une machine à l'autre,
+ * fixer aussi setNbToursMax.
+ */
+public class TourneesCapacitees {
+
+    private static final int ITERATIONS_PAR_TOUR = 200;
+    private static final int NB_VOISINS = 30;
+    private static final int NB_RETIRES_MAX = 20;
+    private static final double SEUIL_ACCEPTATION = 0.005;
+    private static final double PROBA_RUINE_TOURNEE = 0.05;
+
+    private final Graphe graphe;
+    private final double capacite;
+    private final ToDoubleFunction<Arete> demande;
+    private Predicate<Arete> aCollecter = arete -> true;
+
+    private long dureeMaxMillis = 10_000;
+    private int nbToursMax = Integer.MAX_VALUE;
+    private long graine = 0;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int nbTravailleurs = pool.getParallelism();
+
+    // Passages à collecter : la tâche k se fait par l'arc 2k (sommet1 -> sommet2) ou,
+    // si elle est réversible, par l'arc 2k + 1. Sommets numérotés comme dans la matrice.
+    private int nbTaches;
+    private Arete[] areteTache;
+    private int[] de;
+    private int[] vers;
+    private boolean[] reversible;
+    private double[] demandes;
+    private double[] coutService;
+    private int depot;
+    private Sommet[] points;            // sommet de chaque ligne de la matrice
+    private MatriceDistances distances;
+    private int[][] voisins;
+
+    private double coutTotal;
+    private int nbToursFaits;
+
+    public TourneesCapacitees(Graphe graphe, double capacite) {
+        this(graphe, capacite, arete -> arete.getPoids() * arete.getNbVoies());
+    }
+
+    public TourneesCapacitees(Graphe graphe, double capacite, ToDoubleFunction<Arete> demande) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité doit être > 0");
+        }
+        this.graphe = graphe;
+        this.capacite = capacite;
+        this.demande = demande;
+    }
+
+    // Paramètres de la recherche
+    public void setDureeMaxMillis(long dureeMaxMillis) { this.dureeMaxMillis = dureeMaxMillis; }
+    public void setNbToursMax(int nbToursMax) { this.nbToursMax = nbToursMax; }
+    public void setGraine(long graine) { this.graine = graine; }
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+
+    // Rues à collecter (par défaut toutes) ; les autres ne servent qu'à passer
+    public void setRuesACollecter(Predicate<Arete> aCollecter) { this.aCollecter = aCollecter; }
+
+    public void setNbTravailleurs(int nbTravailleurs) {
+        if (nbTravailleurs <= 0) {
+            throw new IllegalArgumentException("Il faut au moins un travailleur");
+        }
+        this.nbTravailleurs = nbTravailleurs;
+    }
+
+    // Résultats du dernier calcul
+    public double getCoutTotal() { return coutTotal; }
+    public int getNbToursFaits() { return nbToursFaits; }
+
+    public List<Tournee> calculer(Sommet depotSommet) {
+        GrapheFige fige = graphe.figer();
+        if (fige.getIndice(depotSommet) < 0) {
+            throw new IllegalArgumentException("Sommet inconnu : " + depotSommet);
+        }
+        preparer(fige, depotSommet);
+
+        long fin = System.currentTimeMillis() + dureeMaxMillis;
+        Solution meilleure = new Solution();
+        Random aleatoire = new Random(graine);
+        int[] toutes = new int[nbTaches];
+        for (int k = 0; k < nbTaches; k++) toutes[k] = k;
+        reconstruire(meilleure, toutes, nbTaches, aleatoire);
+
+        Travailleur[] travailleurs = new Travailleur[nbTravailleurs];
+        for (int i = 0; i < nbTravailleurs; i++) {
+            travailleurs[i] = new Travailleur(new Random(graine * 31 + i + 1));
+        }
+        nbToursFaits = 0;
+        while (nbToursFaits < nbToursMax && System.currentTimeMillis() < fin && nbTaches > 0) {
+            for (Travailleur travailleur : travailleurs) travailleur.depart = meilleure;
+            for (Future<Solution> resultat : pool.invokeAll(Arrays.asList(travailleurs))) {
+                Solution solution;
+                try {
+                    solution = resultat.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Calcul interrompu", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IllegalStateException(cause);
+                }
+                // Strictement meilleure : à égalité le plus petit numéro de travailleur gagne
+                if (solution.cout < meilleure.cout) meilleure = solution;
+            }
+            nbToursFaits++;
+        }
+
+        coutTotal = meilleure.cout;
+        return construireTournees(fige, meilleure);
+    }
+
+    private void preparer(GrapheFige fige, Sommet depotSommet) {
+        List<Arete> aretes = graphe.getAretes();
+        List<Arete> taches = new ArrayList<>();
+        List<Boolean> sensInverse = new ArrayList<>();
+        List<Double> demandesTaches = new ArrayList<>();
+        for (Arete arete : aretes) {
+            if (!aCollecter.test(arete)) continue;
+            double d = demande.applyAsDouble(arete);
+            int nbCotes = arete.ramassageCompletEnUnPassage() ? 1
+                    : (arete.isBidirectionnelle() || arete.getNbVoies() > 1) ? 2 : 1;
+            if (d / nbCotes > capacite) {
+                throw new IllegalArgumentException("Demande trop grande pour un camion : " + arete);
+            }
+            for (int c = 0; c < nbCotes; c++) {
+                taches.add(arete);
+                // Rue à double sens collectée côté par côté : le second côté se fait à l'envers
+                sensInverse.add(c == 1 && arete.isBidirectionnelle());
+                demandesTaches.add(d / nbCotes);
+            }
+        }
+
+        // Points utiles : le dépôt et les bouts des rues à collecter
+        Map<Sommet, Integer> numeros = new LinkedHashMap<>();
+        numeros.put(depotSommet, 0);
+        for (Arete arete : taches) {
+            numeros.putIfAbsent(arete.getSommet1(), numeros.size());
+            numeros.putIfAbsent(arete.getSommet2(), numeros.size());
+        }
+        points = numeros.keySet().toArray(new Sommet[0]);
+        distances = MatriceDistances.calculer(fige, Arrays.asList(points), Collections.emptyList(), pool);
+        depot = 0;
+
+        nbTaches = taches.size();
+        areteTache = new Arete[nbTaches];
+        de = new int[2 * nbTaches];
+        vers = new int[2 * nbTaches];
+        reversible = new boolean[nbTaches];
+        demandes = new double[nbTaches];
+        coutService = new double[nbTaches];
+        for (int k = 0; k < nbTaches; k++) {
+            Arete arete = taches.get(k);
+            int s1 = numeros.get(arete.getSommet1());
+            int s2 = numeros.get(arete.getSommet2());
+            boolean inverse = sensInverse.get(k);
+            areteTache[k] = arete;
+            de[2 * k] = inverse ? s2 : s1;
+            vers[2 * k] = inverse ? s1 : s2;
+            de[2 * k + 1] = vers[2 * k];
+            vers[2 * k + 1] = de[2 * k];
+            reversible[k] = arete.ramassageCompletEnUnPassage();
+            demandes[k] = demandesTaches.get(k);
+            coutService[k] = arete.getPoids();
+            if (Double.isInfinite(distance(depot, de[2 * k]) + distance(vers[2 * k], depot))
+                    && (!reversible[k] || Double.isInfinite(distance(depot, de[2 * k + 1]) + distance(vers[2 * k + 1], depot)))) {
+                throw new IllegalArgumentException("Rue inaccessible depuis le dépôt (ou sans retour possible) : " + arete);
+            }
+        }
+
+        // Voisines de chaque tâche : les NB_VOISINS plus proches d'un bout à l'autre,
+        // gardées triées par insertion
+        int nb = Math.max(0, Math.min(NB_VOISINS, nbTaches - 1));
+        voisins = new int[nbTaches][nb];
+        double[] proximites = new double[nb];
+        for (int k = 0; k < nbTaches; k++) {
+            int[] liste = voisins[k];
+            int taille = 0;
+            for (int j = 0; j < nbTaches; j++) {
+                if (j == k) continue;
+                double p = proximite(k, j);
+                if (taille == nb && p >= proximites[nb - 1]) continue;
+                int i = (taille < nb) ? taille++ : nb - 1;
+                while (i > 0 && proximites[i - 1] > p) {
+                    proximites[i] = proximites[i - 1];
+                    liste[i] = liste[i - 1];
+                    i--;
+                }
+                proximites[i] = p;
+                liste[i] = j;
+            }
+        }
+    }
+
+    private double distance(int i, int j) {
+        return distances.get(i, j);
+    }
+
+    private double proximite(int k, int j) {
+        double p = Double.POSITIVE_INFINITY;
+        for (int a = 2 * k; a <= 2 * k + (reversible[k] ? 1 : 0); a++) {
+            for (int b = 2 * j; b <= 2 * j + (reversible[j] ? 1 : 0); b++) {
+                p = Math.min(p, Math.min(distance(vers[a], de[b]), distance(vers[b], de[a])));
+            }
+        }
+        return p;
+    }
+
+
+    // Une solution : des tournées, chacune une suite d'arcs (2k ou 2k + 1)
+    private final class Solution {
+        int nbTournees;
+        int[][] arcs = new int[4][];
+        int[] tailles = new int[4];
+        double[] charges = new double[4];
+        int[] tourneeTache = new int[nbTaches];     // -1 si la tâche est retirée
+        double cout;
+
+        Solution() {
+            Arrays.fill(tourneeTache, -1);
+        }
+
+        Solution copie() {
+            Solution s = new Solution();
+            s.nbTournees = nbTournees;
+            s.arcs = new int[arcs.length][];
+            for (int r = 0; r < nbTournees; r++) s.arcs[r] = arcs[r].clone();
+            s.tailles = tailles.clone();
+            s.charges = charges.clone();
+            s.tourneeTache = tourneeTache.clone();
+            s.cout = cout;
+            return s;
+        }
+
+        int fin(int r, int position) {
+            return (position < 0) ? depot : vers[arcs[r][position]];
+        }
+
+        int debut(int r, int position) {
+            return (position >= tailles[r]) ? depot : de[arcs[r][position]];
+        }
+
+        void retirer(int k) {
+            int r = tourneeTache[k];
+            int p = 0;
+            while (arcs[r][p] >> 1 != k) p++;
+            int a = arcs[r][p];
+            int avant = fin(r, p - 1);
+            int apres = debut(r, p + 1);
+            cout += distance(avant, apres) - distance(avant, de[a]) - coutService[k] - distance(vers[a], apres);
+            System.arraycopy(arcs[r], p + 1, arcs[r], p, tailles[r] - p - 1);
+            tailles[r]--;
+            charges[r] -= demandes[k];
+            tourneeTache[k] = -1;
+            if (tailles[r] == 0) supprimerTournee(r);
+        }
+
+        void inserer(int a, int r, int p) {
+            int k = a >> 1;
+            if (r == nbTournees) {
+                if (nbTournees == arcs.length) {
+                    int t = nbTournees * 2;
+                    arcs = Arrays.copyOf(arcs, t);
+                    tailles = Arrays.copyOf(tailles, t);
+                    charges = Arrays.copyOf(charges, t);
+                }
+                arcs[r] = new int[8];
+                tailles[r] = 0;
+                charges[r] = 0;
+                nbTournees++;
+            }
+            int avant = fin(r, p - 1);
+            int apres = debut(r, p);
+            cout += distance(avant, de[a]) + coutService[k] + distance(vers[a], apres) - distance(avant, apres);
+            if (tailles[r] == arcs[r].length) arcs[r] = Arrays.copyOf(arcs[r], tailles[r] * 2);
+            System.arraycopy(arcs[r], p, arcs[r], p + 1, tailles[r] - p);
+            arcs[r][p] = a;
+            tailles[r]++;
+            charges[r] += demandes[k];
+            tourneeTache[k] = r;
+        }
+
+        // La dernière tournée prend la place de la tournée r
+        private void supprimerTournee(int r) {
+            int derniere = --nbTournees;
+            if (r != derniere) {
+                arcs[r] = arcs[derniere];
+                tailles[r] = tailles[derniere];
+                charges[r] = charges[derniere];
+                for (int i = 0; i < tailles[r]; i++) tourneeTache[arcs[r][i] >> 1] = r;
+            }
+            arcs[derniere] = null;
+        }
+    }
+
+    // Réinsère les tâches une à une au meilleur endroit (sens compris), dans un ordre
+    // au hasard ou par demande décroissante
+    private void reconstruire(Solution s, int[] taches, int nb, Random aleatoire) {
+        for (int i = nb - 1; i > 0; i--) {
+            int j = aleatoire.nextInt(i + 1);
+            int t = taches[i];
+            taches[i] = taches[j];
+            taches[j] = t;
+        }
+        if (aleatoire.nextBoolean()) {
+            // Tri par insertion : peu de tâches retirées à la fois
+            for (int i = 1; i < nb; i++) {
+                int t = taches[i];
+                int j = i - 1;
+                while (j >= 0 && demandes[taches[j]] < demandes[t]) {
+                    taches[j + 1] = taches[j];
+                    j--;
+                }
+                taches[j + 1] = t;
+            }
+        }
+        for (int i = 0; i < nb; i++) {
+            int k = taches[i];
+            int meilleurArc = 2 * k;
+            int meilleureTournee = s.nbTournees;
+            int meilleurePosition = 0;
+            double meilleurCout = Double.POSITIVE_INFINITY;
+            for (int a = 2 * k; a <= 2 * k + (reversible[k] ? 1 : 0); a++) {
+                double nouvelle = distance(depot, de[a]) + distance(vers[a], depot);
+                if (nouvelle < meilleurCout) {
+                    meilleurCout = nouvelle;
+                    meilleurArc = a;
+                }
+                for (int r = 0; r < s.nbTournees; r++) {
+                    if (s.charges[r] + demandes[k] > capacite) continue;
+                    int[] arcs = s.arcs[r];
+                    int avant = depot;
+                    for (int p = 0; p <= s.tailles[r]; p++) {
+                        int apres = (p == s.tailles[r]) ? depot : de[arcs[p]];
+                        double delta = distance(avant, de[a]) + distance(vers[a], apres) - distance(avant, apres);
+                        if (delta < meilleurCout) {
+                            meilleurCout = delta;
+                            meilleurArc = a;
+                            meilleureTournee = r;
+                            meilleurePosition = p;
+                        }
+                        if (p < s.tailles[r]) avant = vers[arcs[p]];
+                    }
+                }
+            }
+            if (meilleureTournee == s.nbTournees) meilleurePosition = 0;
+            s.inserer(meilleurArc, meilleureTournee, meilleurePosition);
+        }
+    }
+
+    private final class Travailleur implements Callable<Solution> {
+        private final Random aleatoire;
+        private final int[] retires = new int[nbTaches];
+        private Solution depart;
+
+        Travailleur(Random aleatoire) {
+            this.aleatoire = aleatoire;
+        }
+
+        @Override
+        public Solution call() {
+            Solution meilleure = depart;
+            Solution courante = depart.copie();
+            for (int iteration = 0; iteration < ITERATIONS_PAR_TOUR; iteration++) {
+                Solution essai = courante.copie();
+                int nb = ruiner(essai);
+                reconstruire(essai, retires, nb, aleatoire);
+                if (essai.cout < courante.cout * (1 + SEUIL_ACCEPTATION)) {
+                    courante = essai;
+                    if (courante.cout < meilleure.cout) meilleure = courante.copie();
+                }
+            }
+            return meilleure;
+        }
+
+        // Retire une tâche au hasard et ses voisines, ou parfois une tournée entière
+        private int ruiner(Solution s) {
+            int nb = 0;
+            if (s.nbTournees > 1 && aleatoire.nextDouble() < PROBA_RUINE_TOURNEE) {
+                int r = aleatoire.nextInt(s.nbTournees);
+                for (int i = 0; i < s.tailles[r]; i++) retires[nb++] = s.arcs[r][i] >> 1;
+                for (int i = 0; i < nb; i++) s.retirer(retires[i]);
+                return nb;
+            }
+            int k = aleatoire.nextInt(nbTaches);
+            int nbVoulues = 1 + aleatoire.nextInt(Math.min(NB_RETIRES_MAX, voisins[k].length + 1));
+            retires[nb++] = k;
+            s.retirer(k);
+            for (int i = 0; i < voisins[k].length && nb < nbVoulues; i++) {
+                int j = voisins[k][i];
+                retires[nb++] = j;
+                s.retirer(j);
+            }
+            return nb;
+        }
+    }
+
+
+    // Chemins réels : haut-le-pied par le plus court chemin, puis la rue collectée
+    private List<Tournee> construireTournees(GrapheFige fige, Solution s) {
+        DijkstraFige dijkstra = new DijkstraFige(fige);
+        List<Tournee> tournees = new ArrayList<>();
+        for (int r = 0; r < s.nbTournees; r++) {
+            List<Sommet> sommets = new ArrayList<>();
+            List<Arete> aretes = new ArrayList<>();
+            List<Boolean> collectes = new ArrayList<>();
+            Sommet courant = points[depot];
+            sommets.add(courant);
+            for (int i = 0; i <= s.tailles[r]; i++) {
+                int a = (i < s.tailles[r]) ? s.arcs[r][i] : -1;
+                Sommet suivant = points[(a < 0) ? depot : de[a]];
+                if (!suivant.equals(courant)) {
+                    dijkstra.executer(new int[] { fige.getIndice(courant) }, new double[] { 0.0 },
+                            new int[] { fige.getIndice(suivant) });
+                    List<Sommet> chemin = dijkstra.getChemin(suivant);
+                    sommets.addAll(chemin.subList(1, chemin.size()));
+                    for (Arete arete : dijkstra.getAretesChemins(suivant)) {
+                        aretes.add(arete);
+                        collectes.add(false);
+                    }
+                }
+                if (a >= 0) {
+                    aretes.add(areteTache[a >> 1]);
+                    collectes.add(true);
+                    courant = points[vers[a]];
+                    sommets.add(courant);
+                }
+            }
+            boolean[] collecte = new boolean[collectes.size()];
+            for (int i = 0; i < collecte.length; i++) collecte[i] = collectes.get(i);
+            tournees.add(new Tournee(sommets, aretes, collecte));
+        }
+        return tournees;
+    }
+}